@@ -8,7 +8,9 @@ import org.springframework.context.annotation.Configuration;
 import org.springframework.http.client.reactive.ReactorClientHttpConnector;
 import org.springframework.web.reactive.function.client.ExchangeStrategies;
 import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.HttpProtocol;
 import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
 
 import java.time.Duration;
 import java.util.concurrent.TimeUnit;
@@ -16,16 +18,40 @@ import java.util.concurrent.TimeUnit;
 @Configuration
 public class AgentClientConfig {
 
+    private static final String TRACES_PATH = "/api/agent/traces/";
+
     private final CodingAgentWebProperties properties;
 
     public AgentClientConfig(CodingAgentWebProperties properties) {
         this.properties = properties;
     }
 
+    /**
+     * The one pool behind every backend call. Pool gauges are published as
+     * {@code reactor.netty.connection.provider.*} with the name {@code agent-backend}.
+     */
+    @Bean(destroyMethod = "dispose")
+    public ConnectionProvider agentConnectionProvider() {
+        CodingAgentWebProperties.Pool pool = properties.pool();
+        return ConnectionProvider.builder("agent-backend")
+                .maxConnections(pool.maxConnections())
+                .pendingAcquireMaxCount(pool.pendingAcquireMaxCount())
+                .pendingAcquireTimeout(Duration.ofSeconds(pool.pendingAcquireTimeoutSeconds()))
+                .maxIdleTime(Duration.ofSeconds(pool.maxIdleTimeSeconds()))
+                .evictInBackground(Duration.ofSeconds(pool.evictionIntervalSeconds()))
+                .metrics(true)
+                .build();
+    }
+
     @Bean
-    public WebClient agentWebClient() {
+    public WebClient agentWebClient(ConnectionProvider agentConnectionProvider) {
         int timeoutMinutes = properties.timeoutMinutes();
-        HttpClient httpClient = HttpClient.create()
+        HttpClient httpClient = HttpClient.create(agentConnectionProvider)
+                .protocol(properties.pool().http2()
+                        ? new HttpProtocol[]{HttpProtocol.H2C, HttpProtocol.HTTP11}
+                        : new HttpProtocol[]{HttpProtocol.HTTP11})
+                .keepAlive(true)
+                .metrics(true, AgentClientConfig::metricUri)
                 .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, 10000)
                 .responseTimeout(Duration.ofMinutes(timeoutMinutes))
                 .doOnConnected(conn ->
@@ -42,4 +68,13 @@ public class AgentClientConfig {
                 .exchangeStrategies(strategies)
                 .build();
     }
+
+    /**
+     * The URI tag of client meters. Backend paths are a fixed set except trace lookups, which carry
+     * a session id and would register new meters for every session; they are tagged by template.
+     */
+    static String metricUri(String uri) {
+        int traces = uri.indexOf(TRACES_PATH);
+        return traces >= 0 ? uri.substring(0, traces + TRACES_PATH.length()) + "{sessionId}" : uri;
+    }
 }
@@ -1,15 +1,69 @@
 package com.codingagent.web.config;
 
 import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
 import org.springframework.util.StringUtils;
 
+import java.util.List;
+
 @ConfigurationProperties(prefix = "coding-agent")
 public record CodingAgentWebProperties(
         String backendUrl,
         int timeoutMinutes,
-        String defaultDirectory
+        String defaultDirectory,
+        @DefaultValue("15") int heartbeatIntervalSeconds,
+        @DefaultValue("smile") StreamFormat streamFormat,
+        @DefaultValue Pool pool,
+        @DefaultValue Backends backends
 ) {
 
+    /**
+     * Connection pool shared by all backend calls. Every open event stream holds one connection
+     * (or one HTTP/2 stream), so {@code maxConnections} bounds the number of concurrent sessions.
+     */
+    public record Pool(
+            @DefaultValue("1000") int maxConnections,
+            @DefaultValue("2000") int pendingAcquireMaxCount,
+            @DefaultValue("45") int pendingAcquireTimeoutSeconds,
+            @DefaultValue("60") int maxIdleTimeSeconds,
+            @DefaultValue("30") int evictionIntervalSeconds,
+            @DefaultValue("false") boolean http2
+    ) {
+    }
+
+    /**
+     * Wire format of the event stream between the backend and this application.
+     */
+    public enum StreamFormat {
+        /** Server-Sent Events with a JSON payload per event. */
+        SSE,
+        /** Binary Smile frames, smaller to send and cheaper to decode than JSON text. */
+        SMILE
+    }
+
+    /**
+     * Backend nodes that agent sessions are spread across. Each one is polled at
+     * {@code healthPath}; a session stays on the node that started it.
+     */
+    public record Backends(
+            List<String> urls,
+            @DefaultValue("/actuator/health") String healthPath,
+            @DefaultValue("10") int healthIntervalSeconds,
+            @DefaultValue("2") int healthTimeoutSeconds,
+            @DefaultValue("10000") int maxStickySessions
+    ) {
+    }
+
+    /**
+     * The configured backend nodes, or just {@code backendUrl} when none are listed.
+     */
+    public List<String> resolvedBackendUrls() {
+        if (backends.urls() != null && !backends.urls().isEmpty()) {
+            return backends.urls();
+        }
+        return List.of(backendUrl);
+    }
+
     public String resolvedDefaultDirectory() {
         if (StringUtils.hasText(defaultDirectory)) {
             return defaultDirectory;
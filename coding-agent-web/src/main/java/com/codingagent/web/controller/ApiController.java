@@ -1,5 +1,6 @@
 package com.codingagent.web.controller;
 
+import com.codingagent.web.config.CodingAgentWebProperties;
 import com.codingagent.web.model.AgentRequest;
 import com.codingagent.web.model.AgentResponse;
 import com.codingagent.web.model.StreamEvent;
@@ -8,12 +9,18 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
 
 @RestController
 @RequestMapping("/api")
@@ -22,9 +29,11 @@ public class ApiController {
     private static final Logger logger = LoggerFactory.getLogger(ApiController.class);
 
     private final AgentClientService agentClientService;
+    private final CodingAgentWebProperties properties;
 
-    public ApiController(AgentClientService agentClientService) {
+    public ApiController(AgentClientService agentClientService, CodingAgentWebProperties properties) {
         this.agentClientService = agentClientService;
+        this.properties = properties;
     }
 
     @PostMapping("/submit")
@@ -40,9 +49,32 @@ public class ApiController {
     }
 
     @PostMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
-    public Flux<StreamEvent> streamRequest(@RequestBody AgentRequest request) {
+    public Flux<ServerSentEvent<StreamEvent>> streamRequest(@RequestBody AgentRequest request) {
         logger.info("Received streaming request: {}", request.getPrompt());
         
-        return agentClientService.processRequestStream(request);
+        return withHeartbeat(agentClientService.processRequestStream(request));
+    }
+
+    @GetMapping(value = "/traces/{sessionId}", produces = MediaType.APPLICATION_JSON_VALUE)
+    public Mono<ResponseEntity<String>> getTrace(@PathVariable String sessionId) {
+        return agentClientService.fetchTrace(sessionId)
+                .map(ResponseEntity::ok)
+                .defaultIfEmpty(ResponseEntity.notFound().build());
+    }
+
+    /**
+     * Interleaves SSE comment frames with the events so that a closed browser tab is detected
+     * on the next write and the backend stream is cancelled.
+     */
+    private Flux<ServerSentEvent<StreamEvent>> withHeartbeat(Flux<StreamEvent> events) {
+        Sinks.Empty<Void> eventsDone = Sinks.empty();
+        Flux<ServerSentEvent<StreamEvent>> data = events
+                .map(event -> ServerSentEvent.builder(event).build())
+                .doFinally(signal -> eventsDone.tryEmitEmpty());
+        Flux<ServerSentEvent<StreamEvent>> heartbeats = Flux
+                .interval(Duration.ofSeconds(properties.heartbeatIntervalSeconds()))
+                .map(tick -> ServerSentEvent.<StreamEvent>builder().comment("heartbeat").build())
+                .takeUntilOther(eventsDone.asMono());
+        return data.mergeWith(heartbeats);
     }
 }
@@ -5,6 +5,8 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.util.List;
+
 @Data
 @Builder
 @NoArgsConstructor
@@ -18,8 +20,13 @@ public class StreamEvent {
     private Integer iteration;
     private Boolean complete;
     private String error;
+    private String sessionId;
+    private String taskId;
+    private String agentType;
+    private List<String> filesWritten;
 
     public enum EventType {
+        SESSION_START,
         ITERATION_START,
         AI_THINKING,
         AI_RESPONSE,
@@ -1,16 +1,17 @@
 package com.codingagent.web.service;
 
+import com.codingagent.web.config.CodingAgentWebProperties;
 import com.codingagent.web.model.AgentRequest;
 import com.codingagent.web.model.AgentResponse;
 import com.codingagent.web.model.StreamEvent;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.http.MediaType;
 import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.stereotype.Service;
 import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
@@ -19,40 +20,87 @@ public class AgentClientService {
 
     private static final Logger logger = LoggerFactory.getLogger(AgentClientService.class);
 
-    private final WebClient webClient;
+    private static final MediaType SMILE_STREAM = MediaType.parseMediaType("application/stream+x-jackson-smile");
 
-    public AgentClientService(@Value("${agent.backend.url:http://localhost:8080}") String backendUrl) {
-        this.webClient = WebClient.builder()
-                .baseUrl(backendUrl)
-                .build();
-        logger.info("AgentClientService initialized with backend URL: {}", backendUrl);
+    private final BackendPool backendPool;
+    private final CodingAgentWebProperties.StreamFormat streamFormat;
+
+    public AgentClientService(BackendPool backendPool, CodingAgentWebProperties properties) {
+        this.backendPool = backendPool;
+        this.streamFormat = properties.streamFormat();
+        logger.info("AgentClientService initialized with {} backend nodes, stream format: {}",
+                backendPool.getNodes().size(), streamFormat);
     }
 
     public Mono<AgentResponse> processRequest(AgentRequest request) {
-        logger.info("Sending request to backend: {}", request.getPrompt());
-        
-        return webClient.post()
-                .uri("/api/agent/process")
-                .contentType(MediaType.APPLICATION_JSON)
-                .bodyValue(request)
-                .retrieve()
-                .bodyToMono(AgentResponse.class)
+        return Mono.defer(() -> {
+                    BackendPool.Node node = backendPool.leastActive();
+                    logger.info("Sending request to backend {}: {}", node, request.getPrompt());
+                    node.sessionStarted();
+                    return node.getWebClient().post()
+                            .uri("/api/agent/process")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .bodyValue(request)
+                            .retrieve()
+                            .bodyToMono(AgentResponse.class)
+                            .doFinally(signal -> node.sessionEnded());
+                })
                 .doOnSuccess(response -> logger.info("Received response from backend"))
                 .doOnError(error -> logger.error("Error calling backend", error));
     }
 
     public Flux<StreamEvent> processRequestStream(AgentRequest request) {
-        logger.info("Sending streaming request to backend: {}", request.getPrompt());
-        
-        return webClient.post()
-                .uri("/api/agent/stream")
-                .contentType(MediaType.APPLICATION_JSON)
-                .bodyValue(request)
-                .accept(MediaType.TEXT_EVENT_STREAM)
-                .retrieve()
-                .bodyToFlux(StreamEvent.class)
+        return Flux.defer(() -> {
+                    BackendPool.Node node = backendPool.leastActive();
+                    logger.info("Sending streaming request to backend {}: {}", node, request.getPrompt());
+                    node.sessionStarted();
+                    return receiveEvents(node.getWebClient().post()
+                            .uri("/api/agent/stream")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .bodyValue(request))
+                            // Later requests for this session have to reach the same node
+                            .doOnNext(event -> {
+                                if (event.getType() == StreamEvent.EventType.SESSION_START
+                                        && event.getSessionId() != null) {
+                                    backendPool.bind(event.getSessionId(), node);
+                                }
+                            })
+                            .doFinally(signal -> node.sessionEnded());
+                })
                 .doOnNext(event -> logger.debug("Received event: {}", event.getType()))
                 .doOnComplete(() -> logger.info("Stream completed"))
+                // Cancelling the WebClient subscription closes the backend connection,
+                // which in turn cancels the agent run there
+                .doOnCancel(() -> logger.info("Client disconnected, cancelling backend stream"))
                 .doOnError(error -> logger.error("Error in stream", error));
     }
+
+    /**
+     * Fetches the execution trace of a session from the node that ran it. Empty when the session
+     * is unknown to this proxy or to the backend.
+     */
+    public Mono<String> fetchTrace(String sessionId) {
+        return Mono.justOrEmpty(backendPool.forSession(sessionId))
+                .flatMap(node -> node.getWebClient().get()
+                        .uri("/api/agent/traces/{sessionId}", sessionId)
+                        .retrieve()
+                        .bodyToMono(String.class)
+                        .onErrorResume(WebClientResponseException.NotFound.class, error -> Mono.empty()));
+    }
+
+    /**
+     * Heartbeats carry no data: SSE heartbeats are comments, Smile heartbeats are empty events.
+     */
+    private Flux<StreamEvent> receiveEvents(WebClient.RequestHeadersSpec<?> request) {
+        if (streamFormat == CodingAgentWebProperties.StreamFormat.SMILE) {
+            return request.accept(SMILE_STREAM)
+                    .retrieve()
+                    .bodyToFlux(StreamEvent.class)
+                    .filter(event -> event.getType() != null);
+        }
+        return request.accept(MediaType.TEXT_EVENT_STREAM)
+                .retrieve()
+                .bodyToFlux(new ParameterizedTypeReference<ServerSentEvent<StreamEvent>>() {})
+                .mapNotNull(ServerSentEvent::data);
+    }
 }
@@ -0,0 +1,198 @@
+package com.codingagent.web.service;
+
+import com.codingagent.web.config.CodingAgentWebProperties;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The backend nodes agent sessions are spread across. New sessions go to the healthy node with
+ * the fewest active sessions; once a backend has announced a session ID, requests for that
+ * session are routed back to the same node.
+ */
+@Service
+public class BackendPool {
+
+    private static final Logger logger = LoggerFactory.getLogger(BackendPool.class);
+
+    private final List<Node> nodes;
+    private final CodingAgentWebProperties.Backends settings;
+    private final Map<String, Node> sessions;
+    // Rotates the starting point of the search, so that equally loaded nodes take turns
+    private final AtomicInteger nextNode = new AtomicInteger();
+    private Disposable healthChecks;
+
+    public BackendPool(WebClient agentWebClient, CodingAgentWebProperties properties, MeterRegistry meterRegistry) {
+        this.settings = properties.backends();
+        this.nodes = properties.resolvedBackendUrls().stream()
+                .map(url -> new Node(url, agentWebClient.mutate().baseUrl(url).build()))
+                .toList();
+        int maxStickySessions = settings.maxStickySessions();
+        this.sessions = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Node> eldest) {
+                return size() > maxStickySessions;
+            }
+        };
+
+        for (Node node : nodes) {
+            Gauge.builder("agent.backend.sessions", node, Node::getActiveSessions)
+                    .description("Agent sessions currently streaming from a backend node")
+                    .tag("node", node.getUrl())
+                    .register(meterRegistry);
+            Gauge.builder("agent.backend.healthy", node, n -> n.isHealthy() ? 1 : 0)
+                    .description("Whether the last health check of a backend node succeeded")
+                    .tag("node", node.getUrl())
+                    .register(meterRegistry);
+        }
+        logger.info("Backend pool initialized with nodes: {}", properties.resolvedBackendUrls());
+    }
+
+    @PostConstruct
+    public void startHealthChecks() {
+        healthChecks = Flux.interval(Duration.ZERO, Duration.ofSeconds(settings.healthIntervalSeconds()))
+                .onBackpressureDrop()
+                .concatMap(tick -> Flux.fromIterable(nodes).flatMap(this::checkHealth))
+                .subscribe();
+    }
+
+    @PreDestroy
+    public void stopHealthChecks() {
+        if (healthChecks != null) {
+            healthChecks.dispose();
+        }
+    }
+
+    /**
+     * The healthy node with the fewest active sessions. When no node passed its last health
+     * check, all nodes are considered, so that a backend without a health endpoint still works.
+     */
+    public Node leastActive() {
+        Node selected = leastActive(true);
+        if (selected == null) {
+            logger.warn("No backend node is healthy, choosing among all nodes");
+            selected = leastActive(false);
+        }
+        return selected;
+    }
+
+    /**
+     * The node a session was started on, if it is still known.
+     */
+    public Optional<Node> forSession(String sessionId) {
+        synchronized (sessions) {
+            return Optional.ofNullable(sessions.get(sessionId));
+        }
+    }
+
+    public void bind(String sessionId, Node node) {
+        synchronized (sessions) {
+            sessions.put(sessionId, node);
+        }
+    }
+
+    public List<Node> getNodes() {
+        return nodes;
+    }
+
+    private Node leastActive(boolean healthyOnly) {
+        int offset = nextNode.getAndIncrement();
+        Node selected = null;
+        for (int i = 0; i < nodes.size(); i++) {
+            Node node = nodes.get(Math.floorMod(offset + i, nodes.size()));
+            if (healthyOnly && !node.isHealthy()) {
+                continue;
+            }
+            if (selected == null || node.getActiveSessions() < selected.getActiveSessions()) {
+                selected = node;
+            }
+        }
+        return selected;
+    }
+
+    private Mono<Void> checkHealth(Node node) {
+        return node.getWebClient().get()
+                .uri(settings.healthPath())
+                .retrieve()
+                .toBodilessEntity()
+                .timeout(Duration.ofSeconds(settings.healthTimeoutSeconds()))
+                .map(response -> true)
+                .onErrorResume(error -> {
+                    logger.debug("Health check of {} failed", node.getUrl(), error);
+                    return Mono.just(false);
+                })
+                .doOnNext(node::setHealthy)
+                .then();
+    }
+
+    /**
+     * One backend JVM. Nodes start out healthy so that requests are accepted before the first
+     * health check has completed.
+     */
+    public static final class Node {
+        private final String url;
+        private final WebClient webClient;
+        private final AtomicInteger activeSessions = new AtomicInteger();
+        private volatile boolean healthy = true;
+
+        Node(String url, WebClient webClient) {
+            this.url = url;
+            this.webClient = webClient;
+        }
+
+        public String getUrl() {
+            return url;
+        }
+
+        public WebClient getWebClient() {
+            return webClient;
+        }
+
+        public int getActiveSessions() {
+            return activeSessions.get();
+        }
+
+        public boolean isHealthy() {
+            return healthy;
+        }
+
+        void sessionStarted() {
+            activeSessions.incrementAndGet();
+        }
+
+        void sessionEnded() {
+            activeSessions.decrementAndGet();
+        }
+
+        void setHealthy(boolean healthy) {
+            if (this.healthy != healthy) {
+                if (healthy) {
+                    logger.info("Backend node {} is healthy again", url);
+                } else {
+                    logger.warn("Backend node {} failed its health check", url);
+                }
+            }
+            this.healthy = healthy;
+        }
+
+        @Override
+        public String toString() {
+            return url;
+        }
+    }
+}
@@ -3,16 +3,33 @@ document.addEventListener('DOMContentLoaded', function() {
     const resultSection = document.getElementById('resultSection');
     const resultContent = document.getElementById('resultContent');
     const loadingSpinner = document.getElementById('loadingSpinner');
+    let activeStream = null;
+    // Card that receives the model output of the current model call as it streams in
+    let responseCard = null;
+
+    // Closing or leaving the page aborts the stream, which cancels the agent run on the backend
+    window.addEventListener('pagehide', function() {
+        if (activeStream) {
+            activeStream.abort();
+        }
+    });
 
     form.addEventListener('submit', async function(e) {
         e.preventDefault();
         
+        if (activeStream) {
+            activeStream.abort();
+        }
+        const controller = new AbortController();
+        activeStream = controller;
+
         const prompt = document.getElementById('prompt').value;
         const directoryPath = document.getElementById('directoryPath').value;
         const useCollaboration = document.getElementById('useCollaboration').checked;
 
         resultSection.style.display = 'block';
         resultContent.innerHTML = '<div class="stream-header">🔴 Live Response Stream</div>';
+        responseCard = null;
         loadingSpinner.style.display = 'block';
 
         try {
@@ -25,7 +42,8 @@ document.addEventListener('DOMContentLoaded', function() {
                     prompt: prompt,
                     directoryPath: directoryPath,
                     useCollaboration: useCollaboration
-                })
+                }),
+                signal: controller.signal
             });
 
             if (!response.ok) {
@@ -64,6 +82,9 @@ document.addEventListener('DOMContentLoaded', function() {
             }
 
         } catch (error) {
+            if (error.name === 'AbortError') {
+                return;
+            }
             console.error('Error:', error);
             loadingSpinner.style.display = 'none';
             resultContent.innerHTML += `
@@ -72,6 +93,10 @@ document.addEventListener('DOMContentLoaded', function() {
                     <div class="event-content">${escapeHtml(error.message)}</div>
                 </div>
             `;
+        } finally {
+            if (activeStream === controller) {
+                activeStream = null;
+            }
         }
     });
 
@@ -79,6 +104,35 @@ document.addEventListener('DOMContentLoaded', function() {
         let eventHtml = '';
         
         switch(event.type) {
+            case 'AI_THINKING':
+                responseCard = appendResponseCard('Thinking…');
+                return;
+
+            case 'AI_RESPONSE':
+                if (!responseCard) {
+                    responseCard = appendResponseCard('Model output');
+                }
+                responseCard.querySelector('.response-label').textContent = 'Model output';
+                responseCard.querySelector('pre').textContent += event.message || '';
+                resultContent.scrollTop = resultContent.scrollHeight;
+                return;
+
+            case 'TOOL_CALL':
+                // Output that follows the call goes into a new card below it
+                responseCard = null;
+                eventHtml = `
+                    <div class="event-card tool-call-event">
+                        <div class="event-header">
+                            <span>${getToolIcon(event.toolName)}</span>
+                            <span>Calling ${escapeHtml(event.toolName)}</span>
+                        </div>
+                        <div class="event-content tool-params">
+                            <pre>${escapeHtml(event.toolParameters)}</pre>
+                        </div>
+                    </div>
+                `;
+                break;
+
             case 'ITERATION_START':
                 eventHtml = `
                     <div class="event-card iteration-event">
@@ -138,6 +192,20 @@ document.addEventListener('DOMContentLoaded', function() {
         }
     }
 
+    function appendResponseCard(label) {
+        resultContent.insertAdjacentHTML('beforeend', `
+            <div class="event-card response-event">
+                <div class="event-header">
+                    <span>🤖</span>
+                    <span class="response-label">${escapeHtml(label)}</span>
+                </div>
+                <div class="event-content"><pre></pre></div>
+            </div>
+        `);
+        resultContent.scrollTop = resultContent.scrollHeight;
+        return resultContent.lastElementChild;
+    }
+
     function getToolIcon(toolName) {
         const icons = {
             'write_file': '📝',
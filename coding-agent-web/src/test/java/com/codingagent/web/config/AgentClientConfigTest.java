@@ -0,0 +1,17 @@
+package com.codingagent.web.config;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AgentClientConfigTest {
+
+    @Test
+    void tagsTraceLookupsByTemplateSoMetersDoNotGrowPerSession() {
+        assertThat(AgentClientConfig.metricUri("/api/agent/traces/4f1c2a7e-0b6d-4c55-9d0e-2f0f1b7c9a10"))
+                .isEqualTo("/api/agent/traces/{sessionId}");
+        assertThat(AgentClientConfig.metricUri("http://backend:8080/api/agent/traces/abc"))
+                .isEqualTo("http://backend:8080/api/agent/traces/{sessionId}");
+        assertThat(AgentClientConfig.metricUri("/api/agent/stream")).isEqualTo("/api/agent/stream");
+    }
+}
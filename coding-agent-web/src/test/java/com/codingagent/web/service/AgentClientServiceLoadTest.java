@@ -0,0 +1,98 @@
+package com.codingagent.web.service;
+
+import com.codingagent.web.config.AgentClientConfig;
+import com.codingagent.web.config.CodingAgentWebProperties;
+import com.codingagent.web.model.AgentRequest;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.publisher.Flux;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Opens 500 concurrent event streams through {@link AgentClientService} against a stub backend
+ * that sends one event every 20ms, and reports the proxy throughput. With Reactor Netty's default
+ * pool most of these streams would be rejected for exceeding the pending-acquire limit. Run with
+ * {@code mvn test -Dtest=AgentClientServiceLoadTest -Dbenchmark=true}.
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class AgentClientServiceLoadTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(AgentClientServiceLoadTest.class);
+
+    private static final int STREAMS = 500;
+    private static final int EVENTS_PER_STREAM = 100;
+
+    private final AtomicInteger activeStreams = new AtomicInteger();
+    private final AtomicInteger peakStreams = new AtomicInteger();
+    private DisposableServer backend;
+    private ConnectionProvider connectionProvider;
+    private AgentClientService client;
+
+    @BeforeEach
+    void setUp() {
+        backend = HttpServer.create()
+                .port(0)
+                .route(routes -> routes.post("/api/agent/stream", (request, response) -> response
+                        .header("Content-Type", "text/event-stream")
+                        .sendString(request.receive().then().thenMany(events()))))
+                .bindNow();
+
+        CodingAgentWebProperties properties = new CodingAgentWebProperties(
+                "http://localhost:" + backend.port(), 5, null, 15,
+                CodingAgentWebProperties.StreamFormat.SSE,
+                new CodingAgentWebProperties.Pool(1000, 2000, 45, 60, 30, false),
+                new CodingAgentWebProperties.Backends(null, "/actuator/health", 10, 2, 10000));
+        AgentClientConfig config = new AgentClientConfig(properties);
+        connectionProvider = config.agentConnectionProvider();
+        BackendPool backendPool = new BackendPool(config.agentWebClient(connectionProvider), properties,
+                new SimpleMeterRegistry());
+        client = new AgentClientService(backendPool, properties);
+    }
+
+    @AfterEach
+    void tearDown() {
+        connectionProvider.dispose();
+        backend.disposeNow();
+    }
+
+    @Test
+    void proxiesFiveHundredConcurrentStreams() {
+        AgentRequest request = new AgentRequest("Explain the project", null, false);
+
+        long start = System.nanoTime();
+        List<Long> counts = Flux.range(0, STREAMS)
+                .flatMap(stream -> client.processRequestStream(request).count(), STREAMS)
+                .collectList()
+                .block(Duration.ofMinutes(2));
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+        assertThat(counts).hasSize(STREAMS).allMatch(count -> count == EVENTS_PER_STREAM);
+        assertThat(peakStreams.get()).isEqualTo(STREAMS);
+        // One stream takes about two seconds, so all of them together should not take much longer
+        assertThat(elapsedMillis).isLessThan(EVENTS_PER_STREAM * 20L * 10);
+        long events = (long) STREAMS * EVENTS_PER_STREAM;
+        logger.info("{} streams, {} events in {} ms: {} events/s, peak {} concurrent streams",
+                STREAMS, events, elapsedMillis, events * 1000 / Math.max(1, elapsedMillis), peakStreams.get());
+    }
+
+    private Flux<String> events() {
+        return Flux.interval(Duration.ofMillis(20))
+                .take(EVENTS_PER_STREAM)
+                .map(i -> "data:{\"type\":\"AI_RESPONSE\",\"message\":\"chunk " + i + "\"}\n\n")
+                .doOnSubscribe(subscription -> peakStreams.accumulateAndGet(activeStreams.incrementAndGet(), Math::max))
+                .doFinally(signal -> activeStreams.decrementAndGet());
+    }
+}
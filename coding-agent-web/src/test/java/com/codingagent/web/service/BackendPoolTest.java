@@ -0,0 +1,75 @@
+package com.codingagent.web.service;
+
+import com.codingagent.web.config.CodingAgentWebProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BackendPoolTest {
+
+    private BackendPool pool;
+    private BackendPool.Node first;
+    private BackendPool.Node second;
+    private BackendPool.Node third;
+
+    @BeforeEach
+    void setUp() {
+        CodingAgentWebProperties properties = new CodingAgentWebProperties(
+                "http://localhost:8080", 35, null, 15, CodingAgentWebProperties.StreamFormat.SSE,
+                new CodingAgentWebProperties.Pool(1000, 2000, 45, 60, 30, false),
+                new CodingAgentWebProperties.Backends(
+                        List.of("http://localhost:8080", "http://localhost:8082", "http://localhost:8083"),
+                        "/actuator/health", 10, 2, 2));
+        pool = new BackendPool(WebClient.create(), properties, new SimpleMeterRegistry());
+        first = pool.getNodes().get(0);
+        second = pool.getNodes().get(1);
+        third = pool.getNodes().get(2);
+    }
+
+    @Test
+    void choosesHealthyNodeWithFewestActiveSessions() {
+        first.sessionStarted();
+        first.sessionStarted();
+        second.sessionStarted();
+        third.setHealthy(false);
+
+        assertThat(pool.leastActive()).isSameAs(second);
+
+        second.sessionEnded();
+        assertThat(pool.leastActive()).isSameAs(second);
+    }
+
+    @Test
+    void spreadsSessionsEvenlyAcrossIdleNodes() {
+        for (int i = 0; i < 30; i++) {
+            pool.leastActive().sessionStarted();
+        }
+
+        assertThat(pool.getNodes()).allMatch(node -> node.getActiveSessions() == 10);
+    }
+
+    @Test
+    void fallsBackToAllNodesWhenNoneIsHealthy() {
+        pool.getNodes().forEach(node -> node.setHealthy(false));
+        first.sessionStarted();
+        third.sessionStarted();
+
+        assertThat(pool.leastActive()).isSameAs(second);
+    }
+
+    @Test
+    void routesSessionsToNodeThatStartedThemAndForgetsOldestBeyondLimit() {
+        pool.bind("session-1", third);
+        pool.bind("session-2", first);
+        pool.bind("session-3", second);
+
+        assertThat(pool.forSession("session-3")).contains(second);
+        assertThat(pool.forSession("session-2")).contains(first);
+        assertThat(pool.forSession("session-1")).isEmpty();
+    }
+}
@@ -0,0 +1,70 @@
+package com.codingagent.service.stream;
+
+import com.codingagent.model.StreamEvent;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares {@link StreamEventEncoder} with reflective Jackson serialization wrapped in an SSE frame,
+ * which is what the controller did before. Run with
+ * {@code mvn -Pjmh test-compile exec:exec -Djmh.args="StreamEventEncoderBenchmark -prof gc"}; the
+ * gc profiler adds the bytes allocated per event.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class StreamEventEncoderBenchmark {
+
+    @Param({"AI_RESPONSE", "TOOL_CALL", "TOOL_RESULT"})
+    private StreamEvent.EventType type;
+
+    private final StreamEventEncoder encoder = new StreamEventEncoder();
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private StreamEvent event;
+
+    @Setup
+    public void setUp() {
+        event = switch (type) {
+            case TOOL_CALL -> StreamEvent.builder().type(type).toolName("read_file")
+                    .toolParameters("{\"path\": \"src/main/java/com/example/UserController.java\"}")
+                    .message("Calling tool: read_file").build();
+            case TOOL_RESULT -> StreamEvent.builder().type(type).toolName("read_file")
+                    .toolResult("public class UserController { // ünïcode\n".repeat(60))
+                    .message("Tool read_file completed").build();
+            default -> StreamEvent.builder().type(type)
+                    .message("Reading the controller to find where the request is validated").build();
+        };
+    }
+
+    @Benchmark
+    public byte[] reflectiveSse() throws JsonProcessingException {
+        return ("data:" + objectMapper.writeValueAsString(event) + "\n\n").getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public byte[] encoderSse() {
+        return encoder.encodeSse(event);
+    }
+
+    @Benchmark
+    public byte[] encoderSmile() {
+        return encoder.encodeSmile(event);
+    }
+}
@@ -0,0 +1,138 @@
+package com.codingagent.config;
+
+import com.codingagent.model.AgentType;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * How much work a single agent run may do before it is stopped, and when a run counts as stalled.
+ * Per-type budgets only need the limits they change; the rest fall back to the defaults.
+ */
+@Component
+@ConfigurationProperties(prefix = "agent-budget")
+public class AgentBudgetProperties {
+
+    public enum StallAction {
+        /** Stop the run and report what it achieved so far. */
+        TERMINATE,
+        /** Tell the model it is stuck once; stop the run if it stalls again. */
+        ESCALATE
+    }
+
+    private Budget defaults = new Budget(20, 200_000L, 600);
+    private Map<AgentType, Budget> types = new EnumMap<>(AgentType.class);
+    private int maxRepeatedToolCalls = 3;
+    private int maxIterationsWithoutProgress = 5;
+    private int maxConsecutiveNudges = 2;
+    private StallAction stallAction = StallAction.ESCALATE;
+
+    /**
+     * The effective budget of the given agent type.
+     */
+    public Budget forType(AgentType type) {
+        Budget override = types.get(type);
+        if (override == null) {
+            return defaults;
+        }
+        return new Budget(
+                override.getMaxIterations() != null ? override.getMaxIterations() : defaults.getMaxIterations(),
+                override.getMaxTokens() != null ? override.getMaxTokens() : defaults.getMaxTokens(),
+                override.getMaxWallClockSeconds() != null
+                        ? override.getMaxWallClockSeconds() : defaults.getMaxWallClockSeconds());
+    }
+
+    public Budget getDefaults() {
+        return defaults;
+    }
+
+    public void setDefaults(Budget defaults) {
+        this.defaults = defaults;
+    }
+
+    public Map<AgentType, Budget> getTypes() {
+        return types;
+    }
+
+    public void setTypes(Map<AgentType, Budget> types) {
+        this.types = types;
+    }
+
+    public int getMaxRepeatedToolCalls() {
+        return maxRepeatedToolCalls;
+    }
+
+    public void setMaxRepeatedToolCalls(int maxRepeatedToolCalls) {
+        this.maxRepeatedToolCalls = maxRepeatedToolCalls;
+    }
+
+    public int getMaxIterationsWithoutProgress() {
+        return maxIterationsWithoutProgress;
+    }
+
+    public void setMaxIterationsWithoutProgress(int maxIterationsWithoutProgress) {
+        this.maxIterationsWithoutProgress = maxIterationsWithoutProgress;
+    }
+
+    public int getMaxConsecutiveNudges() {
+        return maxConsecutiveNudges;
+    }
+
+    public void setMaxConsecutiveNudges(int maxConsecutiveNudges) {
+        this.maxConsecutiveNudges = maxConsecutiveNudges;
+    }
+
+    public StallAction getStallAction() {
+        return stallAction;
+    }
+
+    public void setStallAction(StallAction stallAction) {
+        this.stallAction = stallAction;
+    }
+
+    public static class Budget {
+
+        private Integer maxIterations;
+        private Long maxTokens;
+        private Integer maxWallClockSeconds;
+
+        public Budget() {
+        }
+
+        public Budget(Integer maxIterations, Long maxTokens, Integer maxWallClockSeconds) {
+            this.maxIterations = maxIterations;
+            this.maxTokens = maxTokens;
+            this.maxWallClockSeconds = maxWallClockSeconds;
+        }
+
+        public Integer getMaxIterations() {
+            return maxIterations;
+        }
+
+        public void setMaxIterations(Integer maxIterations) {
+            this.maxIterations = maxIterations;
+        }
+
+        /**
+         * Estimated size in tokens of the run's conversation: the initial prompt with its directory
+         * context, plus every response and tool result added to it.
+         */
+        public Long getMaxTokens() {
+            return maxTokens;
+        }
+
+        public void setMaxTokens(Long maxTokens) {
+            this.maxTokens = maxTokens;
+        }
+
+        public Integer getMaxWallClockSeconds() {
+            return maxWallClockSeconds;
+        }
+
+        public void setMaxWallClockSeconds(Integer maxWallClockSeconds) {
+            this.maxWallClockSeconds = maxWallClockSeconds;
+        }
+    }
+}
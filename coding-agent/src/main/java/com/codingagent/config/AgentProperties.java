@@ -9,6 +9,10 @@ public class AgentProperties {
 
     private int maxPromptLength = 10000;
     private int streamingLineMaxLength = 120;
+    private int heartbeatIntervalSeconds = 15;
+    private long streamTimeoutSeconds = 0;
+    private int responseFlushIntervalMillis = 50;
+    private int responseFlushMaxChars = 1024;
 
     public int getMaxPromptLength() {
         return maxPromptLength;
@@ -25,4 +29,40 @@ public class AgentProperties {
     public void setStreamingLineMaxLength(int streamingLineMaxLength) {
         this.streamingLineMaxLength = streamingLineMaxLength;
     }
+
+    public int getHeartbeatIntervalSeconds() {
+        return heartbeatIntervalSeconds;
+    }
+
+    public void setHeartbeatIntervalSeconds(int heartbeatIntervalSeconds) {
+        this.heartbeatIntervalSeconds = heartbeatIntervalSeconds;
+    }
+
+    /**
+     * How long a streamed run may take before the response is closed; 0 means no limit. Runs are
+     * bounded by their agent budget, so the servlet container's async timeout does not apply.
+     */
+    public long getStreamTimeoutSeconds() {
+        return streamTimeoutSeconds;
+    }
+
+    public void setStreamTimeoutSeconds(long streamTimeoutSeconds) {
+        this.streamTimeoutSeconds = streamTimeoutSeconds;
+    }
+
+    public int getResponseFlushIntervalMillis() {
+        return responseFlushIntervalMillis;
+    }
+
+    public void setResponseFlushIntervalMillis(int responseFlushIntervalMillis) {
+        this.responseFlushIntervalMillis = responseFlushIntervalMillis;
+    }
+
+    public int getResponseFlushMaxChars() {
+        return responseFlushMaxChars;
+    }
+
+    public void setResponseFlushMaxChars(int responseFlushMaxChars) {
+        this.responseFlushMaxChars = responseFlushMaxChars;
+    }
 }
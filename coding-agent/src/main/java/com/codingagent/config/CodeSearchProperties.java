@@ -0,0 +1,37 @@
+package com.codingagent.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConfigurationProperties(prefix = "code-search")
+public class CodeSearchProperties {
+
+    private int maxIndexedRoots = 8;
+    private int maxIndexAgeSeconds = 300;
+    private int maxResults = 100;
+
+    public int getMaxIndexedRoots() {
+        return maxIndexedRoots;
+    }
+
+    public void setMaxIndexedRoots(int maxIndexedRoots) {
+        this.maxIndexedRoots = maxIndexedRoots;
+    }
+
+    public int getMaxIndexAgeSeconds() {
+        return maxIndexAgeSeconds;
+    }
+
+    public void setMaxIndexAgeSeconds(int maxIndexAgeSeconds) {
+        this.maxIndexAgeSeconds = maxIndexAgeSeconds;
+    }
+
+    public int getMaxResults() {
+        return maxResults;
+    }
+
+    public void setMaxResults(int maxResults) {
+        this.maxResults = maxResults;
+    }
+}
@@ -0,0 +1,62 @@
+package com.codingagent.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConfigurationProperties(prefix = "history")
+public class HistoryProperties {
+
+    public enum Storage {
+        /** Segments are heap byte arrays. */
+        HEAP,
+        /** Segments are direct buffers outside the Java heap. */
+        OFF_HEAP
+    }
+
+    private Storage storage = Storage.OFF_HEAP;
+    private int segmentSize = 64 * 1024;
+    private long spillThresholdBytes = 8L * 1024 * 1024;
+    private String spillDirectory = System.getProperty("java.io.tmpdir") + "/coding-agent-history";
+    private long maxPooledBytes = 32L * 1024 * 1024;
+
+    public Storage getStorage() {
+        return storage;
+    }
+
+    public void setStorage(Storage storage) {
+        this.storage = storage;
+    }
+
+    public int getSegmentSize() {
+        return segmentSize;
+    }
+
+    public void setSegmentSize(int segmentSize) {
+        this.segmentSize = segmentSize;
+    }
+
+    public long getSpillThresholdBytes() {
+        return spillThresholdBytes;
+    }
+
+    public void setSpillThresholdBytes(long spillThresholdBytes) {
+        this.spillThresholdBytes = spillThresholdBytes;
+    }
+
+    public String getSpillDirectory() {
+        return spillDirectory;
+    }
+
+    public void setSpillDirectory(String spillDirectory) {
+        this.spillDirectory = spillDirectory;
+    }
+
+    public long getMaxPooledBytes() {
+        return maxPooledBytes;
+    }
+
+    public void setMaxPooledBytes(long maxPooledBytes) {
+        this.maxPooledBytes = maxPooledBytes;
+    }
+}
@@ -0,0 +1,55 @@
+package com.codingagent.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConfigurationProperties(prefix = "jobs")
+public class JobProperties {
+
+    private int maxConcurrentJobs = 4;
+    private int maxQueuedJobs = 10000;
+    private int maxRetainedJobs = 1000;
+    private int maxWaitSeconds = 25;
+    private int processTimeoutMinutes = 35;
+
+    public int getMaxConcurrentJobs() {
+        return maxConcurrentJobs;
+    }
+
+    public void setMaxConcurrentJobs(int maxConcurrentJobs) {
+        this.maxConcurrentJobs = maxConcurrentJobs;
+    }
+
+    public int getMaxQueuedJobs() {
+        return maxQueuedJobs;
+    }
+
+    public void setMaxQueuedJobs(int maxQueuedJobs) {
+        this.maxQueuedJobs = maxQueuedJobs;
+    }
+
+    public int getMaxRetainedJobs() {
+        return maxRetainedJobs;
+    }
+
+    public void setMaxRetainedJobs(int maxRetainedJobs) {
+        this.maxRetainedJobs = maxRetainedJobs;
+    }
+
+    public int getMaxWaitSeconds() {
+        return maxWaitSeconds;
+    }
+
+    public void setMaxWaitSeconds(int maxWaitSeconds) {
+        this.maxWaitSeconds = maxWaitSeconds;
+    }
+
+    public int getProcessTimeoutMinutes() {
+        return processTimeoutMinutes;
+    }
+
+    public void setProcessTimeoutMinutes(int processTimeoutMinutes) {
+        this.processTimeoutMinutes = processTimeoutMinutes;
+    }
+}
@@ -0,0 +1,26 @@
+package com.codingagent.config;
+
+import com.codingagent.service.model.LocalChatModel;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class LocalModelConfiguration {
+
+    private static final Logger logger = LoggerFactory.getLogger(LocalModelConfiguration.class);
+
+    /**
+     * Registers the scripted model as {@code localChatModel}. With the {@code local} profile it is
+     * the only chat model; next to a hosted one, model-routing profiles select it by that name.
+     */
+    @Bean
+    @ConditionalOnProperty(prefix = "local-model", name = "enabled", havingValue = "true")
+    public LocalChatModel localChatModel(LocalModelProperties properties) {
+        logger.info("Local chat model enabled: {} ms to first token, {} tokens/s",
+                properties.getFirstTokenLatencyMillis(), properties.getTokensPerSecond());
+        return new LocalChatModel(properties);
+    }
+}
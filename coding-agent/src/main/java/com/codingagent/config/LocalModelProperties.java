@@ -0,0 +1,75 @@
+package com.codingagent.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The scripted local chat model, used instead of (or next to) a hosted provider for development
+ * and load tests. Agent turns answer with the {@code script} entries in order and then call
+ * {@code finish_task}; classification prompts are answered from keywords in the request.
+ */
+@Component
+@ConfigurationProperties(prefix = "local-model")
+public class LocalModelProperties {
+
+    private boolean enabled = false;
+    private long firstTokenLatencyMillis = 300;
+    private int tokensPerSecond = 200;
+    private int chunkTokens = 4;
+    private List<String> script = new ArrayList<>(List.of(
+            "I will look at the workspace before answering.\n"
+                    + "TOOL: log_thought {\"thought\": \"Listing the workspace to see what is there\"}\n"
+                    + "TOOL: list_files {\"path\": \".\", \"depth\": 1}"));
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    /**
+     * Delay before the first chunk of each response.
+     */
+    public long getFirstTokenLatencyMillis() {
+        return firstTokenLatencyMillis;
+    }
+
+    public void setFirstTokenLatencyMillis(long firstTokenLatencyMillis) {
+        this.firstTokenLatencyMillis = firstTokenLatencyMillis;
+    }
+
+    /**
+     * Output rate after the first chunk; 0 streams the whole response at once.
+     */
+    public int getTokensPerSecond() {
+        return tokensPerSecond;
+    }
+
+    public void setTokensPerSecond(int tokensPerSecond) {
+        this.tokensPerSecond = tokensPerSecond;
+    }
+
+    public int getChunkTokens() {
+        return chunkTokens;
+    }
+
+    public void setChunkTokens(int chunkTokens) {
+        this.chunkTokens = chunkTokens;
+    }
+
+    /**
+     * Responses of an agent's first turns, one entry per turn.
+     */
+    public List<String> getScript() {
+        return script;
+    }
+
+    public void setScript(List<String> script) {
+        this.script = script;
+    }
+}
@@ -0,0 +1,138 @@
+package com.codingagent.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Which model serves which step. Steps are looked up in {@code routes} by name
+ * ({@code classification}, an agent type such as {@code code}, or a collaboration phase such as
+ * {@code collaboration-refine}) and name a profile; steps without a route use
+ * {@code default-profile}, and without that the chat model's own configured options.
+ */
+@Component
+@ConfigurationProperties(prefix = "model-routing")
+public class ModelRoutingProperties {
+
+    private Map<String, Profile> profiles = new HashMap<>();
+    private Map<String, String> routes = new HashMap<>();
+    private String defaultProfile;
+    private String defaultChatModel;
+    private boolean escalateOnStall = true;
+
+    public Map<String, Profile> getProfiles() {
+        return profiles;
+    }
+
+    public void setProfiles(Map<String, Profile> profiles) {
+        this.profiles = profiles;
+    }
+
+    public Map<String, String> getRoutes() {
+        return routes;
+    }
+
+    public void setRoutes(Map<String, String> routes) {
+        this.routes = routes;
+    }
+
+    public String getDefaultProfile() {
+        return defaultProfile;
+    }
+
+    public void setDefaultProfile(String defaultProfile) {
+        this.defaultProfile = defaultProfile;
+    }
+
+    /**
+     * Bean name of the {@code ChatModel} steps use unless their profile names another. Only needed
+     * when several chat models are registered, for example a hosted one and {@code localChatModel}.
+     */
+    public String getDefaultChatModel() {
+        return defaultChatModel;
+    }
+
+    public void setDefaultChatModel(String defaultChatModel) {
+        this.defaultChatModel = defaultChatModel;
+    }
+
+    /**
+     * Whether a run that stalls on a profile with {@code escalate-to} continues on that profile.
+     */
+    public boolean isEscalateOnStall() {
+        return escalateOnStall;
+    }
+
+    public void setEscalateOnStall(boolean escalateOnStall) {
+        this.escalateOnStall = escalateOnStall;
+    }
+
+    /**
+     * Options sent with each call. Unset options keep the chat model's configured value.
+     */
+    public static class Profile {
+
+        private String chatModel;
+        private String model;
+        private Double temperature;
+        private Integer maxTokens;
+        private Double topP;
+        private String escalateTo;
+
+        /**
+         * Bean name of the {@code ChatModel} to call; the application's chat model when unset.
+         */
+        public String getChatModel() {
+            return chatModel;
+        }
+
+        public void setChatModel(String chatModel) {
+            this.chatModel = chatModel;
+        }
+
+        public String getModel() {
+            return model;
+        }
+
+        public void setModel(String model) {
+            this.model = model;
+        }
+
+        public Double getTemperature() {
+            return temperature;
+        }
+
+        public void setTemperature(Double temperature) {
+            this.temperature = temperature;
+        }
+
+        public Integer getMaxTokens() {
+            return maxTokens;
+        }
+
+        public void setMaxTokens(Integer maxTokens) {
+            this.maxTokens = maxTokens;
+        }
+
+        public Double getTopP() {
+            return topP;
+        }
+
+        public void setTopP(Double topP) {
+            this.topP = topP;
+        }
+
+        /**
+         * Profile a stalled run switches to.
+         */
+        public String getEscalateTo() {
+            return escalateTo;
+        }
+
+        public void setEscalateTo(String escalateTo) {
+            this.escalateTo = escalateTo;
+        }
+    }
+}
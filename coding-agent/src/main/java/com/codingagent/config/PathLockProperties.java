@@ -0,0 +1,33 @@
+package com.codingagent.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConfigurationProperties(prefix = "path-locks")
+public class PathLockProperties {
+
+    private int stripes = 256;
+    private int waitTimeoutSeconds = 5;
+
+    public int getStripes() {
+        return stripes;
+    }
+
+    public void setStripes(int stripes) {
+        this.stripes = stripes;
+    }
+
+    /**
+     * How long a file tool waits for a lock before telling the model the file is busy. Keep it well
+     * below the shortest timeout of a file tool ({@code read_file}, 10s); otherwise the tool call
+     * times out first and the model never learns another session holds the file.
+     */
+    public int getWaitTimeoutSeconds() {
+        return waitTimeoutSeconds;
+    }
+
+    public void setWaitTimeoutSeconds(int waitTimeoutSeconds) {
+        this.waitTimeoutSeconds = waitTimeoutSeconds;
+    }
+}
@@ -1,46 +1,32 @@
 package com.codingagent.config;
 
-import com.codingagent.service.tool.FinishTaskTool;
-import com.codingagent.service.tool.ListFilesTool;
-import com.codingagent.service.tool.LogThoughtTool;
-import com.codingagent.service.tool.ReadFileTool;
 import com.codingagent.service.tool.Tool;
-import com.codingagent.service.tool.WriteFileTool;
-import org.springframework.beans.factory.annotation.Qualifier;
+import com.codingagent.service.tool.ToolRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.ServiceLoader;
 
 @Configuration
 public class ToolConfiguration {
 
-    @Bean
-    @Qualifier("analysisTools")
-    public List<Tool> analysisTools(LogThoughtTool logThoughtTool,
-                                    ListFilesTool listFilesTool,
-                                    ReadFileTool readFileTool,
-                                    FinishTaskTool finishTaskTool) {
-        return List.of(logThoughtTool, listFilesTool, readFileTool, finishTaskTool);
-    }
-
-    @Bean
-    @Qualifier("codeTools")
-    public List<Tool> codeTools(LogThoughtTool logThoughtTool,
-                                ListFilesTool listFilesTool,
-                                ReadFileTool readFileTool,
-                                WriteFileTool writeFileTool,
-                                FinishTaskTool finishTaskTool) {
-        return List.of(logThoughtTool, listFilesTool, readFileTool, writeFileTool, finishTaskTool);
-    }
+    private static final Logger logger = LoggerFactory.getLogger(ToolConfiguration.class);
 
+    /**
+     * Collects every {@link Tool} bean plus tools shipped in plugin jars. Plugin jars register
+     * their tools in {@code META-INF/services/com.codingagent.service.tool.Tool}.
+     */
     @Bean
-    @Qualifier("bugfixTools")
-    public List<Tool> bugfixTools(LogThoughtTool logThoughtTool,
-                                  ListFilesTool listFilesTool,
-                                  ReadFileTool readFileTool,
-                                  WriteFileTool writeFileTool,
-                                  FinishTaskTool finishTaskTool) {
-        return List.of(logThoughtTool, listFilesTool, readFileTool, writeFileTool, finishTaskTool);
+    public ToolRegistry toolRegistry(List<Tool> toolBeans) {
+        List<Tool> tools = new ArrayList<>(toolBeans);
+        for (Tool plugin : ServiceLoader.load(Tool.class)) {
+            logger.info("Loaded plugin tool: {} ({})", plugin.getName(), plugin.getClass().getName());
+            tools.add(plugin);
+        }
+        return new ToolRegistry(tools);
     }
 }
@@ -0,0 +1,64 @@
+package com.codingagent.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConfigurationProperties(prefix = "tool-execution")
+public class ToolExecutionProperties {
+
+    private int filesystemPoolSize = 8;
+    private int filesystemQueueSize = 256;
+    private int lightweightPoolSize = 2;
+    private int lightweightQueueSize = 256;
+    private int circuitBreakerFailureThreshold = 5;
+    private int circuitBreakerOpenSeconds = 30;
+
+    public int getFilesystemPoolSize() {
+        return filesystemPoolSize;
+    }
+
+    public void setFilesystemPoolSize(int filesystemPoolSize) {
+        this.filesystemPoolSize = filesystemPoolSize;
+    }
+
+    public int getFilesystemQueueSize() {
+        return filesystemQueueSize;
+    }
+
+    public void setFilesystemQueueSize(int filesystemQueueSize) {
+        this.filesystemQueueSize = filesystemQueueSize;
+    }
+
+    public int getLightweightPoolSize() {
+        return lightweightPoolSize;
+    }
+
+    public void setLightweightPoolSize(int lightweightPoolSize) {
+        this.lightweightPoolSize = lightweightPoolSize;
+    }
+
+    public int getLightweightQueueSize() {
+        return lightweightQueueSize;
+    }
+
+    public void setLightweightQueueSize(int lightweightQueueSize) {
+        this.lightweightQueueSize = lightweightQueueSize;
+    }
+
+    public int getCircuitBreakerFailureThreshold() {
+        return circuitBreakerFailureThreshold;
+    }
+
+    public void setCircuitBreakerFailureThreshold(int circuitBreakerFailureThreshold) {
+        this.circuitBreakerFailureThreshold = circuitBreakerFailureThreshold;
+    }
+
+    public int getCircuitBreakerOpenSeconds() {
+        return circuitBreakerOpenSeconds;
+    }
+
+    public void setCircuitBreakerOpenSeconds(int circuitBreakerOpenSeconds) {
+        this.circuitBreakerOpenSeconds = circuitBreakerOpenSeconds;
+    }
+}
@@ -0,0 +1,37 @@
+package com.codingagent.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConfigurationProperties(prefix = "tracing")
+public class TracingProperties {
+
+    private boolean enabled = false;
+    private String outputDirectory = System.getProperty("java.io.tmpdir") + "/coding-agent-traces";
+    private int maxRetainedTraces = 100;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public String getOutputDirectory() {
+        return outputDirectory;
+    }
+
+    public void setOutputDirectory(String outputDirectory) {
+        this.outputDirectory = outputDirectory;
+    }
+
+    public int getMaxRetainedTraces() {
+        return maxRetainedTraces;
+    }
+
+    public void setMaxRetainedTraces(int maxRetainedTraces) {
+        this.maxRetainedTraces = maxRetainedTraces;
+    }
+}
@@ -0,0 +1,92 @@
+package com.codingagent.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Component
+@ConfigurationProperties(prefix = "workspace-filter")
+public class WorkspaceFilterProperties {
+
+    private boolean respectIgnoreFiles = true;
+    private List<String> ignoreFileNames = new ArrayList<>(List.of(".gitignore", ".ignore"));
+    private boolean skipHidden = true;
+    private List<String> exclude = new ArrayList<>(List.of(
+            "target/", "build/", "node_modules/", "dist/", "out/", "*.class", "*.jar", "*.war"));
+    private List<String> include = new ArrayList<>();
+    private List<String> textExtensions = new ArrayList<>(List.of(
+            "java", "kt", "kts", "groovy", "gradle", "scala", "xml", "yml", "yaml", "properties", "toml",
+            "ini", "conf", "txt", "md", "json", "js", "jsx", "ts", "tsx", "vue", "py", "rb", "go", "rs",
+            "c", "h", "cpp", "hpp", "cs", "php", "swift", "sh", "bat", "sql", "html", "css", "scss", "csv"));
+    private List<String> binaryExtensions = new ArrayList<>(List.of(
+            "class", "jar", "war", "ear", "zip", "gz", "tgz", "tar", "7z", "png", "jpg", "jpeg", "gif",
+            "ico", "bmp", "webp", "pdf", "so", "dll", "dylib", "exe", "bin", "dat", "woff", "woff2", "ttf",
+            "eot", "mp3", "mp4", "mov", "avi", "db", "sqlite"));
+    private int sniffBytes = 8192;
+
+    public boolean isRespectIgnoreFiles() {
+        return respectIgnoreFiles;
+    }
+
+    public void setRespectIgnoreFiles(boolean respectIgnoreFiles) {
+        this.respectIgnoreFiles = respectIgnoreFiles;
+    }
+
+    public List<String> getIgnoreFileNames() {
+        return ignoreFileNames;
+    }
+
+    public void setIgnoreFileNames(List<String> ignoreFileNames) {
+        this.ignoreFileNames = ignoreFileNames;
+    }
+
+    public boolean isSkipHidden() {
+        return skipHidden;
+    }
+
+    public void setSkipHidden(boolean skipHidden) {
+        this.skipHidden = skipHidden;
+    }
+
+    public List<String> getExclude() {
+        return exclude;
+    }
+
+    public void setExclude(List<String> exclude) {
+        this.exclude = exclude;
+    }
+
+    public List<String> getInclude() {
+        return include;
+    }
+
+    public void setInclude(List<String> include) {
+        this.include = include;
+    }
+
+    public List<String> getTextExtensions() {
+        return textExtensions;
+    }
+
+    public void setTextExtensions(List<String> textExtensions) {
+        this.textExtensions = textExtensions;
+    }
+
+    public List<String> getBinaryExtensions() {
+        return binaryExtensions;
+    }
+
+    public void setBinaryExtensions(List<String> binaryExtensions) {
+        this.binaryExtensions = binaryExtensions;
+    }
+
+    public int getSniffBytes() {
+        return sniffBytes;
+    }
+
+    public void setSniffBytes(int sniffBytes) {
+        this.sniffBytes = sniffBytes;
+    }
+}
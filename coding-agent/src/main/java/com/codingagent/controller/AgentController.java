@@ -1,16 +1,38 @@
 package com.codingagent.controller;
 
+import com.codingagent.config.AgentProperties;
+import com.codingagent.config.BatchProperties;
+import com.codingagent.model.BatchRequest;
+import com.codingagent.model.BatchTask;
 import com.codingagent.model.AgentRequest;
 import com.codingagent.model.StreamEvent;
 import com.codingagent.service.OrchestratorService;
+import com.codingagent.service.stream.StreamEventEncoder;
+import com.codingagent.service.trace.TraceService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import reactor.core.Disposable;
 import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 @RestController
 @RequestMapping("/api/agent")
@@ -19,29 +41,160 @@ public class AgentController {
     private static final Logger logger = LoggerFactory.getLogger(AgentController.class);
 
     private final OrchestratorService orchestratorService;
+    private final TraceService traceService;
+    private final AgentProperties agentProperties;
+    private final BatchProperties batchProperties;
+    private final StreamEventEncoder encoder;
+    private final Timer timeToFirstResponse;
 
-    public AgentController(OrchestratorService orchestratorService) {
+    public AgentController(OrchestratorService orchestratorService, TraceService traceService,
+                           AgentProperties agentProperties, BatchProperties batchProperties,
+                           StreamEventEncoder encoder, MeterRegistry meterRegistry) {
         this.orchestratorService = orchestratorService;
+        this.traceService = traceService;
+        this.agentProperties = agentProperties;
+        this.batchProperties = batchProperties;
+        this.encoder = encoder;
+        this.timeToFirstResponse = Timer.builder("agent.stream.first.response")
+                .description("Time from receiving a streaming request to sending the first model output")
+                .register(meterRegistry);
     }
 
-    @PostMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
-    public Flux<StreamEvent> streamRequest(@RequestBody AgentRequest request) {
+    /**
+     * Streams the run as Server-Sent Events, or as a Smile stream when the client asks for
+     * {@value StreamEventEncoder#SMILE_STREAM_VALUE} (the web proxy does).
+     */
+    @PostMapping(value = "/stream",
+            produces = {MediaType.TEXT_EVENT_STREAM_VALUE, StreamEventEncoder.SMILE_STREAM_VALUE})
+    public ResponseEntity<ResponseBodyEmitter> streamRequest(
+            @RequestBody AgentRequest request,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
         logger.info("Received streaming request with prompt: {}, directory: {}, collaboration: {}",
                     request.getPrompt(), request.getDirectoryPath(), request.getUseCollaboration());
 
         validateRequest(request);
 
-        return orchestratorService.processRequestStream(
+        long receivedAt = System.nanoTime();
+        AtomicBoolean awaitingFirstResponse = new AtomicBoolean(true);
+        Flux<StreamEvent> events = orchestratorService.processRequestStream(
                 request.getPrompt(),
                 request.getDirectoryPath(),
-                request.getUseCollaboration());
+                request.getUseCollaboration())
+                .doOnNext(event -> {
+                    if (event.getType() == StreamEvent.EventType.AI_RESPONSE
+                            && awaitingFirstResponse.compareAndSet(true, false)) {
+                        timeToFirstResponse.record(System.nanoTime() - receivedAt, TimeUnit.NANOSECONDS);
+                    }
+                })
+                .doOnCancel(() -> logger.info("Client disconnected, cancelling agent stream"));
+        return stream(events, accept);
+    }
+
+    /**
+     * Runs several prompts over one directory and streams the events of all tasks interleaved,
+     * each tagged with its {@code taskId}, in the same formats as {@code /stream}.
+     */
+    @PostMapping(value = "/batch",
+            produces = {MediaType.TEXT_EVENT_STREAM_VALUE, StreamEventEncoder.SMILE_STREAM_VALUE})
+    public ResponseEntity<ResponseBodyEmitter> batchRequest(
+            @RequestBody BatchRequest request,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+        logger.info("Received batch request with {} tasks, directory: {}",
+                request.getTasks() == null ? 0 : request.getTasks().size(), request.getDirectoryPath());
+
+        if (request.getTasks() == null || request.getTasks().isEmpty()) {
+            throw new IllegalArgumentException("Batch must contain at least one task");
+        }
+        if (request.getTasks().size() > batchProperties.getMaxTasks()) {
+            throw new IllegalArgumentException("Batch exceeds maximum of " + batchProperties.getMaxTasks() + " tasks");
+        }
+        for (BatchTask task : request.getTasks()) {
+            validatePrompt(task.getPrompt());
+        }
+
+        Flux<StreamEvent> events = orchestratorService.processBatchStream(request.getTasks(), request.getDirectoryPath())
+                .doOnCancel(() -> logger.info("Client disconnected, cancelling batch"));
+        return stream(events, accept);
+    }
+
+    @GetMapping(value = "/traces/{sessionId}", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<String> getTrace(@PathVariable String sessionId) {
+        return traceService.findTraceJson(sessionId)
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    private ResponseEntity<ResponseBodyEmitter> stream(Flux<StreamEvent> events, String accept) {
+        if (acceptsSmile(accept)) {
+            return stream(StreamEventEncoder.SMILE_STREAM, encoder.smileHeader(),
+                    events.map(encoder::encodeSmile), encoder.smileHeartbeat());
+        }
+        return stream(MediaType.TEXT_EVENT_STREAM, null,
+                events.map(encoder::encodeSse), encoder.sseHeartbeat());
+    }
+
+    /**
+     * Writes pre-encoded frames to the response as they arrive, interleaved with heartbeat frames.
+     * The servlet container only notices a disconnected client when a write fails, so heartbeats
+     * make sure the agent run is cancelled even while the model is still thinking.
+     */
+    private ResponseEntity<ResponseBodyEmitter> stream(MediaType contentType, byte[] header,
+                                                       Flux<byte[]> frames, byte[] heartbeat) {
+        // -1 disables the timeout; without an explicit value the container's async default applies
+        long timeoutSeconds = agentProperties.getStreamTimeoutSeconds();
+        ResponseBodyEmitter emitter = new ResponseBodyEmitter(
+                timeoutSeconds > 0 ? TimeUnit.SECONDS.toMillis(timeoutSeconds) : -1L);
+        Sinks.Empty<Void> framesDone = Sinks.empty();
+        Flux<byte[]> heartbeats = Flux
+                .interval(Duration.ofSeconds(agentProperties.getHeartbeatIntervalSeconds()))
+                .map(tick -> heartbeat)
+                .takeUntilOther(framesDone.asMono());
+        Flux<byte[]> body = frames
+                .doFinally(signal -> framesDone.tryEmitEmpty())
+                .mergeWith(heartbeats);
+        if (header != null) {
+            body = body.startWith(header);
+        }
+
+        // A failed write throws out of the consumer, which cancels the merged stream
+        Disposable subscription = body.subscribe(
+                frame -> send(emitter, frame),
+                emitter::completeWithError,
+                emitter::complete);
+        emitter.onCompletion(subscription::dispose);
+        emitter.onTimeout(subscription::dispose);
+        emitter.onError(error -> subscription.dispose());
+
+        return ResponseEntity.ok()
+                .contentType(contentType)
+                .body(emitter);
+    }
+
+    private void send(ResponseBodyEmitter emitter, byte[] frame) {
+        try {
+            emitter.send(frame, MediaType.APPLICATION_OCTET_STREAM);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private boolean acceptsSmile(String accept) {
+        if (accept == null) {
+            return false;
+        }
+        return MediaType.parseMediaTypes(accept).stream()
+                .anyMatch(StreamEventEncoder.SMILE_STREAM::equalsTypeAndSubtype);
     }
 
     private void validateRequest(AgentRequest request) {
-        if (request.getPrompt() == null || request.getPrompt().trim().isEmpty()) {
+        validatePrompt(request.getPrompt());
+    }
+
+    private void validatePrompt(String prompt) {
+        if (prompt == null || prompt.trim().isEmpty()) {
             throw new IllegalArgumentException("Prompt cannot be null or empty");
         }
-        if (request.getPrompt().length() > 10000) {
+        if (prompt.length() > 10000) {
             throw new IllegalArgumentException("Prompt exceeds maximum length of 10000 characters");
         }
     }
@@ -0,0 +1,140 @@
+package com.codingagent.controller;
+
+import com.codingagent.config.JobProperties;
+import com.codingagent.exception.AgentException;
+import com.codingagent.model.AgentRequest;
+import com.codingagent.model.JobResponse;
+import com.codingagent.model.JobStatus;
+import com.codingagent.service.job.Job;
+import com.codingagent.service.job.JobService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.async.DeferredResult;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+
+/**
+ * Background agent runs. Waiting requests are parked as {@link DeferredResult}s, so a client
+ * long-polling a job holds neither a servlet thread nor a worker slot while it waits.
+ */
+@RestController
+@RequestMapping("/api/agent")
+public class JobController {
+
+    private static final Logger logger = LoggerFactory.getLogger(JobController.class);
+
+    private final JobService jobService;
+    private final JobProperties properties;
+
+    public JobController(JobService jobService, JobProperties properties) {
+        this.jobService = jobService;
+        this.properties = properties;
+    }
+
+    @PostMapping("/jobs")
+    public ResponseEntity<JobResponse> submitJob(@RequestBody AgentRequest request) {
+        Job job = jobService.submit(request);
+        return ResponseEntity.accepted()
+                .location(URI.create("/api/agent/jobs/" + job.getId()))
+                .body(job.toResponse());
+    }
+
+    /**
+     * Current state of a job. With {@code waitSeconds}, the response is held back until the job
+     * finishes or the wait (capped at {@code jobs.max-wait-seconds}) runs out.
+     */
+    @GetMapping("/jobs/{jobId}")
+    public DeferredResult<ResponseEntity<?>> getJob(@PathVariable String jobId,
+                                                    @RequestParam(defaultValue = "0") int waitSeconds) {
+        return await(jobId, waitSeconds, ResponseEntity::ok);
+    }
+
+    /**
+     * The agent's summary once the job has finished; until then, {@code 202} with the job's state.
+     */
+    @GetMapping("/jobs/{jobId}/result")
+    public DeferredResult<ResponseEntity<?>> getJobResult(@PathVariable String jobId,
+                                                          @RequestParam(defaultValue = "0") int waitSeconds) {
+        return await(jobId, waitSeconds, response -> response.getStatus().isFinished()
+                ? ResponseEntity.ok(response.getResponse())
+                : ResponseEntity.accepted().body(response));
+    }
+
+    @DeleteMapping("/jobs/{jobId}")
+    public ResponseEntity<JobResponse> cancelJob(@PathVariable String jobId) {
+        if (!jobService.cancel(jobId)) {
+            return ResponseEntity.notFound().build();
+        }
+        return jobService.find(jobId)
+                .map(job -> ResponseEntity.ok(job.toResponse()))
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    /**
+     * Runs a request as a job and answers once it has finished. A run that outlasts
+     * {@code jobs.process-timeout-minutes} is answered with {@code 202} and the job, which keeps
+     * running and can be polled.
+     */
+    @PostMapping("/process")
+    public DeferredResult<ResponseEntity<?>> processRequest(@RequestBody AgentRequest request) {
+        logger.info("Received request with prompt: {}, directory: {}", request.getPrompt(), request.getDirectoryPath());
+        Job job = jobService.submit(request);
+        DeferredResult<ResponseEntity<?>> result = new DeferredResult<>(
+                Duration.ofMinutes(properties.getProcessTimeoutMinutes()).toMillis());
+        CompletableFuture<JobResponse> waiter = job.getCompletion().thenApply(Function.identity());
+        result.onTimeout(() -> result.setResult(ResponseEntity.accepted()
+                .location(URI.create("/api/agent/jobs/" + job.getId()))
+                .body(job.toResponse())));
+        result.onCompletion(() -> waiter.cancel(false));
+        waiter.thenAccept(response -> {
+            if (response.getStatus() == JobStatus.SUCCEEDED) {
+                result.setResult(ResponseEntity.ok(response.getResponse()));
+            } else {
+                result.setErrorResult(new AgentException("Job " + response.getJobId() + " "
+                        + response.getStatus() + ": " + response.getError()));
+            }
+        });
+        return result;
+    }
+
+    private DeferredResult<ResponseEntity<?>> await(String jobId, int waitSeconds,
+                                                    Function<JobResponse, ResponseEntity<?>> render) {
+        Optional<Job> found = jobService.find(jobId);
+        if (found.isEmpty()) {
+            return answered(ResponseEntity.notFound().build());
+        }
+        Job job = found.get();
+        int wait = Math.min(Math.max(waitSeconds, 0), properties.getMaxWaitSeconds());
+        if (wait == 0 || job.getStatus().isFinished()) {
+            return answered(render.apply(job.toResponse()));
+        }
+
+        // A dependent future per poll, cancelled when the poll ends, so that abandoned polls of a
+        // long job do not pile up on it
+        DeferredResult<ResponseEntity<?>> poll = new DeferredResult<>(Duration.ofSeconds(wait).toMillis());
+        CompletableFuture<JobResponse> waiter = job.getCompletion().thenApply(Function.identity());
+        poll.onTimeout(() -> poll.setResult(render.apply(job.toResponse())));
+        poll.onCompletion(() -> waiter.cancel(false));
+        waiter.thenAccept(response -> poll.setResult(render.apply(response)));
+        return poll;
+    }
+
+    private static DeferredResult<ResponseEntity<?>> answered(ResponseEntity<?> response) {
+        DeferredResult<ResponseEntity<?>> result = new DeferredResult<>();
+        result.setResult(response);
+        return result;
+    }
+}
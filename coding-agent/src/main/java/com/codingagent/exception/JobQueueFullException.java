@@ -0,0 +1,8 @@
+package com.codingagent.exception;
+
+public class JobQueueFullException extends RuntimeException {
+
+    public JobQueueFullException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,15 @@
+package com.codingagent.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchRequest {
+    private String directoryPath;
+    private List<BatchTask> tasks;
+}
@@ -0,0 +1,13 @@
+package com.codingagent.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchTask {
+    private String taskId;
+    private String prompt;
+}
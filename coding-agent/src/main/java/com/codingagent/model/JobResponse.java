@@ -0,0 +1,23 @@
+package com.codingagent.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class JobResponse {
+    private String jobId;
+    private JobStatus status;
+    private String sessionId;
+    private Instant submittedAt;
+    private Instant startedAt;
+    private Instant finishedAt;
+    private AgentResponse response;
+    private String error;
+}
@@ -1,26 +1,39 @@
 package com.codingagent.service;
 
 import com.codingagent.config.FileSystemProperties;
+import com.codingagent.service.context.CachedContext;
+import com.codingagent.service.context.DirectoryContextCache;
+import com.codingagent.service.workspace.WorkspaceFilter;
+import com.codingagent.service.workspace.WorkspaceFilterService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 
 import java.io.IOException;
+import java.nio.file.DirectoryStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
+import java.util.Map;
 
 @Service
 public class FileSystemService {
 
     private static final Logger logger = LoggerFactory.getLogger(FileSystemService.class);
     private final FileSystemProperties properties;
+    private final WorkspaceFilterService workspaceFilterService;
+    private final DirectoryContextCache directoryContextCache;
 
-    public FileSystemService(FileSystemProperties properties) {
+    public FileSystemService(FileSystemProperties properties, WorkspaceFilterService workspaceFilterService,
+                             DirectoryContextCache directoryContextCache) {
         this.properties = properties;
+        this.workspaceFilterService = workspaceFilterService;
+        this.directoryContextCache = directoryContextCache;
     }
 
     public String buildDirectoryContext(String directoryPath) {
@@ -41,29 +54,55 @@ public class FileSystemService {
 
         StringBuilder context = new StringBuilder();
         context.append("Directory Context: ").append(directoryPath).append("\n\n");
+        WorkspaceFilter filter = workspaceFilterService.forRoot(path);
+        Path root = filter.getRoot();
 
+        long started = System.nanoTime();
+        CachedContext previous = directoryContextCache.isEnabled() ? directoryContextCache.get(root) : null;
         try {
-            context.append("Directory Structure:\n");
-            context.append(buildDirectoryTree(path, 0, properties.getMaxDepth()));
-            context.append("\n\n");
-
-            context.append("File Contents:\n");
-            List<Path> files = listFiles(path);
-            
-            int fileCount = 0;
-            for (Path file : files) {
-                if (fileCount >= properties.getMaxFiles()) {
-                    context.append("\n[Additional files omitted - limit reached]\n");
-                    break;
+            Scan scan = new Scan(filter, previous);
+            ScannedDirectory tree = scan.scanDirectory(root, 0);
+            long fingerprint = scan.fingerprint(tree);
+
+            if (previous != null && previous.getFingerprint() == fingerprint) {
+                long elapsed = System.nanoTime() - started;
+                directoryContextCache.record(DirectoryContextCache.Outcome.HIT, elapsed,
+                        Math.max(0, previous.getFullBuildNanos() - elapsed));
+                return context.append(previous.getBody()).toString();
+            }
+
+            Map<Path, CachedContext.DirectoryFragment> fragments = new HashMap<>();
+            Map<Path, CachedContext.FileSection> sections = new HashMap<>();
+            StringBuilder body = new StringBuilder();
+            body.append("Directory Structure:\n");
+            body.append(renderTree(tree, previous, fragments));
+            body.append("\n\n");
+
+            body.append("File Contents:\n");
+            for (ScannedFile file : scan.selected) {
+                CachedContext.FileSection section = previous == null ? null : previous.getFiles().get(file.path);
+                if (section == null || !section.matches(file.size, file.lastModified)) {
+                    section = renderFile(root, file);
                 }
-                
-                String fileContent = readFileContent(file);
-                if (fileContent != null) {
-                    context.append("--- File: ").append(path.relativize(file)).append(" ---\n");
-                    context.append(fileContent).append("\n\n");
-                    fileCount++;
+                if (section != null) {
+                    sections.put(file.path, section);
+                    body.append(section.getText());
                 }
             }
+            if (scan.limitReached) {
+                body.append("\n[Additional files omitted - limit reached]\n");
+            }
+
+            long elapsed = System.nanoTime() - started;
+            if (directoryContextCache.isEnabled()) {
+                DirectoryContextCache.Outcome outcome = previous == null
+                        ? DirectoryContextCache.Outcome.MISS : DirectoryContextCache.Outcome.PARTIAL;
+                long fullBuildNanos = previous == null ? elapsed : previous.getFullBuildNanos();
+                directoryContextCache.put(root,
+                        new CachedContext(fingerprint, body.toString(), fragments, sections, fullBuildNanos));
+                directoryContextCache.record(outcome, elapsed, Math.max(0, fullBuildNanos - elapsed));
+            }
+            context.append(body);
 
         } catch (IOException e) {
             logger.error("Error reading directory: {}", directoryPath, e);
@@ -73,96 +112,218 @@ public class FileSystemService {
         return context.toString();
     }
 
-    private String buildDirectoryTree(Path directory, int depth, int maxDepth) throws IOException {
-        if (depth > maxDepth) {
-            return "";
+    /**
+     * Renders the tree lines of a directory, reusing the previous rendering of every subtree whose
+     * hash is unchanged.
+     */
+    private String renderTree(ScannedDirectory directory, CachedContext previous,
+                              Map<Path, CachedContext.DirectoryFragment> fragments) {
+        CachedContext.DirectoryFragment fragment = previous == null ? null : previous.getDirectories().get(directory.path);
+        if (fragment == null || fragment.getHash() != directory.hash) {
+            StringBuilder tree = new StringBuilder();
+            String indent = "  ".repeat(directory.depth);
+            for (ScannedEntry entry : directory.entries) {
+                tree.append(indent).append("├── ").append(entry.name);
+                if (entry.directory != null) {
+                    tree.append("/\n");
+                    if (entry.directory.depth <= properties.getMaxDepth()) {
+                        tree.append(renderTree(entry.directory, previous, fragments));
+                    }
+                } else {
+                    tree.append("\n");
+                }
+            }
+            fragment = new CachedContext.DirectoryFragment(directory.hash, tree.toString());
+        } else {
+            collectFragments(directory, previous, fragments);
         }
+        fragments.put(directory.path, fragment);
+        return fragment.getText();
+    }
 
-        StringBuilder tree = new StringBuilder();
-        String indent = "  ".repeat(depth);
+    private void collectFragments(ScannedDirectory directory, CachedContext previous,
+                                  Map<Path, CachedContext.DirectoryFragment> fragments) {
+        for (ScannedEntry entry : directory.entries) {
+            if (entry.directory != null && entry.directory.depth <= properties.getMaxDepth()) {
+                CachedContext.DirectoryFragment child = previous.getDirectories().get(entry.directory.path);
+                if (child != null) {
+                    fragments.put(entry.directory.path, child);
+                    collectFragments(entry.directory, previous, fragments);
+                }
+            }
+        }
+    }
+
+    private CachedContext.FileSection renderFile(Path root, ScannedFile file) {
+        if (file.size > properties.getMaxFileSize()) {
+            logger.debug("Skipping large file: {} (size: {} bytes)", file.path, file.size);
+            return new CachedContext.FileSection(file.size, file.lastModified, "");
+        }
+        String fileContent = readFileContent(file.path);
+        if (fileContent == null) {
+            return null;
+        }
+        String text = "--- File: " + root.relativize(file.path) + " ---\n" + fileContent + "\n\n";
+        return new CachedContext.FileSection(file.size, file.lastModified, text);
+    }
+
+    /**
+     * One sorted depth-first pass that collects the tree entries up to {@code maxDepth}, selects up to
+     * {@code maxFiles} text files (descending further only while more are needed) and hashes names,
+     * sizes and modification times bottom-up, so that an unchanged tree is recognised without
+     * reading any file.
+     */
+    private final class Scan {
+        private final WorkspaceFilter filter;
+        private final CachedContext previous;
+        private final List<ScannedFile> selected = new ArrayList<>();
+        private boolean limitReached;
 
-        try (Stream<Path> paths = Files.list(directory)) {
-            List<Path> sortedPaths = paths.sorted().collect(Collectors.toList());
-            
-            for (Path path : sortedPaths) {
-                String fileName = path.getFileName().toString();
-                
-                if (shouldSkipPath(fileName)) {
+        Scan(WorkspaceFilter filter, CachedContext previous) {
+            this.filter = filter;
+            this.previous = previous;
+        }
+
+        ScannedDirectory scanDirectory(Path directory, int depth) throws IOException {
+            List<Path> children = new ArrayList<>();
+            try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory)) {
+                for (Path child : stream) {
+                    children.add(child);
+                }
+            }
+            Collections.sort(children);
+
+            ScannedDirectory scanned = new ScannedDirectory(directory, depth);
+            long hash = Fingerprint.SEED;
+            for (Path child : children) {
+                BasicFileAttributes attrs;
+                try {
+                    attrs = Files.readAttributes(child, BasicFileAttributes.class);
+                } catch (IOException e) {
                     continue;
                 }
+                String name = child.getFileName().toString();
 
-                tree.append(indent).append("├── ").append(fileName);
-                
-                if (Files.isDirectory(path)) {
-                    tree.append("/\n");
-                    tree.append(buildDirectoryTree(path, depth + 1, maxDepth));
+                if (attrs.isDirectory()) {
+                    if (filter.isIgnoredDirectory(child)) {
+                        continue;
+                    }
+                    ScannedDirectory subdirectory = depth + 1 <= properties.getMaxDepth() || needsFiles()
+                            ? scanDirectory(child, depth + 1) : null;
+                    if (depth <= properties.getMaxDepth()) {
+                        scanned.entries.add(new ScannedEntry(name, subdirectory == null
+                                ? new ScannedDirectory(child, depth + 1) : subdirectory));
+                    }
+                    hash = Fingerprint.mix(Fingerprint.mix(hash, name), subdirectory == null ? 0 : subdirectory.hash);
+                    hash = Fingerprint.mix(hash, 'd');
                 } else {
-                    tree.append("\n");
+                    if (filter.isIgnoredFile(child)) {
+                        continue;
+                    }
+                    if (depth <= properties.getMaxDepth()) {
+                        scanned.entries.add(new ScannedEntry(name, null));
+                    }
+                    long lastModified = attrs.lastModifiedTime().toMillis();
+                    if (attrs.isRegularFile()) {
+                        select(child, attrs.size(), lastModified);
+                    }
+                    hash = Fingerprint.mix(Fingerprint.mix(hash, name), attrs.size());
+                    hash = Fingerprint.mix(Fingerprint.mix(hash, lastModified), 'f');
                 }
             }
+            scanned.hash = hash;
+            return scanned;
         }
 
-        return tree.toString();
+        long fingerprint(ScannedDirectory tree) {
+            long hash = Fingerprint.mix(tree.hash, selected.size());
+            for (ScannedFile file : selected) {
+                hash = Fingerprint.mix(hash, file.path.toString());
+            }
+            return Fingerprint.mix(hash, limitReached ? 1 : 0);
+        }
+
+        private boolean needsFiles() {
+            return selected.size() < properties.getMaxFiles();
+        }
+
+        private void select(Path file, long size, long lastModified) {
+            if (!needsFiles()) {
+                limitReached = true;
+                return;
+            }
+            CachedContext.FileSection cached = previous == null ? null : previous.getFiles().get(file);
+            if ((cached != null && cached.matches(size, lastModified)) || filter.isTextFile(file)) {
+                selected.add(new ScannedFile(file, size, lastModified));
+            }
+        }
     }
 
-    private List<Path> listFiles(Path directory) throws IOException {
-        try (Stream<Path> paths = Files.walk(directory)) {
-            return paths
-                    .filter(Files::isRegularFile)
-                    .filter(path -> !shouldSkipPath(path.getFileName().toString()))
-                    .filter(path -> isTextFile(path))
-                    .limit(properties.getMaxFiles())
-                    .collect(Collectors.toList());
+    private static final class ScannedDirectory {
+        private final Path path;
+        private final int depth;
+        private final List<ScannedEntry> entries = new ArrayList<>();
+        private long hash;
+
+        ScannedDirectory(Path path, int depth) {
+            this.path = path;
+            this.depth = depth;
         }
     }
 
-    private String readFileContent(Path file) {
-        try {
-            long fileSize = Files.size(file);
-            if (fileSize > properties.getMaxFileSize()) {
-                logger.debug("Skipping large file: {} (size: {} bytes)", file, fileSize);
-                return null;
+    private static final class ScannedEntry {
+        private final String name;
+        private final ScannedDirectory directory;
+
+        ScannedEntry(String name, ScannedDirectory directory) {
+            this.name = name;
+            this.directory = directory;
+        }
+    }
+
+    private static final class ScannedFile {
+        private final Path path;
+        private final long size;
+        private final long lastModified;
+
+        ScannedFile(Path path, long size, long lastModified) {
+            this.path = path;
+            this.size = size;
+            this.lastModified = lastModified;
+        }
+    }
+
+    /**
+     * 64-bit FNV-1a over strings and longs; enough to tell trees apart, not meant to resist collisions
+     * crafted on purpose.
+     */
+    private static final class Fingerprint {
+        private static final long SEED = 0xcbf29ce484222325L;
+        private static final long PRIME = 0x100000001b3L;
+
+        static long mix(long hash, long value) {
+            for (int i = 0; i < 8; i++) {
+                hash ^= (value >>> (i * 8)) & 0xff;
+                hash *= PRIME;
             }
+            return hash;
+        }
 
+        static long mix(long hash, String value) {
+            for (int i = 0; i < value.length(); i++) {
+                hash ^= value.charAt(i);
+                hash *= PRIME;
+            }
+            return mix(hash, value.length());
+        }
+    }
+
+    private String readFileContent(Path file) {
+        try {
             return Files.readString(file);
         } catch (IOException e) {
             logger.warn("Could not read file: {}", file, e);
             return null;
         }
     }
-
-    private boolean shouldSkipPath(String fileName) {
-        return fileName.startsWith(".") ||
-               fileName.equals("target") ||
-               fileName.equals("build") ||
-               fileName.equals("node_modules") ||
-               fileName.equals("dist") ||
-               fileName.equals("out") ||
-               fileName.endsWith(".class") ||
-               fileName.endsWith(".jar") ||
-               fileName.endsWith(".war");
-    }
-
-    private boolean isTextFile(Path file) {
-        String fileName = file.getFileName().toString();
-        String lowerCase = fileName.toLowerCase();
-        
-        return lowerCase.endsWith(".java") ||
-               lowerCase.endsWith(".xml") ||
-               lowerCase.endsWith(".yml") ||
-               lowerCase.endsWith(".yaml") ||
-               lowerCase.endsWith(".properties") ||
-               lowerCase.endsWith(".txt") ||
-               lowerCase.endsWith(".md") ||
-               lowerCase.endsWith(".json") ||
-               lowerCase.endsWith(".js") ||
-               lowerCase.endsWith(".ts") ||
-               lowerCase.endsWith(".py") ||
-               lowerCase.endsWith(".sh") ||
-               lowerCase.endsWith(".sql") ||
-               lowerCase.endsWith(".html") ||
-               lowerCase.endsWith(".css") ||
-               lowerCase.endsWith(".kt") ||
-               lowerCase.endsWith(".gradle");
-    }
 }
@@ -1,12 +1,18 @@
 package com.codingagent.service;
 
+import com.codingagent.config.BatchProperties;
 import com.codingagent.exception.AgentException;
 import com.codingagent.model.AgentType;
+import com.codingagent.model.BatchTask;
 import com.codingagent.model.StreamEvent;
 import com.codingagent.service.agent.Agent;
+import com.codingagent.service.agent.AgentSession;
 import com.codingagent.service.agent.ClassificationAgent;
 import com.codingagent.service.agent.CollaborationAgent;
 import com.codingagent.service.agent.StreamingToolBasedAgent;
+import com.codingagent.service.trace.ExecutionTrace;
+import com.codingagent.service.trace.TraceService;
+import com.codingagent.service.trace.TraceSpan;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
@@ -14,6 +20,7 @@ import reactor.core.publisher.Flux;
 
 import java.util.List;
 import java.util.Map;
+import java.util.UUID;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
@@ -26,14 +33,20 @@ public class OrchestratorService {
     private final CollaborationAgent collaborationAgent;
     private final Map<AgentType, Agent> agents;
     private final FileSystemService fileSystemService;
+    private final TraceService traceService;
+    private final BatchProperties batchProperties;
 
     public OrchestratorService(ClassificationAgent classificationAgent,
                                CollaborationAgent collaborationAgent,
                                List<Agent> agentList,
-                               FileSystemService fileSystemService) {
+                               FileSystemService fileSystemService,
+                               TraceService traceService,
+                               BatchProperties batchProperties) {
         this.classificationAgent = classificationAgent;
         this.collaborationAgent = collaborationAgent;
         this.fileSystemService = fileSystemService;
+        this.traceService = traceService;
+        this.batchProperties = batchProperties;
         this.agents = agentList.stream()
                 .collect(Collectors.toMap(Agent::getType, Function.identity()));
         logger.info("OrchestratorService initialized with {} agents", agents.size());
@@ -42,20 +55,88 @@ public class OrchestratorService {
     public Flux<StreamEvent> processRequestStream(String userPrompt, String directoryPath, Boolean useCollaboration) {
         logger.info("Processing streaming request: {} (collaboration: {})", userPrompt, useCollaboration);
 
+        String sessionId = UUID.randomUUID().toString();
+        ExecutionTrace trace = traceService.startTrace(sessionId);
+        AgentSession session = new AgentSession(sessionId, directoryPath, trace);
+
+        TraceSpan classificationSpan = trace.root().child("classification", "orchestrator").bytes("prompt", userPrompt);
         AgentType selectedType = classificationAgent.classify(userPrompt);
-        
+        classificationSpan.attribute("agentType", selectedType.name()).end();
+
+        Flux<StreamEvent> events;
         if (Boolean.TRUE.equals(useCollaboration) && selectedType == AgentType.CODE) {
-            String directoryContext = buildDirectoryContext(directoryPath);
-            return collaborationAgent.executeCollaborativeStream(userPrompt, directoryContext, directoryPath);
+            String directoryContext = buildDirectoryContext(directoryPath, trace);
+            events = collaborationAgent.executeCollaborativeStream(userPrompt, directoryContext, session);
+        } else if (getAgent(selectedType) instanceof StreamingToolBasedAgent streamCapableAgent) {
+            String directoryContext = buildDirectoryContext(directoryPath, trace);
+            events = streamCapableAgent.executeStream(userPrompt, directoryContext, session);
+        } else {
+            events = Flux.error(new AgentException("Agent does not support streaming: " + selectedType));
         }
-        
-        Agent selectedAgent = getAgent(selectedType);
-        
-        if (selectedAgent instanceof StreamingToolBasedAgent streamCapableAgent) {
-            String directoryContext = buildDirectoryContext(directoryPath);
-            return streamCapableAgent.executeStream(userPrompt, directoryContext, directoryPath);
+
+        return Flux.concat(Flux.just(sessionStart(sessionId, selectedType)), events)
+                .doFinally(signal -> traceService.finishTrace(trace));
+    }
+
+    /**
+     * Runs several prompts against one directory. The prompts are classified in one model call and
+     * the directory context is built once for all of them; up to {@code batch.max-concurrent-tasks}
+     * tasks then run at a time, each as its own session. Every event carries the ID of the task it
+     * belongs to, and a failing task ends with an error event without affecting the others.
+     */
+    public Flux<StreamEvent> processBatchStream(List<BatchTask> tasks, String directoryPath) {
+        logger.info("Processing batch of {} tasks for directory: {}", tasks.size(), directoryPath);
+
+        List<AgentType> selectedTypes = classificationAgent.classifyAll(
+                tasks.stream().map(BatchTask::getPrompt).toList());
+        String directoryContext = "";
+        if (directoryPath != null && !directoryPath.trim().isEmpty()) {
+            directoryContext = fileSystemService.buildDirectoryContext(directoryPath);
         }
-        return Flux.error(new AgentException("Agent does not support streaming: " + selectedType));
+
+        String sharedContext = directoryContext;
+        return Flux.range(0, tasks.size())
+                .flatMap(index -> {
+                    BatchTask task = tasks.get(index);
+                    String taskId = task.getTaskId() != null ? task.getTaskId() : "task-" + (index + 1);
+                    return runBatchTask(task.getPrompt(), selectedTypes.get(index), directoryPath, sharedContext)
+                            .doOnNext(event -> event.setTaskId(taskId));
+                }, batchProperties.getMaxConcurrentTasks());
+    }
+
+    private Flux<StreamEvent> runBatchTask(String prompt, AgentType selectedType, String directoryPath,
+                                           String directoryContext) {
+        return Flux.defer(() -> {
+            String sessionId = UUID.randomUUID().toString();
+            ExecutionTrace trace = traceService.startTrace(sessionId);
+            trace.root().attribute("agentType", selectedType.name()).attribute("batch", true);
+            AgentSession session = new AgentSession(sessionId, directoryPath, trace);
+
+            Flux<StreamEvent> events;
+            if (getAgent(selectedType) instanceof StreamingToolBasedAgent streamCapableAgent) {
+                events = streamCapableAgent.executeStream(prompt, directoryContext, session);
+            } else {
+                events = Flux.error(new AgentException("Agent does not support streaming: " + selectedType));
+            }
+            return Flux.concat(Flux.just(sessionStart(sessionId, selectedType)), events)
+                    .doFinally(signal -> traceService.finishTrace(trace));
+        }).onErrorResume(e -> {
+            logger.error("Batch task failed", e);
+            return Flux.just(StreamEvent.builder()
+                    .type(StreamEvent.EventType.ERROR)
+                    .error(e.getMessage())
+                    .message("Fatal error: " + e.getMessage())
+                    .build());
+        });
+    }
+
+    private StreamEvent sessionStart(String sessionId, AgentType selectedType) {
+        return StreamEvent.builder()
+                .type(StreamEvent.EventType.SESSION_START)
+                .sessionId(sessionId)
+                .agentType(selectedType.name())
+                .message("Session " + sessionId + " started (" + selectedType + ")")
+                .build();
     }
 
     private Agent getAgent(AgentType agentType) {
@@ -67,11 +148,14 @@ public class OrchestratorService {
         return agent;
     }
 
-    private String buildDirectoryContext(String directoryPath) {
+    private String buildDirectoryContext(String directoryPath, ExecutionTrace trace) {
         if (directoryPath == null || directoryPath.trim().isEmpty()) {
             return "";
         }
         logger.info("Building directory context for: {}", directoryPath);
-        return fileSystemService.buildDirectoryContext(directoryPath);
+        TraceSpan contextSpan = trace.root().child("context.build", "orchestrator");
+        String directoryContext = fileSystemService.buildDirectoryContext(directoryPath);
+        contextSpan.bytes("context", directoryContext).end();
+        return directoryContext;
     }
 }
@@ -0,0 +1,91 @@
+package com.codingagent.service.agent;
+
+import com.codingagent.service.trace.ExecutionTrace;
+import com.codingagent.service.trace.TraceSpan;
+import com.codingagent.service.workspace.FileVersions;
+import com.codingagent.service.workspace.WorkspacePathResolver;
+
+import java.util.UUID;
+
+/**
+ * Per-request state shared by every agent taking part in one session.
+ */
+public class AgentSession {
+
+    private final String sessionId;
+    private final String baseDirectory;
+    private final ExecutionTrace trace;
+    private final TraceSpan parentSpan;
+    private final WorkspacePathResolver pathResolver;
+    private final FileVersions fileVersions;
+    private final String phase;
+
+    public AgentSession(String sessionId, String baseDirectory, ExecutionTrace trace) {
+        this(sessionId, baseDirectory, trace, trace.root(), new WorkspacePathResolver(baseDirectory),
+                new FileVersions(), null);
+    }
+
+    private AgentSession(String sessionId, String baseDirectory, ExecutionTrace trace, TraceSpan parentSpan,
+                         WorkspacePathResolver pathResolver, FileVersions fileVersions, String phase) {
+        this.sessionId = sessionId;
+        this.baseDirectory = baseDirectory;
+        this.trace = trace;
+        this.parentSpan = parentSpan;
+        this.pathResolver = pathResolver;
+        this.fileVersions = fileVersions;
+        this.phase = phase;
+    }
+
+    public static AgentSession untraced(String baseDirectory) {
+        return new AgentSession(UUID.randomUUID().toString(), baseDirectory, ExecutionTrace.disabled());
+    }
+
+    /**
+     * Returns a view of this session whose agent spans are recorded below the given span.
+     */
+    public AgentSession withParentSpan(TraceSpan span) {
+        return new AgentSession(sessionId, baseDirectory, trace, span, pathResolver, fileVersions, phase);
+    }
+
+    /**
+     * Returns a view of this session for one step of a multi-agent flow, such as
+     * {@code collaboration-refine}. Agents route their model calls by the phase before their type.
+     */
+    public AgentSession withPhase(String phase) {
+        return new AgentSession(sessionId, baseDirectory, trace, parentSpan, pathResolver, fileVersions, phase);
+    }
+
+    public String getSessionId() {
+        return sessionId;
+    }
+
+    public String getBaseDirectory() {
+        return baseDirectory;
+    }
+
+    public String getPhase() {
+        return phase;
+    }
+
+    public ExecutionTrace getTrace() {
+        return trace;
+    }
+
+    public TraceSpan getParentSpan() {
+        return parentSpan;
+    }
+
+    /**
+     * Resolves tool paths inside this session's workspace, caching the ones already checked.
+     */
+    public WorkspacePathResolver getPathResolver() {
+        return pathResolver;
+    }
+
+    /**
+     * Versions of the files this session's agents have read or written, checked before each write.
+     */
+    public FileVersions getFileVersions() {
+        return fileVersions;
+    }
+}
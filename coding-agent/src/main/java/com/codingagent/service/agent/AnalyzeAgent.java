@@ -1,13 +1,14 @@
 package com.codingagent.service.agent;
 
+import com.codingagent.config.AgentBudgetProperties;
+import com.codingagent.config.AgentProperties;
 import com.codingagent.model.AgentType;
-import com.codingagent.service.tool.Tool;
-import org.springframework.ai.chat.model.ChatModel;
-import org.springframework.beans.factory.annotation.Qualifier;
+import com.codingagent.service.history.ConversationHistoryFactory;
+import com.codingagent.service.model.ModelRouter;
+import com.codingagent.service.tool.ToolExecutor;
+import com.codingagent.service.tool.ToolRegistry;
 import org.springframework.stereotype.Service;
 
-import java.util.List;
-
 @Service
 public class AnalyzeAgent extends StreamingToolBasedAgent {
 
@@ -23,16 +24,19 @@ public class AnalyzeAgent extends StreamingToolBasedAgent {
             IMPORTANT INSTRUCTIONS:
             1. Use log_thought to document your analysis process
             2. Use list_files to explore the codebase structure
-            3. Use read_file to examine code files
-            4. Provide detailed, actionable feedback
-            5. MUST call finish_task when analysis is complete
+            3. Use find_symbol, file_outline and grep_files to locate code before reading it
+            4. Use read_files to examine several code files at once, read_file with startLine/endLine for large files
+            5. Provide detailed, actionable feedback
+            6. MUST call finish_task when analysis is complete
             
             Tool call format:
             TOOL: tool_name {"param": "value"}
             """;
 
-    public AnalyzeAgent(ChatModel chatModel, @Qualifier("analysisTools") List<Tool> tools) {
-        super(chatModel, tools);
+    public AnalyzeAgent(ModelRouter modelRouter, ToolRegistry toolRegistry, ToolExecutor toolExecutor,
+                        ConversationHistoryFactory historyFactory, AgentBudgetProperties budgetProperties,
+                        AgentProperties agentProperties) {
+        super(modelRouter, toolRegistry, toolExecutor, historyFactory, budgetProperties, agentProperties);
     }
 
     @Override
@@ -1,13 +1,14 @@
 package com.codingagent.service.agent;
 
+import com.codingagent.config.AgentBudgetProperties;
+import com.codingagent.config.AgentProperties;
 import com.codingagent.model.AgentType;
-import com.codingagent.service.tool.Tool;
-import org.springframework.ai.chat.model.ChatModel;
-import org.springframework.beans.factory.annotation.Qualifier;
+import com.codingagent.service.history.ConversationHistoryFactory;
+import com.codingagent.service.model.ModelRouter;
+import com.codingagent.service.tool.ToolExecutor;
+import com.codingagent.service.tool.ToolRegistry;
 import org.springframework.stereotype.Service;
 
-import java.util.List;
-
 @Service
 public class BugfixAgent extends StreamingToolBasedAgent {
 
@@ -22,17 +23,20 @@ public class BugfixAgent extends StreamingToolBasedAgent {
             
             IMPORTANT INSTRUCTIONS:
             1. Use log_thought to document your debugging process
-            2. Use list_files and read_file to examine the codebase
-            3. Use write_file to apply fixes
-            4. Explain the reasoning behind your fixes
-            5. MUST call finish_task when bug is fixed
+            2. Use list_files, read_files and read_file to examine the codebase
+            3. Use find_symbol and grep_files to locate failing code and call sites
+            4. Use write_file to apply fixes, or write_files when a fix spans several files
+            5. Explain the reasoning behind your fixes
+            6. MUST call finish_task when bug is fixed
             
             Tool call format:
             TOOL: tool_name {"param": "value"}
             """;
 
-    public BugfixAgent(ChatModel chatModel, @Qualifier("bugfixTools") List<Tool> tools) {
-        super(chatModel, tools);
+    public BugfixAgent(ModelRouter modelRouter, ToolRegistry toolRegistry, ToolExecutor toolExecutor,
+                       ConversationHistoryFactory historyFactory, AgentBudgetProperties budgetProperties,
+                       AgentProperties agentProperties) {
+        super(modelRouter, toolRegistry, toolExecutor, historyFactory, budgetProperties, agentProperties);
     }
 
     @Override
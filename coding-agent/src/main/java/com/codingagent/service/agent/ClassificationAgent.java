@@ -1,17 +1,23 @@
 package com.codingagent.service.agent;
 
 import com.codingagent.model.AgentType;
+import com.codingagent.service.model.ModelRoute;
+import com.codingagent.service.model.ModelRouter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.ai.chat.model.ChatModel;
-import org.springframework.ai.chat.prompt.Prompt;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
 @Service
 public class ClassificationAgent {
 
     private static final Logger logger = LoggerFactory.getLogger(ClassificationAgent.class);
-    private final ChatModel chatModel;
+    private final ModelRouter modelRouter;
 
     private static final String CLASSIFICATION_PROMPT = """
             You are a task classifier. Analyze the following user request and determine which type of coding agent should handle it.
@@ -26,17 +32,34 @@ public class ClassificationAgent {
             Respond with ONLY one word: ANALYZE, CODE, or BUGFIX
             """;
 
-    public ClassificationAgent(ChatModel chatModel) {
-        this.chatModel = chatModel;
+    private static final String BATCH_CLASSIFICATION_PROMPT = """
+            You are a task classifier. Analyze each of the following numbered user requests and determine which type of coding agent should handle it.
+            
+            Available agent types:
+            - ANALYZE: For code analysis, review, quality assessment, architecture evaluation, identifying issues
+            - CODE: For generating new code, implementing features, creating functions/classes
+            - BUGFIX: For debugging, fixing errors, resolving issues in existing code
+            
+            User requests:
+            {prompts}
+            
+            Respond with one line per request, in the form "<number>: <type>", where <type> is ANALYZE, CODE, or BUGFIX, and nothing else
+            """;
+
+    private static final Pattern BATCH_ANSWER = Pattern.compile("^\\s*(\\d+)\\s*[:.)-]\\s*([A-Za-z]+)");
+
+    public ClassificationAgent(ModelRouter modelRouter) {
+        this.modelRouter = modelRouter;
     }
 
     public AgentType classify(String userPrompt) {
         logger.info("Classifying request...");
         
         String classificationPromptText = CLASSIFICATION_PROMPT.replace("{prompt}", userPrompt);
-        Prompt prompt = new Prompt(classificationPromptText);
+        ModelRoute model = modelRouter.route("classification");
         
-        String response = chatModel.call(prompt).getResult().getOutput().getContent().trim().toUpperCase();
+        String response = model.chatModel().call(model.prompt(classificationPromptText))
+                .getResult().getOutput().getContent().trim().toUpperCase();
         logger.debug("Classification response: {}", response);
 
         try {
@@ -48,4 +71,55 @@ public class ClassificationAgent {
             return AgentType.CODE;
         }
     }
+
+    /**
+     * Classifies several requests with one model call. Requests the answer does not cover, or
+     * covers with an unknown type, default to CODE like {@link #classify}.
+     */
+    public List<AgentType> classifyAll(List<String> userPrompts) {
+        if (userPrompts.size() == 1) {
+            return List.of(classify(userPrompts.get(0)));
+        }
+        logger.info("Classifying {} requests in one call...", userPrompts.size());
+
+        StringBuilder numbered = new StringBuilder();
+        for (int i = 0; i < userPrompts.size(); i++) {
+            // Line breaks inside a request would blur where the next one starts
+            numbered.append(i + 1).append(". ").append(userPrompts.get(i).replaceAll("\\s+", " ")).append('\n');
+        }
+        ModelRoute model = modelRouter.route("classification");
+        String prompt = BATCH_CLASSIFICATION_PROMPT.replace("{prompts}", numbered.toString().trim());
+        String response = model.chatModel().call(model.prompt(prompt)).getResult().getOutput().getContent();
+        logger.debug("Batch classification response: {}", response);
+
+        return parseBatchAnswer(response, userPrompts.size());
+    }
+
+    static List<AgentType> parseBatchAnswer(String response, int count) {
+        AgentType[] types = new AgentType[count];
+        for (String line : response.split("\\R")) {
+            Matcher matcher = BATCH_ANSWER.matcher(line);
+            if (!matcher.find()) {
+                continue;
+            }
+            int index = Integer.parseInt(matcher.group(1)) - 1;
+            if (index < 0 || index >= count) {
+                continue;
+            }
+            try {
+                types[index] = AgentType.valueOf(matcher.group(2).toUpperCase());
+            } catch (IllegalArgumentException e) {
+                logger.warn("Unable to parse agent type for request {}: {}", index + 1, matcher.group(2));
+            }
+        }
+
+        List<AgentType> result = new ArrayList<>(Arrays.asList(types));
+        for (int i = 0; i < count; i++) {
+            if (result.get(i) == null) {
+                logger.warn("No agent type for request {}. Defaulting to CODE", i + 1);
+                result.set(i, AgentType.CODE);
+            }
+        }
+        return result;
+    }
 }
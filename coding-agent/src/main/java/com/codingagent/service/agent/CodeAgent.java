@@ -1,13 +1,14 @@
 package com.codingagent.service.agent;
 
+import com.codingagent.config.AgentBudgetProperties;
+import com.codingagent.config.AgentProperties;
 import com.codingagent.model.AgentType;
-import com.codingagent.service.tool.Tool;
-import org.springframework.ai.chat.model.ChatModel;
-import org.springframework.beans.factory.annotation.Qualifier;
+import com.codingagent.service.history.ConversationHistoryFactory;
+import com.codingagent.service.model.ModelRouter;
+import com.codingagent.service.tool.ToolExecutor;
+import com.codingagent.service.tool.ToolRegistry;
 import org.springframework.stereotype.Service;
 
-import java.util.List;
-
 @Service
 public class CodeAgent extends StreamingToolBasedAgent {
 
@@ -22,9 +23,10 @@ public class CodeAgent extends StreamingToolBasedAgent {
             IMPORTANT INSTRUCTIONS:
             1. Use log_thought to explain your reasoning before taking actions
             2. Use list_files to explore directory structure
-            3. Use read_file to examine existing code
-            4. Use write_file to create or modify files
-            5. MUST call finish_task when all work is complete
+            3. Use find_symbol, file_outline and grep_files to find existing code
+            4. Use read_files to examine several files at once, read_file with startLine/endLine for large files
+            5. Use write_files to create or modify several files in one call, write_file for a single file
+            6. MUST call finish_task when all work is complete
             
             Tool call format:
             TOOL: tool_name {"param": "value"}
@@ -35,8 +37,10 @@ public class CodeAgent extends StreamingToolBasedAgent {
             TOOL: finish_task {"summary": "Created User.java with basic structure"}
             """;
 
-    public CodeAgent(ChatModel chatModel, @Qualifier("codeTools") List<Tool> tools) {
-        super(chatModel, tools);
+    public CodeAgent(ModelRouter modelRouter, ToolRegistry toolRegistry, ToolExecutor toolExecutor,
+                     ConversationHistoryFactory historyFactory, AgentBudgetProperties budgetProperties,
+                     AgentProperties agentProperties) {
+        super(modelRouter, toolRegistry, toolExecutor, historyFactory, budgetProperties, agentProperties);
     }
 
     @Override
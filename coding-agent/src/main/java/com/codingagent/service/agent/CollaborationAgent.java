@@ -1,12 +1,14 @@
 package com.codingagent.service.agent;
 
 import com.codingagent.model.StreamEvent;
+import com.codingagent.service.trace.TraceSpan;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 import reactor.core.publisher.Flux;
 
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
 
 @Service
 public class CollaborationAgent {
@@ -22,6 +24,10 @@ public class CollaborationAgent {
     }
 
     public Flux<StreamEvent> executeCollaborativeStream(String userPrompt, String directoryContext, String baseDirectory) {
+        return executeCollaborativeStream(userPrompt, directoryContext, AgentSession.untraced(baseDirectory));
+    }
+
+    public Flux<StreamEvent> executeCollaborativeStream(String userPrompt, String directoryContext, AgentSession session) {
         logger.info("Starting collaborative code generation process (streaming)");
 
         AtomicReference<String> initialCodeRef = new AtomicReference<>("");
@@ -29,34 +35,44 @@ public class CollaborationAgent {
 
         return Flux.concat(
             emitPhaseEvent("Step 1/3: Generating initial code"),
-            codeAgent.executeStream(userPrompt, directoryContext, baseDirectory)
-                .doOnNext(event -> {
-                    if (event.getMessage() != null) {
-                        initialCodeRef.updateAndGet(current -> current + event.getMessage() + "\n");
-                    }
-                }),
+            tracedPhase(session, "generate", phaseSession ->
+                codeAgent.executeStream(userPrompt, directoryContext, phaseSession)
+                    .doOnNext(event -> {
+                        if (event.getMessage() != null && !StreamingToolBasedAgent.isProgressEvent(event)) {
+                            initialCodeRef.updateAndGet(current -> current + event.getMessage() + "\n");
+                        }
+                    })),
             
             emitPhaseEvent("Step 2/3: Analyzing generated code"),
-            Flux.defer(() -> {
+            tracedPhase(session, "analyze", phaseSession -> {
                 String analysisPrompt = buildAnalysisPrompt(userPrompt, initialCodeRef.get());
-                return analyzeAgent.executeStream(analysisPrompt, null, baseDirectory)
+                return analyzeAgent.executeStream(analysisPrompt, null, phaseSession)
                     .doOnNext(event -> {
-                        if (event.getMessage() != null) {
+                        if (event.getMessage() != null && !StreamingToolBasedAgent.isProgressEvent(event)) {
                             analysisRef.updateAndGet(current -> current + event.getMessage() + "\n");
                         }
                     });
             }),
             
             emitPhaseEvent("Step 3/3: Refining code based on analysis"),
-            Flux.defer(() -> {
+            tracedPhase(session, "refine", phaseSession -> {
                 String refinementPrompt = buildRefinementPrompt(userPrompt, analysisRef.get(), initialCodeRef.get());
-                return codeAgent.executeStream(refinementPrompt, directoryContext, baseDirectory);
+                return codeAgent.executeStream(refinementPrompt, directoryContext, phaseSession);
             }),
             
             emitPhaseEvent("Collaboration complete")
         );
     }
 
+    private Flux<StreamEvent> tracedPhase(AgentSession session, String phase,
+                                          Function<AgentSession, Flux<StreamEvent>> phaseBody) {
+        return Flux.defer(() -> {
+            TraceSpan phaseSpan = session.getParentSpan().child("collaboration." + phase, "collaboration");
+            return phaseBody.apply(session.withParentSpan(phaseSpan).withPhase("collaboration-" + phase))
+                .doFinally(signal -> phaseSpan.end());
+        });
+    }
+
     private Flux<StreamEvent> emitPhaseEvent(String message) {
         return Flux.just(StreamEvent.builder()
             .type(StreamEvent.EventType.LOG)
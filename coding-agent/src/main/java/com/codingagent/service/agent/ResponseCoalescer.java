@@ -0,0 +1,90 @@
+package com.codingagent.service.agent;
+
+import reactor.core.Disposable;
+import reactor.core.Disposables;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.FluxSink;
+import reactor.core.scheduler.Scheduler;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Merges model output chunks into larger pieces, so that clients receive one frame per flush
+ * interval instead of one per token. A piece is emitted when it reaches the size limit, when its
+ * first chunk has been buffered for the flush interval, and when the model stream ends.
+ */
+final class ResponseCoalescer {
+
+    private ResponseCoalescer() {
+    }
+
+    static Flux<String> coalesce(Flux<String> chunks, Duration flushInterval, int maxChars, Scheduler timer) {
+        return Flux.create(sink -> {
+            Pending pending = new Pending(sink, flushInterval.toNanos(), maxChars, timer);
+            // Registered before subscribing, as a synchronous source may be cancelled while it emits
+            Disposable.Swap upstream = Disposables.swap();
+            sink.onDispose(() -> {
+                upstream.dispose();
+                pending.cancelTimer();
+            });
+            upstream.update(chunks.subscribe(
+                    pending::add,
+                    error -> {
+                        pending.flush();
+                        sink.error(error);
+                    },
+                    () -> {
+                        pending.flush();
+                        sink.complete();
+                    }));
+        });
+    }
+
+    /**
+     * Text buffered since the last flush. Pieces are emitted while holding the lock, so a timer
+     * flush and a size flush racing each other cannot reorder the output.
+     */
+    private static final class Pending {
+        private final FluxSink<String> sink;
+        private final long flushIntervalNanos;
+        private final int maxChars;
+        private final Scheduler timer;
+        private final StringBuilder text = new StringBuilder();
+        private Disposable scheduledFlush;
+
+        Pending(FluxSink<String> sink, long flushIntervalNanos, int maxChars, Scheduler timer) {
+            this.sink = sink;
+            this.flushIntervalNanos = flushIntervalNanos;
+            this.maxChars = maxChars;
+            this.timer = timer;
+        }
+
+        synchronized void add(String chunk) {
+            if (chunk.isEmpty()) {
+                return;
+            }
+            text.append(chunk);
+            if (text.length() >= maxChars) {
+                flush();
+            } else if (scheduledFlush == null) {
+                scheduledFlush = timer.schedule(this::flush, flushIntervalNanos, TimeUnit.NANOSECONDS);
+            }
+        }
+
+        synchronized void flush() {
+            cancelTimer();
+            if (text.length() > 0) {
+                sink.next(text.toString());
+                text.setLength(0);
+            }
+        }
+
+        synchronized void cancelTimer() {
+            if (scheduledFlush != null) {
+                scheduledFlush.dispose();
+                scheduledFlush = null;
+            }
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package com.codingagent.service.agent;
+
+import com.codingagent.config.AgentBudgetProperties;
+import com.codingagent.service.trace.TraceSpan;
+
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tracks what one agent run has spent against its budget and whether it is still getting anywhere.
+ * A run stalls when it keeps repeating an identical tool call, keeps answering without tool calls
+ * despite reminders, or goes several iterations without touching a file it had not touched before.
+ * Not thread-safe; iterations of a run never overlap.
+ */
+class RunBudget {
+
+    private final AgentBudgetProperties properties;
+    private final AgentBudgetProperties.Budget budget;
+    private final long startNanos = System.nanoTime();
+    private final Map<String, Integer> toolCallCounts = new HashMap<>();
+    private final Set<String> touchedPaths = new LinkedHashSet<>();
+    private final Set<String> writtenPaths = new LinkedHashSet<>();
+    private long tokens;
+    private int repeatedToolCalls;
+    private int consecutiveNudges;
+    private int iterationsWithoutProgress;
+    private boolean progressThisIteration;
+    private boolean escalated;
+
+    RunBudget(AgentBudgetProperties properties, AgentBudgetProperties.Budget budget) {
+        this.properties = properties;
+        this.budget = budget;
+    }
+
+    int getMaxIterations() {
+        return budget.getMaxIterations();
+    }
+
+    /**
+     * Returns why the run may not start another iteration, or {@code null} while budget is left.
+     */
+    String exhausted(int completedIterations) {
+        if (completedIterations >= budget.getMaxIterations()) {
+            return "maximum iterations (" + budget.getMaxIterations() + ") reached";
+        }
+        if (tokens >= budget.getMaxTokens()) {
+            return "token budget (" + budget.getMaxTokens() + ") exhausted";
+        }
+        long elapsedSeconds = TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - startNanos);
+        if (elapsedSeconds >= budget.getMaxWallClockSeconds()) {
+            return "time budget (" + budget.getMaxWallClockSeconds() + "s) exhausted";
+        }
+        return null;
+    }
+
+    /**
+     * Counts what the run has put into its conversation. The prompt of each call already holds every
+     * earlier response and tool result, so the history re-sent with each call is counted once, not
+     * once per call.
+     */
+    void recordModelCall(long promptBytes, long responseBytes) {
+        tokens = Math.max(tokens, TraceSpan.estimateTokens(promptBytes + responseBytes));
+    }
+
+    void recordToolCall(String toolName, String parameters) {
+        consecutiveNudges = 0;
+        if (toolCallCounts.merge(toolName + ":" + parameters, 1, Integer::sum) > 1) {
+            repeatedToolCalls++;
+        }
+        for (String path : ToolParameterPaths.of(parameters)) {
+            if (touchedPaths.add(path)) {
+                progressThisIteration = true;
+            }
+        }
+    }
+
+    /**
+     * Records the paths of a call to a writing tool that succeeded.
+     */
+    void recordWrite(String parameters) {
+        writtenPaths.addAll(ToolParameterPaths.of(parameters));
+    }
+
+    void recordNudge() {
+        consecutiveNudges++;
+    }
+
+    /**
+     * Closes the current iteration and returns why the run is stalled, or {@code null} if it is not.
+     */
+    String endIteration() {
+        iterationsWithoutProgress = progressThisIteration ? 0 : iterationsWithoutProgress + 1;
+        progressThisIteration = false;
+
+        if (repeatedToolCalls >= properties.getMaxRepeatedToolCalls()) {
+            return repeatedToolCalls + " repeated identical tool calls";
+        }
+        if (consecutiveNudges >= properties.getMaxConsecutiveNudges()) {
+            return "no tool calls after " + consecutiveNudges + " reminders";
+        }
+        if (iterationsWithoutProgress >= properties.getMaxIterationsWithoutProgress()) {
+            return "no new files touched in " + iterationsWithoutProgress + " iterations";
+        }
+        return null;
+    }
+
+    /**
+     * Whether a stall should be answered with a warning to the model rather than by stopping. Only
+     * the first stall of a run is escalated; the counters start over so the model gets a fair chance.
+     */
+    boolean escalate() {
+        if (properties.getStallAction() != AgentBudgetProperties.StallAction.ESCALATE || escalated) {
+            return false;
+        }
+        escalated = true;
+        resetStallCounters();
+        return true;
+    }
+
+    /**
+     * Starts stall detection over, for example after the run has moved to a larger model.
+     */
+    void resetStallCounters() {
+        repeatedToolCalls = 0;
+        consecutiveNudges = 0;
+        iterationsWithoutProgress = 0;
+    }
+
+    long getTokens() {
+        return tokens;
+    }
+
+    Set<String> getWrittenPaths() {
+        return writtenPaths;
+    }
+}
@@ -1,16 +1,31 @@
 package com.codingagent.service.agent;
 
+import com.codingagent.config.AgentBudgetProperties;
+import com.codingagent.config.AgentProperties;
 import com.codingagent.model.StreamEvent;
+import com.codingagent.service.history.ConversationHistory;
+import com.codingagent.service.history.ConversationHistoryFactory;
+import com.codingagent.service.model.ModelRoute;
+import com.codingagent.service.model.ModelRouter;
 import com.codingagent.service.tool.Tool;
 import com.codingagent.service.tool.ToolExecutionContext;
+import com.codingagent.service.tool.ToolExecutor;
+import com.codingagent.service.tool.ToolMetadata;
+import com.codingagent.service.tool.ToolRegistry;
+import com.codingagent.service.trace.TraceSpan;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.ai.chat.model.ChatModel;
 import org.springframework.ai.chat.prompt.Prompt;
 import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Schedulers;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
@@ -18,26 +33,49 @@ import java.util.stream.Collectors;
 public abstract class StreamingToolBasedAgent implements Agent {
 
     private static final Logger logger = LoggerFactory.getLogger(StreamingToolBasedAgent.class);
-    private static final int MAX_ITERATIONS = 20;
     private static final int MAX_FILE_CONTENT_LOG_LENGTH = 200;
     private static final int MAX_DISPLAY_CONTENT_LENGTH = 500;
+    private static final int MAX_PARTIAL_RESULT_LENGTH = 1000;
     private static final Pattern TOOL_CALL_PATTERN = Pattern.compile(
             "TOOL:\\s*(\\w+)\\s*(\\{.*?\\}(?=\\s*(?:TOOL:|Assistant:|$)))",
             Pattern.DOTALL
     );
 
-    protected final ChatModel chatModel;
-    protected final List<Tool> tools;
+    protected final ModelRouter modelRouter;
+    protected final ToolRegistry toolRegistry;
+    protected final ToolExecutor toolExecutor;
+    protected final ConversationHistoryFactory historyFactory;
+    protected final AgentBudgetProperties budgetProperties;
+    protected final AgentProperties agentProperties;
 
-    protected StreamingToolBasedAgent(ChatModel chatModel, List<Tool> tools) {
-        this.chatModel = chatModel;
-        this.tools = tools;
+    protected StreamingToolBasedAgent(ModelRouter modelRouter, ToolRegistry toolRegistry, ToolExecutor toolExecutor,
+                                      ConversationHistoryFactory historyFactory,
+                                      AgentBudgetProperties budgetProperties, AgentProperties agentProperties) {
+        this.modelRouter = modelRouter;
+        this.toolRegistry = toolRegistry;
+        this.toolExecutor = toolExecutor;
+        this.historyFactory = historyFactory;
+        this.budgetProperties = budgetProperties;
+        this.agentProperties = agentProperties;
+    }
+
+    /**
+     * Whether the event only reports progress: model output as it streams in and tool calls about
+     * to run. Their content is repeated by the tool results and the final summary.
+     */
+    static boolean isProgressEvent(StreamEvent event) {
+        StreamEvent.EventType type = event.getType();
+        return type == StreamEvent.EventType.AI_THINKING
+                || type == StreamEvent.EventType.AI_RESPONSE
+                || type == StreamEvent.EventType.TOOL_CALL;
     }
 
     @Override
     public String execute(String prompt, String directoryContext) {
         StringBuilder result = new StringBuilder();
-        executeStream(prompt, directoryContext, null).toStream().forEach(event -> {
+        executeStream(prompt, directoryContext, AgentSession.untraced(null))
+                .filter(event -> !isProgressEvent(event))
+                .toStream().forEach(event -> {
             if (event.getMessage() != null) {
                 result.append(event.getMessage()).append("\n");
             }
@@ -46,32 +84,45 @@ public abstract class StreamingToolBasedAgent implements Agent {
     }
 
     public Flux<StreamEvent> executeStream(String prompt, String directoryContext, String baseDirectory) {
-        return Flux.create(sink -> {
-            try {
-                // Set base directory in thread-local context for tools to use
-                if (baseDirectory != null && !baseDirectory.trim().isEmpty()) {
-                    ToolExecutionContext.setBaseDirectory(baseDirectory);
-                }
-                executeWithSinkAsync(prompt, directoryContext, sink);
-            } catch (Exception e) {
-                logger.error("Error during streaming execution", e);
-                sink.next(StreamEvent.builder()
-                        .type(StreamEvent.EventType.ERROR)
-                        .error(e.getMessage())
-                        .message("Fatal error: " + e.getMessage())
-                        .build());
-                sink.complete();
-            } finally {
-                // Clean up thread-local context
-                ToolExecutionContext.clear();
-            }
-        });
+        return executeStream(prompt, directoryContext, AgentSession.untraced(baseDirectory));
     }
 
-    private void executeWithSinkAsync(String prompt, String directoryContext, reactor.core.publisher.FluxSink<StreamEvent> sink) {
-        logger.info("{} starting streaming tool-based execution...", getLogPrefix());
+    /**
+     * Runs the tool loop as a single reactive chain. Every iteration is subscribed only after the
+     * previous one completed, so cancelling the returned Flux stops the in-flight model stream and
+     * tool call and prevents any further model calls.
+     */
+    public Flux<StreamEvent> executeStream(String prompt, String directoryContext, AgentSession session) {
+        return Flux.defer(() -> {
+                    logger.info("{} starting streaming tool-based execution...", getLogPrefix());
+                    AgentRun run = startRun(prompt, directoryContext, session);
+                    return nextIteration(run)
+                            .doOnCancel(() -> logger.info("{} run cancelled by subscriber after {} iterations",
+                                    getLogPrefix(), run.iteration.get()))
+                            .doFinally(signal -> {
+                                run.span.end();
+                                run.history.close();
+                            });
+                })
+                .onErrorResume(e -> {
+                    logger.error("Error during streaming execution", e);
+                    return Flux.just(StreamEvent.builder()
+                            .type(StreamEvent.EventType.ERROR)
+                            .error(e.getMessage())
+                            .message("Fatal error: " + e.getMessage())
+                            .build());
+                });
+    }
+
+    private AgentRun startRun(String prompt, String directoryContext, AgentSession session) {
+        AgentRun run = new AgentRun(session,
+                session.getParentSpan().child(getType().name().toLowerCase() + ".run", "agent"),
+                historyFactory.create(), new RunBudget(budgetProperties, budgetProperties.forType(getType())),
+                modelRouter.route(session.getPhase(), getType().name().toLowerCase()));
+        run.span.attribute("model", run.model.describe());
+        TraceSpan contextSpan = run.span.child("history.init", "agent");
 
-        StringBuilder conversationHistory = new StringBuilder();
+        ConversationHistory conversationHistory = run.history;
         conversationHistory.append(buildSystemPrompt()).append("\n\n");
         conversationHistory.append("Available Tools:\n").append(buildToolDescriptions()).append("\n\n");
 
@@ -81,125 +132,246 @@ public abstract class StreamingToolBasedAgent implements Agent {
 
         conversationHistory.append("User Request: ").append(prompt).append("\n\n");
         conversationHistory.append("Begin your work. Use tools to accomplish the task.\n");
-
-        AtomicBoolean taskComplete = new AtomicBoolean(false);
-        java.util.concurrent.atomic.AtomicInteger iteration = new java.util.concurrent.atomic.AtomicInteger(0);
-
-        processNextIteration(conversationHistory, taskComplete, iteration, sink);
+        contextSpan.bytes("history", conversationHistory.utf8Length()).end();
+        return run;
     }
 
-    private void processNextIteration(StringBuilder conversationHistory, AtomicBoolean taskComplete, 
-                                     java.util.concurrent.atomic.AtomicInteger iteration, 
-                                     reactor.core.publisher.FluxSink<StreamEvent> sink) {
-        if (taskComplete.get() || iteration.get() >= MAX_ITERATIONS) {
-            if (!taskComplete.get()) {
-                logger.warn("Task did not complete within {} iterations", MAX_ITERATIONS);
-                sink.next(StreamEvent.builder()
-                        .type(StreamEvent.EventType.ERROR)
-                        .error("Maximum iterations reached")
-                        .message("Task incomplete: Maximum iterations (" + MAX_ITERATIONS + ") reached")
-                        .build());
-            }
-            sink.complete();
-            return;
+    private Flux<StreamEvent> nextIteration(AgentRun run) {
+        if (run.taskComplete.get() || run.failed) {
+            return Flux.empty();
         }
 
-        iteration.incrementAndGet();
-        
-        sink.next(StreamEvent.builder()
+        String stopReason = run.stopReason != null ? run.stopReason : run.budget.exhausted(run.iteration.get());
+        if (stopReason != null) {
+            return Flux.just(stopEarly(run, stopReason));
+        }
+
+        int maxIterations = run.budget.getMaxIterations();
+        int iteration = run.iteration.incrementAndGet();
+        logger.info("Iteration {}/{}", iteration, maxIterations);
+
+        StreamEvent iterationStart = StreamEvent.builder()
                 .type(StreamEvent.EventType.ITERATION_START)
-                .iteration(iteration.get())
-                .message("Starting iteration " + iteration.get() + " of " + MAX_ITERATIONS)
-                .build());
+                .iteration(iteration)
+                .message("Starting iteration " + iteration + " of " + maxIterations)
+                .build();
+
+        return Flux.concat(
+                Flux.just(iterationStart),
+                streamModelResponse(run, iteration),
+                Flux.defer(() -> nextIteration(run)));
+    }
+
+    /**
+     * Ends a run that ran out of budget or stalled, reporting what it got done so that the caller
+     * has a partial result instead of nothing.
+     */
+    private StreamEvent stopEarly(AgentRun run, String reason) {
+        logger.warn("{} stopping after {} iterations: {}", getLogPrefix(), run.iteration.get(), reason);
+        run.span.attribute("stopReason", reason).attribute("estimatedTokens", run.budget.getTokens());
 
-        logger.info("Iteration {}/{}", iteration.get(), MAX_ITERATIONS);
+        StringBuilder message = new StringBuilder("Task incomplete: ").append(reason)
+                .append(" after ").append(run.iteration.get()).append(" iterations.");
+        if (!run.budget.getWrittenPaths().isEmpty()) {
+            message.append("\nFiles written: ").append(String.join(", ", run.budget.getWrittenPaths()));
+        }
+        if (run.lastResponse != null && !run.lastResponse.isBlank()) {
+            message.append("\nLast response: ").append(truncate(run.lastResponse.trim(), MAX_PARTIAL_RESULT_LENGTH));
+        }
+        return StreamEvent.builder()
+                .type(StreamEvent.EventType.ERROR)
+                .error(reason)
+                .filesWritten(List.copyOf(run.budget.getWrittenPaths()))
+                .message(message.toString())
+                .build();
+    }
 
-        Prompt aiPrompt = new Prompt(conversationHistory.toString());
+    private Flux<StreamEvent> streamModelResponse(AgentRun run, int iteration) {
+        TraceSpan iterationSpan = run.span.child("iteration " + iteration, "iteration");
+        TraceSpan modelSpan = iterationSpan.child("model.stream", "model").bytes("prompt", run.history.utf8Length());
+
+        long promptBytes = run.history.utf8Length();
+        ModelRoute model = run.model;
+        modelSpan.attribute("model", model.describe());
+        Prompt aiPrompt = model.prompt(run.history.toPromptText());
         StringBuilder responseBuffer = new StringBuilder();
-        java.util.Set<String> executedToolCalls = new java.util.HashSet<>();
-        
-        // Process AI response chunks in real-time without blocking
-        chatModel.stream(aiPrompt)
-                .doOnNext(chatResponse -> {
-                    String chunk = chatResponse.getResult().getOutput().getContent();
-                    responseBuffer.append(chunk);
-                    logger.debug("AI chunk: {}", truncate(chunk, 100));
-                    
-                    // Try to extract and execute tool calls as chunks arrive
-                    String currentResponse = responseBuffer.toString();
-                    List<ToolCall> toolCalls = extractToolCalls(currentResponse);
-                    
-                    // Process only new tool calls (not already executed)
-                    for (ToolCall toolCall : toolCalls) {
-                        String toolCallKey = toolCall.toolName + ":" + toolCall.parameters;
-                        
-                        if (!executedToolCalls.contains(toolCallKey)) {
-                            executedToolCalls.add(toolCallKey);
-                            
-                            logger.debug("Executing tool: {} with parameters: {}", 
-                                    toolCall.toolName, truncate(toolCall.parameters, 200));
-                            
-                            String result = executeTool(toolCall);
-                            String displayResult = truncateToolResult(toolCall.toolName, result);
-                            
-                            logger.debug("Tool {} result: {}", toolCall.toolName,
-                                    truncate(displayResult, MAX_FILE_CONTENT_LOG_LENGTH));
-                            
-                            // Stream tool result event immediately
-                            sink.next(StreamEvent.builder()
-                                    .type(StreamEvent.EventType.TOOL_RESULT)
-                                    .toolName(toolCall.toolName)
-                                    .toolResult(displayResult)
-                                    .message("Tool " + toolCall.toolName + " completed")
-                                    .build());
-                            
-                            conversationHistory.append("Tool Result (")
-                                    .append(toolCall.toolName).append("): ")
-                                    .append(result).append("\n\n");
-                            
-                            if (toolCall.toolName.equals("finish_task")) {
-                                taskComplete.set(true);
-                                sink.next(StreamEvent.builder()
-                                        .type(StreamEvent.EventType.TASK_COMPLETE)
-                                        .complete(true)
-                                        .message("Task completed successfully: " + result)
-                                        .build());
-                            }
-                        }
+        Set<String> executedToolCalls = new HashSet<>();
+        long requestedAt = System.nanoTime();
+        AtomicBoolean awaitingFirstChunk = new AtomicBoolean(true);
+
+        Flux<String> chunks = model.chatModel().stream(aiPrompt)
+                .mapNotNull(chatResponse -> chatResponse.getResult().getOutput().getContent())
+                .doOnNext(chunk -> {
+                    if (!chunk.isEmpty() && awaitingFirstChunk.compareAndSet(true, false)) {
+                        modelSpan.attribute("firstChunkMillis", (System.nanoTime() - requestedAt) / 1_000_000);
                     }
+                    logger.debug("AI chunk: {}", truncate(chunk, 100));
+                });
+
+        // Model output is forwarded in coalesced pieces, and tool calls are executed as soon as
+        // they are complete. A TOOL_CALL event announces each call before it runs.
+        return ResponseCoalescer.coalesce(chunks,
+                        Duration.ofMillis(agentProperties.getResponseFlushIntervalMillis()),
+                        agentProperties.getResponseFlushMaxChars(), Schedulers.parallel())
+                .concatMap(text -> {
+                    responseBuffer.append(text);
+                    StreamEvent response = StreamEvent.builder()
+                            .type(StreamEvent.EventType.AI_RESPONSE)
+                            .iteration(iteration)
+                            .message(text)
+                            .build();
+
+                    List<ToolCall> newToolCalls = extractNewToolCalls(responseBuffer.toString(), executedToolCalls);
+                    return Flux.just(response).concatWith(Flux.fromIterable(newToolCalls)
+                            .concatMap(toolCall -> Flux.just(toolCallEvent(toolCall, iteration))
+                                    .concatWith(runTool(run, toolCall, iterationSpan))));
                 })
+                // Stop consuming model output once the task is finished; takeUntil cancels the
+                // upstream model subscription and any tool calls still queued behind finish_task
+                .takeUntil(event -> event.getType() == StreamEvent.EventType.TASK_COMPLETE)
                 .doOnComplete(() -> {
                     String fullResponse = responseBuffer.toString();
                     logger.debug("AI Response complete: {}", truncate(fullResponse, 500));
-                    conversationHistory.append("Assistant: ").append(fullResponse).append("\n\n");
-                    
+                    modelSpan.bytes("response", fullResponse).end();
+                    iterationSpan.end();
+                    run.budget.recordModelCall(promptBytes, fullResponse.length());
+                    run.lastResponse = fullResponse;
+
+                    if (run.taskComplete.get()) {
+                        return;
+                    }
+
+                    run.history.append("Assistant: ").append(fullResponse).append("\n\n");
+
                     // Check if we need to prompt for tools
-                    List<ToolCall> finalToolCalls = extractToolCalls(fullResponse);
-                    if (finalToolCalls.isEmpty() && !taskComplete.get()) {
+                    if (extractToolCalls(fullResponse).isEmpty()) {
                         logger.warn("No tool calls found in response. Prompting agent to use tools.");
-                        conversationHistory.append("System: You must use tools to complete the task. ")
+                        run.budget.recordNudge();
+                        run.history.append("System: You must use tools to complete the task. ")
                                 .append("Call tools using format: TOOL: tool_name {parameters}\n\n");
                     }
-                    
-                    // Process next iteration recursively
-                    processNextIteration(conversationHistory, taskComplete, iteration, sink);
+                    checkForStall(run);
                 })
-                .doOnError(error -> {
+                .doOnCancel(() -> {
+                    logger.info("{} model stream cancelled in iteration {}", getLogPrefix(), iteration);
+                    modelSpan.attribute("cancelled", true).bytes("response", responseBuffer).end();
+                    iterationSpan.end();
+                })
+                .onErrorResume(error -> {
                     logger.error("Error during AI streaming", error);
-                    sink.next(StreamEvent.builder()
+                    modelSpan.attribute("error", String.valueOf(error.getMessage())).end();
+                    iterationSpan.end();
+                    run.failed = true;
+                    return Flux.just(StreamEvent.builder()
                             .type(StreamEvent.EventType.ERROR)
                             .error(error.getMessage())
                             .message("Error during AI processing: " + error.getMessage())
                             .build());
-                    sink.complete();
                 })
-                .subscribe();
+                .startWith(StreamEvent.builder()
+                        .type(StreamEvent.EventType.AI_THINKING)
+                        .iteration(iteration)
+                        .message("Waiting for the model")
+                        .build());
+    }
+
+    private StreamEvent toolCallEvent(ToolCall toolCall, int iteration) {
+        return StreamEvent.builder()
+                .type(StreamEvent.EventType.TOOL_CALL)
+                .iteration(iteration)
+                .toolName(toolCall.toolName)
+                .toolParameters(truncateToolParameters(toolCall.toolName, toolCall.parameters))
+                .message("Calling tool: " + toolCall.toolName)
+                .build();
+    }
+
+    private void checkForStall(AgentRun run) {
+        String stall = run.budget.endIteration();
+        if (stall == null) {
+            return;
+        }
+        ModelRoute larger = run.modelEscalated ? null : modelRouter.escalate(run.model);
+        if (larger != null) {
+            // The first stall on a small model is answered with a larger one, before the budget's
+            // own stall action applies
+            logger.warn("{} run looks stalled ({}) on model {}, continuing on {}",
+                    getLogPrefix(), stall, run.model.describe(), larger.describe());
+            run.span.attribute("modelEscalated", run.model.describe() + " -> " + larger.describe());
+            run.model = larger;
+            run.modelEscalated = true;
+            run.budget.resetStallCounters();
+            run.history.append("System: You appear to be stuck (").append(stall).append("). ")
+                    .append("Do not repeat earlier tool calls. Try a different approach.\n\n");
+        } else if (run.budget.escalate()) {
+            logger.warn("{} run looks stalled ({}), asking the model to change approach", getLogPrefix(), stall);
+            run.span.attribute("escalated", stall);
+            run.history.append("System: You appear to be stuck (").append(stall).append("). ")
+                    .append("Do not repeat earlier tool calls. Try a different approach, or call finish_task ")
+                    .append("with a summary of what you have done so far.\n\n");
+        } else {
+            run.stopReason = "stalled: " + stall;
+        }
+    }
+
+    private Flux<StreamEvent> runTool(AgentRun run, ToolCall toolCall, TraceSpan iterationSpan) {
+        logger.debug("Executing tool: {} with parameters: {}",
+                toolCall.toolName, truncate(toolCall.parameters, 200));
+        run.budget.recordToolCall(toolCall.toolName, toolCall.parameters);
+
+        Tool tool = toolRegistry.find(getType(), toolCall.toolName);
+        if (tool == null) {
+            return Flux.fromIterable(handleToolResult(run, toolCall,
+                    "Error: Unknown tool '" + toolCall.toolName + "'"));
+        }
+
+        // Tools do blocking I/O, so they run on the executor's bounded pools rather than the model
+        // stream's event loop. Cancelling the subscription interrupts a tool that is still running.
+        return toolExecutor.execute(tool, run.session.getPathResolver().getRoot(),
+                        () -> executeTool(run, tool, toolCall, iterationSpan))
+                .flatMapIterable(result -> handleToolResult(run, toolCall, result));
+    }
+
+    private List<StreamEvent> handleToolResult(AgentRun run, ToolCall toolCall, String result) {
+        String displayResult = truncateToolResult(toolCall.toolName, result);
+        logger.debug("Tool {} result: {}", toolCall.toolName,
+                truncate(displayResult, MAX_FILE_CONTENT_LOG_LENGTH));
+
+        List<StreamEvent> events = new ArrayList<>(2);
+        events.add(StreamEvent.builder()
+                .type(StreamEvent.EventType.TOOL_RESULT)
+                .toolName(toolCall.toolName)
+                .toolResult(displayResult)
+                .message("Tool " + toolCall.toolName + " completed")
+                .build());
+
+        run.history.append("Tool Result (")
+                .append(toolCall.toolName).append("): ")
+                .append(result).append("\n\n");
+
+        if (toolRegistry.getMetadata(toolCall.toolName).isTerminal()) {
+            run.taskComplete.set(true);
+            events.add(StreamEvent.builder()
+                    .type(StreamEvent.EventType.TASK_COMPLETE)
+                    .complete(true)
+                    .filesWritten(List.copyOf(run.budget.getWrittenPaths()))
+                    .message("Task completed successfully: " + result)
+                    .build());
+        }
+        return events;
+    }
+
+    private List<ToolCall> extractNewToolCalls(String response, Set<String> executedToolCalls) {
+        List<ToolCall> newToolCalls = new ArrayList<>();
+        for (ToolCall toolCall : extractToolCalls(response)) {
+            if (executedToolCalls.add(toolCall.toolName + ":" + toolCall.parameters)) {
+                newToolCalls.add(toolCall);
+            }
+        }
+        return newToolCalls;
     }
 
     private String buildToolDescriptions() {
-        return tools.stream()
-                .map(tool -> String.format("- %s: %s", tool.getName(), tool.getDescription()))
-                .collect(Collectors.joining("\n"));
+        return toolRegistry.describeTools(getType());
     }
 
     private List<ToolCall> extractToolCalls(String response) {
@@ -260,63 +432,99 @@ public abstract class StreamingToolBasedAgent implements Agent {
         return braceCount == 0 && !inString;
     }
 
-    private String executeTool(ToolCall toolCall) {
-        Tool tool = tools.stream()
-                .filter(t -> t.getName().equals(toolCall.toolName))
-                .findFirst()
-                .orElse(null);
+    private String executeTool(AgentRun run, Tool tool, ToolCall toolCall, TraceSpan iterationSpan) {
+        TraceSpan toolSpan = iterationSpan.child("tool " + toolCall.toolName, "tool")
+                .bytes("parameters", toolCall.parameters);
 
-        if (tool == null) {
-            return "Error: Unknown tool '" + toolCall.toolName + "'";
+        // Tools run on a worker thread, so the base directory is set for the duration of the call
+        String baseDirectory = run.session.getBaseDirectory();
+        if (baseDirectory != null && !baseDirectory.trim().isEmpty()) {
+            ToolExecutionContext.setBaseDirectory(baseDirectory);
         }
-
+        ToolExecutionContext.setPathResolver(run.session.getPathResolver());
+        ToolExecutionContext.setFileVersions(run.session.getFileVersions());
         try {
-            logger.debug("Executing tool {} with parameters: {}", toolCall.toolName, 
-                    truncate(toolCall.parameters, 200));
-            return tool.execute(toolCall.parameters);
-        } catch (Exception e) {
-            logger.error("Error executing tool {}", toolCall.toolName, e);
-            return "Error: " + e.getMessage();
+            ToolMetadata metadata = tool.getMetadata();
+            ToolResultMemo.Lookup lookup = null;
+            if (metadata.isCacheable()) {
+                lookup = run.memo.lookup(toolCall.toolName, toolCall.parameters, run.session.getPathResolver(),
+                        run.session.getFileVersions());
+                if (lookup.isHit()) {
+                    toolSpan.attribute("memoized", true);
+                    return lookup.reference();
+                }
+            }
+
+            String result = limitResultSize(tool.execute(toolCall.parameters), metadata.getMaxResultSize());
+            toolSpan.bytes("result", result);
+            if (lookup != null) {
+                run.memo.remember(lookup, run.iteration.get(), result);
+            } else if (!metadata.isReadOnly()) {
+                run.memo.invalidate();
+                // Rejected and refused writes leave the files as they were
+                if (!result.startsWith("Error")) {
+                    run.budget.recordWrite(toolCall.parameters);
+                }
+            }
+            return result;
+        } finally {
+            ToolExecutionContext.clear();
+            toolSpan.end();
         }
     }
 
     private String truncateToolParameters(String toolName, String parameters) {
-        if (toolName.equals("write_file")) {
-            try {
-                if (parameters.contains("\"content\"")) {
-                    int contentStart = parameters.indexOf("\"content\"");
-                    int valueStart = parameters.indexOf(":", contentStart) + 1;
-                    int valueEnd = findJsonStringEnd(parameters, valueStart);
-                    
-                    if (valueEnd > valueStart) {
-                        String beforeContent = parameters.substring(0, valueStart);
-                        String afterContent = parameters.substring(valueEnd);
-                        return beforeContent + " \"[CONTENT TRUNCATED]\"" + afterContent;
-                    }
-                }
-            } catch (Exception e) {
-                logger.debug("Could not truncate content in parameters", e);
+        String display = parameters;
+        for (String name : toolRegistry.getMetadata(toolName).getContentParameters()) {
+            display = hideStringValues(display, name);
+        }
+        return truncate(display, MAX_DISPLAY_CONTENT_LENGTH);
+    }
+
+    /**
+     * Replaces the string value of every {@code name} field with a placeholder. Works on the raw
+     * text, so parameters that are not quite valid JSON are still handled.
+     */
+    private String hideStringValues(String parameters, String name) {
+        String key = "\"" + name + "\"";
+        StringBuilder hidden = new StringBuilder(parameters.length());
+        int copied = 0;
+        int keyStart = parameters.indexOf(key);
+        while (keyStart >= 0) {
+            int valueStart = parameters.indexOf(':', keyStart + key.length()) + 1;
+            int valueEnd = valueStart > 0 ? findJsonStringEnd(parameters, valueStart) : -1;
+            if (valueEnd <= valueStart) {
+                break;
             }
+            hidden.append(parameters, copied, valueStart).append(" \"[CONTENT TRUNCATED]\"");
+            copied = valueEnd;
+            keyStart = parameters.indexOf(key, valueEnd);
+        }
+        return hidden.append(parameters, copied, parameters.length()).toString();
+    }
+
+    private String limitResultSize(String result, int maxResultSize) {
+        if (result == null || result.length() <= maxResultSize) {
+            return result;
         }
-        return truncate(parameters, MAX_DISPLAY_CONTENT_LENGTH);
+        return result.substring(0, maxResultSize)
+                + "\n[Result truncated: " + maxResultSize + " of " + result.length() + " characters shown]";
     }
 
     private String truncateToolResult(String toolName, String result) {
-        if (toolName.equals("read_file")) {
-            // For read_file, only show filename, not content
-            if (result != null && result.startsWith("Error")) {
+        ToolMetadata.DisplayPolicy displayPolicy = toolRegistry.getMetadata(toolName).getDisplayPolicy();
+        switch (displayPolicy) {
+            case HIDE_CONTENT:
+                // Only confirm success, the content itself is not displayed
+                if (result != null && result.startsWith("Error")) {
+                    return result;
+                }
+                return "[" + toolName + " completed - content not displayed]";
+            case TRUNCATE:
+                return truncate(result, MAX_DISPLAY_CONTENT_LENGTH);
+            case FULL:
+            default:
                 return result;
-            }
-            return "[File read successfully - content not displayed]";
-        } else if (toolName.equals("write_file")) {
-            // For write_file, show success message (no content)
-            return result;
-        } else if (toolName.equals("list_files")) {
-            // For list_files, truncate if too long
-            return truncate(result, MAX_DISPLAY_CONTENT_LENGTH);
-        } else {
-            // For other tools (log_thought, finish_task), show complete
-            return result;
         }
     }
 
@@ -359,6 +567,30 @@ public abstract class StreamingToolBasedAgent implements Agent {
 
     protected abstract String getLogPrefix();
 
+    private static class AgentRun {
+        final AgentSession session;
+        final TraceSpan span;
+        final ConversationHistory history;
+        final RunBudget budget;
+        final ToolResultMemo memo = new ToolResultMemo();
+        final AtomicBoolean taskComplete = new AtomicBoolean(false);
+        final AtomicInteger iteration = new AtomicInteger(0);
+        volatile boolean failed;
+        volatile String stopReason;
+        volatile String lastResponse;
+        volatile ModelRoute model;
+        volatile boolean modelEscalated;
+
+        AgentRun(AgentSession session, TraceSpan span, ConversationHistory history, RunBudget budget,
+                 ModelRoute model) {
+            this.session = session;
+            this.span = span;
+            this.history = history;
+            this.budget = budget;
+            this.model = model;
+        }
+    }
+
     private static class ToolCall {
         final String toolName;
         final String parameters;
@@ -0,0 +1,56 @@
+package com.codingagent.service.agent;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The file paths a tool call names: {@code path} values anywhere in the parameters, and the plain
+ * string entries of {@code files} and {@code paths} lists or of a bare top-level list, as
+ * read_files accepts. Paths are returned as written, in order; malformed parameters name none.
+ */
+final class ToolParameterPaths {
+
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+
+    private ToolParameterPaths() {
+    }
+
+    static List<String> of(String parameters) {
+        List<String> paths = new ArrayList<>();
+        JsonNode root;
+        try {
+            root = objectMapper.readTree(parameters);
+        } catch (Exception e) {
+            return paths;
+        }
+        collect(root, true, paths);
+        return paths;
+    }
+
+    private static void collect(JsonNode node, boolean pathList, List<String> paths) {
+        if (node == null) {
+            return;
+        }
+        if (node.isArray()) {
+            for (JsonNode element : node) {
+                if (pathList && element.isTextual()) {
+                    paths.add(element.asText());
+                } else {
+                    collect(element, false, paths);
+                }
+            }
+        } else if (node.isObject()) {
+            node.fields().forEachRemaining(field -> {
+                JsonNode value = field.getValue();
+                if (field.getKey().equals("path") && value.isTextual()) {
+                    paths.add(value.asText());
+                } else {
+                    collect(value, field.getKey().equals("files") || field.getKey().equals("paths"), paths);
+                }
+            });
+        }
+    }
+}
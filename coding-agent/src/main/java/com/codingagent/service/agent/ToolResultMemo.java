@@ -0,0 +1,166 @@
+package com.codingagent.service.agent;
+
+import com.codingagent.service.workspace.FileVersions;
+import com.codingagent.service.workspace.WorkspacePathResolver;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Remembers which cacheable tool calls of a run already put their result into the conversation
+ * history. A repeated call whose target files are unchanged gets a short reference to the earlier
+ * result instead of the same content again. Files are fingerprinted by the version the session's
+ * read tools recorded in {@link FileVersions}, so a lookup never reads file content. Only calls
+ * naming plain files the session has read are remembered: a glob, a directory or a call without
+ * paths depends on files that have no recorded version. Only keys and fingerprints are kept; the
+ * content itself lives in the history. Any call of a tool that is not read-only forgets everything,
+ * since it may have changed what the remembered results describe.
+ */
+class ToolResultMemo {
+
+    private static final ObjectMapper objectMapper = new ObjectMapper()
+            .configure(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS, true);
+
+    private final Map<String, Entry> entries = new HashMap<>();
+
+    /**
+     * Looks up a call before it runs. The returned lookup must be passed to {@link #remember} once the
+     * call produced a result.
+     */
+    synchronized Lookup lookup(String toolName, String parameters, WorkspacePathResolver resolver,
+                               FileVersions versions) {
+        String key = toolName + " " + canonicalize(parameters) + " @" + resolver.getRoot();
+        List<Path> targets = targets(parameters, resolver);
+        String fingerprint = fingerprint(targets, versions);
+        Entry entry = fingerprint != null ? entries.get(key) : null;
+        Integer iteration = entry != null && entry.fingerprint.equals(fingerprint) ? entry.iteration : null;
+        return new Lookup(toolName, key, targets, versions, iteration);
+    }
+
+    /**
+     * Remembers the result of a call. The fingerprint is taken now, from the versions the call itself
+     * recorded while holding the files' read locks, so it describes exactly the content in the result.
+     */
+    synchronized void remember(Lookup lookup, int iteration, String result) {
+        if (result == null || result.startsWith("Error")) {
+            return;
+        }
+        String fingerprint = fingerprint(lookup.targets, lookup.versions);
+        if (fingerprint != null) {
+            entries.put(lookup.key, new Entry(iteration, fingerprint));
+        }
+    }
+
+    synchronized void invalidate() {
+        entries.clear();
+    }
+
+    /**
+     * Canonical form of the parameters: JSON objects with sorted keys and no insignificant
+     * whitespace, or the trimmed raw text when the parameters are not JSON.
+     */
+    private static String canonicalize(String parameters) {
+        try {
+            Object value = objectMapper.treeToValue(objectMapper.readTree(parameters), Object.class);
+            return objectMapper.writeValueAsString(value);
+        } catch (Exception e) {
+            return parameters.trim();
+        }
+    }
+
+    /**
+     * The files the parameters name, resolved through the session's workspace, or null when the
+     * call names none or names a glob or a path outside the workspace.
+     */
+    private static List<Path> targets(String parameters, WorkspacePathResolver resolver) {
+        List<String> paths = ToolParameterPaths.of(parameters);
+        if (paths.isEmpty()) {
+            return null;
+        }
+        List<Path> targets = new ArrayList<>(paths.size());
+        for (String path : paths) {
+            if (isGlob(path)) {
+                return null;
+            }
+            try {
+                targets.add(resolver.resolve(path));
+            } catch (IOException | RuntimeException e) {
+                return null;
+            }
+        }
+        return targets;
+    }
+
+    /**
+     * The recorded version of each target, or null when one of them has no version that is still
+     * current and the call cannot be remembered.
+     */
+    private static String fingerprint(List<Path> targets, FileVersions versions) {
+        if (targets == null) {
+            return null;
+        }
+        StringBuilder fingerprint = new StringBuilder();
+        for (Path target : targets) {
+            String version = versions.fingerprint(target);
+            if (version == null) {
+                return null;
+            }
+            fingerprint.append(version).append(';');
+        }
+        return fingerprint.toString();
+    }
+
+    private static boolean isGlob(String path) {
+        for (int i = 0; i < path.length(); i++) {
+            char c = path.charAt(i);
+            if (c == '*' || c == '?' || c == '[' || c == '{') {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    static final class Lookup {
+        private final String toolName;
+        private final String key;
+        private final List<Path> targets;
+        private final FileVersions versions;
+        private final Integer iteration;
+
+        private Lookup(String toolName, String key, List<Path> targets, FileVersions versions, Integer iteration) {
+            this.toolName = toolName;
+            this.key = key;
+            this.targets = targets;
+            this.versions = versions;
+            this.iteration = iteration;
+        }
+
+        boolean isHit() {
+            return iteration != null;
+        }
+
+        /**
+         * What the model sees instead of the repeated result.
+         */
+        String reference() {
+            return "Unchanged since iteration " + iteration + ": the result of this " + toolName
+                    + " call shown in iteration " + iteration + " above is still current.";
+        }
+    }
+
+    private static final class Entry {
+        private final int iteration;
+        private final String fingerprint;
+
+        private Entry(int iteration, String fingerprint) {
+            this.iteration = iteration;
+            this.fingerprint = fingerprint;
+        }
+    }
+}
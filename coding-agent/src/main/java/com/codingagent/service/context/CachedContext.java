@@ -0,0 +1,112 @@
+package com.codingagent.service.context;
+
+import java.nio.file.Path;
+import java.util.Map;
+
+/**
+ * A rendered directory context and the pieces it was built from.
+ */
+public class CachedContext {
+
+    private final long fingerprint;
+    private final String body;
+    private final Map<Path, DirectoryFragment> directories;
+    private final Map<Path, FileSection> files;
+    private final long fullBuildNanos;
+    private final long size;
+
+    public CachedContext(long fingerprint, String body, Map<Path, DirectoryFragment> directories,
+                         Map<Path, FileSection> files, long fullBuildNanos) {
+        this.fingerprint = fingerprint;
+        this.body = body;
+        this.directories = directories;
+        this.files = files;
+        this.fullBuildNanos = fullBuildNanos;
+        long total = body.length();
+        for (DirectoryFragment fragment : directories.values()) {
+            total += fragment.getText().length();
+        }
+        for (FileSection section : files.values()) {
+            total += section.getText().length();
+        }
+        this.size = total;
+    }
+
+    /**
+     * Merkle hash of the scanned tree: names, types, sizes and modification times of everything the
+     * rendering depends on.
+     */
+    public long getFingerprint() {
+        return fingerprint;
+    }
+
+    public String getBody() {
+        return body;
+    }
+
+    public Map<Path, DirectoryFragment> getDirectories() {
+        return directories;
+    }
+
+    public Map<Path, FileSection> getFiles() {
+        return files;
+    }
+
+    /**
+     * Duration of the last build that started without any reusable pieces.
+     */
+    public long getFullBuildNanos() {
+        return fullBuildNanos;
+    }
+
+    /**
+     * Approximate size in bytes (one per character) of everything this entry holds.
+     */
+    public long size() {
+        return size;
+    }
+
+    /**
+     * Rendered tree lines of one directory, valid while its subtree hash is unchanged.
+     */
+    public static class DirectoryFragment {
+        private final long hash;
+        private final String text;
+
+        public DirectoryFragment(long hash, String text) {
+            this.hash = hash;
+            this.text = text;
+        }
+
+        public long getHash() {
+            return hash;
+        }
+
+        public String getText() {
+            return text;
+        }
+    }
+
+    /**
+     * Rendered content section of one file, valid while its size and modification time are unchanged.
+     */
+    public static class FileSection {
+        private final long size;
+        private final long lastModified;
+        private final String text;
+
+        public FileSection(long size, long lastModified, String text) {
+            this.size = size;
+            this.lastModified = lastModified;
+            this.text = text;
+        }
+
+        public boolean matches(long size, long lastModified) {
+            return this.size == size && this.lastModified == lastModified;
+        }
+
+        public String getText() {
+            return text;
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package com.codingagent.service.context;
+
+import com.codingagent.config.DirectoryContextCacheProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rendered directory contexts per workspace root, bounded by their approximate total size (one byte
+ * per character) and evicted least recently used first. Each entry keeps the fingerprint of the tree it was rendered
+ * from, the rendered body and the pieces it was assembled from, so that a changed tree only
+ * re-renders the directories and re-reads the files that differ.
+ * <p>
+ * Metrics: {@code directory.context.requests} (tagged hit, partial or miss),
+ * {@code directory.context.build} (build time per outcome), {@code directory.context.time.saved}
+ * (estimated milliseconds saved per request compared to the last full build),
+ * {@code directory.context.cache.hit.ratio} and {@code directory.context.cache.bytes}.
+ */
+@Component
+public class DirectoryContextCache {
+
+    public enum Outcome {
+        HIT, PARTIAL, MISS
+    }
+
+    private final DirectoryContextCacheProperties properties;
+    private final Map<Path, CachedContext> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final Map<Outcome, Counter> requests = new LinkedHashMap<>();
+    private final Map<Outcome, Timer> buildTimes = new LinkedHashMap<>();
+    private final DistributionSummary timeSaved;
+    private long totalSize;
+
+    public DirectoryContextCache(DirectoryContextCacheProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        for (Outcome outcome : Outcome.values()) {
+            String tag = outcome.name().toLowerCase();
+            requests.put(outcome, Counter.builder("directory.context.requests")
+                    .tag("result", tag)
+                    .register(meterRegistry));
+            buildTimes.put(outcome, Timer.builder("directory.context.build")
+                    .tag("result", tag)
+                    .register(meterRegistry));
+        }
+        this.timeSaved = DistributionSummary.builder("directory.context.time.saved")
+                .baseUnit("milliseconds")
+                .register(meterRegistry);
+        Gauge.builder("directory.context.cache.hit.ratio", this, DirectoryContextCache::hitRatio)
+                .register(meterRegistry);
+        Gauge.builder("directory.context.cache.bytes", this, DirectoryContextCache::getTotalSize)
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return properties.isEnabled();
+    }
+
+    public synchronized CachedContext get(Path root) {
+        return entries.get(root);
+    }
+
+    public synchronized void put(Path root, CachedContext context) {
+        CachedContext previous = entries.remove(root);
+        if (previous != null) {
+            totalSize -= previous.size();
+        }
+        if (context.size() > properties.getMaxBytes()) {
+            return;
+        }
+        entries.put(root, context);
+        totalSize += context.size();
+
+        Iterator<CachedContext> eldest = entries.values().iterator();
+        while (totalSize > properties.getMaxBytes() && eldest.hasNext()) {
+            totalSize -= eldest.next().size();
+            eldest.remove();
+        }
+    }
+
+    /**
+     * Records one request. {@code savedNanos} is the estimated time saved compared to building the
+     * context from scratch.
+     */
+    public void record(Outcome outcome, long elapsedNanos, long savedNanos) {
+        requests.get(outcome).increment();
+        buildTimes.get(outcome).record(elapsedNanos, TimeUnit.NANOSECONDS);
+        timeSaved.record(TimeUnit.NANOSECONDS.toMillis(savedNanos));
+    }
+
+    public synchronized long getTotalSize() {
+        return totalSize;
+    }
+
+    private double hitRatio() {
+        double hits = requests.get(Outcome.HIT).count();
+        double total = hits + requests.get(Outcome.PARTIAL).count() + requests.get(Outcome.MISS).count();
+        return total == 0 ? 0 : hits / total;
+    }
+}
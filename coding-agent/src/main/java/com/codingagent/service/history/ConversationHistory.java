@@ -0,0 +1,192 @@
+package com.codingagent.service.history;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Append-only conversation text stored as UTF-8 in fixed-size segments instead of one growing UTF-16
+ * buffer. Segments come from a shared pool (on or off heap) and, once the history grows past the
+ * spill threshold, from a memory-mapped temporary file. Characters are never split across
+ * segments, so every segment is valid UTF-8 on its own.
+ * <p>
+ * Appending never copies what is already stored. {@link #segments()} and {@link #writeTo} expose
+ * the content without copying it; {@link #toPromptText()} decodes it straight into the single String
+ * a model prompt needs. Closing the history returns its segments to the pool; appends after that
+ * are ignored, so a late tool result of a cancelled run cannot write into memory that another
+ * session already reuses.
+ */
+public class ConversationHistory implements AutoCloseable {
+
+    private final SegmentPool pool;
+    private final long spillThresholdBytes;
+    private final Path spillDirectory;
+    private final List<ByteBuffer> segments = new ArrayList<>();
+    private final List<Boolean> mapped = new ArrayList<>();
+    private FileChannel spillChannel;
+    private long completedBytes;
+    private boolean ascii = true;
+    private boolean closed;
+
+    ConversationHistory(SegmentPool pool, long spillThresholdBytes, Path spillDirectory) {
+        this.pool = pool;
+        this.spillThresholdBytes = spillThresholdBytes;
+        this.spillDirectory = spillDirectory;
+    }
+
+    public synchronized ConversationHistory append(CharSequence text) {
+        if (closed) {
+            return this;
+        }
+        String value = String.valueOf(text);
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        ascii &= bytes.length == value.length();
+
+        int offset = 0;
+        while (offset < bytes.length) {
+            ByteBuffer segment = writableSegment();
+            int length = Math.min(segment.remaining(), bytes.length - offset);
+            // Never split a character: end the segment before a sequence that does not fit
+            while (length > 0 && offset + length < bytes.length && (bytes[offset + length] & 0xC0) == 0x80) {
+                length--;
+            }
+            if (length == 0) {
+                nextSegment();
+                continue;
+            }
+            segment.put(bytes, offset, length);
+            offset += length;
+        }
+        return this;
+    }
+
+    /**
+     * Size of the stored text in UTF-8 bytes.
+     */
+    public synchronized long utf8Length() {
+        if (segments.isEmpty()) {
+            return 0;
+        }
+        return completedBytes + segments.get(segments.size() - 1).position();
+    }
+
+    public synchronized boolean isSpilled() {
+        return spillChannel != null;
+    }
+
+    /**
+     * Read-only views of the stored segments in order. The views share memory with this history and
+     * must not be used after it is closed.
+     */
+    public synchronized List<ByteBuffer> segments() {
+        List<ByteBuffer> views = new ArrayList<>(segments.size());
+        for (ByteBuffer segment : segments) {
+            views.add(segment.duplicate().flip().asReadOnlyBuffer());
+        }
+        return Collections.unmodifiableList(views);
+    }
+
+    /**
+     * Writes the stored UTF-8 bytes to the channel without materialising them on the heap.
+     */
+    public synchronized void writeTo(WritableByteChannel channel) throws IOException {
+        for (ByteBuffer segment : segments) {
+            ByteBuffer view = segment.duplicate().flip();
+            while (view.hasRemaining()) {
+                channel.write(view);
+            }
+        }
+    }
+
+    /**
+     * The whole history as the String a model prompt takes. The bytes are gathered into a scratch
+     * buffer borrowed from the pool, so for typical histories the String is the only allocation.
+     */
+    public synchronized String toPromptText() {
+        long length = utf8Length();
+        if (length > Integer.MAX_VALUE - 8) {
+            throw new IllegalStateException("Conversation history too large for a single prompt: " + length + " bytes");
+        }
+        byte[] bytes = pool.borrowScratch((int) length);
+        try {
+            int offset = 0;
+            for (ByteBuffer segment : segments) {
+                ByteBuffer view = segment.duplicate().flip();
+                int size = view.remaining();
+                view.get(bytes, offset, size);
+                offset += size;
+            }
+            // ASCII is valid Latin-1, which skips the UTF-8 validation pass
+            return new String(bytes, 0, offset, ascii ? StandardCharsets.ISO_8859_1 : StandardCharsets.UTF_8);
+        } finally {
+            pool.returnScratch(bytes);
+        }
+    }
+
+    @Override
+    public synchronized String toString() {
+        return toPromptText();
+    }
+
+    @Override
+    public synchronized void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        for (int i = 0; i < segments.size(); i++) {
+            if (!mapped.get(i)) {
+                pool.release(segments.get(i));
+            }
+        }
+        segments.clear();
+        mapped.clear();
+        if (spillChannel != null) {
+            try {
+                spillChannel.close();
+            } catch (IOException e) {
+                // The file is deleted on close; nothing else to release
+            }
+        }
+    }
+
+    private ByteBuffer writableSegment() {
+        if (segments.isEmpty() || !segments.get(segments.size() - 1).hasRemaining()) {
+            nextSegment();
+        }
+        return segments.get(segments.size() - 1);
+    }
+
+    private void nextSegment() {
+        if (!segments.isEmpty()) {
+            completedBytes += segments.get(segments.size() - 1).position();
+        }
+        boolean spill = spillThresholdBytes > 0 && completedBytes >= spillThresholdBytes;
+        segments.add(spill ? mapSegment() : pool.acquire());
+        mapped.add(spill);
+    }
+
+    private ByteBuffer mapSegment() {
+        try {
+            if (spillChannel == null) {
+                Files.createDirectories(spillDirectory);
+                Path file = Files.createTempFile(spillDirectory, "history-", ".utf8");
+                spillChannel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE,
+                        StandardOpenOption.DELETE_ON_CLOSE);
+            }
+            long position = spillChannel.size();
+            return spillChannel.map(FileChannel.MapMode.READ_WRITE, position, pool.getSegmentSize());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not spill conversation history to " + spillDirectory, e);
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package com.codingagent.service.history;
+
+import com.codingagent.config.HistoryProperties;
+import org.springframework.stereotype.Component;
+
+import java.nio.file.Path;
+
+/**
+ * Creates conversation histories that share one segment pool.
+ */
+@Component
+public class ConversationHistoryFactory {
+
+    private final HistoryProperties properties;
+    private final SegmentPool pool;
+
+    public ConversationHistoryFactory(HistoryProperties properties) {
+        this.properties = properties;
+        this.pool = new SegmentPool(properties.getSegmentSize(),
+                properties.getStorage() == HistoryProperties.Storage.OFF_HEAP, properties.getMaxPooledBytes());
+    }
+
+    public ConversationHistory create() {
+        return new ConversationHistory(pool, properties.getSpillThresholdBytes(),
+                Path.of(properties.getSpillDirectory()));
+    }
+
+    /**
+     * Bytes currently held by the pool for reuse.
+     */
+    public long getPooledBytes() {
+        return pool.getPooledBytes();
+    }
+}
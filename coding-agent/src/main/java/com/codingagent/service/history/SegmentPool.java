@@ -0,0 +1,85 @@
+package com.codingagent.service.history;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Free list of fixed-size segments shared by all histories, so that finished sessions hand their
+ * memory to new ones instead of leaving it to the garbage collector.
+ */
+class SegmentPool {
+
+    // Scratch arrays are pooled only up to this many segments each and this many in total, so
+    // pooled heap stays small however many threads build prompts
+    private static final int MAX_SCRATCH_SEGMENTS = 4;
+    private static final int MAX_POOLED_SCRATCH = Runtime.getRuntime().availableProcessors();
+
+    private final int segmentSize;
+    private final boolean direct;
+    private final long maxPooledBytes;
+    private final ConcurrentLinkedQueue<ByteBuffer> free = new ConcurrentLinkedQueue<>();
+    private final AtomicLong pooledBytes = new AtomicLong();
+    private final ConcurrentLinkedQueue<byte[]> scratch = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pooledScratch = new AtomicInteger();
+
+    SegmentPool(int segmentSize, boolean direct, long maxPooledBytes) {
+        this.segmentSize = segmentSize;
+        this.direct = direct;
+        this.maxPooledBytes = maxPooledBytes;
+    }
+
+    ByteBuffer acquire() {
+        ByteBuffer segment = free.poll();
+        if (segment != null) {
+            pooledBytes.addAndGet(-segmentSize);
+            return segment;
+        }
+        return direct ? ByteBuffer.allocateDirect(segmentSize) : ByteBuffer.allocate(segmentSize);
+    }
+
+    void release(ByteBuffer segment) {
+        if (pooledBytes.addAndGet(segmentSize) > maxPooledBytes) {
+            pooledBytes.addAndGet(-segmentSize);
+            return;
+        }
+        segment.clear();
+        free.offer(segment);
+    }
+
+    /**
+     * A heap buffer of at least {@code length} bytes, to be handed back with
+     * {@link #returnScratch} once the caller is done with it. Requests larger than
+     * {@value #MAX_SCRATCH_SEGMENTS} segments get a fresh array that is never pooled.
+     */
+    byte[] borrowScratch(int length) {
+        byte[] buffer = scratch.poll();
+        if (buffer != null) {
+            pooledScratch.decrementAndGet();
+            if (buffer.length >= length) {
+                return buffer;
+            }
+        }
+        return new byte[Math.max(length, segmentSize)];
+    }
+
+    void returnScratch(byte[] buffer) {
+        if (buffer.length > MAX_SCRATCH_SEGMENTS * segmentSize) {
+            return;
+        }
+        if (pooledScratch.incrementAndGet() > MAX_POOLED_SCRATCH) {
+            pooledScratch.decrementAndGet();
+            return;
+        }
+        scratch.offer(buffer);
+    }
+
+    int getSegmentSize() {
+        return segmentSize;
+    }
+
+    long getPooledBytes() {
+        return pooledBytes.get();
+    }
+}
@@ -0,0 +1,65 @@
+package com.codingagent.service.index;
+
+import java.util.List;
+
+public class CodeSearchResult {
+
+    private final List<Match> matches;
+    private final int candidateFiles;
+    private final int indexedFiles;
+    private final boolean truncated;
+    private final long elapsedMillis;
+
+    public CodeSearchResult(List<Match> matches, int candidateFiles, int indexedFiles,
+                            boolean truncated, long elapsedMillis) {
+        this.matches = matches;
+        this.candidateFiles = candidateFiles;
+        this.indexedFiles = indexedFiles;
+        this.truncated = truncated;
+        this.elapsedMillis = elapsedMillis;
+    }
+
+    public List<Match> getMatches() {
+        return matches;
+    }
+
+    public int getCandidateFiles() {
+        return candidateFiles;
+    }
+
+    public int getIndexedFiles() {
+        return indexedFiles;
+    }
+
+    public boolean isTruncated() {
+        return truncated;
+    }
+
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    public static class Match {
+        private final String path;
+        private final int line;
+        private final String text;
+
+        public Match(String path, int line, String text) {
+            this.path = path;
+            this.line = line;
+            this.text = text;
+        }
+
+        public String getPath() {
+            return path;
+        }
+
+        public int getLine() {
+            return line;
+        }
+
+        public String getText() {
+            return text;
+        }
+    }
+}
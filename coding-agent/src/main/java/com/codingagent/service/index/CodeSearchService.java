@@ -0,0 +1,244 @@
+package com.codingagent.service.index;
+
+import com.codingagent.config.CodeSearchProperties;
+import com.codingagent.config.FileSystemProperties;
+import com.codingagent.service.workspace.FileWrittenEvent;
+import com.codingagent.service.workspace.WorkspaceFilter;
+import com.codingagent.service.workspace.WorkspaceFilterService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Line-oriented literal and regex search over a workspace, narrowed by a {@link TrigramIndex} per
+ * workspace root. Indexes are built lazily on the first search, kept up to date when tools write
+ * files and rebuilt once they are older than {@code code-search.max-index-age-seconds}, which picks
+ * up changes made outside the agent.
+ */
+@Service
+public class CodeSearchService {
+
+    private static final Logger logger = LoggerFactory.getLogger(CodeSearchService.class);
+    private static final int MAX_LINE_LENGTH = 200;
+
+    private final WorkspaceFilterService workspaceFilterService;
+    private final FileSystemProperties fileSystemProperties;
+    private final CodeSearchProperties properties;
+    private final Map<Path, IndexHolder> indexes;
+
+    public CodeSearchService(WorkspaceFilterService workspaceFilterService,
+                             FileSystemProperties fileSystemProperties,
+                             CodeSearchProperties properties) {
+        this.workspaceFilterService = workspaceFilterService;
+        this.fileSystemProperties = fileSystemProperties;
+        this.properties = properties;
+        this.indexes = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Path, IndexHolder> eldest) {
+                return size() > properties.getMaxIndexedRoots();
+            }
+        };
+    }
+
+    public CodeSearchResult search(Path root, String query, boolean regex, boolean caseSensitive,
+                                   String pathPrefix, int maxResults) throws IOException {
+        long start = System.nanoTime();
+        Path normalizedRoot = root.toAbsolutePath().normalize();
+        TrigramIndex index = getIndex(normalizedRoot);
+
+        int flags = caseSensitive ? 0 : Pattern.CASE_INSENSITIVE | Pattern.UNICODE_CASE;
+        Pattern pattern = Pattern.compile(regex ? query : Pattern.quote(query), flags);
+        List<String> literals = regex ? RegexLiterals.mandatoryLiterals(query) : List.of(query);
+
+        List<TrigramIndex.IndexedFile> candidates = new ArrayList<>(
+                index.candidates(TrigramIndex.requiredTrigrams(literals)));
+        candidates.sort(Comparator.comparing(TrigramIndex.IndexedFile::getPath));
+
+        Path scope = pathPrefix == null || pathPrefix.isBlank()
+                ? normalizedRoot
+                : normalizedRoot.resolve(pathPrefix).normalize();
+        int limit = Math.min(maxResults, properties.getMaxResults());
+
+        List<CodeSearchResult.Match> matches = new ArrayList<>();
+        boolean truncated = false;
+        for (TrigramIndex.IndexedFile candidate : candidates) {
+            if (!candidate.getPath().startsWith(scope)) {
+                continue;
+            }
+            if (!scanFile(index, candidate, pattern, matches, limit)) {
+                truncated = true;
+                break;
+            }
+        }
+
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        logger.debug("Search for '{}' checked {} of {} files, {} matches in {} ms",
+                query, candidates.size(), index.size(), matches.size(), elapsedMillis);
+        return new CodeSearchResult(matches, candidates.size(), index.size(), truncated, elapsedMillis);
+    }
+
+    /**
+     * Appends the matching lines of one file. Returns {@code false} once the limit is reached.
+     */
+    private boolean scanFile(TrigramIndex index, TrigramIndex.IndexedFile candidate, Pattern pattern,
+                             List<CodeSearchResult.Match> matches, int limit) {
+        Path file = candidate.getPath();
+        String content;
+        try {
+            long lastModified = Files.getLastModifiedTime(file).toMillis();
+            content = Files.readString(file);
+            if (lastModified != candidate.getLastModified()) {
+                index.add(file, content, lastModified);
+            }
+        } catch (NoSuchFileException e) {
+            index.remove(file);
+            return true;
+        } catch (IOException e) {
+            logger.debug("Could not read {} during search", file, e);
+            return true;
+        }
+
+        String relativePath = index.getRoot().relativize(file).toString();
+        Matcher matcher = pattern.matcher(content);
+        int lineStart = 0;
+        int lineNumber = 1;
+        while (lineStart <= content.length()) {
+            int lineEnd = content.indexOf('\n', lineStart);
+            if (lineEnd < 0) {
+                lineEnd = content.length();
+            }
+            matcher.region(lineStart, lineEnd);
+            if (matcher.find()) {
+                if (matches.size() >= limit) {
+                    return false;
+                }
+                matches.add(new CodeSearchResult.Match(relativePath, lineNumber,
+                        displayLine(content, lineStart, lineEnd)));
+            }
+            lineStart = lineEnd + 1;
+            lineNumber++;
+        }
+        return true;
+    }
+
+    private static String displayLine(String content, int start, int end) {
+        if (end > start && content.charAt(end - 1) == '\r') {
+            end--;
+        }
+        if (end - start > MAX_LINE_LENGTH) {
+            return content.substring(start, start + MAX_LINE_LENGTH) + "...";
+        }
+        return content.substring(start, end);
+    }
+
+    public TrigramIndex getIndex(Path root) throws IOException {
+        IndexHolder holder;
+        synchronized (indexes) {
+            holder = indexes.computeIfAbsent(root, IndexHolder::new);
+        }
+        return holder.current();
+    }
+
+    public TrigramIndex buildIndex(Path root) throws IOException {
+        long start = System.nanoTime();
+        TrigramIndex index = new TrigramIndex(root);
+        WorkspaceFilter filter = workspaceFilterService.forRoot(root);
+        Files.walkFileTree(root, new SimpleFileVisitor<>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) {
+                return filter.isIgnoredDirectory(dir) ? FileVisitResult.SKIP_SUBTREE : FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                if (attrs.isRegularFile() && attrs.size() <= fileSystemProperties.getMaxFileSize()
+                        && !filter.isIgnoredFile(file) && filter.isTextFile(file)) {
+                    indexFile(index, file, attrs.lastModifiedTime().toMillis());
+                }
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFileFailed(Path file, IOException exc) {
+                logger.debug("Skipping unreadable path {}", file, exc);
+                return FileVisitResult.CONTINUE;
+            }
+        });
+
+        logger.info("Indexed {} files under {} in {} ms (~{} KB of postings)", index.size(), root,
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), index.estimatedPostingBytes() / 1024);
+        return index;
+    }
+
+    @EventListener
+    public void onFileWritten(FileWrittenEvent event) {
+        Path file = event.getFile();
+        List<IndexHolder> affected = new ArrayList<>();
+        synchronized (indexes) {
+            for (IndexHolder holder : indexes.values()) {
+                if (file.startsWith(holder.root)) {
+                    affected.add(holder);
+                }
+            }
+        }
+        for (IndexHolder holder : affected) {
+            TrigramIndex index = holder.index;
+            if (index == null) {
+                continue;
+            }
+            try {
+                WorkspaceFilter filter = workspaceFilterService.forRoot(holder.root);
+                if (Files.isRegularFile(file) && Files.size(file) <= fileSystemProperties.getMaxFileSize()
+                        && !filter.isIgnored(file, false) && filter.isTextFile(file)) {
+                    indexFile(index, file, Files.getLastModifiedTime(file).toMillis());
+                } else {
+                    index.remove(file);
+                }
+            } catch (IOException e) {
+                index.remove(file);
+            }
+        }
+    }
+
+    private void indexFile(TrigramIndex index, Path file, long lastModified) {
+        try {
+            index.add(file, Files.readString(file), lastModified);
+        } catch (IOException e) {
+            logger.debug("Skipping file that is not valid UTF-8 text: {}", file);
+        }
+    }
+
+    private class IndexHolder {
+        private final Path root;
+        private volatile TrigramIndex index;
+
+        IndexHolder(Path root) {
+            this.root = root;
+        }
+
+        synchronized TrigramIndex current() throws IOException {
+            long maxAgeMillis = TimeUnit.SECONDS.toMillis(properties.getMaxIndexAgeSeconds());
+            if (index == null || System.currentTimeMillis() - index.getCreatedAtMillis() > maxAgeMillis) {
+                index = buildIndex(root);
+            }
+            return index;
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package com.codingagent.service.index;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Extracts literal runs that every match of a regular expression must contain, so that they can
+ * be used to narrow a search through the {@link TrigramIndex}. The extraction is conservative:
+ * alternations, groups and character classes simply end a run, and when the expression contains
+ * an alternation no literal is considered mandatory at all.
+ */
+final class RegexLiterals {
+
+    private static final int MIN_LITERAL_LENGTH = 3;
+
+    private RegexLiterals() {
+    }
+
+    static List<String> mandatoryLiterals(String regex) {
+        List<String> literals = new ArrayList<>();
+        if (hasAlternation(regex)) {
+            return literals;
+        }
+
+        StringBuilder run = new StringBuilder();
+        int depth = 0;
+        int i = 0;
+        int length = regex.length();
+        while (i < length) {
+            char c = regex.charAt(i);
+            if (c == '\\' && i + 1 < length) {
+                char escaped = regex.charAt(i + 1);
+                i += 2;
+                if (Character.isLetterOrDigit(escaped)) {
+                    // Character classes (\w, \d, \p{..}), boundaries and quoting end the run
+                    if ((escaped == 'p' || escaped == 'P') && i < length && regex.charAt(i) == '{') {
+                        i = skipPast(regex, i, '}');
+                    }
+                    flush(run, literals);
+                } else if (depth == 0) {
+                    run.append(escaped);
+                }
+                continue;
+            }
+
+            switch (c) {
+                case '[' -> {
+                    flush(run, literals);
+                    i = skipCharacterClass(regex, i);
+                }
+                case '(' -> {
+                    flush(run, literals);
+                    depth++;
+                    i++;
+                }
+                case ')' -> {
+                    flush(run, literals);
+                    depth = Math.max(0, depth - 1);
+                    i++;
+                }
+                case '*', '?' -> {
+                    // The preceding character is optional
+                    dropLast(run);
+                    flush(run, literals);
+                    i++;
+                }
+                case '{' -> {
+                    int end = skipPast(regex, i, '}');
+                    if (regex.startsWith("{0", i)) {
+                        dropLast(run);
+                    }
+                    flush(run, literals);
+                    i = end;
+                }
+                case '+', '.', '^', '$' -> {
+                    flush(run, literals);
+                    i++;
+                }
+                default -> {
+                    if (depth == 0) {
+                        run.append(c);
+                    }
+                    i++;
+                }
+            }
+        }
+        flush(run, literals);
+        return literals;
+    }
+
+    private static boolean hasAlternation(String regex) {
+        boolean inClass = false;
+        for (int i = 0; i < regex.length(); i++) {
+            char c = regex.charAt(i);
+            if (c == '\\') {
+                i++;
+            } else if (c == '[') {
+                inClass = true;
+            } else if (c == ']') {
+                inClass = false;
+            } else if (c == '|' && !inClass) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static int skipCharacterClass(String regex, int start) {
+        int i = start + 1;
+        if (i < regex.length() && regex.charAt(i) == '^') {
+            i++;
+        }
+        if (i < regex.length() && regex.charAt(i) == ']') {
+            i++;
+        }
+        while (i < regex.length()) {
+            char c = regex.charAt(i);
+            if (c == '\\') {
+                i += 2;
+            } else if (c == ']') {
+                return i + 1;
+            } else {
+                i++;
+            }
+        }
+        return i;
+    }
+
+    private static int skipPast(String regex, int start, char end) {
+        int index = regex.indexOf(end, start);
+        return index < 0 ? regex.length() : index + 1;
+    }
+
+    private static void dropLast(StringBuilder run) {
+        if (run.length() > 0) {
+            run.setLength(run.length() - 1);
+        }
+    }
+
+    private static void flush(StringBuilder run, List<String> literals) {
+        if (run.length() >= MIN_LITERAL_LENGTH) {
+            literals.add(run.toString());
+        }
+        run.setLength(0);
+    }
+}
@@ -0,0 +1,709 @@
+package com.codingagent.service.index;
+
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Extracts the declarations of a Java or Kotlin source file without a full parser.
+ * <p>
+ * The source is reduced to identifier and punctuation tokens (comments, string and character
+ * literals are skipped) and braces are tracked to tell type bodies from code blocks. Only
+ * declarations directly inside type bodies are reported: locals, lambdas and anonymous classes
+ * inside methods and initializers are ignored. The scanner never fails; unusual syntax at worst
+ * produces a missing or approximate entry.
+ */
+final class SourceOutliner {
+
+    enum Language {
+        JAVA, KOTLIN;
+
+        static Language of(Path file) {
+            String name = file.getFileName().toString().toLowerCase(Locale.ROOT);
+            if (name.endsWith(".java")) {
+                return JAVA;
+            }
+            if (name.endsWith(".kt") || name.endsWith(".kts")) {
+                return KOTLIN;
+            }
+            return null;
+        }
+    }
+
+    private static final int MAX_SIGNATURE_LENGTH = 160;
+    private static final Set<String> MODIFIERS = Set.of("public", "protected", "private", "static",
+            "final", "abstract", "default", "synchronized", "native");
+
+    private SourceOutliner() {
+    }
+
+    static List<SourceSymbol> outline(CharSequence source, Language language) {
+        List<Token> tokens = new Lexer(source, language == Language.KOTLIN).tokenize();
+        return language == Language.KOTLIN
+                ? new KotlinScanner(tokens).scan()
+                : new JavaScanner(tokens).scan();
+    }
+
+    private static final class JavaScanner {
+        private final List<Token> tokens;
+        private final List<SourceSymbol> symbols = new ArrayList<>();
+        private final Deque<Scope> scopes = new ArrayDeque<>();
+        private final List<Token> pending = new ArrayList<>();
+        private int parenDepth;
+
+        JavaScanner(List<Token> tokens) {
+            this.tokens = tokens;
+        }
+
+        List<SourceSymbol> scan() {
+            for (Token token : tokens) {
+                Scope scope = scopes.peek();
+                if (scope != null && !scope.typeBody) {
+                    scanBlock(scopes, token);
+                    continue;
+                }
+                switch (token.text) {
+                    case "(" -> {
+                        parenDepth++;
+                        pending.add(token);
+                    }
+                    case ")" -> {
+                        parenDepth = Math.max(0, parenDepth - 1);
+                        pending.add(token);
+                    }
+                    case "{" -> openBrace(scope, token);
+                    case "}" -> closeType(scope, token);
+                    case ";" -> {
+                        if (parenDepth == 0) {
+                            endStatement(scope, token);
+                        }
+                    }
+                    case "," -> {
+                        if (parenDepth == 0 && scope != null && scope.enumConstants) {
+                            int startLine = startLine(token);
+                            enumConstant(scope, stripAnnotations(pending), startLine);
+                            pending.clear();
+                        } else {
+                            pending.add(token);
+                        }
+                    }
+                    default -> pending.add(token);
+                }
+            }
+            return symbols;
+        }
+
+        private void openBrace(Scope scope, Token token) {
+            List<Token> declaration = stripAnnotations(pending);
+            if (parenDepth > 0 || indexOf(declaration, "=") >= 0) {
+                // Array initializer, lambda or anonymous class: the declaration ends at the next ';'
+                scopes.push(new Scope(null, null, false));
+                return;
+            }
+
+            int startLine = startLine(token);
+            pending.clear();
+            if (scope != null && scope.enumConstants) {
+                scopes.push(new Scope(enumConstant(scope, declaration, startLine), null, false));
+                return;
+            }
+
+            int keyword = typeKeyword(declaration);
+            if (keyword >= 0) {
+                SourceSymbol type = add(symbols, typeKind(declaration, keyword), declaration.get(keyword + 1).text,
+                        scope, signature(declaration, declaration.size()), startLine);
+                Scope typeScope = new Scope(type, qualifiedName(scope, type), true);
+                typeScope.enumConstants = type.getKind() == SourceSymbol.Kind.ENUM;
+                scopes.push(typeScope);
+            } else if (scope != null && indexOf(declaration, "(") > 0) {
+                scopes.push(new Scope(method(scope, declaration, startLine), null, false));
+            } else if (scope != null && isCompactConstructor(scope, declaration)) {
+                scopes.push(new Scope(add(symbols, SourceSymbol.Kind.CONSTRUCTOR, scope.symbol.getName(), scope,
+                        signature(declaration, declaration.size()), startLine), null, false));
+            } else {
+                scopes.push(new Scope(null, null, false));
+            }
+        }
+
+        private void closeType(Scope scope, Token token) {
+            if (scope != null) {
+                if (scope.enumConstants && !pending.isEmpty()) {
+                    enumConstant(scope, stripAnnotations(pending), startLine(token));
+                }
+                scopes.pop();
+                scope.symbol.setEndLine(token.line);
+            }
+            pending.clear();
+            parenDepth = 0;
+        }
+
+        private void endStatement(Scope scope, Token token) {
+            List<Token> declaration = stripAnnotations(pending);
+            int startLine = startLine(token);
+            pending.clear();
+            if (scope == null || declaration.isEmpty()) {
+                if (scope != null) {
+                    scope.enumConstants = false;
+                }
+                return;
+            }
+            if (scope.enumConstants) {
+                enumConstant(scope, declaration, startLine);
+                scope.enumConstants = false;
+                return;
+            }
+
+            int paren = indexOf(declaration, "(");
+            int assign = indexOf(declaration, "=");
+            SourceSymbol symbol = paren > 0 && (assign < 0 || paren < assign)
+                    ? method(scope, declaration, startLine)
+                    : field(scope, declaration, assign, startLine);
+            if (symbol != null) {
+                symbol.setEndLine(token.line);
+            }
+        }
+
+        private SourceSymbol method(Scope scope, List<Token> declaration, int startLine) {
+            int paren = indexOf(declaration, "(");
+            Token name = declaration.get(paren - 1);
+            if (!name.isIdentifier()) {
+                return null;
+            }
+            SourceSymbol.Kind kind = name.text.equals(scope.symbol.getName())
+                    ? SourceSymbol.Kind.CONSTRUCTOR
+                    : SourceSymbol.Kind.METHOD;
+            return add(symbols, kind, name.text, scope, signature(declaration, declaration.size()), startLine);
+        }
+
+        private SourceSymbol field(Scope scope, List<Token> declaration, int assign, int startLine) {
+            int end = assign >= 0 ? assign : declaration.size();
+            int nameIndex = end - 1;
+            while (nameIndex > 0 && (declaration.get(nameIndex).is("]") || declaration.get(nameIndex).is("["))) {
+                nameIndex--;
+            }
+            if (nameIndex < 1 || !declaration.get(nameIndex).isIdentifier()) {
+                return null;
+            }
+            return add(symbols, SourceSymbol.Kind.FIELD, declaration.get(nameIndex).text, scope,
+                    signature(declaration, end), startLine);
+        }
+
+        private SourceSymbol enumConstant(Scope scope, List<Token> declaration, int startLine) {
+            if (declaration.isEmpty() || !declaration.get(0).isIdentifier()) {
+                return null;
+            }
+            String name = declaration.get(0).text;
+            return add(symbols, SourceSymbol.Kind.ENUM_CONSTANT, name, scope, name, startLine);
+        }
+
+        private boolean isCompactConstructor(Scope scope, List<Token> declaration) {
+            return scope.symbol.getKind() == SourceSymbol.Kind.RECORD
+                    && !declaration.isEmpty()
+                    && declaration.get(declaration.size() - 1).is(scope.symbol.getName());
+        }
+
+        private int startLine(Token fallback) {
+            return pending.isEmpty() ? fallback.line : pending.get(0).line;
+        }
+
+        private static int typeKeyword(List<Token> declaration) {
+            for (int i = 0; i + 1 < declaration.size(); i++) {
+                Token token = declaration.get(i);
+                if (!declaration.get(i + 1).isIdentifier() || (i > 0 && declaration.get(i - 1).is("."))) {
+                    continue;
+                }
+                if (token.is("class") || token.is("interface") || token.is("enum")) {
+                    return i;
+                }
+                if (token.is("record") && i + 2 < declaration.size()
+                        && (declaration.get(i + 2).is("(") || declaration.get(i + 2).is("<"))) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        private static SourceSymbol.Kind typeKind(List<Token> declaration, int keyword) {
+            return switch (declaration.get(keyword).text) {
+                case "interface" -> keyword > 0 && declaration.get(keyword - 1).is("@")
+                        ? SourceSymbol.Kind.ANNOTATION
+                        : SourceSymbol.Kind.INTERFACE;
+                case "enum" -> SourceSymbol.Kind.ENUM;
+                case "record" -> SourceSymbol.Kind.RECORD;
+                default -> SourceSymbol.Kind.CLASS;
+            };
+        }
+
+        /**
+         * Drops annotations (with their arguments) so that their parentheses and '=' signs do not
+         * look like parts of the declaration. The '@' of {@code @interface} is kept.
+         */
+        private static List<Token> stripAnnotations(List<Token> tokens) {
+            List<Token> result = new ArrayList<>(tokens.size());
+            int i = 0;
+            while (i < tokens.size()) {
+                Token token = tokens.get(i);
+                boolean annotation = token.is("@") && i + 1 < tokens.size() && !tokens.get(i + 1).is("interface");
+                if (!annotation) {
+                    result.add(token);
+                    i++;
+                    continue;
+                }
+                i += 2;
+                while (i + 1 < tokens.size() && tokens.get(i).is(".")) {
+                    i += 2;
+                }
+                if (i < tokens.size() && tokens.get(i).is("(")) {
+                    int depth = 0;
+                    do {
+                        if (tokens.get(i).is("(")) {
+                            depth++;
+                        } else if (tokens.get(i).is(")")) {
+                            depth--;
+                        }
+                        i++;
+                    } while (i < tokens.size() && depth > 0);
+                }
+            }
+            return result;
+        }
+    }
+
+    private static final class KotlinScanner {
+        private final List<Token> tokens;
+        private final List<SourceSymbol> symbols = new ArrayList<>();
+        private final Deque<Scope> scopes = new ArrayDeque<>();
+        private SourceSymbol pending;
+        private boolean pendingType;
+        private int parenDepth;
+        private int lastLine = 1;
+
+        KotlinScanner(List<Token> tokens) {
+            this.tokens = tokens;
+        }
+
+        List<SourceSymbol> scan() {
+            for (int i = 0; i < tokens.size(); i++) {
+                Token token = tokens.get(i);
+                Scope scope = scopes.peek();
+                if (scope != null && !scope.typeBody) {
+                    scanBlock(scopes, token);
+                    lastLine = token.line;
+                    continue;
+                }
+                switch (token.text) {
+                    case "(" -> parenDepth++;
+                    case ")" -> parenDepth = Math.max(0, parenDepth - 1);
+                    case "=" -> {
+                        // Expression body: the function ends with its expression, not with a block
+                        if (parenDepth == 0 && pending != null && !pendingType) {
+                            finishPending(token.line);
+                        }
+                    }
+                    case "{" -> openBrace(scope);
+                    case "}" -> closeType(scope, token);
+                    default -> {
+                        if (parenDepth == 0 && token.isIdentifier()) {
+                            declaration(scope, i);
+                        }
+                    }
+                }
+                lastLine = token.line;
+            }
+            if (pending != null) {
+                finishPending(lastLine);
+            }
+            return symbols;
+        }
+
+        private void openBrace(Scope scope) {
+            if (parenDepth > 0 || pending == null) {
+                scopes.push(new Scope(null, null, false));
+                return;
+            }
+            scopes.push(pendingType
+                    ? new Scope(pending, qualifiedName(scope, pending), true)
+                    : new Scope(pending, null, false));
+            pending = null;
+        }
+
+        private void closeType(Scope scope, Token token) {
+            if (pending != null) {
+                finishPending(lastLine);
+            }
+            if (scope != null) {
+                scopes.pop();
+                scope.symbol.setEndLine(token.line);
+            }
+            parenDepth = 0;
+        }
+
+        private void declaration(Scope scope, int index) {
+            Token token = tokens.get(index);
+            Token previous = index > 0 ? tokens.get(index - 1) : null;
+            switch (token.text) {
+                case "class", "interface" -> {
+                    Token name = identifierAt(index + 1);
+                    if (name == null || previous != null && (previous.is(".") || previous.is(":"))) {
+                        return;
+                    }
+                    SourceSymbol.Kind kind = SourceSymbol.Kind.CLASS;
+                    if (token.is("interface")) {
+                        kind = SourceSymbol.Kind.INTERFACE;
+                    } else if (previous != null && previous.is("enum")) {
+                        kind = SourceSymbol.Kind.ENUM;
+                    } else if (previous != null && previous.is("annotation")) {
+                        kind = SourceSymbol.Kind.ANNOTATION;
+                    }
+                    begin(kind, name.text, scope, index, true);
+                }
+                case "object" -> {
+                    Token name = identifierAt(index + 1);
+                    if (name != null) {
+                        begin(SourceSymbol.Kind.OBJECT, name.text, scope, index, true);
+                    } else if (previous != null && previous.is("companion")) {
+                        begin(SourceSymbol.Kind.OBJECT, "Companion", scope, index, true);
+                    }
+                }
+                case "fun" -> {
+                    Token next = identifierAt(index + 1);
+                    if (next != null && next.is("interface")) {
+                        return;
+                    }
+                    int paren = indexOf(tokens, "(", index + 1);
+                    if (paren > index + 1 && tokens.get(paren - 1).isIdentifier()) {
+                        begin(SourceSymbol.Kind.METHOD, tokens.get(paren - 1).text, scope, index, false);
+                    }
+                }
+                case "constructor" -> {
+                    boolean insideHeader = pending != null && pendingType;
+                    if (scope != null && !insideHeader && index + 1 < tokens.size() && tokens.get(index + 1).is("(")) {
+                        begin(SourceSymbol.Kind.CONSTRUCTOR, scope.symbol.getName(), scope, index, false);
+                    }
+                }
+                case "val", "var" -> {
+                    Token name = declaredName(index + 1);
+                    if (name != null) {
+                        begin(SourceSymbol.Kind.FIELD, name.text, scope, index, false);
+                        finishPending(name.line);
+                    }
+                }
+                default -> {
+                }
+            }
+        }
+
+        private void begin(SourceSymbol.Kind kind, String name, Scope scope, int index, boolean type) {
+            if (pending != null) {
+                finishPending(lastLine);
+            }
+            pending = add(symbols, kind, name, scope, headerSignature(index), tokens.get(index).line);
+            pendingType = type;
+        }
+
+        private void finishPending(int endLine) {
+            pending.setEndLine(endLine);
+            pending = null;
+        }
+
+        private String headerSignature(int index) {
+            int line = tokens.get(index).line;
+            int depth = 0;
+            int end = index;
+            while (end < tokens.size()) {
+                Token token = tokens.get(end);
+                if (token.is("(")) {
+                    depth++;
+                } else if (token.is(")")) {
+                    depth--;
+                } else if (depth <= 0 && (token.is("{") || token.is("=") || token.line != line)) {
+                    break;
+                }
+                end++;
+            }
+            return signature(tokens.subList(index, end), end - index);
+        }
+
+        private Token identifierAt(int index) {
+            return index < tokens.size() && tokens.get(index).isIdentifier() ? tokens.get(index) : null;
+        }
+
+        /**
+         * Name of a property, skipping type parameters and the receiver of an extension property.
+         */
+        private Token declaredName(int index) {
+            int i = index;
+            if (i < tokens.size() && tokens.get(i).is("<")) {
+                int depth = 0;
+                do {
+                    if (tokens.get(i).is("<")) {
+                        depth++;
+                    } else if (tokens.get(i).is(">")) {
+                        depth--;
+                    }
+                    i++;
+                } while (i < tokens.size() && depth > 0);
+            }
+            Token name = null;
+            while (i < tokens.size() && tokens.get(i).isIdentifier()) {
+                name = tokens.get(i);
+                if (i + 2 < tokens.size() && tokens.get(i + 1).is(".")) {
+                    i += 2;
+                } else {
+                    break;
+                }
+            }
+            return name;
+        }
+    }
+
+    private static void scanBlock(Deque<Scope> scopes, Token token) {
+        if (token.is("{")) {
+            scopes.push(new Scope(null, null, false));
+        } else if (token.is("}")) {
+            Scope block = scopes.pop();
+            if (block.symbol != null) {
+                block.symbol.setEndLine(token.line);
+            }
+        }
+    }
+
+    private static SourceSymbol add(List<SourceSymbol> symbols, SourceSymbol.Kind kind, String name, Scope scope,
+                                    String signature, int startLine) {
+        SourceSymbol symbol = new SourceSymbol(kind, name, scope == null ? null : scope.qualifiedName,
+                signature, depthOf(scope), startLine);
+        symbols.add(symbol);
+        return symbol;
+    }
+
+    private static int depthOf(Scope scope) {
+        return scope == null ? 0 : scope.symbol.getDepth() + 1;
+    }
+
+    private static String qualifiedName(Scope enclosing, SourceSymbol type) {
+        return enclosing == null ? type.getName() : enclosing.qualifiedName + "." + type.getName();
+    }
+
+    private static int indexOf(List<Token> tokens, String text) {
+        return indexOf(tokens, text, 0);
+    }
+
+    private static int indexOf(List<Token> tokens, String text, int from) {
+        for (int i = from; i < tokens.size(); i++) {
+            if (tokens.get(i).is(text)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static String signature(List<Token> tokens, int end) {
+        StringBuilder signature = new StringBuilder();
+        for (int i = 0; i < end && signature.length() < MAX_SIGNATURE_LENGTH; i++) {
+            String text = tokens.get(i).text;
+            if (i > 0 && needsSpace(tokens.get(i - 1).text, text)) {
+                signature.append(' ');
+            }
+            signature.append(text);
+        }
+        if (signature.length() > MAX_SIGNATURE_LENGTH) {
+            signature.setLength(MAX_SIGNATURE_LENGTH);
+            signature.append("...");
+        }
+        return signature.toString();
+    }
+
+    private static boolean needsSpace(String previous, String current) {
+        switch (previous) {
+            case "(", ".", "<", "[", "@" -> {
+                return false;
+            }
+            default -> {
+            }
+        }
+        return switch (current) {
+            case "(", ")", ",", ".", "[", "]", ">", ":", "?", ";" -> false;
+            case "<" -> MODIFIERS.contains(previous) || previous.equals("fun");
+            default -> true;
+        };
+    }
+
+    private static final class Scope {
+        final SourceSymbol symbol;
+        final String qualifiedName;
+        final boolean typeBody;
+        boolean enumConstants;
+
+        Scope(SourceSymbol symbol, String qualifiedName, boolean typeBody) {
+            this.symbol = symbol;
+            this.qualifiedName = qualifiedName;
+            this.typeBody = typeBody;
+        }
+    }
+
+    private static final class Token {
+        final String text;
+        final int line;
+        final boolean identifier;
+
+        Token(String text, int line, boolean identifier) {
+            this.text = text;
+            this.line = line;
+            this.identifier = identifier;
+        }
+
+        boolean is(String value) {
+            return text.equals(value);
+        }
+
+        boolean isIdentifier() {
+            return identifier;
+        }
+    }
+
+    private static final class Lexer {
+        private final CharSequence source;
+        private final boolean kotlin;
+        private final List<Token> tokens = new ArrayList<>();
+        private int position;
+        private int line = 1;
+
+        Lexer(CharSequence source, boolean kotlin) {
+            this.source = source;
+            this.kotlin = kotlin;
+        }
+
+        List<Token> tokenize() {
+            int length = source.length();
+            while (position < length) {
+                char c = source.charAt(position);
+                if (c == '\n') {
+                    line++;
+                    position++;
+                } else if (Character.isWhitespace(c)) {
+                    position++;
+                } else if (c == '/' && peek(1) == '/') {
+                    while (position < length && source.charAt(position) != '\n') {
+                        position++;
+                    }
+                } else if (c == '/' && peek(1) == '*') {
+                    position += 2;
+                    while (position < length && !(source.charAt(position) == '*' && peek(1) == '/')) {
+                        advance();
+                    }
+                    position += 2;
+                } else if (c == '"') {
+                    skipString();
+                    tokens.add(new Token("\"\"", line, false));
+                } else if (c == '\'') {
+                    skipCharLiteral();
+                    tokens.add(new Token("''", line, false));
+                } else if (kotlin && c == '`') {
+                    int start = ++position;
+                    while (position < length && source.charAt(position) != '`' && source.charAt(position) != '\n') {
+                        position++;
+                    }
+                    tokens.add(new Token(source.subSequence(start, position).toString(), line, true));
+                    position++;
+                } else if (Character.isJavaIdentifierStart(c)) {
+                    int start = position;
+                    while (position < length && Character.isJavaIdentifierPart(source.charAt(position))) {
+                        position++;
+                    }
+                    tokens.add(new Token(source.subSequence(start, position).toString(), line, true));
+                } else if (Character.isDigit(c)) {
+                    while (position < length && (Character.isLetterOrDigit(source.charAt(position))
+                            || source.charAt(position) == '_' || source.charAt(position) == '.')) {
+                        position++;
+                    }
+                    tokens.add(new Token("0", line, false));
+                } else {
+                    tokens.add(new Token(String.valueOf(c), line, false));
+                    position++;
+                }
+            }
+            return tokens;
+        }
+
+        private void skipString() {
+            boolean textBlock = startsWith("\"\"\"");
+            position += textBlock ? 3 : 1;
+            int length = source.length();
+            while (position < length) {
+                char c = source.charAt(position);
+                if (c == '\\' && !(kotlin && textBlock)) {
+                    advance();
+                    if (position < length) {
+                        advance();
+                    }
+                } else if (kotlin && c == '$' && peek(1) == '{') {
+                    skipTemplate();
+                } else if (textBlock ? startsWith("\"\"\"") : c == '"') {
+                    position += textBlock ? 3 : 1;
+                    // Kotlin raw strings may end with extra quotes, e.g. """a""""
+                    while (textBlock && position < length && source.charAt(position) == '"') {
+                        position++;
+                    }
+                    return;
+                } else if (c == '\n' && !textBlock) {
+                    return;
+                } else {
+                    advance();
+                }
+            }
+        }
+
+        private void skipTemplate() {
+            position += 2;
+            int depth = 1;
+            while (position < source.length() && depth > 0) {
+                char c = source.charAt(position);
+                if (c == '{') {
+                    depth++;
+                } else if (c == '}') {
+                    depth--;
+                }
+                advance();
+            }
+        }
+
+        private void skipCharLiteral() {
+            position++;
+            while (position < source.length() && source.charAt(position) != '\'' && source.charAt(position) != '\n') {
+                if (source.charAt(position) == '\\') {
+                    position++;
+                }
+                position++;
+            }
+            position++;
+        }
+
+        private void advance() {
+            if (source.charAt(position) == '\n') {
+                line++;
+            }
+            position++;
+        }
+
+        private char peek(int offset) {
+            int index = position + offset;
+            return index < source.length() ? source.charAt(index) : '\0';
+        }
+
+        private boolean startsWith(String text) {
+            if (position + text.length() > source.length()) {
+                return false;
+            }
+            for (int i = 0; i < text.length(); i++) {
+                if (source.charAt(position + i) != text.charAt(i)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
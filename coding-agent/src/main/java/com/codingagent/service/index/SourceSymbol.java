@@ -0,0 +1,81 @@
+package com.codingagent.service.index;
+
+/**
+ * A declaration found in a source file: a type, method, constructor, field or enum constant with
+ * the lines it spans. Line numbers are 1-based and inclusive, so they can be passed straight to a
+ * ranged {@code read_file}.
+ */
+public class SourceSymbol {
+
+    public enum Kind {
+        CLASS, INTERFACE, ENUM, RECORD, ANNOTATION, OBJECT,
+        CONSTRUCTOR, METHOD, FIELD, ENUM_CONSTANT;
+
+        public boolean isType() {
+            return ordinal() <= OBJECT.ordinal();
+        }
+    }
+
+    private final Kind kind;
+    private final String name;
+    private final String container;
+    private final String signature;
+    private final int depth;
+    private final int startLine;
+    private int endLine;
+
+    SourceSymbol(Kind kind, String name, String container, String signature, int depth, int startLine) {
+        this.kind = kind;
+        this.name = name;
+        this.container = container;
+        this.signature = signature;
+        this.depth = depth;
+        this.startLine = startLine;
+        this.endLine = startLine;
+    }
+
+    public Kind getKind() {
+        return kind;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Qualified name of the enclosing type, or {@code null} for top-level declarations.
+     */
+    public String getContainer() {
+        return container;
+    }
+
+    public String getQualifiedName() {
+        return container == null ? name : container + "." + name;
+    }
+
+    /**
+     * Compact declaration header without annotations or bodies, e.g. {@code public int size()}.
+     */
+    public String getSignature() {
+        return signature;
+    }
+
+    /**
+     * Number of enclosing types.
+     */
+    public int getDepth() {
+        return depth;
+    }
+
+    public int getStartLine() {
+        return startLine;
+    }
+
+    public int getEndLine() {
+        return endLine;
+    }
+
+    void setEndLine(int endLine) {
+        this.endLine = Math.max(startLine, endLine);
+    }
+}
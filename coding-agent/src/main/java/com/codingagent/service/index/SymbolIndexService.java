@@ -0,0 +1,326 @@
+package com.codingagent.service.index;
+
+import com.codingagent.config.CodeSearchProperties;
+import com.codingagent.config.FileSystemProperties;
+import com.codingagent.service.workspace.FileWrittenEvent;
+import com.codingagent.service.workspace.WorkspaceFilter;
+import com.codingagent.service.workspace.WorkspaceFilterService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Outline of the classes, methods and fields of the Java and Kotlin sources below a workspace root.
+ * <p>
+ * Outlines are cached per file together with the SHA-256 of its content: a refresh only re-reads
+ * files whose size or modification time changed and only re-parses those whose hash changed.
+ * Files written by tools are updated immediately through {@link FileWrittenEvent}; the whole root
+ * is re-walked once it is older than {@code code-search.max-index-age-seconds}.
+ */
+@Service
+public class SymbolIndexService {
+
+    private static final Logger logger = LoggerFactory.getLogger(SymbolIndexService.class);
+    private static final int FILE_OVERHEAD_BYTES = 160;
+    private static final int SYMBOL_OVERHEAD_BYTES = 96;
+
+    private final WorkspaceFilterService workspaceFilterService;
+    private final FileSystemProperties fileSystemProperties;
+    private final CodeSearchProperties properties;
+    private final Map<Path, RootIndex> roots;
+
+    public SymbolIndexService(WorkspaceFilterService workspaceFilterService,
+                              FileSystemProperties fileSystemProperties,
+                              CodeSearchProperties properties) {
+        this.workspaceFilterService = workspaceFilterService;
+        this.fileSystemProperties = fileSystemProperties;
+        this.properties = properties;
+        this.roots = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Path, RootIndex> eldest) {
+                return size() > properties.getMaxIndexedRoots();
+            }
+        };
+    }
+
+    public boolean supports(Path file) {
+        return SourceOutliner.Language.of(file) != null;
+    }
+
+    /**
+     * Finds declarations by simple or qualified name. Exact matches rank before case-insensitive,
+     * prefix and substring matches.
+     */
+    public List<SymbolMatch> findSymbols(Path root, String query, SourceSymbol.Kind kind, int maxResults)
+            throws IOException {
+        RootIndex index = getRoot(root);
+        index.refreshIfStale();
+
+        String lowerQuery = query.toLowerCase(Locale.ROOT);
+        boolean qualified = query.indexOf('.') >= 0;
+        List<ScoredMatch> scored = new ArrayList<>();
+        for (Map.Entry<Path, FileOutline> entry : index.files.entrySet()) {
+            for (SourceSymbol symbol : entry.getValue().symbols) {
+                if (kind != null && symbol.getKind() != kind) {
+                    continue;
+                }
+                int score = qualified ? scoreQualified(symbol, query) : score(symbol.getName(), query, lowerQuery);
+                if (score > 0) {
+                    scored.add(new ScoredMatch(score, entry.getKey(), symbol));
+                }
+            }
+        }
+
+        scored.sort(Comparator.comparingInt((ScoredMatch match) -> -match.score)
+                .thenComparing(match -> match.file)
+                .thenComparingInt(match -> match.symbol.getStartLine()));
+        List<SymbolMatch> matches = new ArrayList<>(Math.min(maxResults, scored.size()));
+        for (ScoredMatch match : scored.subList(0, Math.min(maxResults, scored.size()))) {
+            matches.add(new SymbolMatch(index.root.relativize(match.file).toString(), match.symbol));
+        }
+        return matches;
+    }
+
+    /**
+     * Returns the outline of one source file, reusing the cached entry when the file is unchanged.
+     */
+    public List<SourceSymbol> outline(Path root, Path file) throws IOException {
+        Path normalizedFile = file.toAbsolutePath().normalize();
+        SourceOutliner.Language language = SourceOutliner.Language.of(normalizedFile);
+        if (language == null) {
+            throw new IllegalArgumentException("Not a Java or Kotlin source file: " + file);
+        }
+
+        RootIndex index = getRoot(root);
+        if (!normalizedFile.startsWith(index.root)) {
+            return SourceOutliner.outline(Files.readString(normalizedFile), language);
+        }
+        BasicFileAttributes attributes = Files.readAttributes(normalizedFile, BasicFileAttributes.class);
+        index.refresh(normalizedFile, attributes.lastModifiedTime().toMillis(), attributes.size());
+        FileOutline outline = index.files.get(normalizedFile);
+        return outline != null
+                ? outline.symbols
+                : SourceOutliner.outline(Files.readString(normalizedFile), language);
+    }
+
+    /**
+     * Statistics of the last full refresh of the root, or {@code null} if it was never indexed.
+     */
+    public SymbolIndexStats getStats(Path root) {
+        return getRoot(root).stats;
+    }
+
+    public SymbolIndexStats refresh(Path root) throws IOException {
+        RootIndex index = getRoot(root);
+        index.refreshIfStale();
+        return index.stats;
+    }
+
+    @EventListener
+    public void onFileWritten(FileWrittenEvent event) {
+        Path file = event.getFile();
+        if (!supports(file)) {
+            return;
+        }
+        List<RootIndex> affected = new ArrayList<>();
+        synchronized (roots) {
+            for (RootIndex index : roots.values()) {
+                if (file.startsWith(index.root)) {
+                    affected.add(index);
+                }
+            }
+        }
+        for (RootIndex index : affected) {
+            if (workspaceFilterService.forRoot(index.root).isIgnored(file, false)) {
+                index.files.remove(file);
+                continue;
+            }
+            try {
+                BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+                index.refresh(file, attributes.lastModifiedTime().toMillis(), attributes.size());
+            } catch (IOException e) {
+                index.files.remove(file);
+            }
+        }
+    }
+
+    private RootIndex getRoot(Path root) {
+        Path normalizedRoot = root.toAbsolutePath().normalize();
+        synchronized (roots) {
+            return roots.computeIfAbsent(normalizedRoot, RootIndex::new);
+        }
+    }
+
+    private static int score(String name, String query, String lowerQuery) {
+        if (name.equals(query)) {
+            return 4;
+        }
+        if (name.equalsIgnoreCase(query)) {
+            return 3;
+        }
+        if (name.length() < query.length()) {
+            return 0;
+        }
+        if (name.regionMatches(true, 0, query, 0, query.length())) {
+            return 2;
+        }
+        return name.toLowerCase(Locale.ROOT).contains(lowerQuery) ? 1 : 0;
+    }
+
+    private static int scoreQualified(SourceSymbol symbol, String query) {
+        String qualifiedName = symbol.getQualifiedName();
+        if (qualifiedName.equals(query) || qualifiedName.endsWith("." + query)) {
+            return 4;
+        }
+        if (qualifiedName.equalsIgnoreCase(query)) {
+            return 3;
+        }
+        int offset = qualifiedName.length() - query.length();
+        return offset > 0 && qualifiedName.charAt(offset - 1) == '.'
+                && qualifiedName.regionMatches(true, offset, query, 0, query.length()) ? 2 : 0;
+    }
+
+    private static byte[] sha256(byte[] content) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(content);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private class RootIndex {
+        private final Path root;
+        private final Map<Path, FileOutline> files = new ConcurrentHashMap<>();
+        private volatile long refreshedAtMillis;
+        private volatile SymbolIndexStats stats;
+
+        RootIndex(Path root) {
+            this.root = root;
+        }
+
+        synchronized void refreshIfStale() throws IOException {
+            long maxAgeMillis = TimeUnit.SECONDS.toMillis(properties.getMaxIndexAgeSeconds());
+            if (stats != null && System.currentTimeMillis() - refreshedAtMillis <= maxAgeMillis) {
+                return;
+            }
+
+            long start = System.nanoTime();
+            Set<Path> seen = new HashSet<>();
+            int[] parsed = {0};
+            WorkspaceFilter filter = workspaceFilterService.forRoot(root);
+            Files.walkFileTree(root, new SimpleFileVisitor<>() {
+                @Override
+                public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) {
+                    return filter.isIgnoredDirectory(dir) ? FileVisitResult.SKIP_SUBTREE : FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                    if (!attrs.isRegularFile() || !supports(file) || attrs.size() > fileSystemProperties.getMaxFileSize()
+                            || filter.isIgnoredFile(file)) {
+                        return FileVisitResult.CONTINUE;
+                    }
+                    seen.add(file);
+                    try {
+                        if (refresh(file, attrs.lastModifiedTime().toMillis(), attrs.size())) {
+                            parsed[0]++;
+                        }
+                    } catch (IOException e) {
+                        logger.debug("Skipping unreadable source file {}", file, e);
+                    }
+                    return FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult visitFileFailed(Path file, IOException exc) {
+                    return FileVisitResult.CONTINUE;
+                }
+            });
+            files.keySet().retainAll(seen);
+
+            int symbolCount = 0;
+            long estimatedBytes = 0;
+            for (FileOutline outline : files.values()) {
+                estimatedBytes += FILE_OVERHEAD_BYTES;
+                for (SourceSymbol symbol : outline.symbols) {
+                    symbolCount++;
+                    estimatedBytes += SYMBOL_OVERHEAD_BYTES + symbol.getName().length() + symbol.getSignature().length();
+                }
+            }
+            refreshedAtMillis = System.currentTimeMillis();
+            stats = new SymbolIndexStats(files.size(), symbolCount, parsed[0],
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), estimatedBytes);
+            logger.info("Symbol index for {}: {} symbols in {} files ({} parsed) in {} ms, ~{} KB",
+                    root, symbolCount, files.size(), parsed[0], stats.getBuildMillis(), estimatedBytes / 1024);
+        }
+
+        /**
+         * Brings the entry of one file up to date. Returns {@code true} if the file was parsed.
+         */
+        boolean refresh(Path file, long lastModified, long size) throws IOException {
+            FileOutline existing = files.get(file);
+            if (existing != null && existing.lastModified == lastModified && existing.size == size) {
+                return false;
+            }
+            byte[] content = Files.readAllBytes(file);
+            byte[] hash = sha256(content);
+            if (existing != null && Arrays.equals(existing.hash, hash)) {
+                files.put(file, new FileOutline(lastModified, size, hash, existing.symbols));
+                return false;
+            }
+            List<SourceSymbol> symbols = SourceOutliner.outline(new String(content, StandardCharsets.UTF_8),
+                    SourceOutliner.Language.of(file));
+            files.put(file, new FileOutline(lastModified, size, hash, Collections.unmodifiableList(symbols)));
+            return true;
+        }
+    }
+
+    private static final class FileOutline {
+        private final long lastModified;
+        private final long size;
+        private final byte[] hash;
+        private final List<SourceSymbol> symbols;
+
+        FileOutline(long lastModified, long size, byte[] hash, List<SourceSymbol> symbols) {
+            this.lastModified = lastModified;
+            this.size = size;
+            this.hash = hash;
+            this.symbols = symbols;
+        }
+    }
+
+    private static final class ScoredMatch {
+        private final int score;
+        private final Path file;
+        private final SourceSymbol symbol;
+
+        ScoredMatch(int score, Path file, SourceSymbol symbol) {
+            this.score = score;
+            this.file = file;
+            this.symbol = symbol;
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.codingagent.service.index;
+
+/**
+ * Size and cost of the last refresh of a {@link SymbolIndexService} root.
+ */
+public class SymbolIndexStats {
+
+    private final int files;
+    private final int symbols;
+    private final int parsedFiles;
+    private final long buildMillis;
+    private final long estimatedBytes;
+
+    public SymbolIndexStats(int files, int symbols, int parsedFiles, long buildMillis, long estimatedBytes) {
+        this.files = files;
+        this.symbols = symbols;
+        this.parsedFiles = parsedFiles;
+        this.buildMillis = buildMillis;
+        this.estimatedBytes = estimatedBytes;
+    }
+
+    public int getFiles() {
+        return files;
+    }
+
+    public int getSymbols() {
+        return symbols;
+    }
+
+    /**
+     * Files that had to be parsed during the refresh; unchanged files reuse their outline.
+     */
+    public int getParsedFiles() {
+        return parsedFiles;
+    }
+
+    public long getBuildMillis() {
+        return buildMillis;
+    }
+
+    public long getEstimatedBytes() {
+        return estimatedBytes;
+    }
+}
@@ -0,0 +1,24 @@
+package com.codingagent.service.index;
+
+/**
+ * A symbol found by {@link SymbolIndexService#findSymbols}, with the file path relative to the
+ * searched root.
+ */
+public class SymbolMatch {
+
+    private final String path;
+    private final SourceSymbol symbol;
+
+    public SymbolMatch(String path, SourceSymbol symbol) {
+        this.path = path;
+        this.symbol = symbol;
+    }
+
+    public String getPath() {
+        return path;
+    }
+
+    public SourceSymbol getSymbol() {
+        return symbol;
+    }
+}
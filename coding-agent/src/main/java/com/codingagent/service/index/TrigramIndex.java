@@ -0,0 +1,295 @@
+package com.codingagent.service.index;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory trigram index over the text files below one workspace root.
+ * <p>
+ * Every file is reduced to the set of case-folded character trigrams it contains (trigrams that
+ * span a line break are skipped, since matches are line based). A query only has to look at the
+ * files whose posting lists contain all trigrams of its mandatory literals; the actual match is
+ * then verified against the file content. Hash collisions of non-ASCII trigrams only add
+ * candidates, they never lose matches.
+ * <p>
+ * Updating a file gives it a new id and tombstones the old one; posting lists are compacted once
+ * enough tombstones have accumulated.
+ */
+public class TrigramIndex {
+
+    private static final int COMPACTION_MIN_REMOVED = 1024;
+
+    private final Path root;
+    private final long createdAtMillis = System.currentTimeMillis();
+    private final Map<Integer, PostingList> postings = new HashMap<>();
+    private final List<IndexedFile> files = new ArrayList<>();
+    private final Map<Path, Integer> idsByPath = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private int removedFiles;
+
+    public TrigramIndex(Path root) {
+        this.root = root;
+    }
+
+    public Path getRoot() {
+        return root;
+    }
+
+    public long getCreatedAtMillis() {
+        return createdAtMillis;
+    }
+
+    public void add(Path file, CharSequence content, long lastModified) {
+        int[] fileTrigrams = trigrams(content);
+        lock.writeLock().lock();
+        try {
+            removeLocked(file);
+            int id = files.size();
+            files.add(new IndexedFile(file, lastModified));
+            idsByPath.put(file, id);
+            for (int trigram : fileTrigrams) {
+                postings.computeIfAbsent(trigram, key -> new PostingList()).add(id);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Path file) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(file);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void removeLocked(Path file) {
+        Integer previous = idsByPath.remove(file);
+        if (previous == null) {
+            return;
+        }
+        files.set(previous, null);
+        removedFiles++;
+        if (removedFiles >= COMPACTION_MIN_REMOVED && removedFiles * 2 > files.size()) {
+            compactLocked();
+        }
+    }
+
+    public IndexedFile get(Path file) {
+        lock.readLock().lock();
+        try {
+            Integer id = idsByPath.get(file);
+            return id != null ? files.get(id) : null;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the live files whose content contains every one of the given trigrams, or all live
+     * files when no trigrams are given.
+     */
+    public List<IndexedFile> candidates(int[] requiredTrigrams) {
+        lock.readLock().lock();
+        try {
+            if (requiredTrigrams.length == 0) {
+                List<IndexedFile> all = new ArrayList<>(idsByPath.size());
+                for (IndexedFile file : files) {
+                    if (file != null) {
+                        all.add(file);
+                    }
+                }
+                return all;
+            }
+
+            PostingList[] lists = new PostingList[requiredTrigrams.length];
+            for (int i = 0; i < requiredTrigrams.length; i++) {
+                lists[i] = postings.get(requiredTrigrams[i]);
+                if (lists[i] == null) {
+                    return List.of();
+                }
+            }
+            Arrays.sort(lists, (a, b) -> Integer.compare(a.size, b.size));
+
+            int[] ids = Arrays.copyOf(lists[0].ids, lists[0].size);
+            int count = ids.length;
+            for (int i = 1; i < lists.length && count > 0; i++) {
+                count = intersect(ids, count, lists[i]);
+            }
+
+            List<IndexedFile> result = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                IndexedFile file = files.get(ids[i]);
+                if (file != null) {
+                    result.add(file);
+                }
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return idsByPath.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Approximate heap footprint of the posting lists in bytes.
+     */
+    public long estimatedPostingBytes() {
+        lock.readLock().lock();
+        try {
+            long bytes = 0;
+            for (PostingList list : postings.values()) {
+                bytes += 16L + 4L * list.ids.length;
+            }
+            return bytes;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void compactLocked() {
+        int[] remapped = new int[files.size()];
+        List<IndexedFile> liveFiles = new ArrayList<>(idsByPath.size());
+        for (int id = 0; id < files.size(); id++) {
+            IndexedFile file = files.get(id);
+            if (file == null) {
+                remapped[id] = -1;
+            } else {
+                remapped[id] = liveFiles.size();
+                idsByPath.put(file.getPath(), liveFiles.size());
+                liveFiles.add(file);
+            }
+        }
+        postings.values().removeIf(list -> list.remap(remapped) == 0);
+        files.clear();
+        files.addAll(liveFiles);
+        removedFiles = 0;
+    }
+
+    private static int intersect(int[] ids, int count, PostingList other) {
+        int kept = 0;
+        int j = 0;
+        for (int i = 0; i < count && j < other.size; i++) {
+            int id = ids[i];
+            while (j < other.size && other.ids[j] < id) {
+                j++;
+            }
+            if (j < other.size && other.ids[j] == id) {
+                ids[kept++] = id;
+            }
+        }
+        return kept;
+    }
+
+    /**
+     * Returns the distinct, sorted trigram keys of the given text.
+     */
+    public static int[] trigrams(CharSequence text) {
+        int length = text.length();
+        if (length < 3) {
+            return new int[0];
+        }
+        int[] keys = new int[length - 2];
+        int count = 0;
+        char a = Character.toLowerCase(text.charAt(0));
+        char b = Character.toLowerCase(text.charAt(1));
+        for (int i = 2; i < length; i++) {
+            char c = Character.toLowerCase(text.charAt(i));
+            if (a != '\n' && b != '\n' && c != '\n') {
+                keys[count++] = key(a, b, c);
+            }
+            a = b;
+            b = c;
+        }
+        return distinct(keys, count);
+    }
+
+    /**
+     * Returns the trigrams that every match of a query built from the given literals must contain.
+     */
+    public static int[] requiredTrigrams(Collection<String> literals) {
+        int[] keys = new int[0];
+        for (String literal : literals) {
+            int[] literalKeys = trigrams(literal);
+            int[] merged = Arrays.copyOf(keys, keys.length + literalKeys.length);
+            System.arraycopy(literalKeys, 0, merged, keys.length, literalKeys.length);
+            keys = merged;
+        }
+        return distinct(keys, keys.length);
+    }
+
+    private static int key(char a, char b, char c) {
+        // Exact for characters below U+0400, which covers source code; everything else may collide
+        return ((a & 0x3FF) << 20) | ((b & 0x3FF) << 10) | (c & 0x3FF);
+    }
+
+    private static int[] distinct(int[] keys, int count) {
+        Arrays.sort(keys, 0, count);
+        int unique = 0;
+        for (int i = 0; i < count; i++) {
+            if (unique == 0 || keys[unique - 1] != keys[i]) {
+                keys[unique++] = keys[i];
+            }
+        }
+        return Arrays.copyOf(keys, unique);
+    }
+
+    public static class IndexedFile {
+        private final Path path;
+        private final long lastModified;
+
+        IndexedFile(Path path, long lastModified) {
+            this.path = path;
+            this.lastModified = lastModified;
+        }
+
+        public Path getPath() {
+            return path;
+        }
+
+        public long getLastModified() {
+            return lastModified;
+        }
+    }
+
+    private static class PostingList {
+        int[] ids = new int[4];
+        int size;
+
+        void add(int id) {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size + (size >> 1) + 1);
+            }
+            ids[size++] = id;
+        }
+
+        int remap(int[] remapped) {
+            int kept = 0;
+            for (int i = 0; i < size; i++) {
+                int id = remapped[ids[i]];
+                if (id >= 0) {
+                    ids[kept++] = id;
+                }
+            }
+            size = kept;
+            ids = Arrays.copyOf(ids, Math.max(kept, 1));
+            return kept;
+        }
+    }
+}
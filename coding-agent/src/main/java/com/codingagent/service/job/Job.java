@@ -0,0 +1,149 @@
+package com.codingagent.service.job;
+
+import com.codingagent.model.AgentRequest;
+import com.codingagent.model.AgentResponse;
+import com.codingagent.model.JobResponse;
+import com.codingagent.model.JobStatus;
+import com.codingagent.model.StreamEvent;
+import reactor.core.Disposable;
+import reactor.core.Disposables;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * One submitted agent run. Only a summary of the run's events is kept (session, agent type,
+ * files written and the final outcome), so a job costs the same memory however chatty the
+ * agent is.
+ */
+public final class Job {
+
+    private final String id;
+    private final AgentRequest request;
+    private final Instant submittedAt = Instant.now();
+    private final CompletableFuture<JobResponse> completion = new CompletableFuture<>();
+    // Registered up front, so that a cancel racing the start of the run still reaches it
+    private final Disposable.Swap run = Disposables.swap();
+
+    private JobStatus status = JobStatus.QUEUED;
+    private Instant startedAt;
+    private Instant finishedAt;
+    private String sessionId;
+    private String agentType;
+    private final Set<String> filesWritten = new LinkedHashSet<>();
+    private String result;
+    private String error;
+
+    Job(String id, AgentRequest request) {
+        this.id = id;
+        this.request = request;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public synchronized JobStatus getStatus() {
+        return status;
+    }
+
+    /**
+     * Completes with the final snapshot once the job has succeeded, failed or been cancelled.
+     */
+    public CompletableFuture<JobResponse> getCompletion() {
+        return completion;
+    }
+
+    public synchronized JobResponse toResponse() {
+        return JobResponse.builder()
+                .jobId(id)
+                .status(status)
+                .sessionId(sessionId)
+                .submittedAt(submittedAt)
+                .startedAt(startedAt)
+                .finishedAt(finishedAt)
+                .response(status.isFinished() ? toAgentResponse() : null)
+                .error(error)
+                .build();
+    }
+
+    public synchronized AgentResponse toAgentResponse() {
+        return AgentResponse.builder()
+                .agentType(agentType)
+                .result(result)
+                .reasoning(agentType != null ? "Request classified as " + agentType + " task" : null)
+                .filesWritten(new ArrayList<>(filesWritten))
+                .fileCount(filesWritten.size())
+                .build();
+    }
+
+    AgentRequest getRequest() {
+        return request;
+    }
+
+    Disposable.Swap getRun() {
+        return run;
+    }
+
+    /**
+     * Returns false when the job was cancelled before it could start.
+     */
+    synchronized boolean started() {
+        if (status != JobStatus.QUEUED) {
+            return false;
+        }
+        status = JobStatus.RUNNING;
+        startedAt = Instant.now();
+        return true;
+    }
+
+    synchronized void record(StreamEvent event) {
+        if (event.getSessionId() != null) {
+            sessionId = event.getSessionId();
+        }
+        if (event.getAgentType() != null) {
+            agentType = event.getAgentType();
+        }
+        if (event.getFilesWritten() != null) {
+            filesWritten.addAll(event.getFilesWritten());
+        }
+        if (event.getType() == StreamEvent.EventType.TASK_COMPLETE) {
+            result = event.getMessage();
+        } else if (event.getType() == StreamEvent.EventType.ERROR) {
+            result = event.getMessage();
+            error = event.getError() != null ? event.getError() : event.getMessage();
+        }
+    }
+
+    /**
+     * Moves the job to a final state. Returns the state it was in before, or null when it had
+     * already finished, so that exactly one caller releases its worker slot.
+     */
+    JobStatus finish(JobStatus outcome, String failure) {
+        JobStatus previous;
+        synchronized (this) {
+            if (status.isFinished()) {
+                return null;
+            }
+            previous = status;
+            status = outcome;
+            finishedAt = Instant.now();
+            if (failure != null) {
+                error = failure;
+            }
+        }
+        completion.complete(toResponse());
+        return previous;
+    }
+
+    /**
+     * Outcome of a run whose event stream completed normally: it failed if it ended on an error
+     * event, for example when its budget ran out.
+     */
+    synchronized JobStatus completedOutcome() {
+        return error != null ? JobStatus.FAILED : JobStatus.SUCCEEDED;
+    }
+}
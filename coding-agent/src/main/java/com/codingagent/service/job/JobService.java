@@ -0,0 +1,168 @@
+package com.codingagent.service.job;
+
+import com.codingagent.config.AgentProperties;
+import com.codingagent.config.JobProperties;
+import com.codingagent.exception.JobQueueFullException;
+import com.codingagent.model.AgentRequest;
+import com.codingagent.model.JobStatus;
+import com.codingagent.service.OrchestratorService;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Runs agent requests in the background. At most {@code jobs.max-concurrent-jobs} runs are
+ * active at a time; further jobs wait in a queue as plain objects, holding no thread or
+ * connection until a slot frees up. Finished jobs are kept for lookup until
+ * {@code jobs.max-retained-jobs} newer ones have finished.
+ */
+@Service
+public class JobService {
+
+    private static final Logger logger = LoggerFactory.getLogger(JobService.class);
+
+    private final OrchestratorService orchestratorService;
+    private final AgentProperties agentProperties;
+    private final JobProperties properties;
+
+    private final Map<String, Job> jobs = new HashMap<>();
+    private final Deque<Job> queue = new ArrayDeque<>();
+    private final Deque<String> finished = new ArrayDeque<>();
+    private int running;
+
+    public JobService(OrchestratorService orchestratorService, AgentProperties agentProperties,
+                      JobProperties properties) {
+        this.orchestratorService = orchestratorService;
+        this.agentProperties = agentProperties;
+        this.properties = properties;
+        logger.info("JobService initialized with {} concurrent jobs, {} queued at most",
+                properties.getMaxConcurrentJobs(), properties.getMaxQueuedJobs());
+    }
+
+    public Job submit(AgentRequest request) {
+        validateRequest(request);
+        Job job = new Job(UUID.randomUUID().toString(), request);
+        synchronized (this) {
+            if (queue.size() >= properties.getMaxQueuedJobs()) {
+                throw new JobQueueFullException("Job queue is full (" + queue.size() + " jobs waiting)");
+            }
+            jobs.put(job.getId(), job);
+            queue.add(job);
+        }
+        logger.info("Job {} queued: {}", job.getId(), request.getPrompt());
+        drain();
+        return job;
+    }
+
+    public synchronized Optional<Job> find(String jobId) {
+        return Optional.ofNullable(jobs.get(jobId));
+    }
+
+    /**
+     * Cancels a queued or running job. Returns false when the job is unknown; cancelling a job
+     * that has already finished leaves it as it is.
+     */
+    public boolean cancel(String jobId) {
+        Job job;
+        synchronized (this) {
+            job = jobs.get(jobId);
+            if (job == null) {
+                return false;
+            }
+            queue.remove(job);
+        }
+        // Disposing the run cancels the agent's model stream and any tool still running
+        job.getRun().dispose();
+        finish(job, JobStatus.CANCELLED, null);
+        return true;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        List<Job> active;
+        synchronized (this) {
+            queue.clear();
+            active = new ArrayList<>(jobs.values());
+        }
+        for (Job job : active) {
+            job.getRun().dispose();
+            job.finish(JobStatus.CANCELLED, "Server shutting down");
+        }
+    }
+
+    private void drain() {
+        while (true) {
+            Job next;
+            synchronized (this) {
+                if (running >= properties.getMaxConcurrentJobs() || queue.isEmpty()) {
+                    return;
+                }
+                next = queue.poll();
+                running++;
+            }
+            start(next);
+        }
+    }
+
+    private void start(Job job) {
+        if (!job.started()) {
+            synchronized (this) {
+                running--;
+            }
+            return;
+        }
+        logger.info("Job {} started", job.getId());
+        AgentRequest request = job.getRequest();
+        // Classification blocks, so the run is started off the submitting thread
+        job.getRun().update(Flux.defer(() -> orchestratorService.processRequestStream(
+                        request.getPrompt(), request.getDirectoryPath(), request.getUseCollaboration()))
+                .subscribeOn(Schedulers.boundedElastic())
+                .subscribe(
+                        job::record,
+                        error -> {
+                            logger.error("Job {} failed", job.getId(), error);
+                            finish(job, JobStatus.FAILED, String.valueOf(error.getMessage()));
+                        },
+                        () -> finish(job, job.completedOutcome(), null)));
+    }
+
+    private void finish(Job job, JobStatus outcome, String failure) {
+        JobStatus previous = job.finish(outcome, failure);
+        if (previous == null) {
+            return;
+        }
+        logger.info("Job {} {}", job.getId(), outcome);
+        synchronized (this) {
+            if (previous == JobStatus.RUNNING) {
+                running--;
+            }
+            finished.add(job.getId());
+            while (finished.size() > properties.getMaxRetainedJobs()) {
+                jobs.remove(finished.poll());
+            }
+        }
+        drain();
+    }
+
+    private void validateRequest(AgentRequest request) {
+        if (request.getPrompt() == null || request.getPrompt().trim().isEmpty()) {
+            throw new IllegalArgumentException("Prompt cannot be null or empty");
+        }
+        if (request.getPrompt().length() > agentProperties.getMaxPromptLength()) {
+            throw new IllegalArgumentException("Prompt exceeds maximum length of "
+                    + agentProperties.getMaxPromptLength() + " characters");
+        }
+    }
+}
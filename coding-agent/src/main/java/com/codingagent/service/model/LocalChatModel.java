@@ -0,0 +1,128 @@
+package com.codingagent.service.model;
+
+import com.codingagent.config.LocalModelProperties;
+import org.springframework.ai.chat.messages.AssistantMessage;
+import org.springframework.ai.chat.model.ChatModel;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.ai.chat.model.Generation;
+import org.springframework.ai.chat.prompt.Prompt;
+import reactor.core.publisher.Flux;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * A deterministic stand-in for a hosted chat model. It answers from the prompt alone, so the
+ * same conversation always gets the same response, and paces its stream with timers rather than
+ * threads, so thousands of concurrent sessions can be driven through the agents without a
+ * network or an API key.
+ */
+public class LocalChatModel implements ChatModel {
+
+    private static final int CHARS_PER_TOKEN = 4;
+    private static final String CLASSIFIER_MARKER = "You are a task classifier.";
+    private static final String TURN_MARKER = "\n\nAssistant: ";
+    private static final Pattern SINGLE_REQUEST = Pattern.compile("(?m)^\\s*User request: (.*)$");
+    private static final Pattern NUMBERED_REQUEST = Pattern.compile("(?m)^\\s*(\\d+)\\. (.*)$");
+    private static final Pattern USER_REQUEST = Pattern.compile("(?m)^User Request: (.*)$");
+
+    private final LocalModelProperties properties;
+
+    public LocalChatModel(LocalModelProperties properties) {
+        this.properties = properties;
+    }
+
+    @Override
+    public ChatResponse call(Prompt prompt) {
+        return toResponse(respond(prompt.getContents()));
+    }
+
+    @Override
+    public Flux<ChatResponse> stream(Prompt prompt) {
+        return Flux.defer(() -> {
+            List<String> chunks = chunk(respond(prompt.getContents()));
+            Flux<String> paced = Flux.fromIterable(chunks);
+            if (properties.getTokensPerSecond() > 0 && chunks.size() > 1) {
+                Duration interval = Duration.ofNanos(
+                        1_000_000_000L * properties.getChunkTokens() / properties.getTokensPerSecond());
+                paced = Flux.just(chunks.get(0))
+                        .concatWith(Flux.fromIterable(chunks.subList(1, chunks.size())).delayElements(interval));
+            }
+            if (properties.getFirstTokenLatencyMillis() > 0) {
+                paced = paced.delaySubscription(Duration.ofMillis(properties.getFirstTokenLatencyMillis()));
+            }
+            return paced.map(LocalChatModel::toResponse);
+        });
+    }
+
+    /**
+     * The full response to a prompt: a classification for classifier prompts, otherwise the
+     * script entry of the agent's current turn and, after the script, {@code finish_task}.
+     */
+    String respond(String prompt) {
+        if (prompt.contains(CLASSIFIER_MARKER)) {
+            return classify(prompt);
+        }
+        int turn = countTurns(prompt);
+        List<String> script = properties.getScript();
+        if (turn < script.size()) {
+            return script.get(turn);
+        }
+        Matcher request = USER_REQUEST.matcher(prompt);
+        String summary = request.find() ? "Handled request: " + request.group(1) : "Handled request";
+        return "The work is done.\nTOOL: finish_task {\"summary\": \"" + jsonEscape(summary) + "\"}";
+    }
+
+    private static String classify(String prompt) {
+        Matcher single = SINGLE_REQUEST.matcher(prompt);
+        if (single.find()) {
+            return classifyRequest(single.group(1));
+        }
+        StringBuilder answer = new StringBuilder();
+        Matcher numbered = NUMBERED_REQUEST.matcher(prompt);
+        while (numbered.find()) {
+            answer.append(numbered.group(1)).append(": ").append(classifyRequest(numbered.group(2))).append('\n');
+        }
+        return answer.toString().trim();
+    }
+
+    private static String classifyRequest(String request) {
+        String lower = request.toLowerCase(Locale.ROOT);
+        if (lower.contains("fix") || lower.contains("bug") || lower.contains("error") || lower.contains("crash")) {
+            return "BUGFIX";
+        }
+        if (lower.contains("analy") || lower.contains("review") || lower.contains("explain")) {
+            return "ANALYZE";
+        }
+        return "CODE";
+    }
+
+    private static int countTurns(String prompt) {
+        int turns = 0;
+        for (int at = prompt.indexOf(TURN_MARKER); at >= 0; at = prompt.indexOf(TURN_MARKER, at + 1)) {
+            turns++;
+        }
+        return turns;
+    }
+
+    private List<String> chunk(String response) {
+        int size = Math.max(1, properties.getChunkTokens()) * CHARS_PER_TOKEN;
+        List<String> chunks = new ArrayList<>(response.length() / size + 1);
+        for (int start = 0; start < response.length(); start += size) {
+            chunks.add(response.substring(start, Math.min(response.length(), start + size)));
+        }
+        return chunks;
+    }
+
+    private static ChatResponse toResponse(String text) {
+        return new ChatResponse(List.of(new Generation(new AssistantMessage(text))));
+    }
+
+    private static String jsonEscape(String text) {
+        return text.replace("\\", "\\\\").replace("\"", "\\\"");
+    }
+}
@@ -0,0 +1,24 @@
+package com.codingagent.service.model;
+
+import org.springframework.ai.chat.model.ChatModel;
+import org.springframework.ai.chat.prompt.ChatOptions;
+import org.springframework.ai.chat.prompt.Prompt;
+
+/**
+ * The model and options one step is run with. {@code options} is null when the step uses the
+ * chat model's own configuration.
+ */
+public record ModelRoute(String profile, ChatModel chatModel, ChatOptions options, String escalateTo) {
+
+    public Prompt prompt(String text) {
+        return options != null ? new Prompt(text, options) : new Prompt(text);
+    }
+
+    public boolean canEscalate() {
+        return escalateTo != null;
+    }
+
+    public String describe() {
+        return profile != null ? profile : "default";
+    }
+}
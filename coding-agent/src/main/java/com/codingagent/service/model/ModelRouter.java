@@ -0,0 +1,125 @@
+package com.codingagent.service.model;
+
+import com.codingagent.config.ModelRoutingProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.ai.chat.model.ChatModel;
+import org.springframework.ai.chat.prompt.ChatOptions;
+import org.springframework.ai.chat.prompt.ChatOptionsBuilder;
+import org.springframework.stereotype.Service;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Picks the model each step runs on, so that cheap steps such as classification can go to a
+ * small, fast model while long tool loops use a large one. Routes are resolved once at startup;
+ * a misconfigured profile fails the application rather than the first request that uses it.
+ */
+@Service
+public class ModelRouter {
+
+    private static final Logger logger = LoggerFactory.getLogger(ModelRouter.class);
+
+    private final ModelRoutingProperties properties;
+    private final ModelRoute defaultRoute;
+    private final Map<String, ModelRoute> profiles = new HashMap<>();
+
+    public ModelRouter(Map<String, ChatModel> chatModels, ModelRoutingProperties properties) {
+        this.properties = properties;
+        ChatModel chatModel = defaultChatModel(chatModels, properties.getDefaultChatModel());
+        properties.getProfiles().forEach((name, profile) ->
+                profiles.put(name, toRoute(name, profile, chatModel, chatModels)));
+        properties.getProfiles().forEach((name, profile) -> requireProfile(profile.getEscalateTo(), "escalate-to of " + name));
+        properties.getRoutes().forEach((step, profile) -> requireProfile(profile, "route " + step));
+
+        String defaultProfile = properties.getDefaultProfile();
+        this.defaultRoute = defaultProfile != null && !defaultProfile.isBlank()
+                ? requireProfile(defaultProfile, "default-profile")
+                : new ModelRoute(null, chatModel, null, null);
+        logger.info("ModelRouter initialized with {} profiles and {} routes over chat models {}",
+                profiles.size(), properties.getRoutes().size(), chatModels.keySet());
+    }
+
+    /**
+     * The route of the first step name that has one, or the default route.
+     */
+    public ModelRoute route(String... steps) {
+        for (String step : steps) {
+            if (step == null) {
+                continue;
+            }
+            String profile = properties.getRoutes().get(step);
+            if (profile != null) {
+                return profiles.get(profile);
+            }
+        }
+        return defaultRoute;
+    }
+
+    /**
+     * The route a stalled run on the given route continues on, or null when it has none.
+     */
+    public ModelRoute escalate(ModelRoute route) {
+        if (!properties.isEscalateOnStall() || !route.canEscalate()) {
+            return null;
+        }
+        return profiles.get(route.escalateTo());
+    }
+
+    private ModelRoute requireProfile(String name, String usedBy) {
+        if (name == null) {
+            return null;
+        }
+        ModelRoute route = profiles.get(name);
+        if (route == null) {
+            throw new IllegalStateException("Unknown model profile '" + name + "' in " + usedBy);
+        }
+        return route;
+    }
+
+    /**
+     * The named chat model, or the only one registered.
+     */
+    private static ChatModel defaultChatModel(Map<String, ChatModel> chatModels, String name) {
+        if (name != null && !name.isBlank()) {
+            ChatModel chatModel = chatModels.get(name);
+            if (chatModel == null) {
+                throw new IllegalStateException("Unknown default chat model '" + name
+                        + "', available: " + chatModels.keySet());
+            }
+            return chatModel;
+        }
+        if (chatModels.size() != 1) {
+            throw new IllegalStateException("Set model-routing.default-chat-model to one of " + chatModels.keySet());
+        }
+        return chatModels.values().iterator().next();
+    }
+
+    private static ModelRoute toRoute(String name, ModelRoutingProperties.Profile profile,
+                                      ChatModel chatModel, Map<String, ChatModel> chatModels) {
+        ChatModel target = chatModel;
+        if (profile.getChatModel() != null) {
+            target = chatModels.get(profile.getChatModel());
+            if (target == null) {
+                throw new IllegalStateException("Model profile '" + name + "' names unknown chat model '"
+                        + profile.getChatModel() + "', available: " + chatModels.keySet());
+            }
+        }
+        return new ModelRoute(name, target, toOptions(profile), profile.getEscalateTo());
+    }
+
+    private static ChatOptions toOptions(ModelRoutingProperties.Profile profile) {
+        if (profile.getModel() == null && profile.getTemperature() == null
+                && profile.getMaxTokens() == null && profile.getTopP() == null) {
+            return null;
+        }
+        // Portable options: each chat model copies the ones it supports onto its own defaults
+        return ChatOptionsBuilder.builder()
+                .withModel(profile.getModel())
+                .withTemperature(profile.getTemperature())
+                .withMaxTokens(profile.getMaxTokens())
+                .withTopP(profile.getTopP())
+                .build();
+    }
+}
@@ -0,0 +1,159 @@
+package com.codingagent.service.stream;
+
+import com.codingagent.model.StreamEvent;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.StreamWriteFeature;
+import com.fasterxml.jackson.core.util.ByteArrayBuilder;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileGenerator;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Encodes {@link StreamEvent}s into ready-to-write frames without going through reflective
+ * serialization. Fields are written in declaration order and null fields are left out.
+ *
+ * <p>Two framings are supported: Server-Sent Events ({@code data:<json>\n\n}) for browsers and
+ * curl, and a Smile stream for the web proxy. A Smile stream starts with {@link #smileHeader()}
+ * and every frame ends with the Smile end-of-content marker, which is the framing Spring's
+ * {@code Jackson2SmileDecoder} expects for {@value #SMILE_STREAM_VALUE}.
+ *
+ * <p>Frames are assembled in a per-thread buffer that is reused between events, so encoding an
+ * event allocates little more than the returned array.
+ */
+@Component
+public class StreamEventEncoder {
+
+    public static final String SMILE_STREAM_VALUE = "application/stream+x-jackson-smile";
+    public static final MediaType SMILE_STREAM = MediaType.parseMediaType(SMILE_STREAM_VALUE);
+
+    private static final int INITIAL_BUFFER_SIZE = 8 * 1024;
+    private static final byte[] SSE_DATA_PREFIX = "data:".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] SSE_FRAME_END = "\n\n".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] SSE_HEARTBEAT = ":heartbeat\n\n".getBytes(StandardCharsets.US_ASCII);
+    private static final byte SMILE_END_OF_CONTENT = (byte) 0xFF;
+
+    private final JsonFactory jsonFactory = JsonFactory.builder()
+            .disable(StreamWriteFeature.AUTO_CLOSE_TARGET)
+            .build();
+    // Each frame is written by its own generator, so back-references to names or values seen in
+    // earlier frames must not be emitted: the reader keeps one parser for the whole stream
+    private final SmileFactory smileFactory = SmileFactory.builder()
+            .disable(SmileGenerator.Feature.WRITE_HEADER)
+            .disable(SmileGenerator.Feature.CHECK_SHARED_NAMES)
+            .disable(SmileGenerator.Feature.CHECK_SHARED_STRING_VALUES)
+            .disable(StreamWriteFeature.AUTO_CLOSE_TARGET)
+            .build();
+    private final ThreadLocal<ByteArrayBuilder> buffers =
+            ThreadLocal.withInitial(() -> new ByteArrayBuilder(INITIAL_BUFFER_SIZE));
+
+    private final byte[] smileHeader;
+    private final byte[] smileHeartbeat;
+
+    public StreamEventEncoder() {
+        ByteArrayBuilder buffer = new ByteArrayBuilder(16);
+        try (SmileGenerator generator = smileFactory.createGenerator(buffer)) {
+            generator.writeHeader();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        this.smileHeader = buffer.toByteArray();
+        this.smileHeartbeat = encodeSmile(new StreamEvent());
+    }
+
+    /**
+     * Encodes a complete SSE frame whose data line is the compact JSON form of the event.
+     */
+    public byte[] encodeSse(StreamEvent event) {
+        ByteArrayBuilder buffer = acquireBuffer();
+        buffer.write(SSE_DATA_PREFIX);
+        try (JsonGenerator generator = jsonFactory.createGenerator(buffer)) {
+            writeEvent(generator, event);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        buffer.write(SSE_FRAME_END);
+        return buffer.toByteArray();
+    }
+
+    /**
+     * Encodes one Smile frame, terminated by the end-of-content marker.
+     */
+    public byte[] encodeSmile(StreamEvent event) {
+        ByteArrayBuilder buffer = acquireBuffer();
+        try (JsonGenerator generator = smileFactory.createGenerator(buffer)) {
+            writeEvent(generator, event);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        buffer.write(SMILE_END_OF_CONTENT);
+        return buffer.toByteArray();
+    }
+
+    /**
+     * An SSE comment frame. Clients ignore it; it only makes a closed connection visible.
+     */
+    public byte[] sseHeartbeat() {
+        return SSE_HEARTBEAT;
+    }
+
+    /**
+     * The Smile header that has to precede the first frame of a stream.
+     */
+    public byte[] smileHeader() {
+        return smileHeader;
+    }
+
+    /**
+     * An empty Smile frame. It decodes to an event without a type, which readers skip.
+     */
+    public byte[] smileHeartbeat() {
+        return smileHeartbeat;
+    }
+
+    private ByteArrayBuilder acquireBuffer() {
+        ByteArrayBuilder buffer = buffers.get();
+        buffer.reset();
+        return buffer;
+    }
+
+    private void writeEvent(JsonGenerator generator, StreamEvent event) throws IOException {
+        generator.writeStartObject();
+        if (event.getType() != null) {
+            generator.writeStringField("type", event.getType().name());
+        }
+        writeString(generator, "message", event.getMessage());
+        writeString(generator, "toolName", event.getToolName());
+        writeString(generator, "toolParameters", event.getToolParameters());
+        writeString(generator, "toolResult", event.getToolResult());
+        if (event.getIteration() != null) {
+            generator.writeNumberField("iteration", event.getIteration());
+        }
+        if (event.getComplete() != null) {
+            generator.writeBooleanField("complete", event.getComplete());
+        }
+        writeString(generator, "error", event.getError());
+        writeString(generator, "sessionId", event.getSessionId());
+        writeString(generator, "taskId", event.getTaskId());
+        writeString(generator, "agentType", event.getAgentType());
+        if (event.getFilesWritten() != null) {
+            generator.writeArrayFieldStart("filesWritten");
+            for (String path : event.getFilesWritten()) {
+                generator.writeString(path);
+            }
+            generator.writeEndArray();
+        }
+        generator.writeEndObject();
+    }
+
+    private void writeString(JsonGenerator generator, String name, String value) throws IOException {
+        if (value != null) {
+            generator.writeStringField(name, value);
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package com.codingagent.service.tool;
+
+import com.codingagent.service.index.SourceSymbol;
+import com.codingagent.service.index.SymbolIndexService;
+import com.codingagent.service.workspace.WorkspacePathException;
+import com.codingagent.service.workspace.WorkspacePathResolver;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+@Component
+public class FileOutlineTool implements Tool {
+
+    private static final Logger logger = LoggerFactory.getLogger(FileOutlineTool.class);
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+    private static final ToolMetadata METADATA = ToolMetadata.builder()
+            .readOnly(true)
+            .cacheable(true)
+            .maxResultSize(64 * 1024)
+            .displayPolicy(ToolMetadata.DisplayPolicy.TRUNCATE)
+            .timeout(Duration.ofSeconds(10))
+            .build();
+
+    private final SymbolIndexService symbolIndexService;
+
+    public FileOutlineTool(SymbolIndexService symbolIndexService) {
+        this.symbolIndexService = symbolIndexService;
+    }
+
+    @Override
+    public String getName() {
+        return "file_outline";
+    }
+
+    @Override
+    public String getDescription() {
+        return """
+                Shows the classes, methods and fields of a Java or Kotlin file with their line ranges, without the bodies.
+                Parameters: {"path": "file/path"}
+                Returns: Indented outline, one declaration per line.
+                """;
+    }
+
+    @Override
+    public ToolMetadata getMetadata() {
+        return METADATA;
+    }
+
+    @Override
+    public String execute(String parameters) {
+        String path = extractPath(parameters);
+        WorkspacePathResolver resolver = ToolExecutionContext.getPathResolver();
+        Path root = resolver.getRoot();
+        Path file;
+        try {
+            file = resolver.resolve(path);
+        } catch (WorkspacePathException e) {
+            return "Error: " + e.getMessage();
+        }
+
+        if (!Files.isRegularFile(file)) {
+            return "Error: File not found: " + resolver.relative(file);
+        }
+        if (!symbolIndexService.supports(file)) {
+            return "Error: Outlines are only available for Java and Kotlin files: " + path;
+        }
+
+        try {
+            List<SourceSymbol> symbols = symbolIndexService.outline(root, file);
+            StringBuilder output = new StringBuilder();
+            output.append("Outline of ").append(path).append(" (").append(symbols.size()).append(" symbols):\n");
+            for (SourceSymbol symbol : symbols) {
+                output.append("  ".repeat(symbol.getDepth()))
+                        .append(symbol.getSignature())
+                        .append("  [").append(symbol.getStartLine()).append('-').append(symbol.getEndLine())
+                        .append("]\n");
+            }
+            return output.toString();
+        } catch (IOException e) {
+            logger.error("Error outlining file", e);
+            return "Error: " + e.getMessage();
+        }
+    }
+
+    private String extractPath(String parameters) {
+        try {
+            JsonNode jsonNode = objectMapper.readTree(parameters.trim());
+            return jsonNode.has("path") ? jsonNode.get("path").asText() : parameters.trim();
+        } catch (Exception e) {
+            logger.debug("Failed to parse as JSON, using raw parameter: {}", parameters);
+            return parameters.trim();
+        }
+    }
+}
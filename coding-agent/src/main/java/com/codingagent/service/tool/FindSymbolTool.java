@@ -0,0 +1,115 @@
+package com.codingagent.service.tool;
+
+import com.codingagent.service.index.SourceSymbol;
+import com.codingagent.service.index.SymbolIndexService;
+import com.codingagent.service.index.SymbolIndexStats;
+import com.codingagent.service.index.SymbolMatch;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+@Component
+public class FindSymbolTool implements Tool {
+
+    private static final Logger logger = LoggerFactory.getLogger(FindSymbolTool.class);
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+    private static final int DEFAULT_MAX_RESULTS = 20;
+    private static final ToolMetadata METADATA = ToolMetadata.builder()
+            .readOnly(true)
+            .cacheable(true)
+            .maxResultSize(64 * 1024)
+            .displayPolicy(ToolMetadata.DisplayPolicy.TRUNCATE)
+            .timeout(Duration.ofSeconds(60))
+            .build();
+
+    private final SymbolIndexService symbolIndexService;
+
+    public FindSymbolTool(SymbolIndexService symbolIndexService) {
+        this.symbolIndexService = symbolIndexService;
+    }
+
+    @Override
+    public String getName() {
+        return "find_symbol";
+    }
+
+    @Override
+    public String getDescription() {
+        return """
+                Finds classes, methods and fields in Java and Kotlin sources by name (e.g. "save" or "UserService.save").
+                Parameters: {"name": "symbol name", "kind": "optional: class, interface, enum, record, method, constructor, field", "maxResults": 20}
+                Returns: Matching declarations with file path and line range, for use with read_file startLine/endLine.
+                """;
+    }
+
+    @Override
+    public ToolMetadata getMetadata() {
+        return METADATA;
+    }
+
+    @Override
+    public String execute(String parameters) {
+        JsonNode params;
+        try {
+            params = objectMapper.readTree(parameters.trim());
+        } catch (Exception e) {
+            logger.debug("Failed to parse as JSON, using raw parameter as name: {}", parameters);
+            params = objectMapper.createObjectNode().put("name", parameters.trim());
+        }
+
+        String name = params.path("name").asText("").trim();
+        if (name.isEmpty()) {
+            return "Error: name is required";
+        }
+        SourceSymbol.Kind kind = null;
+        String kindName = params.path("kind").asText("");
+        if (!kindName.isEmpty()) {
+            try {
+                kind = SourceSymbol.Kind.valueOf(kindName.toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                return "Error: Unknown kind '" + kindName + "', expected one of "
+                        + Arrays.toString(SourceSymbol.Kind.values()).toLowerCase(Locale.ROOT);
+            }
+        }
+
+        Path root = ToolExecutionContext.getPathResolver().getRoot();
+        if (!Files.isDirectory(root)) {
+            return "Error: Directory not found: " + root;
+        }
+
+        try {
+            List<SymbolMatch> matches = symbolIndexService.findSymbols(root, name, kind,
+                    params.path("maxResults").asInt(DEFAULT_MAX_RESULTS));
+            SymbolIndexStats stats = symbolIndexService.getStats(root);
+
+            StringBuilder output = new StringBuilder();
+            output.append(matches.size()).append(" symbols matching '").append(name).append("'");
+            if (stats != null) {
+                output.append(" (").append(stats.getSymbols()).append(" symbols in ")
+                        .append(stats.getFiles()).append(" files indexed)");
+            }
+            output.append("\n");
+            for (SymbolMatch match : matches) {
+                SourceSymbol symbol = match.getSymbol();
+                output.append(match.getPath()).append(':').append(symbol.getStartLine()).append('-')
+                        .append(symbol.getEndLine()).append(' ')
+                        .append(symbol.getKind().name().toLowerCase(Locale.ROOT)).append(' ')
+                        .append(symbol.getQualifiedName()).append(": ").append(symbol.getSignature()).append("\n");
+            }
+            return output.toString();
+        } catch (IOException e) {
+            logger.error("Error searching symbols", e);
+            return "Error: " + e.getMessage();
+        }
+    }
+}
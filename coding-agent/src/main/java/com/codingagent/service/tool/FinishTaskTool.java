@@ -6,11 +6,19 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Component;
 
+import java.time.Duration;
+
 @Component
 public class FinishTaskTool implements Tool {
 
     private static final Logger logger = LoggerFactory.getLogger(FinishTaskTool.class);
     private static final ObjectMapper objectMapper = new ObjectMapper();
+    private static final ToolMetadata METADATA = ToolMetadata.builder()
+            .readOnly(true)
+            .timeout(Duration.ofSeconds(5))
+            .executionPool(ToolMetadata.ExecutionPool.LIGHTWEIGHT)
+            .terminal(true)
+            .build();
 
     @Override
     public String getName() {
@@ -26,6 +34,11 @@ public class FinishTaskTool implements Tool {
                 """;
     }
 
+    @Override
+    public ToolMetadata getMetadata() {
+        return METADATA;
+    }
+
     @Override
     public String execute(String parameters) {
         String summary = extractSummary(parameters);
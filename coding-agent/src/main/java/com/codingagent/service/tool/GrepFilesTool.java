@@ -0,0 +1,106 @@
+package com.codingagent.service.tool;
+
+import com.codingagent.service.index.CodeSearchResult;
+import com.codingagent.service.index.CodeSearchService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.regex.PatternSyntaxException;
+
+@Component
+public class GrepFilesTool implements Tool {
+
+    private static final Logger logger = LoggerFactory.getLogger(GrepFilesTool.class);
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+    private static final int DEFAULT_MAX_RESULTS = 50;
+    private static final ToolMetadata METADATA = ToolMetadata.builder()
+            .readOnly(true)
+            .maxResultSize(64 * 1024)
+            .displayPolicy(ToolMetadata.DisplayPolicy.TRUNCATE)
+            .timeout(Duration.ofSeconds(60))
+            .build();
+
+    private final CodeSearchService codeSearchService;
+
+    public GrepFilesTool(CodeSearchService codeSearchService) {
+        this.codeSearchService = codeSearchService;
+    }
+
+    @Override
+    public String getName() {
+        return "grep_files";
+    }
+
+    @Override
+    public String getDescription() {
+        return """
+                Searches file contents for a literal string or regular expression, line by line.
+                Parameters: {"pattern": "text or regex", "path": "optional/sub/directory", "regex": false, "caseSensitive": false, "maxResults": 50}
+                Returns: Matching lines as path:line: text.
+                """;
+    }
+
+    @Override
+    public ToolMetadata getMetadata() {
+        return METADATA;
+    }
+
+    @Override
+    public String execute(String parameters) {
+        JsonNode params;
+        try {
+            params = objectMapper.readTree(parameters.trim());
+        } catch (Exception e) {
+            logger.debug("Failed to parse as JSON, using raw parameter as pattern: {}", parameters);
+            params = objectMapper.createObjectNode().put("pattern", parameters.trim());
+        }
+
+        String pattern = params.path("pattern").asText("");
+        if (pattern.isEmpty()) {
+            return "Error: pattern is required";
+        }
+
+        Path root = ToolExecutionContext.getPathResolver().getRoot();
+        if (!Files.isDirectory(root)) {
+            return "Error: Directory not found: " + root;
+        }
+
+        try {
+            CodeSearchResult result = codeSearchService.search(root,
+                    pattern,
+                    params.path("regex").asBoolean(false),
+                    params.path("caseSensitive").asBoolean(false),
+                    params.path("path").asText(""),
+                    params.path("maxResults").asInt(DEFAULT_MAX_RESULTS));
+            return format(pattern, result);
+        } catch (PatternSyntaxException e) {
+            return "Error: Invalid regex: " + e.getDescription();
+        } catch (IOException e) {
+            logger.error("Error searching files", e);
+            return "Error: " + e.getMessage();
+        }
+    }
+
+    private String format(String pattern, CodeSearchResult result) {
+        StringBuilder output = new StringBuilder();
+        output.append(result.getMatches().size()).append(" matches for '").append(pattern).append("' (")
+                .append(result.getCandidateFiles()).append(" of ").append(result.getIndexedFiles())
+                .append(" files scanned, ").append(result.getElapsedMillis()).append(" ms)");
+        if (result.isTruncated()) {
+            output.append(" - more matches omitted, narrow the pattern or path");
+        }
+        output.append("\n");
+        for (CodeSearchResult.Match match : result.getMatches()) {
+            output.append(match.getPath()).append(':').append(match.getLine()).append(": ")
+                    .append(match.getText()).append("\n");
+        }
+        return output.toString();
+    }
+}
@@ -1,5 +1,8 @@
 package com.codingagent.service.tool;
 
+import com.codingagent.service.workspace.WorkspaceFilter;
+import com.codingagent.service.workspace.WorkspaceFilterService;
+import com.codingagent.service.workspace.WorkspacePathResolver;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.slf4j.Logger;
@@ -7,17 +10,40 @@ import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Component;
 
 import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileSystems;
 import java.nio.file.Files;
+import java.nio.file.LinkOption;
 import java.nio.file.Path;
-import java.nio.file.Paths;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
+import java.nio.file.PathMatcher;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
 
 @Component
 public class ListFilesTool implements Tool {
 
     private static final Logger logger = LoggerFactory.getLogger(ListFilesTool.class);
     private static final ObjectMapper objectMapper = new ObjectMapper();
+    private static final int DEFAULT_DEPTH = 1;
+    private static final int MAX_DEPTH = 20;
+    private static final int DEFAULT_LIMIT = 200;
+    private static final int MAX_LIMIT = 1000;
+    private static final ToolMetadata METADATA = ToolMetadata.builder()
+            .readOnly(true)
+            .cacheable(true)
+            .maxResultSize(64 * 1024)
+            .displayPolicy(ToolMetadata.DisplayPolicy.TRUNCATE)
+            .timeout(Duration.ofSeconds(30))
+            .build();
+
+    private final WorkspaceFilterService workspaceFilterService;
+
+    public ListFilesTool(WorkspaceFilterService workspaceFilterService) {
+        this.workspaceFilterService = workspaceFilterService;
+    }
 
     @Override
     public String getName() {
@@ -27,52 +53,65 @@ public class ListFilesTool implements Tool {
     @Override
     public String getDescription() {
         return """
-                Lists files and directories in a given path.
-                Parameters: {"path": "directory/path"}
-                Returns: List of files and directories with their types.
+                Lists files and directories as an indented tree, skipping ignored (.gitignore), build output and hidden files.
+                Parameters: {"path": "directory/path", "depth": 1, "pattern": "optional glob, e.g. **/*.java", "limit": 200, "cursor": "from previous call"}
+                Returns: Directories (ending in /) and files, indented by level. If more entries exist, a cursor for the next page.
                 """;
     }
 
+    @Override
+    public ToolMetadata getMetadata() {
+        return METADATA;
+    }
+
     @Override
     public String execute(String parameters) {
         try {
-            String path = extractPath(parameters);
-            
-            // Resolve path relative to base directory if available
-            String baseDir = ToolExecutionContext.getBaseDirectory();
-            Path directory;
-            if (baseDir != null && !baseDir.trim().isEmpty()) {
-                directory = Paths.get(baseDir, path.isEmpty() ? "." : path);
-                logger.debug("Resolving path '{}' relative to base directory '{}' -> '{}'", 
-                        path, baseDir, directory.toAbsolutePath());
-            } else {
-                directory = Paths.get(path.isEmpty() ? "." : path);
-                logger.debug("Using path '{}' without base directory", path);
+            ListFilesParams params;
+            try {
+                params = extractParams(parameters);
+            } catch (IllegalArgumentException e) {
+                return "Error: Invalid pattern: " + e.getMessage();
             }
+            String path = params.path;
+            
+            WorkspacePathResolver resolver = ToolExecutionContext.getPathResolver();
+            Path directory = resolver.resolve(path);
 
             if (!Files.exists(directory)) {
-                logger.warn("Directory not found: {}", directory.toAbsolutePath());
-                return "Error: Directory not found: " + directory.toAbsolutePath();
+                logger.warn("Directory not found: {}", directory);
+                return "Error: Directory not found: " + resolver.relative(directory);
             }
 
             if (!Files.isDirectory(directory)) {
-                logger.warn("Path is not a directory: {}", directory.toAbsolutePath());
-                return "Error: Not a directory: " + directory.toAbsolutePath();
+                logger.warn("Path is not a directory: {}", directory);
+                return "Error: Not a directory: " + resolver.relative(directory);
             }
 
-            StringBuilder result = new StringBuilder();
-            result.append("Files in ").append(directory.toAbsolutePath()).append(":\n");
+            // Ignore files apply from the workspace root, so listing a subdirectory still honours the
+            // .gitignore files above it
+            WorkspaceFilter filter = workspaceFilterService.forRoot(resolver.getRoot());
+            Listing listing = new Listing(directory, params, filter);
+            listing.walk(directory, 0);
 
-            Files.list(directory)
-                    .sorted()
-                    .forEach(file -> {
-                        String type = Files.isDirectory(file) ? "[DIR]" : "[FILE]";
-                        result.append(type).append(" ").append(file.getFileName()).append("\n");
-                    });
+            StringBuilder result = new StringBuilder();
+            result.append("Files in ").append(resolver.relative(directory))
+                    .append(" (depth ").append(params.depth);
+            if (params.matcher != null) {
+                result.append(", pattern ").append(params.pattern);
+            }
+            result.append("):\n").append(listing.output);
+            if (listing.emitted == 0) {
+                result.append(params.offset > 0 ? "(no more entries)\n" : "(no entries)\n");
+            }
+            if (listing.hasMore) {
+                result.append("... more entries; call again with \"cursor\": \"")
+                        .append(params.offset + listing.emitted).append("\"\n");
+            }
 
-            String output = result.toString();
-            logger.debug("Listed directory: {} ({} items)", directory.toAbsolutePath(), Files.list(directory).count());
-            return output;
+            logger.debug("Listed directory: {} ({} entries, more: {})",
+                    directory, listing.emitted, listing.hasMore);
+            return result.toString();
 
         } catch (IOException e) {
             logger.error("Error listing directory", e);
@@ -80,13 +119,166 @@ public class ListFilesTool implements Tool {
         }
     }
 
-    private String extractPath(String parameters) {
+    /**
+     * One depth-first pass over the tree. Every directory is opened once and closed before its
+     * children are visited; the walk stops as soon as one entry past the requested page is found.
+     * Entries before the cursor are counted but not printed, and the ancestors of the first printed
+     * entry are repeated as headers so that every page reads as a tree on its own.
+     */
+    private class Listing {
+        private final Path root;
+        private final ListFilesParams params;
+        private final WorkspaceFilter filter;
+        private final StringBuilder output = new StringBuilder();
+        private final List<Ancestor> ancestors = new ArrayList<>();
+        private int counted;
+        private int emitted;
+        private boolean hasMore;
+
+        Listing(Path root, ListFilesParams params, WorkspaceFilter filter) {
+            this.root = root;
+            this.params = params;
+            this.filter = filter;
+        }
+
+        /**
+         * Returns {@code false} once the page is full.
+         */
+        boolean walk(Path directory, int level) throws IOException {
+            List<Entry> children = new ArrayList<>();
+            try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory)) {
+                for (Path child : stream) {
+                    try {
+                        BasicFileAttributes attributes = Files.readAttributes(child, BasicFileAttributes.class,
+                                LinkOption.NOFOLLOW_LINKS);
+                        boolean isDirectory = attributes.isDirectory();
+                        if (isDirectory ? filter.isIgnoredDirectory(child) : filter.isIgnoredFile(child)) {
+                            continue;
+                        }
+                        children.add(new Entry(child, child.getFileName().toString(), isDirectory));
+                    } catch (IOException e) {
+                        logger.debug("Skipping unreadable entry {}", child, e);
+                    }
+                }
+            }
+            children.sort(Comparator.comparing((Entry entry) -> !entry.directory).thenComparing(entry -> entry.name));
+
+            for (Entry child : children) {
+                if (child.directory) {
+                    if (params.matcher == null && !count(child.name + "/", level)) {
+                        return false;
+                    }
+                    if (level + 1 < params.depth) {
+                        ancestors.add(new Ancestor(child.name, params.matcher == null && counted > params.offset));
+                        boolean more = true;
+                        try {
+                            more = walk(child.path, level + 1);
+                        } catch (IOException e) {
+                            logger.debug("Skipping unreadable directory {}", child.path, e);
+                        }
+                        ancestors.remove(ancestors.size() - 1);
+                        if (!more) {
+                            return false;
+                        }
+                    }
+                } else if (matches(child.path) && !count(child.name, level)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private boolean count(String line, int level) {
+            if (emitted == params.limit) {
+                hasMore = true;
+                return false;
+            }
+            counted++;
+            if (counted <= params.offset) {
+                return true;
+            }
+            for (int i = 0; i < ancestors.size(); i++) {
+                Ancestor ancestor = ancestors.get(i);
+                if (!ancestor.printed) {
+                    output.append("  ".repeat(i)).append(ancestor.name).append("/\n");
+                    ancestor.printed = true;
+                }
+            }
+            output.append("  ".repeat(level)).append(line).append('\n');
+            emitted++;
+            return true;
+        }
+
+        private boolean matches(Path file) {
+            if (params.matcher == null) {
+                return true;
+            }
+            Path relative = root.relativize(file);
+            return params.matcher.matches(relative)
+                    || (params.nameMatcher != null && params.nameMatcher.matches(relative))
+                    || (params.pattern.indexOf('/') < 0 && params.matcher.matches(file.getFileName()));
+        }
+    }
+
+    private static class Entry {
+        final Path path;
+        final String name;
+        final boolean directory;
+
+        Entry(Path path, String name, boolean directory) {
+            this.path = path;
+            this.name = name;
+            this.directory = directory;
+        }
+    }
+
+    private static class Ancestor {
+        final String name;
+        boolean printed;
+
+        Ancestor(String name, boolean printed) {
+            this.name = name;
+            this.printed = printed;
+        }
+    }
+
+    private ListFilesParams extractParams(String parameters) {
+        JsonNode jsonNode;
         try {
-            JsonNode jsonNode = objectMapper.readTree(parameters.trim());
-            return jsonNode.has("path") ? jsonNode.get("path").asText() : parameters.trim();
+            jsonNode = objectMapper.readTree(parameters.trim());
         } catch (Exception e) {
             logger.debug("Failed to parse as JSON, using raw parameter: {}", parameters);
-            return parameters.trim();
+            return new ListFilesParams(parameters.trim(), DEFAULT_DEPTH, "", DEFAULT_LIMIT, 0);
+        }
+        // Without a path the workspace root is listed
+        String path = jsonNode.isObject() ? jsonNode.path("path").asText("") : parameters.trim();
+        return new ListFilesParams(path,
+                jsonNode.path("depth").asInt(DEFAULT_DEPTH),
+                jsonNode.path("pattern").asText(""),
+                jsonNode.path("limit").asInt(DEFAULT_LIMIT),
+                jsonNode.path("cursor").asInt(0));
+    }
+
+    private static class ListFilesParams {
+        final String path;
+        final int depth;
+        final String pattern;
+        final PathMatcher matcher;
+        // A leading "**/" should also match files directly in the listed directory
+        final PathMatcher nameMatcher;
+        final int limit;
+        final int offset;
+
+        ListFilesParams(String path, int depth, String pattern, int limit, int offset) {
+            this.path = path;
+            this.depth = Math.max(1, Math.min(MAX_DEPTH, depth));
+            this.pattern = pattern;
+            this.matcher = pattern.isEmpty() ? null : FileSystems.getDefault().getPathMatcher("glob:" + pattern);
+            this.nameMatcher = pattern.startsWith("**/")
+                    ? FileSystems.getDefault().getPathMatcher("glob:" + pattern.substring(3))
+                    : null;
+            this.limit = Math.max(1, Math.min(MAX_LIMIT, limit));
+            this.offset = Math.max(0, offset);
         }
     }
 }
@@ -6,11 +6,18 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Component;
 
+import java.time.Duration;
+
 @Component
 public class LogThoughtTool implements Tool {
 
     private static final Logger logger = LoggerFactory.getLogger(LogThoughtTool.class);
     private static final ObjectMapper objectMapper = new ObjectMapper();
+    private static final ToolMetadata METADATA = ToolMetadata.builder()
+            .readOnly(true)
+            .timeout(Duration.ofSeconds(5))
+            .executionPool(ToolMetadata.ExecutionPool.LIGHTWEIGHT)
+            .build();
 
     @Override
     public String getName() {
@@ -26,6 +33,11 @@ public class LogThoughtTool implements Tool {
                 """;
     }
 
+    @Override
+    public ToolMetadata getMetadata() {
+        return METADATA;
+    }
+
     @Override
     public String execute(String parameters) {
         String thought = extractThought(parameters);
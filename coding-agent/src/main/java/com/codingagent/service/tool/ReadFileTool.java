@@ -1,5 +1,9 @@
 package com.codingagent.service.tool;
 
+import com.codingagent.service.workspace.FileVersions;
+import com.codingagent.service.workspace.PathLockManager;
+import com.codingagent.service.workspace.WorkspaceFilterService;
+import com.codingagent.service.workspace.WorkspacePathResolver;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.slf4j.Logger;
@@ -7,9 +11,10 @@ import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Component;
 
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.nio.file.Paths;
+import java.time.Duration;
 
 @Component
 public class ReadFileTool implements Tool {
@@ -17,6 +22,21 @@ public class ReadFileTool implements Tool {
     private static final Logger logger = LoggerFactory.getLogger(ReadFileTool.class);
     private static final ObjectMapper objectMapper = new ObjectMapper();
     private static final int MAX_FILE_SIZE = 1024 * 1024; // 1MB
+    private static final ToolMetadata METADATA = ToolMetadata.builder()
+            .readOnly(true)
+            .cacheable(true)
+            .maxResultSize(MAX_FILE_SIZE)
+            .displayPolicy(ToolMetadata.DisplayPolicy.HIDE_CONTENT)
+            .timeout(Duration.ofSeconds(10))
+            .build();
+
+    private final WorkspaceFilterService workspaceFilterService;
+    private final PathLockManager pathLockManager;
+
+    public ReadFileTool(WorkspaceFilterService workspaceFilterService, PathLockManager pathLockManager) {
+        this.workspaceFilterService = workspaceFilterService;
+        this.pathLockManager = pathLockManager;
+    }
 
     @Override
     public String getName() {
@@ -26,60 +46,120 @@ public class ReadFileTool implements Tool {
     @Override
     public String getDescription() {
         return """
-                Reads the content of a file.
-                Parameters: {"path": "file/path"}
+                Reads the content of a file, or only a range of its lines.
+                Parameters: {"path": "file/path", "startLine": 10, "endLine": 40} (line range optional, 1-based, inclusive)
                 Returns: File content as string.
                 """;
     }
 
+    @Override
+    public ToolMetadata getMetadata() {
+        return METADATA;
+    }
+
     @Override
     public String execute(String parameters) {
         try {
-            String path = extractPath(parameters);
+            ReadFileParams params = extractParams(parameters);
+            String path = params.path;
             
-            // Resolve path relative to base directory if available
-            String baseDir = ToolExecutionContext.getBaseDirectory();
-            Path file;
-            if (baseDir != null && !baseDir.trim().isEmpty()) {
-                file = Paths.get(baseDir, path);
-                logger.debug("Resolving path '{}' relative to base directory '{}' -> '{}'", 
-                        path, baseDir, file.toAbsolutePath());
-            } else {
-                file = Paths.get(path);
-                logger.debug("Using path '{}' without base directory", path);
-            }
+            WorkspacePathResolver resolver = ToolExecutionContext.getPathResolver();
+            Path file = resolver.resolve(path);
+            String displayPath = resolver.relative(file);
 
             if (!Files.exists(file)) {
-                logger.warn("File not found: {}", file.toAbsolutePath());
-                return "Error: File not found: " + file.toAbsolutePath();
+                logger.warn("File not found: {}", file);
+                return "Error: File not found: " + displayPath;
             }
 
             if (!Files.isRegularFile(file)) {
-                return "Error: Path is not a file: " + file.toAbsolutePath();
+                return "Error: Path is not a file: " + displayPath;
             }
 
             long fileSize = Files.size(file);
             if (fileSize > MAX_FILE_SIZE) {
-                return "Error: File too large (max 1MB): " + file.toAbsolutePath();
+                return "Error: File too large (max 1MB): " + displayPath;
+            }
+
+            if (!workspaceFilterService.isTextFile(file)) {
+                return "Error: Binary file, content not shown: " + displayPath;
             }
 
-            String content = Files.readString(file);
-            logger.info("Read file: {} ({} bytes)", file.toAbsolutePath(), fileSize);
+            String content = readLocked(pathLockManager, file, ToolExecutionContext.getFileVersions());
+            logger.info("Read file: {} ({} bytes)", file, fileSize);
+            if (params.startLine > 0 || params.endLine > 0) {
+                return selectLines(content, params.startLine, params.endLine);
+            }
             return content;
 
+        } catch (IllegalArgumentException e) {
+            return "Error: " + e.getMessage();
         } catch (IOException e) {
             logger.error("Error reading file", e);
             return "Error: " + e.getMessage();
         }
     }
 
-    private String extractPath(String parameters) {
+    /**
+     * Reads a file under its read lock, so that no write is half done, and records the version read.
+     */
+    static String readLocked(PathLockManager pathLockManager, Path file, FileVersions versions) throws IOException {
+        return pathLockManager.withReadLock(file, () -> {
+            byte[] bytes = Files.readAllBytes(file);
+            versions.record(file, bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        });
+    }
+
+    /**
+     * The given lines of the content, throwing IllegalArgumentException when the range is invalid or
+     * starts past the end of the file.
+     */
+    static String selectLines(String content, int startLine, int endLine) {
+        int first = Math.max(1, startLine);
+        int last = endLine > 0 ? endLine : Integer.MAX_VALUE;
+        if (last < first) {
+            throw new IllegalArgumentException("endLine must not be before startLine");
+        }
+
+        StringBuilder result = new StringBuilder();
+        int lineNumber = 1;
+        int lineStart = 0;
+        while (lineStart < content.length() && lineNumber <= last) {
+            int lineEnd = content.indexOf('\n', lineStart);
+            int next = lineEnd < 0 ? content.length() : lineEnd + 1;
+            if (lineNumber >= first) {
+                result.append(content, lineStart, next);
+            }
+            lineStart = next;
+            lineNumber++;
+        }
+        if (lineNumber <= first) {
+            throw new IllegalArgumentException("File has only " + (lineNumber - 1) + " lines");
+        }
+        return result.toString();
+    }
+
+    private ReadFileParams extractParams(String parameters) {
         try {
             JsonNode jsonNode = objectMapper.readTree(parameters.trim());
-            return jsonNode.has("path") ? jsonNode.get("path").asText() : parameters.trim();
+            String path = jsonNode.has("path") ? jsonNode.get("path").asText() : parameters.trim();
+            return new ReadFileParams(path, jsonNode.path("startLine").asInt(0), jsonNode.path("endLine").asInt(0));
         } catch (Exception e) {
             logger.debug("Failed to parse as JSON, using raw parameter: {}", parameters);
-            return parameters.trim();
+            return new ReadFileParams(parameters.trim(), 0, 0);
+        }
+    }
+
+    private static class ReadFileParams {
+        final String path;
+        final int startLine;
+        final int endLine;
+
+        ReadFileParams(String path, int startLine, int endLine) {
+            this.path = path;
+            this.startLine = startLine;
+            this.endLine = endLine;
         }
     }
 }
@@ -0,0 +1,368 @@
+package com.codingagent.service.tool;
+
+import com.codingagent.service.workspace.WorkspaceFilter;
+import com.codingagent.service.workspace.FileVersions;
+import com.codingagent.service.workspace.PathLockManager;
+import com.codingagent.service.workspace.WorkspaceFilterService;
+import com.codingagent.service.workspace.WorkspacePathException;
+import com.codingagent.service.workspace.WorkspacePathResolver;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.FileSystems;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Reads several files in one call. Entries are paths or globs, each optionally limited to a line
+ * range. Files are read concurrently and returned as one result in request order, within a combined
+ * byte budget; files that do not fit are listed so the model can ask for them separately.
+ */
+@Component
+public class ReadFilesTool implements Tool {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReadFilesTool.class);
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+    private static final int MAX_FILE_SIZE = 1024 * 1024; // 1MB
+    private static final int MAX_FILES = 50;
+    private static final int DEFAULT_MAX_BYTES = 256 * 1024;
+    private static final int MAX_BYTES = 1024 * 1024;
+    private static final int PARALLELISM = 4;
+    private static final ToolMetadata METADATA = ToolMetadata.builder()
+            .readOnly(true)
+            .cacheable(true)
+            .maxResultSize(MAX_BYTES + 16 * 1024)
+            .displayPolicy(ToolMetadata.DisplayPolicy.HIDE_CONTENT)
+            .timeout(Duration.ofSeconds(30))
+            .build();
+
+    private final WorkspaceFilterService workspaceFilterService;
+    private final PathLockManager pathLockManager;
+    private final ToolExecutor toolExecutor;
+
+    public ReadFilesTool(WorkspaceFilterService workspaceFilterService, PathLockManager pathLockManager,
+                         ToolExecutor toolExecutor) {
+        this.workspaceFilterService = workspaceFilterService;
+        this.pathLockManager = pathLockManager;
+        this.toolExecutor = toolExecutor;
+    }
+
+    @Override
+    public String getName() {
+        return "read_files";
+    }
+
+    @Override
+    public String getDescription() {
+        return """
+                Reads several files at once; prefer it over repeated read_file calls.
+                Parameters: {"files": ["src/App.java", {"path": "src/Util.java", "startLine": 10, "endLine": 40}, "src/**/*.yml"], "maxBytes": 262144}
+                Entries are paths or globs (max 50 files); maxBytes is the combined budget (max 1MB).
+                Returns: Each file's content under a "=== path ===" header, then any omitted files and errors.
+                """;
+    }
+
+    @Override
+    public ToolMetadata getMetadata() {
+        return METADATA;
+    }
+
+    @Override
+    public String execute(String parameters) {
+        ReadFilesParams params;
+        try {
+            params = extractParams(parameters);
+        } catch (IllegalArgumentException e) {
+            return "Error: " + e.getMessage();
+        }
+        if (params.requests.isEmpty()) {
+            return "Error: No files given. Use {\"files\": [\"path\", ...]}";
+        }
+
+        WorkspacePathResolver resolver = ToolExecutionContext.getPathResolver();
+        List<String> errors = new ArrayList<>();
+        List<FileRead> reads = resolve(resolver, params.requests, errors);
+        boolean truncatedList = reads.size() > MAX_FILES;
+        if (truncatedList) {
+            reads = reads.subList(0, MAX_FILES);
+        }
+
+        // Pool threads have no tool context, so the session's versions are handed over explicitly
+        FileVersions versions = ToolExecutionContext.getFileVersions();
+
+        // Plan with the sizes on disk, so files that cannot fit the budget are never read
+        long planned = 0;
+        int readCount = 0;
+        while (readCount < reads.size() && planned < params.maxBytes) {
+            FileRead read = reads.get(readCount++);
+            if (!read.isRanged()) {
+                planned += read.size;
+            }
+        }
+
+        List<CompletableFuture<String>> contents;
+        try {
+            contents = toolExecutor.forEachParallel(reads.subList(0, readCount), PARALLELISM,
+                    read -> readContent(read, versions));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return "Error: Interrupted while reading files";
+        }
+        return render(resolver, reads, contents, errors, params.maxBytes, truncatedList);
+    }
+
+    /**
+     * Renders the files in request order; {@code contents} holds the completed reads of the leading
+     * files that fit the planned budget.
+     */
+    private String render(WorkspacePathResolver resolver, List<FileRead> reads, List<CompletableFuture<String>> contents,
+                          List<String> errors, int maxBytes, boolean truncatedList) {
+        StringBuilder output = new StringBuilder();
+        List<String> omitted = new ArrayList<>();
+        int remaining = maxBytes;
+        int returned = 0;
+
+        for (int i = 0; i < reads.size(); i++) {
+            FileRead read = reads.get(i);
+            String label = resolver.relative(read.file);
+            if (i >= contents.size() || remaining <= 0) {
+                omitted.add(label);
+                continue;
+            }
+
+            String content;
+            try {
+                content = contents.get(i).join();
+            } catch (CompletionException e) {
+                errors.add(label + ": " + e.getCause().getMessage());
+                continue;
+            }
+
+            output.append("=== ").append(label);
+            if (read.isRanged()) {
+                output.append(" (lines ").append(Math.max(1, read.startLine)).append('-')
+                        .append(read.endLine > 0 ? String.valueOf(read.endLine) : "end").append(')');
+            }
+            output.append(" ===\n");
+            if (content.length() > remaining) {
+                output.append(content, 0, remaining)
+                        .append("\n[Truncated: byte budget of ").append(maxBytes).append(" reached]\n");
+                remaining = 0;
+            } else {
+                output.append(content);
+                if (!content.endsWith("\n")) {
+                    output.append('\n');
+                }
+                remaining -= content.length();
+            }
+            returned++;
+        }
+
+        logger.info("Read {} of {} files ({} bytes)", returned, reads.size(), maxBytes - remaining);
+        if (!omitted.isEmpty()) {
+            output.append("\n[Omitted, byte budget of ").append(maxBytes).append(" reached: ")
+                    .append(String.join(", ", omitted)).append("]\n");
+        }
+        if (truncatedList) {
+            output.append("\n[Only the first ").append(MAX_FILES).append(" matching files were read]\n");
+        }
+        if (!errors.isEmpty()) {
+            output.append("\nErrors:\n");
+            errors.forEach(error -> output.append("- ").append(error).append('\n'));
+        }
+        return output.toString();
+    }
+
+    /**
+     * Reads one file. Failures are thrown, whatever the file's content, and reported by
+     * {@link #render} in the error list.
+     */
+    private String readContent(FileRead read, FileVersions versions) throws IOException {
+        if (read.size > MAX_FILE_SIZE) {
+            throw new IOException("File too large (max 1MB)");
+        }
+        if (!workspaceFilterService.isTextFile(read.file)) {
+            throw new IOException("Binary file, content not shown");
+        }
+        String content = ReadFileTool.readLocked(pathLockManager, read.file, versions);
+        return read.isRanged() ? ReadFileTool.selectLines(content, read.startLine, read.endLine) : content;
+    }
+
+    /**
+     * Expands globs and checks plain paths, keeping request order and dropping repeated requests for
+     * the same file and line range.
+     */
+    private List<FileRead> resolve(WorkspacePathResolver resolver, List<FileRequest> requests, List<String> errors) {
+        Set<String> seen = new LinkedHashSet<>();
+        List<FileRead> reads = new ArrayList<>();
+        for (FileRequest request : requests) {
+            List<Path> files;
+            if (isGlob(request.path)) {
+                files = expandGlob(resolver.getRoot(), request.path);
+                if (files.isEmpty()) {
+                    errors.add(request.path + ": No files match");
+                }
+            } else {
+                Path file;
+                try {
+                    file = resolver.resolve(request.path);
+                } catch (WorkspacePathException e) {
+                    errors.add(request.path + ": " + e.getMessage());
+                    continue;
+                }
+                if (!Files.isRegularFile(file)) {
+                    errors.add(request.path + (Files.exists(file) ? ": Not a file" : ": File not found"));
+                    continue;
+                }
+                files = List.of(file);
+            }
+
+            for (Path file : files) {
+                if (reads.size() > MAX_FILES || !seen.add(file + ":" + request.startLine + "-" + request.endLine)) {
+                    continue;
+                }
+                try {
+                    reads.add(new FileRead(file, Files.size(file), request.startLine, request.endLine));
+                } catch (IOException e) {
+                    errors.add(resolver.relative(file) + ": " + e.getMessage());
+                }
+            }
+        }
+        return reads;
+    }
+
+    private List<Path> expandGlob(Path base, String glob) {
+        PathMatcher matcher = FileSystems.getDefault().getPathMatcher("glob:" + glob);
+        // A leading "**/" should also match files directly in the base directory
+        PathMatcher rootMatcher = glob.startsWith("**/")
+                ? FileSystems.getDefault().getPathMatcher("glob:" + glob.substring(3))
+                : null;
+        WorkspaceFilter filter = workspaceFilterService.forRoot(base);
+        List<Path> matches = new ArrayList<>();
+        try {
+            Files.walkFileTree(base, new SimpleFileVisitor<>() {
+                @Override
+                public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) {
+                    return filter.isIgnoredDirectory(dir) ? FileVisitResult.SKIP_SUBTREE : FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                    Path relative = base.relativize(file);
+                    if (attrs.isRegularFile() && !filter.isIgnoredFile(file)
+                            && (matcher.matches(relative) || (rootMatcher != null && rootMatcher.matches(relative)))) {
+                        matches.add(file);
+                    }
+                    return matches.size() > MAX_FILES ? FileVisitResult.TERMINATE : FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult visitFileFailed(Path file, IOException exc) {
+                    return FileVisitResult.CONTINUE;
+                }
+            });
+        } catch (IOException e) {
+            logger.warn("Could not expand glob {} in {}", glob, base, e);
+        }
+        matches.sort(null);
+        return matches;
+    }
+
+    private static boolean isGlob(String path) {
+        for (int i = 0; i < path.length(); i++) {
+            char c = path.charAt(i);
+            if (c == '*' || c == '?' || c == '[' || c == '{') {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private ReadFilesParams extractParams(String parameters) {
+        JsonNode jsonNode;
+        try {
+            jsonNode = objectMapper.readTree(parameters.trim());
+        } catch (Exception e) {
+            logger.debug("Failed to parse as JSON, using raw parameter as a comma-separated list: {}", parameters);
+            List<FileRequest> requests = new ArrayList<>();
+            for (String path : parameters.split(",")) {
+                if (!path.isBlank()) {
+                    requests.add(new FileRequest(path.trim(), 0, 0));
+                }
+            }
+            return new ReadFilesParams(requests, DEFAULT_MAX_BYTES);
+        }
+
+        JsonNode files = jsonNode.isArray() ? jsonNode : jsonNode.has("files") ? jsonNode.get("files") : jsonNode.path("paths");
+        List<FileRequest> requests = new ArrayList<>();
+        for (JsonNode entry : files) {
+            if (entry.isTextual()) {
+                requests.add(new FileRequest(entry.asText(), 0, 0));
+            } else if (entry.hasNonNull("path")) {
+                int startLine = entry.path("startLine").asInt(0);
+                int endLine = entry.path("endLine").asInt(0);
+                if (endLine > 0 && endLine < startLine) {
+                    throw new IllegalArgumentException("endLine must not be before startLine for " + entry.get("path").asText());
+                }
+                requests.add(new FileRequest(entry.get("path").asText(), startLine, endLine));
+            }
+        }
+        int maxBytes = Math.max(1, Math.min(MAX_BYTES, jsonNode.path("maxBytes").asInt(DEFAULT_MAX_BYTES)));
+        return new ReadFilesParams(requests, maxBytes);
+    }
+
+    private static class ReadFilesParams {
+        final List<FileRequest> requests;
+        final int maxBytes;
+
+        ReadFilesParams(List<FileRequest> requests, int maxBytes) {
+            this.requests = requests;
+            this.maxBytes = maxBytes;
+        }
+    }
+
+    private static class FileRequest {
+        final String path;
+        final int startLine;
+        final int endLine;
+
+        FileRequest(String path, int startLine, int endLine) {
+            this.path = path;
+            this.startLine = startLine;
+            this.endLine = endLine;
+        }
+    }
+
+    private static class FileRead {
+        final Path file;
+        final long size;
+        final int startLine;
+        final int endLine;
+
+        FileRead(Path file, long size, int startLine, int endLine) {
+            this.file = file;
+            this.size = size;
+            this.startLine = startLine;
+            this.endLine = endLine;
+        }
+
+        boolean isRanged() {
+            return startLine > 0 || endLine > 0;
+        }
+    }
+}
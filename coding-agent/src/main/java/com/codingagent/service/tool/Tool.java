@@ -4,4 +4,8 @@ public interface Tool {
     String getName();
     String getDescription();
     String execute(String parameters);
+
+    default ToolMetadata getMetadata() {
+        return ToolMetadata.defaults();
+    }
 }
@@ -0,0 +1,69 @@
+package com.codingagent.service.tool;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Consecutive-failure circuit breaker for a single tool in one workspace. After
+ * {@code failureThreshold} failures in a row the circuit opens and calls fail fast; once
+ * {@code openDuration} has passed a single trial call is let through, which either closes the
+ * circuit again or re-opens it.
+ */
+class ToolCircuitBreaker {
+
+    private final int failureThreshold;
+    private final long openNanos;
+    private final AtomicInteger consecutiveFailures = new AtomicInteger();
+    private final AtomicBoolean trialInFlight = new AtomicBoolean();
+    private volatile boolean open;
+    private volatile long openedAtNanos;
+
+    ToolCircuitBreaker(int failureThreshold, Duration openDuration) {
+        this.failureThreshold = failureThreshold;
+        this.openNanos = openDuration.toNanos();
+    }
+
+    boolean tryAcquire() {
+        if (!open) {
+            return true;
+        }
+        if (System.nanoTime() - openedAtNanos < openNanos) {
+            return false;
+        }
+        return trialInFlight.compareAndSet(false, true);
+    }
+
+    void onSuccess() {
+        consecutiveFailures.set(0);
+        open = false;
+        trialInFlight.set(false);
+    }
+
+    void onFailure() {
+        boolean trialFailed = trialInFlight.getAndSet(false);
+        if (consecutiveFailures.incrementAndGet() >= failureThreshold || trialFailed) {
+            openedAtNanos = System.nanoTime();
+            open = true;
+        }
+    }
+
+    /**
+     * Records a call that never ran, which neither closes nor opens the circuit; a trial call that
+     * was abandoned lets the next call try again.
+     */
+    void onAbandoned() {
+        trialInFlight.set(false);
+    }
+
+    /**
+     * Whether the circuit is closed with no failures counted, so dropping it loses nothing.
+     */
+    boolean isIdle() {
+        return !open && consecutiveFailures.get() == 0;
+    }
+
+    long remainingOpenMillis() {
+        return Math.max(0, Duration.ofNanos(openNanos - (System.nanoTime() - openedAtNanos)).toMillis());
+    }
+}
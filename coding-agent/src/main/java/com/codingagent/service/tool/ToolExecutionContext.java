@@ -1,11 +1,17 @@
 package com.codingagent.service.tool;
 
+import com.codingagent.service.workspace.FileVersions;
+import com.codingagent.service.workspace.WorkspacePathResolver;
+
 /**
- * Thread-local context for tool execution that provides access to the base directory path.
+ * Thread-local context for tool execution that provides access to the base directory path, the
+ * session's path resolver and the file versions the current session has seen.
  */
 public class ToolExecutionContext {
     
     private static final ThreadLocal<String> baseDirectory = new ThreadLocal<>();
+    private static final ThreadLocal<WorkspacePathResolver> pathResolver = new ThreadLocal<>();
+    private static final ThreadLocal<FileVersions> fileVersions = new ThreadLocal<>();
     
     public static void setBaseDirectory(String directory) {
         baseDirectory.set(directory);
@@ -14,8 +20,34 @@ public class ToolExecutionContext {
     public static String getBaseDirectory() {
         return baseDirectory.get();
     }
+
+    public static void setPathResolver(WorkspacePathResolver resolver) {
+        pathResolver.set(resolver);
+    }
+
+    /**
+     * The current session's path resolver; outside a session, a new one for the base directory.
+     */
+    public static WorkspacePathResolver getPathResolver() {
+        WorkspacePathResolver resolver = pathResolver.get();
+        return resolver != null ? resolver : new WorkspacePathResolver(baseDirectory.get());
+    }
+
+    public static void setFileVersions(FileVersions versions) {
+        fileVersions.set(versions);
+    }
+
+    /**
+     * The current session's file versions; outside a session, an empty set that is not kept.
+     */
+    public static FileVersions getFileVersions() {
+        FileVersions versions = fileVersions.get();
+        return versions != null ? versions : new FileVersions();
+    }
     
     public static void clear() {
         baseDirectory.remove();
+        pathResolver.remove();
+        fileVersions.remove();
     }
 }
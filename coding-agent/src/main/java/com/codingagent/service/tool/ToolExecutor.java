@@ -0,0 +1,199 @@
+package com.codingagent.service.tool;
+
+import com.codingagent.config.ToolExecutionProperties;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs tool calls with their execution budget. Filesystem-heavy and lightweight tools get separate
+ * bounded pools so a slow directory walk cannot starve the other tools, every call is limited by
+ * the tool's timeout, and a tool that keeps failing is short-circuited.
+ * <p>
+ * Failures are reported to the model as results of the form {@code Error [CODE]: message} rather
+ * than as exceptions, so it can adjust its next step.
+ */
+@Component
+public class ToolExecutor {
+
+    private static final Logger logger = LoggerFactory.getLogger(ToolExecutor.class);
+
+    private final ToolExecutionProperties properties;
+    private final Scheduler filesystemPool;
+    private final Scheduler lightweightPool;
+    private final Map<String, ToolCircuitBreaker> circuitBreakers = new ConcurrentHashMap<>();
+
+    public ToolExecutor(ToolExecutionProperties properties) {
+        this.properties = properties;
+        this.filesystemPool = Schedulers.newBoundedElastic(
+                properties.getFilesystemPoolSize(), properties.getFilesystemQueueSize(), "tool-fs");
+        this.lightweightPool = Schedulers.newBoundedElastic(
+                properties.getLightweightPoolSize(), properties.getLightweightQueueSize(), "tool-light");
+    }
+
+    /**
+     * Executes the invocation for the given tool against the given workspace. Cancelling the
+     * returned Mono, or hitting the timeout, interrupts the worker thread running the tool.
+     * <p>
+     * Calls that throw, time out or return an {@code Error} result count as failures. Circuits are
+     * kept per tool and workspace, since most tool failures come from the directory a session works
+     * on: a tool that keeps failing in one workspace stays available to sessions on other workspaces.
+     * Circuits that are closed without failures are dropped again.
+     */
+    public Mono<String> execute(Tool tool, Path workspace, Callable<String> invocation) {
+        String toolName = tool.getName();
+        ToolMetadata metadata = tool.getMetadata();
+        String circuitKey = toolName + " @" + workspace;
+        ToolCircuitBreaker circuitBreaker = circuitBreakers.computeIfAbsent(circuitKey, key ->
+                new ToolCircuitBreaker(properties.getCircuitBreakerFailureThreshold(),
+                        Duration.ofSeconds(properties.getCircuitBreakerOpenSeconds())));
+
+        if (!circuitBreaker.tryAcquire()) {
+            logger.warn("Circuit open for tool {} in {}, failing fast", toolName, workspace);
+            return Mono.just(errorResult("CIRCUIT_OPEN", "tool '" + toolName
+                    + "' is temporarily disabled after repeated failures; retry in "
+                    + circuitBreaker.remainingOpenMillis() / 1000 + "s or use another approach"));
+        }
+
+        Duration timeout = metadata.getTimeout();
+        return Mono.fromCallable(invocation)
+                .subscribeOn(poolFor(metadata))
+                .timeout(timeout)
+                .doOnSuccess(result -> {
+                    // Tools report most failures as results rather than exceptions
+                    if (result != null && result.startsWith("Error")) {
+                        circuitBreaker.onFailure();
+                        return;
+                    }
+                    circuitBreaker.onSuccess();
+                    if (circuitBreaker.isIdle()) {
+                        circuitBreakers.remove(circuitKey, circuitBreaker);
+                    }
+                })
+                .onErrorResume(error -> {
+                    // A saturated pool says nothing about the tool, so a rejected call is not a failure
+                    if (error instanceof RejectedExecutionException) {
+                        circuitBreaker.onAbandoned();
+                    } else {
+                        circuitBreaker.onFailure();
+                    }
+                    return Mono.just(toErrorResult(toolName, timeout, error));
+                })
+                .doOnCancel(circuitBreaker::onAbandoned);
+    }
+
+    /**
+     * Runs {@code task} for each item on the filesystem pool, up to {@code parallelism} items at a
+     * time, so tools fan out per-file work inside the same bulkhead as their own calls. Returns once
+     * every item is done, with one completed future per item in item order.
+     * <p>
+     * The calling thread works through the items too, so a tool that already holds a thread of the
+     * pool never waits on helpers queued behind it, and helpers the saturated pool rejects are simply
+     * not started. When the calling thread is interrupted no further items are started; the ones in
+     * progress are awaited before {@link InterruptedException} is thrown.
+     */
+    public <T, R> List<CompletableFuture<R>> forEachParallel(List<T> items, int parallelism, ItemTask<T, R> task)
+            throws InterruptedException {
+        int count = items.size();
+        List<CompletableFuture<R>> results = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            results.add(new CompletableFuture<>());
+        }
+        AtomicInteger next = new AtomicInteger();
+        Runnable worker = () -> {
+            while (!Thread.currentThread().isInterrupted()) {
+                int i = next.getAndIncrement();
+                if (i >= count) {
+                    return;
+                }
+                try {
+                    results.get(i).complete(task.apply(items.get(i)));
+                } catch (Exception e) {
+                    if (e instanceof InterruptedException) {
+                        // Keep the interrupt visible to the loop, so no further items are claimed
+                        Thread.currentThread().interrupt();
+                    }
+                    results.get(i).completeExceptionally(e);
+                }
+            }
+        };
+
+        for (int helper = 1; helper < Math.min(parallelism, count); helper++) {
+            try {
+                filesystemPool.schedule(worker);
+            } catch (RejectedExecutionException e) {
+                logger.debug("Filesystem pool saturated, running the remaining items on the calling thread");
+                break;
+            }
+        }
+        worker.run();
+
+        // Items nobody has claimed yet are never started; the claimed ones are running and awaited
+        int started = Math.min(next.getAndSet(count), count);
+        for (int i = started; i < count; i++) {
+            results.get(i).cancel(false);
+        }
+        CompletableFuture.allOf(results.subList(0, started).toArray(CompletableFuture[]::new))
+                .handle((ignored, error) -> null)
+                .join();
+        if (Thread.interrupted()) {
+            throw new InterruptedException("Interrupted after " + started + " of " + count + " items");
+        }
+        return results;
+    }
+
+    private Scheduler poolFor(ToolMetadata metadata) {
+        return metadata.getExecutionPool() == ToolMetadata.ExecutionPool.LIGHTWEIGHT
+                ? lightweightPool
+                : filesystemPool;
+    }
+
+    private String toErrorResult(String toolName, Duration timeout, Throwable error) {
+        if (error instanceof TimeoutException) {
+            logger.warn("Tool {} exceeded its time budget of {} ms", toolName, timeout.toMillis());
+            return errorResult("TIMEOUT", "tool '" + toolName + "' did not finish within "
+                    + timeout.toMillis() + " ms and was cancelled; retry with a narrower request");
+        }
+        if (error instanceof RejectedExecutionException) {
+            logger.warn("Tool {} rejected, execution pool is saturated", toolName);
+            return errorResult("REJECTED", "too many concurrent '" + toolName
+                    + "' calls; retry shortly");
+        }
+        logger.error("Error executing tool {}", toolName, error);
+        return errorResult("FAILED", String.valueOf(error.getMessage()));
+    }
+
+    private static String errorResult(String code, String message) {
+        return "Error [" + code + "]: " + message;
+    }
+
+    /**
+     * Work done for one item of {@link #forEachParallel}.
+     */
+    @FunctionalInterface
+    public interface ItemTask<T, R> {
+        R apply(T item) throws Exception;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        filesystemPool.dispose();
+        lightweightPool.dispose();
+    }
+}
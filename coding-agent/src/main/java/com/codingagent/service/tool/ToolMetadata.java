@@ -0,0 +1,174 @@
+package com.codingagent.service.tool;
+
+import com.codingagent.model.AgentType;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Capabilities and execution limits of a {@link Tool}. Tools describe themselves through
+ * {@link Tool#getMetadata()}; the agents only ever look at this metadata, never at tool names.
+ */
+public final class ToolMetadata {
+
+    public enum DisplayPolicy {
+        /** Show the result to clients as-is. */
+        FULL,
+        /** Show a truncated preview of the result. */
+        TRUNCATE,
+        /** Show only a confirmation; the content stays in the conversation history. */
+        HIDE_CONTENT
+    }
+
+    public enum ExecutionPool {
+        /** Bounded pool for tools that touch the filesystem and may block for a long time. */
+        FILESYSTEM,
+        /** Small pool for tools that only do in-memory work. */
+        LIGHTWEIGHT
+    }
+
+    private static final ToolMetadata DEFAULTS = builder().build();
+
+    private final boolean readOnly;
+    private final boolean cacheable;
+    private final int maxResultSize;
+    private final DisplayPolicy displayPolicy;
+    private final Duration timeout;
+    private final ExecutionPool executionPool;
+    private final Set<AgentType> agentTypes;
+    private final boolean terminal;
+    private final Set<String> contentParameters;
+
+    private ToolMetadata(Builder builder) {
+        this.readOnly = builder.readOnly;
+        this.cacheable = builder.cacheable;
+        this.maxResultSize = builder.maxResultSize;
+        this.displayPolicy = builder.displayPolicy;
+        this.timeout = builder.timeout;
+        this.executionPool = builder.executionPool;
+        this.agentTypes = Collections.unmodifiableSet(EnumSet.copyOf(builder.agentTypes));
+        this.terminal = builder.terminal;
+        this.contentParameters = Set.copyOf(builder.contentParameters);
+    }
+
+    public static ToolMetadata defaults() {
+        return DEFAULTS;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public boolean isReadOnly() {
+        return readOnly;
+    }
+
+    public boolean isCacheable() {
+        return cacheable;
+    }
+
+    public int getMaxResultSize() {
+        return maxResultSize;
+    }
+
+    public DisplayPolicy getDisplayPolicy() {
+        return displayPolicy;
+    }
+
+    public Duration getTimeout() {
+        return timeout;
+    }
+
+    public ExecutionPool getExecutionPool() {
+        return executionPool;
+    }
+
+    public Set<AgentType> getAgentTypes() {
+        return agentTypes;
+    }
+
+    public boolean isAvailableTo(AgentType agentType) {
+        return agentTypes.contains(agentType);
+    }
+
+    /**
+     * Whether a call of the tool ends the agent run.
+     */
+    public boolean isTerminal() {
+        return terminal;
+    }
+
+    /**
+     * Names of parameters carrying file content. Their string values, wherever they occur in the
+     * parameters, are left out of the tool call events shown to clients.
+     */
+    public Set<String> getContentParameters() {
+        return contentParameters;
+    }
+
+    public static final class Builder {
+        private boolean readOnly = false;
+        private boolean cacheable = false;
+        private int maxResultSize = 1024 * 1024;
+        private DisplayPolicy displayPolicy = DisplayPolicy.FULL;
+        private Duration timeout = Duration.ofSeconds(30);
+        private ExecutionPool executionPool = ExecutionPool.FILESYSTEM;
+        private Set<AgentType> agentTypes = EnumSet.allOf(AgentType.class);
+        private boolean terminal = false;
+        private Set<String> contentParameters = Set.of();
+
+        private Builder() {
+        }
+
+        public Builder readOnly(boolean readOnly) {
+            this.readOnly = readOnly;
+            return this;
+        }
+
+        public Builder cacheable(boolean cacheable) {
+            this.cacheable = cacheable;
+            return this;
+        }
+
+        public Builder maxResultSize(int maxResultSize) {
+            this.maxResultSize = maxResultSize;
+            return this;
+        }
+
+        public Builder displayPolicy(DisplayPolicy displayPolicy) {
+            this.displayPolicy = displayPolicy;
+            return this;
+        }
+
+        public Builder timeout(Duration timeout) {
+            this.timeout = timeout;
+            return this;
+        }
+
+        public Builder executionPool(ExecutionPool executionPool) {
+            this.executionPool = executionPool;
+            return this;
+        }
+
+        public Builder agentTypes(AgentType first, AgentType... rest) {
+            this.agentTypes = EnumSet.of(first, rest);
+            return this;
+        }
+
+        public Builder terminal(boolean terminal) {
+            this.terminal = terminal;
+            return this;
+        }
+
+        public Builder contentParameters(String... names) {
+            this.contentParameters = Set.of(names);
+            return this;
+        }
+
+        public ToolMetadata build() {
+            return new ToolMetadata(this);
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.codingagent.service.tool;
+
+import com.codingagent.model.AgentType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Immutable index of all available tools. Lookups by agent type and tool name are precomputed,
+ * so dispatching a tool call is a pair of map lookups without any allocation.
+ */
+public class ToolRegistry {
+
+    private static final Logger logger = LoggerFactory.getLogger(ToolRegistry.class);
+
+    private final Map<String, Tool> toolsByName;
+    private final Map<AgentType, Map<String, Tool>> toolsByAgentType = new EnumMap<>(AgentType.class);
+    private final Map<AgentType, String> descriptionsByAgentType = new EnumMap<>(AgentType.class);
+
+    public ToolRegistry(List<Tool> tools) {
+        Map<String, Tool> byName = new LinkedHashMap<>();
+        for (Tool tool : tools) {
+            Tool existing = byName.putIfAbsent(tool.getName(), tool);
+            if (existing != null) {
+                throw new IllegalStateException("Duplicate tool name '" + tool.getName() + "': "
+                        + existing.getClass().getName() + " and " + tool.getClass().getName());
+            }
+        }
+        this.toolsByName = Collections.unmodifiableMap(byName);
+
+        for (AgentType agentType : AgentType.values()) {
+            Map<String, Tool> available = new HashMap<>();
+            List<Tool> ordered = new ArrayList<>();
+            for (Tool tool : byName.values()) {
+                if (tool.getMetadata().isAvailableTo(agentType)) {
+                    available.put(tool.getName(), tool);
+                    ordered.add(tool);
+                }
+            }
+            toolsByAgentType.put(agentType, Collections.unmodifiableMap(available));
+            descriptionsByAgentType.put(agentType, ordered.stream()
+                    .map(tool -> String.format("- %s: %s", tool.getName(), tool.getDescription()))
+                    .collect(Collectors.joining("\n")));
+        }
+
+        logger.info("ToolRegistry initialized with {} tools: {}", toolsByName.size(), toolsByName.keySet());
+    }
+
+    /**
+     * Returns the tool with the given name if the agent type may use it, otherwise {@code null}.
+     */
+    public Tool find(AgentType agentType, String toolName) {
+        return toolsByAgentType.get(agentType).get(toolName);
+    }
+
+    public ToolMetadata getMetadata(String toolName) {
+        Tool tool = toolsByName.get(toolName);
+        return tool != null ? tool.getMetadata() : ToolMetadata.defaults();
+    }
+
+    public String describeTools(AgentType agentType) {
+        return descriptionsByAgentType.get(agentType);
+    }
+
+    public Map<String, Tool> getTools() {
+        return toolsByName;
+    }
+}
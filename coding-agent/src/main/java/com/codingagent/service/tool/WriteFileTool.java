@@ -1,22 +1,44 @@
 package com.codingagent.service.tool;
 
+import com.codingagent.model.AgentType;
+import com.codingagent.service.workspace.FileVersions;
+import com.codingagent.service.workspace.FileWrittenEvent;
+import com.codingagent.service.workspace.PathLockManager;
+import com.codingagent.service.workspace.WorkspacePathResolver;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Component;
 
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.nio.file.Paths;
 import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.List;
 
 @Component
 public class WriteFileTool implements Tool {
 
     private static final Logger logger = LoggerFactory.getLogger(WriteFileTool.class);
     private static final ObjectMapper objectMapper = new ObjectMapper();
+    private static final ToolMetadata METADATA = ToolMetadata.builder()
+            .readOnly(false)
+            .timeout(Duration.ofSeconds(30))
+            .agentTypes(AgentType.CODE, AgentType.BUGFIX)
+            .contentParameters("content")
+            .build();
+
+    private final ApplicationEventPublisher eventPublisher;
+    private final PathLockManager pathLockManager;
+
+    public WriteFileTool(ApplicationEventPublisher eventPublisher, PathLockManager pathLockManager) {
+        this.eventPublisher = eventPublisher;
+        this.pathLockManager = pathLockManager;
+    }
 
     @Override
     public String getName() {
@@ -32,33 +54,41 @@ public class WriteFileTool implements Tool {
                 """;
     }
 
+    @Override
+    public ToolMetadata getMetadata() {
+        return METADATA;
+    }
+
     @Override
     public String execute(String parameters) {
         try {
             WriteFileParams params = extractParams(parameters);
             
-            // Resolve path relative to base directory if available
-            String baseDir = ToolExecutionContext.getBaseDirectory();
-            Path file;
-            if (baseDir != null && !baseDir.trim().isEmpty()) {
-                file = Paths.get(baseDir, params.path);
-                logger.debug("Resolving path '{}' relative to base directory '{}' -> '{}'", 
-                        params.path, baseDir, file.toAbsolutePath());
-            } else {
-                file = Paths.get(params.path);
-                logger.debug("Using path '{}' without base directory", params.path);
-            }
-
-            if (file.getParent() != null) {
-                Files.createDirectories(file.getParent());
-            }
-            
-            Files.writeString(file, params.content, 
-                    StandardOpenOption.CREATE, 
-                    StandardOpenOption.TRUNCATE_EXISTING);
+            WorkspacePathResolver resolver = ToolExecutionContext.getPathResolver();
+            Path file = resolver.resolve(params.path);
+            String displayPath = resolver.relative(file);
+
+            FileVersions versions = ToolExecutionContext.getFileVersions();
+            byte[] content = params.content.getBytes(StandardCharsets.UTF_8);
+            return pathLockManager.withWriteLocks(List.of(file), () -> {
+                if (versions.isStale(file)) {
+                    logger.warn("Refusing to overwrite {}, it changed since this session read it", file);
+                    return "Error: " + displayPath + " was changed by another session since you read it. "
+                            + "Read it again and reapply your change.";
+                }
+                if (file.getParent() != null) {
+                    Files.createDirectories(file.getParent());
+                }
+
+                Files.write(file, content,
+                        StandardOpenOption.CREATE,
+                        StandardOpenOption.TRUNCATE_EXISTING);
+                versions.record(file, content);
+                eventPublisher.publishEvent(new FileWrittenEvent(file));
 
-            logger.info("Wrote file: {} ({} bytes)", file.toAbsolutePath(), params.content.length());
-            return "Success: File written to " + file.toAbsolutePath();
+                logger.info("Wrote file: {} ({} bytes)", file, params.content.length());
+                return "Success: File written to " + displayPath;
+            });
 
         } catch (IOException e) {
             logger.error("Error writing file", e);
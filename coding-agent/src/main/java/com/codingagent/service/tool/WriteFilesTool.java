@@ -0,0 +1,377 @@
+package com.codingagent.service.tool;
+
+import com.codingagent.model.AgentType;
+import com.codingagent.service.workspace.FileVersions;
+import com.codingagent.service.workspace.FileWrittenEvent;
+import com.codingagent.service.workspace.PathLockManager;
+import com.codingagent.service.workspace.WorkspacePathException;
+import com.codingagent.service.workspace.WorkspacePathResolver;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryNotEmptyException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Writes several files in one call. Every file is first written and synced in parallel to a staging
+ * file next to its target; only when all of them are staged are they renamed into place, followed by
+ * one sync per affected directory. If staging fails for any file, or another session changed one of them
+ * since this session read it, nothing is written; if a rename fails part-way, the files renamed so
+ * far are rolled back from backups of the originals.
+ */
+@Component
+public class WriteFilesTool implements Tool {
+
+    private static final Logger logger = LoggerFactory.getLogger(WriteFilesTool.class);
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+    private static final int MAX_FILES = 100;
+    private static final int PARALLELISM = 4;
+    private static final String STAGING_SUFFIX = "staging-";
+    private static final String BACKUP_SUFFIX = "backup-";
+    private static final ToolMetadata METADATA = ToolMetadata.builder()
+            .readOnly(false)
+            .timeout(Duration.ofSeconds(60))
+            .agentTypes(AgentType.CODE, AgentType.BUGFIX)
+            .contentParameters("content")
+            .build();
+
+    private final ApplicationEventPublisher eventPublisher;
+    private final PathLockManager pathLockManager;
+    private final ToolExecutor toolExecutor;
+    private final AtomicLong stagingCounter = new AtomicLong(System.nanoTime());
+
+    public WriteFilesTool(ApplicationEventPublisher eventPublisher, PathLockManager pathLockManager,
+                          ToolExecutor toolExecutor) {
+        this.eventPublisher = eventPublisher;
+        this.pathLockManager = pathLockManager;
+        this.toolExecutor = toolExecutor;
+    }
+
+    @Override
+    public String getName() {
+        return "write_files";
+    }
+
+    @Override
+    public String getDescription() {
+        return """
+                Writes several files at once (max 100); prefer it over repeated write_file calls.
+                Parameters: {"files": [{"path": "src/A.java", "content": "..."}, {"path": "src/B.java", "content": "..."}]}
+                Either all files are written or, if one cannot be written, none is. Creates parent directories.
+                Returns: One line per file, "+" created or "~" replaced, or the errors.
+                """;
+    }
+
+    @Override
+    public ToolMetadata getMetadata() {
+        return METADATA;
+    }
+
+    @Override
+    public String execute(String parameters) {
+        List<FileWrite> writes;
+        try {
+            writes = extractWrites(parameters);
+        } catch (IllegalArgumentException e) {
+            return "Error: " + e.getMessage();
+        }
+
+        WorkspacePathResolver resolver = ToolExecutionContext.getPathResolver();
+        Set<Path> targets = new HashSet<>();
+        for (FileWrite write : writes) {
+            try {
+                write.target = resolver.resolve(write.path);
+            } catch (WorkspacePathException e) {
+                return "Error: Nothing written, " + e.getMessage();
+            }
+            if (!targets.add(write.target)) {
+                return "Error: Nothing written, " + write.path + " appears more than once";
+            }
+        }
+
+        FileVersions versions = ToolExecutionContext.getFileVersions();
+        try {
+            return pathLockManager.withWriteLocks(targets, () -> {
+                List<String> stale = new ArrayList<>();
+                for (FileWrite write : writes) {
+                    if (versions.isStale(write.target)) {
+                        stale.add(write.path);
+                    }
+                }
+                if (!stale.isEmpty()) {
+                    return "Error: Nothing written, changed by another session since you read them: "
+                            + String.join(", ", stale) + ". Read them again and reapply your changes.";
+                }
+
+                Set<Path> createdDirectories = ConcurrentHashMap.newKeySet();
+                List<String> errors = stage(writes, createdDirectories);
+                if (!errors.isEmpty()) {
+                    discardStaged(writes);
+                    removeDirectories(createdDirectories);
+                    return "Error: Nothing written, " + errors.size() + " of " + writes.size()
+                            + " files could not be staged:\n- " + String.join("\n- ", errors);
+                }
+                return commit(resolver, writes, versions, createdDirectories);
+            });
+        } catch (IOException e) {
+            return "Error: Nothing written, " + e.getMessage();
+        }
+    }
+
+    /**
+     * Writes every file's content to a staging file in its target directory and syncs it, in
+     * parallel. Directories that had to be created for this are added to {@code createdDirectories}.
+     */
+    private List<String> stage(List<FileWrite> writes, Set<Path> createdDirectories) {
+        List<CompletableFuture<Void>> staged;
+        try {
+            staged = toolExecutor.forEachParallel(writes, PARALLELISM, write -> {
+                write.existed = Files.exists(write.target);
+                Path parent = write.target.getParent();
+                for (Path missing = parent; missing != null && !Files.exists(missing); missing = missing.getParent()) {
+                    createdDirectories.add(missing);
+                }
+                Files.createDirectories(parent);
+                Path staging = sibling(write.target, STAGING_SUFFIX);
+                try (FileChannel channel = FileChannel.open(staging, StandardOpenOption.WRITE,
+                        StandardOpenOption.CREATE_NEW)) {
+                    write.staging = staging;
+                    write.data = write.content.getBytes(StandardCharsets.UTF_8);
+                    ByteBuffer bytes = ByteBuffer.wrap(write.data);
+                    while (bytes.hasRemaining()) {
+                        channel.write(bytes);
+                    }
+                    // The data must be on disk before the rename, or a crash could leave the target empty
+                    channel.force(false);
+                }
+                return null;
+            });
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return List.of("interrupted while staging");
+        }
+
+        List<String> errors = new ArrayList<>();
+        for (int i = 0; i < writes.size(); i++) {
+            try {
+                staged.get(i).join();
+            } catch (CompletionException e) {
+                errors.add(writes.get(i).path + ": " + describe(e.getCause()));
+            }
+        }
+        return errors;
+    }
+
+    /**
+     * Renames the staged files into place, moving each replaced original aside to a backup first.
+     * Only when every file is in place are the backups deleted, the versions recorded and the writes
+     * published, followed by one sync per affected directory so the renames are durable together.
+     */
+    private String commit(WorkspacePathResolver resolver, List<FileWrite> writes, FileVersions versions,
+                          Set<Path> createdDirectories) {
+        for (FileWrite write : writes) {
+            try {
+                if (write.existed) {
+                    Path backup = sibling(write.target, BACKUP_SUFFIX);
+                    move(write.target, backup);
+                    write.backup = backup;
+                }
+                move(write.staging, write.target);
+                write.committed = true;
+            } catch (IOException e) {
+                logger.error("Error committing {}, rolling back", write.target, e);
+                List<String> unrestored = rollBack(writes, createdDirectories);
+                String failure = write.path + " could not be moved into place: " + e.getMessage();
+                return unrestored.isEmpty()
+                        ? "Error: Nothing written, " + failure
+                        : "Error: " + failure + ", and rolling back failed for: " + String.join(", ", unrestored)
+                                + ". Read them again before continuing.";
+            }
+        }
+
+        StringBuilder result = new StringBuilder();
+        Set<Path> directories = new LinkedHashSet<>();
+        for (FileWrite write : writes) {
+            if (write.backup != null) {
+                deleteQuietly(write.backup);
+            }
+            versions.record(write.target, write.data);
+            directories.add(write.target.getParent());
+            eventPublisher.publishEvent(new FileWrittenEvent(write.target));
+            result.append(write.existed ? "~ " : "+ ").append(resolver.relative(write.target))
+                    .append(" (").append(write.data.length).append(" bytes)\n");
+        }
+        syncDirectories(directories);
+
+        logger.info("Wrote {} files under {}", writes.size(), resolver.getRoot());
+        return "Success: " + writes.size() + " files written\n" + result;
+    }
+
+    /**
+     * Undoes a partial commit, last file first: originals are moved back from their backups, files
+     * that did not exist before are deleted, leftover staging files and the directories created for
+     * this call are removed. Returns the paths that could not be restored.
+     */
+    private List<String> rollBack(List<FileWrite> writes, Set<Path> createdDirectories) {
+        List<String> unrestored = new ArrayList<>();
+        for (int i = writes.size() - 1; i >= 0; i--) {
+            FileWrite write = writes.get(i);
+            try {
+                if (write.backup != null) {
+                    move(write.backup, write.target);
+                } else if (write.committed) {
+                    Files.deleteIfExists(write.target);
+                }
+            } catch (IOException e) {
+                logger.error("Could not roll back {}", write.target, e);
+                unrestored.add(write.path);
+            }
+            if (!write.committed) {
+                deleteQuietly(write.staging);
+            }
+        }
+        removeDirectories(createdDirectories);
+        return unrestored;
+    }
+
+    private static String describe(Throwable error) {
+        return error instanceof IOException
+                ? error.getClass().getSimpleName() + " " + error.getMessage()
+                : String.valueOf(error.getMessage());
+    }
+
+    private Path sibling(Path target, String suffix) {
+        return target.resolveSibling("." + target.getFileName() + "." + suffix + stagingCounter.incrementAndGet());
+    }
+
+    /**
+     * Renames a file, replacing the target. Overridable so tests can make a rename fail.
+     */
+    void move(Path source, Path target) throws IOException {
+        try {
+            Files.move(source, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * The one durability barrier of a call: all affected directories are synced concurrently.
+     */
+    private void syncDirectories(Set<Path> directories) {
+        try {
+            toolExecutor.forEachParallel(new ArrayList<>(directories), PARALLELISM, WriteFilesTool::syncDirectory);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static Void syncDirectory(Path directory) {
+        try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException e) {
+            // Not every platform can open or sync a directory; the renames are still in place
+            logger.debug("Could not sync directory {}", directory, e);
+        }
+        return null;
+    }
+
+    private static void discardStaged(List<FileWrite> writes) {
+        for (FileWrite write : writes) {
+            if (write.staging != null) {
+                deleteQuietly(write.staging);
+            }
+        }
+    }
+
+    /**
+     * Removes the given directories deepest first, skipping any that are no longer empty.
+     */
+    private static void removeDirectories(Set<Path> directories) {
+        List<Path> deepestFirst = new ArrayList<>(directories);
+        deepestFirst.sort(Comparator.comparingInt(Path::getNameCount).reversed());
+        for (Path directory : deepestFirst) {
+            try {
+                Files.deleteIfExists(directory);
+            } catch (DirectoryNotEmptyException e) {
+                logger.debug("Keeping directory {}, it is not empty", directory);
+            } catch (IOException e) {
+                logger.warn("Could not remove directory {}", directory, e);
+            }
+        }
+    }
+
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            logger.warn("Could not delete {}", file, e);
+        }
+    }
+
+    private List<FileWrite> extractWrites(String parameters) {
+        JsonNode jsonNode;
+        try {
+            jsonNode = objectMapper.readTree(parameters.trim());
+        } catch (Exception e) {
+            logger.error("Failed to parse parameters: {}", parameters, e);
+            throw new IllegalArgumentException("Parameters must be JSON: {\"files\": [{\"path\": ..., \"content\": ...}]}");
+        }
+
+        JsonNode files = jsonNode.isArray() ? jsonNode : jsonNode.path("files");
+        List<FileWrite> writes = new ArrayList<>();
+        for (JsonNode entry : files) {
+            String path = entry.path("path").asText("");
+            if (path.isBlank()) {
+                throw new IllegalArgumentException("Every file needs a non-empty \"path\"");
+            }
+            writes.add(new FileWrite(path, entry.path("content").asText("")));
+        }
+        if (writes.isEmpty()) {
+            throw new IllegalArgumentException("No files given. Use {\"files\": [{\"path\": ..., \"content\": ...}]}");
+        }
+        if (writes.size() > MAX_FILES) {
+            throw new IllegalArgumentException("At most " + MAX_FILES + " files per call, got " + writes.size());
+        }
+        return writes;
+    }
+
+    private static class FileWrite {
+        final String path;
+        final String content;
+        Path target;
+        Path staging;
+        Path backup;
+        boolean existed;
+        boolean committed;
+        byte[] data;
+
+        FileWrite(String path, String content) {
+            this.path = path;
+            this.content = content;
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package com.codingagent.service.trace;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Hierarchical record of everything that happened during one agent session.
+ * Exported in the Chrome trace event format, which can be opened in chrome://tracing or Perfetto.
+ */
+public class ExecutionTrace {
+
+    private static final ExecutionTrace DISABLED = new ExecutionTrace(null, false);
+
+    private final String sessionId;
+    private final boolean enabled;
+    private final long startEpochMicros;
+    private final long startNanos;
+    private final AtomicInteger nextSpanId = new AtomicInteger(1);
+    private final List<TraceSpan> spans = new ArrayList<>();
+    private final TraceSpan root;
+
+    private ExecutionTrace(String sessionId, boolean enabled) {
+        this.sessionId = sessionId;
+        this.enabled = enabled;
+        this.startEpochMicros = TimeUnit.MILLISECONDS.toMicros(System.currentTimeMillis());
+        this.startNanos = System.nanoTime();
+        this.root = enabled ? startSpan("session", "session", null) : TraceSpan.NOOP;
+    }
+
+    public static ExecutionTrace disabled() {
+        return DISABLED;
+    }
+
+    public static ExecutionTrace start(String sessionId) {
+        return new ExecutionTrace(sessionId, true);
+    }
+
+    public String getSessionId() {
+        return sessionId;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public TraceSpan root() {
+        return root;
+    }
+
+    TraceSpan startSpan(String name, String category, TraceSpan parent) {
+        if (!enabled) {
+            return TraceSpan.NOOP;
+        }
+        int parentId = parent != null ? parent.getId() : 0;
+        TraceSpan span = new TraceSpan(this, nextSpanId.getAndIncrement(), parentId, name, category, elapsedMicros());
+        synchronized (spans) {
+            spans.add(span);
+        }
+        return span;
+    }
+
+    long elapsedMicros() {
+        return TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - startNanos);
+    }
+
+    public Map<String, Object> toChromeTrace() {
+        List<TraceSpan> snapshot;
+        synchronized (spans) {
+            snapshot = new ArrayList<>(spans);
+        }
+        long now = elapsedMicros();
+
+        List<Map<String, Object>> events = new ArrayList<>(snapshot.size());
+        for (TraceSpan span : snapshot) {
+            Map<String, Object> args = span.getAttributes();
+            args.put("spanId", span.getId());
+            args.put("parentId", span.getParentId());
+
+            Map<String, Object> event = new LinkedHashMap<>();
+            event.put("name", span.getName());
+            event.put("cat", span.getCategory());
+            event.put("ph", "X");
+            event.put("ts", startEpochMicros + span.getStartMicros());
+            event.put("dur", span.getDurationMicros(now));
+            event.put("pid", 1);
+            event.put("tid", 1);
+            event.put("args", args);
+            events.add(event);
+        }
+
+        Map<String, Object> metadata = new LinkedHashMap<>();
+        metadata.put("sessionId", sessionId);
+
+        Map<String, Object> chromeTrace = new LinkedHashMap<>();
+        chromeTrace.put("traceEvents", events);
+        chromeTrace.put("displayTimeUnit", "ms");
+        chromeTrace.put("otherData", metadata);
+        return chromeTrace;
+    }
+}
@@ -0,0 +1,135 @@
+package com.codingagent.service.trace;
+
+import com.codingagent.config.TracingProperties;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+@Service
+public class TraceService {
+
+    private static final Logger logger = LoggerFactory.getLogger(TraceService.class);
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+    private static final Pattern SESSION_ID_PATTERN = Pattern.compile("[A-Za-z0-9-]{1,64}");
+
+    private final TracingProperties properties;
+    private final Map<String, ExecutionTrace> recentTraces;
+
+    public TraceService(TracingProperties properties) {
+        this.properties = properties;
+        this.recentTraces = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, ExecutionTrace> eldest) {
+                return size() > properties.getMaxRetainedTraces();
+            }
+        };
+    }
+
+    public ExecutionTrace startTrace(String sessionId) {
+        if (!properties.isEnabled()) {
+            return ExecutionTrace.disabled();
+        }
+        ExecutionTrace trace = ExecutionTrace.start(sessionId);
+        synchronized (recentTraces) {
+            recentTraces.put(sessionId, trace);
+        }
+        return trace;
+    }
+
+    public void finishTrace(ExecutionTrace trace) {
+        if (!trace.isEnabled()) {
+            return;
+        }
+        trace.root().end();
+
+        Path file = traceFile(trace.getSessionId());
+        try {
+            Files.createDirectories(file.getParent());
+            objectMapper.writeValue(file.toFile(), trace.toChromeTrace());
+            logger.info("Trace for session {} written to {}", trace.getSessionId(), file);
+        } catch (IOException e) {
+            logger.warn("Could not write trace for session {}", trace.getSessionId(), e);
+            return;
+        }
+        pruneTraceFiles(file);
+    }
+
+    public Optional<String> findTraceJson(String sessionId) {
+        if (sessionId == null || !SESSION_ID_PATTERN.matcher(sessionId).matches()) {
+            return Optional.empty();
+        }
+
+        ExecutionTrace trace;
+        synchronized (recentTraces) {
+            trace = recentTraces.get(sessionId);
+        }
+
+        try {
+            if (trace != null) {
+                return Optional.of(objectMapper.writeValueAsString(trace.toChromeTrace()));
+            }
+            Path file = traceFile(sessionId);
+            if (Files.isRegularFile(file)) {
+                return Optional.of(Files.readString(file));
+            }
+        } catch (IOException e) {
+            logger.warn("Could not load trace for session {}", sessionId, e);
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Keeps at most {@code max-retained-traces} trace files in the output directory, deleting the
+     * oldest ones, so files from earlier runs of the application are bounded too.
+     */
+    private void pruneTraceFiles(Path written) {
+        List<Path> older;
+        try (Stream<Path> files = Files.list(written.getParent())) {
+            older = files.filter(file -> !file.equals(written) && isTraceFile(file))
+                    .sorted(Comparator.comparingLong(TraceService::lastModifiedMillis).reversed())
+                    .toList();
+        } catch (IOException e) {
+            logger.warn("Could not list trace files in {}", written.getParent(), e);
+            return;
+        }
+        int keep = Math.max(0, properties.getMaxRetainedTraces() - 1);
+        for (Path file : older.subList(Math.min(keep, older.size()), older.size())) {
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException e) {
+                logger.warn("Could not delete old trace file {}", file, e);
+            }
+        }
+    }
+
+    private static boolean isTraceFile(Path file) {
+        String name = file.getFileName().toString();
+        return name.startsWith("trace-") && name.endsWith(".json") && Files.isRegularFile(file);
+    }
+
+    private static long lastModifiedMillis(Path file) {
+        try {
+            return Files.getLastModifiedTime(file).toMillis();
+        } catch (IOException e) {
+            // Deleted concurrently; sorted as oldest
+            return Long.MIN_VALUE;
+        }
+    }
+
+    private Path traceFile(String sessionId) {
+        return Paths.get(properties.getOutputDirectory(), "trace-" + sessionId + ".json");
+    }
+}
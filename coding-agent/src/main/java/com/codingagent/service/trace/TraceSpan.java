@@ -0,0 +1,136 @@
+package com.codingagent.service.trace;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A single timed operation inside an {@link ExecutionTrace}.
+ * Spans of a disabled trace are a shared no-op instance, so callers never need to check
+ * whether tracing is on.
+ */
+public class TraceSpan {
+
+    static final TraceSpan NOOP = new TraceSpan(null, 0, 0, "noop", "noop", 0);
+
+    private final ExecutionTrace trace;
+    private final int id;
+    private final int parentId;
+    private final String name;
+    private final String category;
+    private final long startMicros;
+    private final Map<String, Object> attributes = new LinkedHashMap<>();
+    private volatile long endMicros = -1;
+
+    TraceSpan(ExecutionTrace trace, int id, int parentId, String name, String category, long startMicros) {
+        this.trace = trace;
+        this.id = id;
+        this.parentId = parentId;
+        this.name = name;
+        this.category = category;
+        this.startMicros = startMicros;
+    }
+
+    public TraceSpan child(String name, String category) {
+        if (trace == null) {
+            return NOOP;
+        }
+        return trace.startSpan(name, category, this);
+    }
+
+    public TraceSpan attribute(String key, Object value) {
+        if (trace != null) {
+            synchronized (attributes) {
+                attributes.put(key, value);
+            }
+        }
+        return this;
+    }
+
+    /**
+     * Records the UTF-8 size of the given text as {@code <key>Bytes} together with a rough
+     * token estimate as {@code <key>Tokens}.
+     */
+    public TraceSpan bytes(String key, CharSequence text) {
+        if (trace != null && text != null) {
+            long bytes = utf8Length(text);
+            attribute(key + "Bytes", bytes);
+            attribute(key + "Tokens", estimateTokens(bytes));
+        }
+        return this;
+    }
+
+    /**
+     * Same as {@link #bytes(String, CharSequence)} for text whose UTF-8 size is already known.
+     */
+    public TraceSpan bytes(String key, long bytes) {
+        if (trace != null) {
+            attribute(key + "Bytes", bytes);
+            attribute(key + "Tokens", estimateTokens(bytes));
+        }
+        return this;
+    }
+
+    public void end() {
+        if (trace != null && endMicros < 0) {
+            endMicros = trace.elapsedMicros();
+        }
+    }
+
+    public boolean isRecording() {
+        return trace != null;
+    }
+
+    int getId() {
+        return id;
+    }
+
+    int getParentId() {
+        return parentId;
+    }
+
+    String getName() {
+        return name;
+    }
+
+    String getCategory() {
+        return category;
+    }
+
+    long getStartMicros() {
+        return startMicros;
+    }
+
+    long getDurationMicros(long nowMicros) {
+        long end = endMicros < 0 ? nowMicros : endMicros;
+        return Math.max(0, end - startMicros);
+    }
+
+    Map<String, Object> getAttributes() {
+        synchronized (attributes) {
+            return new LinkedHashMap<>(attributes);
+        }
+    }
+
+    public static long estimateTokens(long bytes) {
+        // Roughly four bytes per token for English text and source code
+        return (bytes + 3) / 4;
+    }
+
+    private static long utf8Length(CharSequence text) {
+        long length = 0;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c < 0x80) {
+                length++;
+            } else if (c < 0x800) {
+                length += 2;
+            } else if (Character.isHighSurrogate(c)) {
+                length += 4;
+                i++;
+            } else {
+                length += 3;
+            }
+        }
+        return length;
+    }
+}
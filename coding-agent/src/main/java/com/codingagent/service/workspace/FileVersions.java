@@ -0,0 +1,97 @@
+package com.codingagent.service.workspace;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.CRC32C;
+
+/**
+ * The version of each file a session has read or written, as length and CRC32C of its content
+ * together with the modification time it had then.
+ * Before overwriting a file, a session checks that it is still the version it last saw; if
+ * another session changed it in the meantime, the write is refused instead of silently
+ * replacing that session's work. Files the session has never seen are not checked.
+ */
+public class FileVersions {
+
+    private final Map<Path, Version> versions = new ConcurrentHashMap<>();
+
+    /**
+     * Records the content just read or written; call it while still holding the file's lock, so the
+     * modification time belongs to that content.
+     */
+    public void record(Path file, byte[] content) {
+        versions.put(key(file), new Version(content.length, checksum(content), lastModifiedMillis(file)));
+    }
+
+    public void forget(Path file) {
+        versions.remove(key(file));
+    }
+
+    /**
+     * Whether the file on disk differs from the version this session last saw. Reads the file only
+     * when its length still matches; call it while holding the file's write lock.
+     */
+    public boolean isStale(Path file) throws IOException {
+        Version seen = versions.get(key(file));
+        if (seen == null) {
+            return false;
+        }
+        try {
+            if (Files.size(file) != seen.length) {
+                return true;
+            }
+            return checksum(Files.readAllBytes(file)) != seen.checksum;
+        } catch (NoSuchFileException e) {
+            return true;
+        }
+    }
+
+    /**
+     * Identifies the version this session last saw, or returns null when it has not seen the file or
+     * the file's size or modification time changed since. Only reads the file's attributes, so it
+     * needs no lock; a rewrite that keeps both size and modification time goes unnoticed.
+     */
+    public String fingerprint(Path file) {
+        Version seen = versions.get(key(file));
+        if (seen == null) {
+            return null;
+        }
+        try {
+            BasicFileAttributes attrs = Files.readAttributes(file, BasicFileAttributes.class);
+            if (!attrs.isRegularFile() || attrs.size() != seen.length
+                    || attrs.lastModifiedTime().toMillis() != seen.modifiedMillis) {
+                return null;
+            }
+        } catch (IOException e) {
+            return null;
+        }
+        return seen.length + ":" + seen.modifiedMillis + ":" + Long.toHexString(seen.checksum);
+    }
+
+    private static long lastModifiedMillis(Path file) {
+        try {
+            return Files.getLastModifiedTime(file).toMillis();
+        } catch (IOException e) {
+            // Never matches a real modification time, so the version cannot be fingerprinted
+            return Long.MIN_VALUE;
+        }
+    }
+
+    private static Path key(Path file) {
+        return file.toAbsolutePath().normalize();
+    }
+
+    private static long checksum(byte[] content) {
+        CRC32C crc = new CRC32C();
+        crc.update(content);
+        return crc.getValue();
+    }
+
+    private record Version(long length, long checksum, long modifiedMillis) {
+    }
+}
@@ -0,0 +1,20 @@
+package com.codingagent.service.workspace;
+
+import java.nio.file.Path;
+
+/**
+ * Published after a tool has written a file, so that caches and indexes over the workspace can
+ * update the affected entries instead of being rebuilt.
+ */
+public class FileWrittenEvent {
+
+    private final Path file;
+
+    public FileWrittenEvent(Path file) {
+        this.file = file.toAbsolutePath().normalize();
+    }
+
+    public Path getFile() {
+        return file;
+    }
+}
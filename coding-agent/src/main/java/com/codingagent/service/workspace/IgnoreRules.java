@@ -0,0 +1,223 @@
+package com.codingagent.service.workspace;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Compiled rules of one ignore file (or of configured globs), using {@code .gitignore} syntax:
+ * {@code #} comments, {@code !} negation, a trailing {@code /} for directories only, a leading or
+ * inner {@code /} to anchor the pattern to the directory of the file, and {@code *}, {@code ?},
+ * {@code [...]} and {@code **} wildcards.
+ * <p>
+ * Plain names ({@code node_modules}) and extension patterns ({@code *.class}) are matched with a
+ * hash lookup and a suffix check; everything else is compiled to a regular expression once.
+ */
+final class IgnoreRules {
+
+    static final IgnoreRules EMPTY = new IgnoreRules(List.of());
+
+    private final List<Rule> rules;
+    private final boolean hasNegation;
+    private final Set<String> names = new HashSet<>();
+    private final Set<String> directoryNames = new HashSet<>();
+    private final List<String> suffixes = new ArrayList<>();
+    private final List<Rule> otherRules = new ArrayList<>();
+
+    private IgnoreRules(List<Rule> rules) {
+        this.rules = rules;
+        this.hasNegation = rules.stream().anyMatch(rule -> rule.negated);
+        if (!hasNegation) {
+            for (Rule rule : rules) {
+                if (rule.type == RuleType.NAME) {
+                    (rule.directoryOnly ? directoryNames : names).add(rule.text);
+                } else if (rule.type == RuleType.SUFFIX && !rule.directoryOnly) {
+                    suffixes.add(rule.text);
+                } else {
+                    otherRules.add(rule);
+                }
+            }
+        }
+    }
+
+    static IgnoreRules parse(List<String> lines) {
+        List<Rule> rules = new ArrayList<>();
+        for (String line : lines) {
+            Rule rule = Rule.compile(line);
+            if (rule != null) {
+                rules.add(rule);
+            }
+        }
+        return rules.isEmpty() ? EMPTY : new IgnoreRules(Collections.unmodifiableList(rules));
+    }
+
+    boolean isEmpty() {
+        return rules.isEmpty();
+    }
+
+    /**
+     * Decides whether a path is ignored.
+     *
+     * @param relativePath path relative to the directory of the rules, separated by '/'
+     * @param name         last segment of the path
+     * @return {@code TRUE} if ignored, {@code FALSE} if re-included by a negation, {@code null}
+     * if no rule matches
+     */
+    Boolean match(String relativePath, String name, boolean directory) {
+        if (!hasNegation) {
+            if (names.contains(name) || (directory && directoryNames.contains(name))) {
+                return Boolean.TRUE;
+            }
+            if (!directory) {
+                for (String suffix : suffixes) {
+                    if (name.endsWith(suffix)) {
+                        return Boolean.TRUE;
+                    }
+                }
+            }
+            for (Rule rule : otherRules) {
+                if (rule.matches(relativePath, name, directory)) {
+                    return Boolean.TRUE;
+                }
+            }
+            return null;
+        }
+
+        // Later rules take precedence, so the last matching rule decides
+        for (int i = rules.size() - 1; i >= 0; i--) {
+            Rule rule = rules.get(i);
+            if (rule.matches(relativePath, name, directory)) {
+                return !rule.negated;
+            }
+        }
+        return null;
+    }
+
+    private enum RuleType {
+        NAME, SUFFIX, NAME_GLOB, PATH_GLOB
+    }
+
+    private static final class Rule {
+        private final RuleType type;
+        private final String text;
+        private final Pattern pattern;
+        private final boolean negated;
+        private final boolean directoryOnly;
+
+        private Rule(RuleType type, String text, Pattern pattern, boolean negated, boolean directoryOnly) {
+            this.type = type;
+            this.text = text;
+            this.pattern = pattern;
+            this.negated = negated;
+            this.directoryOnly = directoryOnly;
+        }
+
+        static Rule compile(String line) {
+            String pattern = line.stripTrailing();
+            if (pattern.isEmpty() || pattern.startsWith("#")) {
+                return null;
+            }
+            boolean negated = false;
+            if (pattern.startsWith("!")) {
+                negated = true;
+                pattern = pattern.substring(1);
+            } else if (pattern.startsWith("\\!") || pattern.startsWith("\\#")) {
+                pattern = pattern.substring(1);
+            }
+            boolean directoryOnly = pattern.endsWith("/");
+            if (directoryOnly) {
+                pattern = pattern.substring(0, pattern.length() - 1);
+            }
+            boolean anchored = pattern.indexOf('/') >= 0;
+            if (pattern.startsWith("/")) {
+                pattern = pattern.substring(1);
+            }
+            if (pattern.isEmpty()) {
+                return null;
+            }
+
+            if (!anchored && !hasWildcards(pattern)) {
+                return new Rule(RuleType.NAME, pattern, null, negated, directoryOnly);
+            }
+            if (!anchored && pattern.startsWith("*") && !hasWildcards(pattern.substring(1))) {
+                return new Rule(RuleType.SUFFIX, pattern.substring(1), null, negated, directoryOnly);
+            }
+            return new Rule(anchored ? RuleType.PATH_GLOB : RuleType.NAME_GLOB, pattern,
+                    Pattern.compile(toRegex(pattern)), negated, directoryOnly);
+        }
+
+        boolean matches(String relativePath, String name, boolean directory) {
+            if (directoryOnly && !directory) {
+                return false;
+            }
+            return switch (type) {
+                case NAME -> name.equals(text);
+                case SUFFIX -> name.endsWith(text);
+                case NAME_GLOB -> pattern.matcher(name).matches();
+                case PATH_GLOB -> pattern.matcher(relativePath).matches();
+            };
+        }
+
+        private static boolean hasWildcards(String pattern) {
+            for (int i = 0; i < pattern.length(); i++) {
+                char c = pattern.charAt(i);
+                if (c == '*' || c == '?' || c == '[' || c == '\\') {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private static String toRegex(String glob) {
+            StringBuilder regex = new StringBuilder();
+            int length = glob.length();
+            int i = 0;
+            while (i < length) {
+                char c = glob.charAt(i);
+                if (c == '*' && i + 1 < length && glob.charAt(i + 1) == '*') {
+                    if (i + 2 < length && glob.charAt(i + 2) == '/') {
+                        regex.append("(?:.*/)?");
+                        i += 3;
+                    } else {
+                        regex.append(".*");
+                        i += 2;
+                    }
+                    continue;
+                }
+                switch (c) {
+                    case '*' -> regex.append("[^/]*");
+                    case '?' -> regex.append("[^/]");
+                    case '[' -> {
+                        int close = glob.indexOf(']', i + 2);
+                        if (close < 0) {
+                            regex.append("\\[");
+                        } else {
+                            String members = glob.substring(i + 1, close);
+                            if (members.startsWith("!")) {
+                                members = "^" + members.substring(1);
+                            }
+                            regex.append('[').append(members.replace("\\", "\\\\")).append(']');
+                            i = close;
+                        }
+                    }
+                    case '\\' -> {
+                        if (i + 1 < length) {
+                            regex.append(Pattern.quote(String.valueOf(glob.charAt(++i))));
+                        }
+                    }
+                    default -> {
+                        if ("\\.[]{}()+-^$|".indexOf(c) >= 0) {
+                            regex.append('\\');
+                        }
+                        regex.append(c);
+                    }
+                }
+                i++;
+            }
+            return regex.toString();
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package com.codingagent.service.workspace;
+
+import com.codingagent.config.PathLockProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Coordinates file tools of all sessions. Paths are mapped onto a fixed set of read/write locks by
+ * their absolute, normalized form: readers of a file share its lock, a writer has it to itself,
+ * and sessions touching unrelated files rarely meet on the same stripe. The locks are fair, so
+ * sessions waiting for a file get it in the order they asked.
+ */
+@Service
+public class PathLockManager {
+
+    private static final Logger logger = LoggerFactory.getLogger(PathLockManager.class);
+
+    private final ReentrantReadWriteLock[] stripes;
+    private final long waitTimeoutNanos;
+
+    public PathLockManager(PathLockProperties properties) {
+        this.stripes = new ReentrantReadWriteLock[properties.getStripes()];
+        for (int i = 0; i < stripes.length; i++) {
+            stripes[i] = new ReentrantReadWriteLock(true);
+        }
+        this.waitTimeoutNanos = TimeUnit.SECONDS.toNanos(properties.getWaitTimeoutSeconds());
+    }
+
+    public <T> T withReadLock(Path file, PathAction<T> action) throws IOException {
+        Lock lock = stripes[stripe(file)].readLock();
+        acquire(lock, List.of(file));
+        try {
+            return action.run();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Runs the action holding the write locks of all given files. Stripes are always taken in
+     * ascending order, so two sessions writing overlapping sets of files cannot deadlock.
+     */
+    public <T> T withWriteLocks(Collection<Path> files, PathAction<T> action) throws IOException {
+        TreeSet<Integer> indexes = new TreeSet<>();
+        for (Path file : files) {
+            indexes.add(stripe(file));
+        }
+        List<Lock> held = new ArrayList<>(indexes.size());
+        try {
+            for (int index : indexes) {
+                Lock lock = stripes[index].writeLock();
+                acquire(lock, files);
+                held.add(lock);
+            }
+            return action.run();
+        } finally {
+            for (int i = held.size() - 1; i >= 0; i--) {
+                held.get(i).unlock();
+            }
+        }
+    }
+
+    private void acquire(Lock lock, Collection<Path> files) throws IOException {
+        try {
+            if (!lock.tryLock(waitTimeoutNanos, TimeUnit.NANOSECONDS)) {
+                logger.warn("Timed out waiting for the lock on {}", files);
+                throw new PathLockTimeoutException("Another session is still using " + describe(files)
+                        + ", try again later");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for " + describe(files));
+        }
+    }
+
+    private int stripe(Path file) {
+        int hash = file.toAbsolutePath().normalize().hashCode();
+        return Math.floorMod(hash ^ (hash >>> 16), stripes.length);
+    }
+
+    private static String describe(Collection<Path> files) {
+        return files.size() == 1 ? files.iterator().next().toString() : files.size() + " files";
+    }
+
+    @FunctionalInterface
+    public interface PathAction<T> {
+        T run() throws IOException;
+    }
+}
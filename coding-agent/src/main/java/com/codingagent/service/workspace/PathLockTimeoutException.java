@@ -0,0 +1,14 @@
+package com.codingagent.service.workspace;
+
+import java.io.IOException;
+
+/**
+ * A file stayed locked by other sessions for longer than {@code path-locks.wait-timeout-seconds}.
+ * An {@link IOException}, so that file tools report it like any other failed file operation.
+ */
+public class PathLockTimeoutException extends IOException {
+
+    public PathLockTimeoutException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,131 @@
+package com.codingagent.service.workspace;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Ignore decisions for the paths below one workspace root. Obtained from
+ * {@link WorkspaceFilterService#forRoot(Path)}.
+ * <p>
+ * A path is ignored when it is hidden (if configured), or when the nearest ignore file that has an
+ * opinion about it - searching from its own directory up to the root - ignores it, or else when
+ * the configured excludes match it. Walkers should call {@link #isIgnoredDirectory(Path)} from
+ * {@code preVisitDirectory} and return {@code SKIP_SUBTREE}, so that ignored trees are never read.
+ * Ignore files are loaded once per directory and reloaded when a tool writes one.
+ */
+public class WorkspaceFilter {
+
+    private static final Logger logger = LoggerFactory.getLogger(WorkspaceFilter.class);
+
+    private final WorkspaceFilterService service;
+    private final Path root;
+    private final Map<Path, IgnoreRules> rulesByDirectory = new ConcurrentHashMap<>();
+    private final Map<Path, Boolean> directoryDecisions = new ConcurrentHashMap<>();
+
+    WorkspaceFilter(WorkspaceFilterService service, Path root) {
+        this.service = service;
+        this.root = root;
+    }
+
+    public Path getRoot() {
+        return root;
+    }
+
+    /**
+     * Whether a directory should be skipped, assuming its ancestors have already been accepted
+     * (as they are during a walk). The root itself is never ignored.
+     */
+    public boolean isIgnoredDirectory(Path directory) {
+        return !directory.equals(root) && decide(directory, true);
+    }
+
+    /**
+     * Whether a file should be skipped, assuming its ancestors have already been accepted. Files
+     * not matching the configured includes are skipped as well.
+     */
+    public boolean isIgnoredFile(Path file) {
+        return decide(file, false) || !service.isIncluded(relativize(root, file), file.getFileName().toString());
+    }
+
+    /**
+     * Full check for an arbitrary path, including whether any of its ancestors below the root is
+     * ignored. Use this for paths named by a caller rather than found by a walk.
+     */
+    public boolean isIgnored(Path path, boolean directory) {
+        Path normalized = path.toAbsolutePath().normalize();
+        if (!normalized.startsWith(root) || normalized.equals(root)) {
+            return false;
+        }
+        for (Path ancestor = normalized.getParent(); ancestor != null && !ancestor.equals(root);
+             ancestor = ancestor.getParent()) {
+            if (directoryDecisions.computeIfAbsent(ancestor, dir -> decide(dir, true))) {
+                return true;
+            }
+        }
+        return directory ? decide(normalized, true) : isIgnoredFile(normalized);
+    }
+
+    public boolean isTextFile(Path file) {
+        return service.isTextFile(file);
+    }
+
+    void invalidate(Path directory) {
+        rulesByDirectory.remove(directory);
+        directoryDecisions.clear();
+    }
+
+    private boolean decide(Path path, boolean directory) {
+        String name = path.getFileName().toString();
+        if (service.isSkipHidden() && name.startsWith(".")) {
+            return true;
+        }
+
+        if (service.isRespectIgnoreFiles()) {
+            for (Path dir = path.getParent(); dir != null && dir.startsWith(root); dir = dir.getParent()) {
+                IgnoreRules rules = rulesByDirectory.computeIfAbsent(dir, this::loadRules);
+                if (!rules.isEmpty()) {
+                    Boolean decision = rules.match(relativize(dir, path), name, directory);
+                    if (decision != null) {
+                        return decision;
+                    }
+                }
+            }
+        }
+
+        Boolean configured = service.getExcludes().match(relativize(root, path), name, directory);
+        return configured != null && configured;
+    }
+
+    private IgnoreRules loadRules(Path directory) {
+        List<String> lines = null;
+        for (String fileName : service.getIgnoreFileNames()) {
+            Path ignoreFile = directory.resolve(fileName);
+            if (!Files.isRegularFile(ignoreFile)) {
+                continue;
+            }
+            try {
+                if (lines == null) {
+                    lines = new ArrayList<>();
+                }
+                lines.addAll(Files.readAllLines(ignoreFile));
+            } catch (IOException e) {
+                logger.debug("Could not read ignore file {}", ignoreFile, e);
+            }
+        }
+        return lines == null ? IgnoreRules.EMPTY : IgnoreRules.parse(lines);
+    }
+
+    private static String relativize(Path directory, Path path) {
+        String relative = directory.relativize(path).toString();
+        return File.separatorChar == '/' ? relative : relative.replace(File.separatorChar, '/');
+    }
+}
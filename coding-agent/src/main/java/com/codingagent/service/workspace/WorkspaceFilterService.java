@@ -0,0 +1,138 @@
+package com.codingagent.service.workspace;
+
+import com.codingagent.config.WorkspaceFilterProperties;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Decides which workspace files the context builder and the file tools look at: ignore files,
+ * configured include/exclude globs, hidden files and text detection. Extensions known to be text or
+ * binary are decided by lookup; other files are sniffed (no NUL byte and valid UTF-8 in the first
+ * {@code workspace-filter.sniff-bytes} bytes).
+ */
+@Service
+public class WorkspaceFilterService {
+
+    private static final int MAX_CACHED_ROOTS = 32;
+
+    private final WorkspaceFilterProperties properties;
+    private final IgnoreRules excludes;
+    private final IgnoreRules includes;
+    private final Set<String> textExtensions;
+    private final Set<String> binaryExtensions;
+    private final Map<Path, WorkspaceFilter> filters = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Path, WorkspaceFilter> eldest) {
+            return size() > MAX_CACHED_ROOTS;
+        }
+    };
+
+    public WorkspaceFilterService(WorkspaceFilterProperties properties) {
+        this.properties = properties;
+        this.excludes = IgnoreRules.parse(properties.getExclude());
+        this.includes = IgnoreRules.parse(properties.getInclude());
+        this.textExtensions = lowerCase(properties.getTextExtensions());
+        this.binaryExtensions = lowerCase(properties.getBinaryExtensions());
+    }
+
+    public WorkspaceFilter forRoot(Path root) {
+        Path normalizedRoot = root.toAbsolutePath().normalize();
+        synchronized (filters) {
+            return filters.computeIfAbsent(normalizedRoot, key -> new WorkspaceFilter(this, key));
+        }
+    }
+
+    public boolean isTextFile(Path file) {
+        String name = file.getFileName().toString().toLowerCase(Locale.ROOT);
+        int dot = name.lastIndexOf('.');
+        String extension = dot >= 0 ? name.substring(dot + 1) : "";
+        if (textExtensions.contains(extension)) {
+            return true;
+        }
+        if (binaryExtensions.contains(extension)) {
+            return false;
+        }
+        return looksLikeText(file);
+    }
+
+    @EventListener
+    public void onFileWritten(FileWrittenEvent event) {
+        Path file = event.getFile();
+        if (!properties.getIgnoreFileNames().contains(file.getFileName().toString())) {
+            return;
+        }
+        List<WorkspaceFilter> affected = new ArrayList<>();
+        synchronized (filters) {
+            for (WorkspaceFilter filter : filters.values()) {
+                if (file.startsWith(filter.getRoot())) {
+                    affected.add(filter);
+                }
+            }
+        }
+        affected.forEach(filter -> filter.invalidate(file.getParent()));
+    }
+
+    boolean isIncluded(String relativePath, String name) {
+        return includes.isEmpty() || Boolean.TRUE.equals(includes.match(relativePath, name, false));
+    }
+
+    boolean isSkipHidden() {
+        return properties.isSkipHidden();
+    }
+
+    boolean isRespectIgnoreFiles() {
+        return properties.isRespectIgnoreFiles();
+    }
+
+    List<String> getIgnoreFileNames() {
+        return properties.getIgnoreFileNames();
+    }
+
+    IgnoreRules getExcludes() {
+        return excludes;
+    }
+
+    private boolean looksLikeText(Path file) {
+        byte[] head;
+        try (InputStream in = Files.newInputStream(file)) {
+            head = in.readNBytes(properties.getSniffBytes());
+        } catch (IOException e) {
+            return false;
+        }
+        for (byte b : head) {
+            if (b == 0) {
+                return false;
+            }
+        }
+        CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPORT)
+                .onUnmappableCharacter(CodingErrorAction.REPORT);
+        // endOfInput=false: a multi-byte character cut off at the end of the sample is not an error
+        return !decoder.decode(ByteBuffer.wrap(head), CharBuffer.allocate(head.length), false).isError();
+    }
+
+    private static Set<String> lowerCase(List<String> values) {
+        Set<String> result = new HashSet<>();
+        for (String value : values) {
+            result.add(value.toLowerCase(Locale.ROOT));
+        }
+        return result;
+    }
+}
@@ -0,0 +1,14 @@
+package com.codingagent.service.workspace;
+
+import java.io.IOException;
+
+/**
+ * A tool was given a path that is malformed or leads outside the session's workspace. An
+ * {@link IOException}, so that file tools report it like any other failed file operation.
+ */
+public class WorkspacePathException extends IOException {
+
+    public WorkspacePathException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,116 @@
+package com.codingagent.service.workspace;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Resolves the paths file tools are given against one session's workspace root. The root is made
+ * absolute and canonical once; every path is then normalized and rejected if it leaves the root,
+ * either through {@code ..} or absolute paths or through a symbolic link pointing outside. Paths
+ * that passed are cached, so a session asking for the same file again costs one map lookup.
+ * Without a base directory, the server's working directory is the root.
+ */
+public class WorkspacePathResolver {
+
+    private static final int MAX_CACHED_PATHS = 4096;
+    private static final int MAX_LINK_DEPTH = 8;
+
+    private final Path root;
+    private final Path realRoot;
+    private final Map<String, Path> resolved = new ConcurrentHashMap<>();
+
+    public WorkspacePathResolver(String baseDirectory) {
+        Path base = baseDirectory != null && !baseDirectory.trim().isEmpty()
+                ? Paths.get(baseDirectory.trim()) : Paths.get("");
+        this.root = base.toAbsolutePath().normalize();
+        Path real = realPathOfNearestExisting(root);
+        this.realRoot = real != null ? real : root;
+    }
+
+    /**
+     * The workspace root, absolute and normalized.
+     */
+    public Path getRoot() {
+        return root;
+    }
+
+    /**
+     * The absolute, normalized file a tool path refers to. Relative paths are taken from the root;
+     * absolute paths are accepted when they lie inside it.
+     */
+    public Path resolve(String path) throws WorkspacePathException {
+        String key = path == null ? "" : path.trim();
+        Path cached = resolved.get(key);
+        if (cached != null) {
+            return cached;
+        }
+
+        Path file;
+        try {
+            file = root.resolve(key).normalize();
+        } catch (InvalidPathException e) {
+            throw new WorkspacePathException("Invalid path: " + key);
+        }
+        if (!file.startsWith(root)) {
+            throw new WorkspacePathException("Path is outside the workspace: " + key);
+        }
+        // The file itself may not exist yet, but none of its existing ancestors may link outside
+        Path real = realPathOfNearestExisting(file);
+        if (real == null || !real.startsWith(realRoot)) {
+            throw new WorkspacePathException("Path leads outside the workspace through a symbolic link: " + key);
+        }
+
+        if (resolved.size() >= MAX_CACHED_PATHS) {
+            resolved.clear();
+        }
+        resolved.put(key, file);
+        return file;
+    }
+
+    /**
+     * The path of a file as shown to the model: relative to the root when inside it.
+     */
+    public String relative(Path file) {
+        if (file.equals(root)) {
+            return ".";
+        }
+        return file.startsWith(root) ? root.relativize(file).toString() : file.toString();
+    }
+
+    /**
+     * The real path of the file or of its nearest existing ancestor, following links. A dangling
+     * link is followed to where it points, since writing through it would create its target. Null
+     * when links loop or nest too deeply to tell.
+     */
+    private static Path realPathOfNearestExisting(Path file) {
+        Path current = file;
+        for (int links = 0; links <= MAX_LINK_DEPTH; links++) {
+            Path existing = current;
+            while (existing != null && !Files.exists(existing, LinkOption.NOFOLLOW_LINKS)) {
+                existing = existing.getParent();
+            }
+            if (existing == null) {
+                return current;
+            }
+            try {
+                return existing.toRealPath();
+            } catch (IOException e) {
+                if (!Files.isSymbolicLink(existing)) {
+                    return existing;
+                }
+                try {
+                    current = existing.resolveSibling(Files.readSymbolicLink(existing)).normalize();
+                } catch (IOException linkError) {
+                    return null;
+                }
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,57 @@
+package com.codingagent.controller;
+
+import com.codingagent.model.StreamEvent;
+import com.codingagent.service.OrchestratorService;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.TestPropertySource;
+import reactor.core.publisher.Flux;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.when;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@TestPropertySource(properties = {
+    "spring.ai.mistralai.api-key=test-key",
+    "spring.mvc.async.request-timeout=500ms"
+})
+class AgentControllerStreamTimeoutTest {
+
+    @LocalServerPort
+    private int port;
+
+    @MockBean
+    private OrchestratorService orchestratorService;
+
+    @Test
+    void streamOutlivesContainerAsyncTimeout() throws Exception {
+        when(orchestratorService.processRequestStream(anyString(), any(), any())).thenReturn(
+                Flux.just(StreamEvent.builder()
+                                .type(StreamEvent.EventType.TASK_COMPLETE)
+                                .message("finished after the async timeout")
+                                .build())
+                        .delaySubscription(Duration.ofMillis(1500)));
+
+        HttpResponse<String> response = HttpClient.newHttpClient().send(HttpRequest.newBuilder()
+                        .uri(URI.create("http://localhost:" + port + "/api/agent/stream"))
+                        .header("Content-Type", "application/json")
+                        .header("Accept", "text/event-stream")
+                        .timeout(Duration.ofSeconds(10))
+                        .POST(HttpRequest.BodyPublishers.ofString("{\"prompt\": \"Add a test\"}"))
+                        .build(),
+                HttpResponse.BodyHandlers.ofString());
+
+        assertThat(response.statusCode()).isEqualTo(200);
+        assertThat(response.body()).contains("finished after the async timeout");
+    }
+}
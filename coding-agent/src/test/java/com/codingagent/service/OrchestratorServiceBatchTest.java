@@ -0,0 +1,107 @@
+package com.codingagent.service;
+
+import com.codingagent.config.BatchProperties;
+import com.codingagent.config.TracingProperties;
+import com.codingagent.model.AgentType;
+import com.codingagent.model.BatchTask;
+import com.codingagent.model.StreamEvent;
+import com.codingagent.service.agent.AgentSession;
+import com.codingagent.service.agent.AnalyzeAgent;
+import com.codingagent.service.agent.ClassificationAgent;
+import com.codingagent.service.agent.CodeAgent;
+import com.codingagent.service.agent.CollaborationAgent;
+import com.codingagent.service.agent.StreamingToolBasedAgent;
+import com.codingagent.service.trace.TraceService;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class OrchestratorServiceBatchTest {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(5);
+
+    @Test
+    void classifiesOnceBuildsContextOnceAndTagsEventsWithTaskIds() {
+        ClassificationAgent classificationAgent = mock(ClassificationAgent.class);
+        when(classificationAgent.classifyAll(anyList()))
+                .thenReturn(List.of(AgentType.ANALYZE, AgentType.CODE, AgentType.ANALYZE));
+        FileSystemService fileSystemService = mock(FileSystemService.class);
+        when(fileSystemService.buildDirectoryContext("/repo")).thenReturn("CONTEXT");
+        AnalyzeAgent analyzeAgent = agent(AnalyzeAgent.class, AgentType.ANALYZE);
+        CodeAgent codeAgent = agent(CodeAgent.class, AgentType.CODE);
+
+        BatchProperties batchProperties = new BatchProperties();
+        batchProperties.setMaxConcurrentTasks(2);
+        OrchestratorService orchestrator = new OrchestratorService(classificationAgent,
+                mock(CollaborationAgent.class), List.of(analyzeAgent, codeAgent), fileSystemService,
+                new TraceService(new TracingProperties()), batchProperties);
+
+        List<StreamEvent> events = orchestrator.processBatchStream(List.of(
+                        new BatchTask("a", "Review the service layer"),
+                        new BatchTask(null, "Add a health endpoint"),
+                        new BatchTask("c", "Find unused classes")), "/repo")
+                .collectList()
+                .block(TIMEOUT);
+
+        verify(classificationAgent, times(1)).classifyAll(anyList());
+        verify(fileSystemService, times(1)).buildDirectoryContext("/repo");
+        verify(analyzeAgent, times(2)).executeStream(anyString(), eq("CONTEXT"), any(AgentSession.class));
+        assertThat(events).filteredOn(event -> event.getType() == StreamEvent.EventType.TASK_COMPLETE)
+                .extracting(StreamEvent::getTaskId)
+                .containsExactlyInAnyOrder("a", "task-2", "c");
+        assertThat(events).filteredOn(event -> event.getType() == StreamEvent.EventType.SESSION_START)
+                .extracting(StreamEvent::getAgentType)
+                .containsExactlyInAnyOrder("ANALYZE", "CODE", "ANALYZE");
+    }
+
+    @Test
+    void failingTaskEndsWithErrorEventWithoutStoppingOthers() {
+        ClassificationAgent classificationAgent = mock(ClassificationAgent.class);
+        when(classificationAgent.classifyAll(anyList())).thenReturn(List.of(AgentType.ANALYZE, AgentType.CODE));
+        AnalyzeAgent analyzeAgent = agent(AnalyzeAgent.class, AgentType.ANALYZE);
+        CodeAgent codeAgent = mock(CodeAgent.class);
+        when(codeAgent.getType()).thenReturn(AgentType.CODE);
+        when(codeAgent.executeStream(anyString(), anyString(), any(AgentSession.class)))
+                .thenReturn(Flux.error(new IllegalStateException("model unavailable")));
+
+        OrchestratorService orchestrator = new OrchestratorService(classificationAgent,
+                mock(CollaborationAgent.class), List.of(analyzeAgent, codeAgent), mock(FileSystemService.class),
+                new TraceService(new TracingProperties()), new BatchProperties());
+
+        List<StreamEvent> events = orchestrator.processBatchStream(List.of(
+                        new BatchTask("ok", "Review"), new BatchTask("broken", "Implement")), null)
+                .collectList()
+                .block(TIMEOUT);
+
+        assertThat(events).filteredOn(event -> event.getType() == StreamEvent.EventType.TASK_COMPLETE)
+                .extracting(StreamEvent::getTaskId)
+                .containsExactly("ok");
+        assertThat(events).filteredOn(event -> event.getType() == StreamEvent.EventType.ERROR)
+                .extracting(StreamEvent::getTaskId)
+                .containsExactly("broken");
+    }
+
+    private static <T extends StreamingToolBasedAgent> T agent(Class<T> type, AgentType agentType) {
+        T agent = mock(type);
+        when(agent.getType()).thenReturn(agentType);
+        when(agent.executeStream(anyString(), anyString(), any(AgentSession.class))).thenAnswer(invocation ->
+                Flux.just(StreamEvent.builder()
+                        .type(StreamEvent.EventType.TASK_COMPLETE)
+                        .complete(true)
+                        .message("Task completed successfully: " + invocation.getArgument(0))
+                        .build()));
+        return agent;
+    }
+}
@@ -0,0 +1,34 @@
+package com.codingagent.service.agent;
+
+import com.codingagent.model.AgentType;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ClassificationAgentTest {
+
+    @Test
+    void parsesNumberedBatchAnswerInAnyOrder() {
+        List<AgentType> types = ClassificationAgent.parseBatchAnswer("""
+                2: bugfix
+                1. ANALYZE
+                3) CODE
+                """, 3);
+
+        assertThat(types).containsExactly(AgentType.ANALYZE, AgentType.BUGFIX, AgentType.CODE);
+    }
+
+    @Test
+    void defaultsMissingAndUnknownAnswersToCode() {
+        List<AgentType> types = ClassificationAgent.parseBatchAnswer("""
+                Here are the classifications:
+                1: REFACTOR
+                3: ANALYZE
+                7: BUGFIX
+                """, 3);
+
+        assertThat(types).containsExactly(AgentType.CODE, AgentType.CODE, AgentType.ANALYZE);
+    }
+}
@@ -0,0 +1,50 @@
+package com.codingagent.service.agent;
+
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ResponseCoalescerTest {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(5);
+
+    @Test
+    void mergesChunksUntilSizeLimitAndFlushesRestOnCompletion() {
+        Flux<String> chunks = Flux.just("ab", "cd", "ef", "g");
+
+        List<String> pieces = ResponseCoalescer.coalesce(chunks, Duration.ofSeconds(10), 4, Schedulers.parallel())
+                .collectList()
+                .block(TIMEOUT);
+
+        assertThat(pieces).containsExactly("abcd", "efg");
+    }
+
+    @Test
+    void flushesBufferedTextAfterIntervalWhileModelIsStillStreaming() {
+        Flux<String> chunks = Flux.concat(Flux.just("first ", "words"), Flux.<String>never());
+
+        String piece = ResponseCoalescer.coalesce(chunks, Duration.ofMillis(50), 1024, Schedulers.parallel())
+                .blockFirst(TIMEOUT);
+
+        assertThat(piece).isEqualTo("first words");
+    }
+
+    @Test
+    void cancellationCancelsModelStream() {
+        AtomicBoolean cancelled = new AtomicBoolean(false);
+        Flux<String> chunks = Flux.concat(Flux.just("TOOL: finish_task {}"), Flux.<String>never())
+                .doOnCancel(() -> cancelled.set(true));
+
+        ResponseCoalescer.coalesce(chunks, Duration.ofMillis(10), 1024, Schedulers.parallel())
+                .take(1)
+                .blockLast(TIMEOUT);
+
+        assertThat(cancelled).isTrue();
+    }
+}
@@ -0,0 +1,212 @@
+package com.codingagent.service.agent;
+
+import com.codingagent.config.AgentBudgetProperties;
+import com.codingagent.config.AgentProperties;
+import com.codingagent.config.HistoryProperties;
+import com.codingagent.config.ModelRoutingProperties;
+import com.codingagent.config.PathLockProperties;
+import com.codingagent.config.ToolExecutionProperties;
+import com.codingagent.model.AgentType;
+import com.codingagent.model.StreamEvent;
+import com.codingagent.service.history.ConversationHistoryFactory;
+import com.codingagent.service.model.ModelRouter;
+import com.codingagent.service.tool.FinishTaskTool;
+import com.codingagent.service.tool.LogThoughtTool;
+import com.codingagent.service.tool.ToolExecutor;
+import com.codingagent.service.tool.ToolRegistry;
+import com.codingagent.service.tool.WriteFileTool;
+import com.codingagent.service.workspace.PathLockManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.ai.chat.messages.AssistantMessage;
+import org.springframework.ai.chat.model.ChatModel;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.ai.chat.model.Generation;
+import org.springframework.ai.chat.prompt.Prompt;
+import reactor.core.publisher.Flux;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class StreamingToolBasedAgentBudgetTest {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(5);
+
+    private ChatModel chatModel;
+    private ToolExecutor toolExecutor;
+    private AgentBudgetProperties budgetProperties;
+    private CodeAgent agent;
+
+    @BeforeEach
+    void setUp() {
+        chatModel = mock(ChatModel.class);
+        toolExecutor = new ToolExecutor(new ToolExecutionProperties());
+        budgetProperties = new AgentBudgetProperties();
+        agent = new CodeAgent(new ModelRouter(Map.of("chatModel", chatModel), new ModelRoutingProperties()),
+                new ToolRegistry(List.of(new LogThoughtTool(), new FinishTaskTool())),
+                toolExecutor, new ConversationHistoryFactory(new HistoryProperties()), budgetProperties,
+                new AgentProperties());
+    }
+
+    @AfterEach
+    void tearDown() {
+        toolExecutor.shutdown();
+    }
+
+    @Test
+    void escalatesOnceThenStopsRunThatIgnoresReminders() {
+        respondWith("I think the answer is 42.");
+
+        List<StreamEvent> events = run();
+
+        StreamEvent last = events.get(events.size() - 1);
+        assertThat(last.getType()).isEqualTo(StreamEvent.EventType.ERROR);
+        assertThat(last.getError()).startsWith("stalled: no tool calls");
+        assertThat(last.getMessage()).contains("Last response: I think the answer is 42.");
+        verify(chatModel, times(4)).stream(any(Prompt.class));
+    }
+
+    @Test
+    void stopsRepeatedIdenticalToolCallsWithoutEscalation() {
+        budgetProperties.setStallAction(AgentBudgetProperties.StallAction.TERMINATE);
+        respondWith("TOOL: log_thought {\"thought\": \"still thinking\"}");
+
+        List<StreamEvent> events = run();
+
+        assertThat(events.get(events.size() - 1).getError()).isEqualTo("stalled: 3 repeated identical tool calls");
+        verify(chatModel, times(4)).stream(any(Prompt.class));
+    }
+
+    @Test
+    void appliesPerTypeIterationBudget() {
+        budgetProperties.getTypes().put(AgentType.CODE, new AgentBudgetProperties.Budget(2, null, null));
+        budgetProperties.setMaxConsecutiveNudges(10);
+        respondWith("Still working on it.");
+
+        List<StreamEvent> events = run();
+
+        assertThat(events.get(events.size() - 1).getError()).isEqualTo("maximum iterations (2) reached");
+        verify(chatModel, times(2)).stream(any(Prompt.class));
+    }
+
+    @Test
+    void stopsRunOnceTheConversationExceedsTheTokenBudget() {
+        budgetProperties.getTypes().put(AgentType.CODE, new AgentBudgetProperties.Budget(null, 1L, null));
+        budgetProperties.setMaxConsecutiveNudges(10);
+        respondWith("Still working on it.");
+
+        List<StreamEvent> events = run();
+
+        assertThat(events.get(events.size() - 1).getError()).isEqualTo("token budget (1) exhausted");
+        verify(chatModel, times(1)).stream(any(Prompt.class));
+    }
+
+    @Test
+    void countsTheResentHistoryOnceRatherThanPerCall() {
+        RunBudget budget = new RunBudget(budgetProperties, new AgentBudgetProperties.Budget(100, 60_000L, 600));
+        // A large directory context of about 50k tokens, then 2KB of response and tool result per turn
+        long promptBytes = 200_000;
+        for (int i = 0; i < 20; i++) {
+            budget.recordModelCall(promptBytes, 400);
+            promptBytes += 2_000;
+        }
+
+        assertThat(budget.getTokens()).isEqualTo(59_600);
+        assertThat(budget.exhausted(20)).isNull();
+
+        budget.recordModelCall(promptBytes, 4_000);
+
+        assertThat(budget.exhausted(21)).isEqualTo("token budget (60000) exhausted");
+    }
+
+    @Test
+    void stopsRunThatExceedsItsWallClockBudget() {
+        budgetProperties.getTypes().put(AgentType.CODE, new AgentBudgetProperties.Budget(null, null, 1));
+        budgetProperties.setMaxConsecutiveNudges(10);
+        when(chatModel.stream(any(Prompt.class))).thenAnswer(invocation -> Flux.just(new ChatResponse(List.of(
+                new Generation(new AssistantMessage("Still working on it."))))).delayElements(Duration.ofMillis(700)));
+
+        List<StreamEvent> events = run();
+
+        assertThat(events.get(events.size() - 1).getError()).isEqualTo("time budget (1s) exhausted");
+        verify(chatModel, times(2)).stream(any(Prompt.class));
+    }
+
+    @Test
+    void continuesStalledRunOnEscalationModel() {
+        ChatModel largeModel = mock(ChatModel.class);
+        when(largeModel.stream(any(Prompt.class))).thenAnswer(invocation -> Flux.just(new ChatResponse(List.of(
+                new Generation(new AssistantMessage("TOOL: finish_task {\"summary\": \"Done\"}"))))));
+        ModelRoutingProperties routing = new ModelRoutingProperties();
+        ModelRoutingProperties.Profile small = new ModelRoutingProperties.Profile();
+        small.setEscalateTo("large");
+        ModelRoutingProperties.Profile large = new ModelRoutingProperties.Profile();
+        large.setChatModel("largeModel");
+        routing.getProfiles().put("small", small);
+        routing.getProfiles().put("large", large);
+        routing.getRoutes().put("code", "small");
+        agent = new CodeAgent(new ModelRouter(Map.of("chatModel", chatModel, "largeModel", largeModel), routing),
+                new ToolRegistry(List.of(new LogThoughtTool(), new FinishTaskTool())),
+                toolExecutor, new ConversationHistoryFactory(new HistoryProperties()), budgetProperties,
+                new AgentProperties());
+        respondWith("I think the answer is 42.");
+
+        List<StreamEvent> events = run();
+
+        assertThat(events.get(events.size() - 1).getType()).isEqualTo(StreamEvent.EventType.TASK_COMPLETE);
+        verify(chatModel, times(2)).stream(any(Prompt.class));
+        verify(largeModel, times(1)).stream(any(Prompt.class));
+    }
+
+    @Test
+    void reportsOnlyWritesThatSucceededAsFilesWritten(@TempDir Path workspace) {
+        agent = new CodeAgent(new ModelRouter(Map.of("chatModel", chatModel), new ModelRoutingProperties()),
+                new ToolRegistry(List.of(new WriteFileTool(event -> { }, new PathLockManager(new PathLockProperties())),
+                        new FinishTaskTool())),
+                toolExecutor, new ConversationHistoryFactory(new HistoryProperties()), budgetProperties,
+                new AgentProperties());
+        respondWith("TOOL: write_file {\"path\": \"../escape.txt\", \"content\": \"x\"}",
+                "TOOL: write_file {\"path\": \"kept.txt\", \"content\": \"x\"}",
+                "TOOL: finish_task {\"summary\": \"Done\"}");
+
+        List<StreamEvent> events = agent.executeStream("Do it", null, workspace.toString())
+                .collectList().block(TIMEOUT);
+
+        StreamEvent last = events.get(events.size() - 1);
+        assertThat(last.getType()).isEqualTo(StreamEvent.EventType.TASK_COMPLETE);
+        assertThat(last.getFilesWritten()).containsExactly("kept.txt");
+        assertThat(workspace.resolve("kept.txt")).exists();
+    }
+
+    private void respondWith(String text) {
+        when(chatModel.stream(any(Prompt.class))).thenAnswer(invocation ->
+                Flux.just(new ChatResponse(List.of(new Generation(new AssistantMessage(text))))));
+    }
+
+    /**
+     * Answers each model call with the next of the given responses, repeating the last one.
+     */
+    private void respondWith(String... texts) {
+        AtomicInteger calls = new AtomicInteger();
+        when(chatModel.stream(any(Prompt.class))).thenAnswer(invocation -> {
+            String text = texts[Math.min(calls.getAndIncrement(), texts.length - 1)];
+            return Flux.just(new ChatResponse(List.of(new Generation(new AssistantMessage(text)))));
+        });
+    }
+
+    private List<StreamEvent> run() {
+        return agent.executeStream("Do it", null, (String) null).collectList().block(TIMEOUT);
+    }
+}
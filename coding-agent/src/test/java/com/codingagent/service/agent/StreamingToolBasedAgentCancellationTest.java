@@ -0,0 +1,111 @@
+package com.codingagent.service.agent;
+
+import com.codingagent.config.AgentBudgetProperties;
+import com.codingagent.config.AgentProperties;
+import com.codingagent.config.HistoryProperties;
+import com.codingagent.config.ModelRoutingProperties;
+import com.codingagent.config.ToolExecutionProperties;
+import com.codingagent.model.StreamEvent;
+import com.codingagent.service.history.ConversationHistoryFactory;
+import com.codingagent.service.model.ModelRouter;
+import com.codingagent.service.tool.FinishTaskTool;
+import com.codingagent.service.tool.LogThoughtTool;
+import com.codingagent.service.tool.ToolExecutor;
+import com.codingagent.service.tool.ToolRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.ai.chat.messages.AssistantMessage;
+import org.springframework.ai.chat.model.ChatModel;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.ai.chat.model.Generation;
+import org.springframework.ai.chat.prompt.Prompt;
+import reactor.core.publisher.Flux;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.after;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class StreamingToolBasedAgentCancellationTest {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(5);
+
+    private ChatModel chatModel;
+    private ToolExecutor toolExecutor;
+    private CodeAgent agent;
+    private AtomicBoolean modelStreamCancelled;
+
+    @BeforeEach
+    void setUp() {
+        chatModel = mock(ChatModel.class);
+        toolExecutor = new ToolExecutor(new ToolExecutionProperties());
+        agent = new CodeAgent(new ModelRouter(Map.of("chatModel", chatModel), new ModelRoutingProperties()),
+                new ToolRegistry(List.of(new LogThoughtTool(), new FinishTaskTool())),
+                toolExecutor, new ConversationHistoryFactory(new HistoryProperties()), new AgentBudgetProperties(),
+                new AgentProperties());
+        modelStreamCancelled = new AtomicBoolean(false);
+    }
+
+    @AfterEach
+    void tearDown() {
+        toolExecutor.shutdown();
+    }
+
+    @Test
+    void disconnectDuringModelStreamCancelsItAndMakesNoFurtherModelCalls() {
+        when(chatModel.stream(any(Prompt.class))).thenAnswer(invocation ->
+                Flux.concat(Flux.just(chunk("TOOL: log_thought {\"thought\": \"exploring\"}")), Flux.<ChatResponse>never())
+                        .doOnCancel(() -> modelStreamCancelled.set(true)));
+
+        List<StreamEvent> events = disconnectAfterFirstToolResult();
+
+        assertThat(events).extracting(StreamEvent::getType).contains(StreamEvent.EventType.TOOL_RESULT);
+        assertThat(modelStreamCancelled).isTrue();
+        verify(chatModel, after(300).times(1)).stream(any(Prompt.class));
+    }
+
+    @Test
+    void disconnectBetweenIterationsMakesNoFurtherModelCalls() {
+        when(chatModel.stream(any(Prompt.class))).thenAnswer(invocation ->
+                Flux.just(chunk("TOOL: log_thought {\"thought\": \"exploring\"}")));
+
+        disconnectAfterFirstToolResult();
+
+        verify(chatModel, after(300).times(1)).stream(any(Prompt.class));
+    }
+
+    @Test
+    void finishTaskCancelsRemainingModelOutput() {
+        when(chatModel.stream(any(Prompt.class))).thenAnswer(invocation ->
+                Flux.concat(Flux.just(chunk("TOOL: finish_task {\"summary\": \"done\"}")), Flux.<ChatResponse>never())
+                        .doOnCancel(() -> modelStreamCancelled.set(true)));
+
+        List<StreamEvent> events = agent.executeStream("Do it", null, (String) null)
+                .collectList()
+                .block(TIMEOUT);
+
+        assertThat(events).extracting(StreamEvent::getType).endsWith(StreamEvent.EventType.TASK_COMPLETE);
+        assertThat(modelStreamCancelled).isTrue();
+        verify(chatModel, after(300).times(1)).stream(any(Prompt.class));
+    }
+
+    private List<StreamEvent> disconnectAfterFirstToolResult() {
+        // takeUntil cancels upstream the same way a closed client connection does
+        return agent.executeStream("Explore the project", null, (String) null)
+                .takeUntil(event -> event.getType() == StreamEvent.EventType.TOOL_RESULT)
+                .collectList()
+                .block(TIMEOUT);
+    }
+
+    private static ChatResponse chunk(String text) {
+        return new ChatResponse(List.of(new Generation(new AssistantMessage(text))));
+    }
+}
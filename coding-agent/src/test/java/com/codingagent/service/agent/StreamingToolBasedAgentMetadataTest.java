@@ -0,0 +1,91 @@
+package com.codingagent.service.agent;
+
+import com.codingagent.config.AgentBudgetProperties;
+import com.codingagent.config.AgentProperties;
+import com.codingagent.config.HistoryProperties;
+import com.codingagent.config.ModelRoutingProperties;
+import com.codingagent.config.ToolExecutionProperties;
+import com.codingagent.model.StreamEvent;
+import com.codingagent.service.history.ConversationHistoryFactory;
+import com.codingagent.service.model.ModelRouter;
+import com.codingagent.service.tool.Tool;
+import com.codingagent.service.tool.ToolExecutor;
+import com.codingagent.service.tool.ToolMetadata;
+import com.codingagent.service.tool.ToolRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.ai.chat.messages.AssistantMessage;
+import org.springframework.ai.chat.model.ChatModel;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.ai.chat.model.Generation;
+import org.springframework.ai.chat.prompt.Prompt;
+import reactor.core.publisher.Flux;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class StreamingToolBasedAgentMetadataTest {
+
+    private final ToolExecutor toolExecutor = new ToolExecutor(new ToolExecutionProperties());
+
+    @AfterEach
+    void tearDown() {
+        toolExecutor.shutdown();
+    }
+
+    @Test
+    void hidesContentParametersAndEndsOnTerminalTool() {
+        ChatModel chatModel = mock(ChatModel.class);
+        when(chatModel.stream(any(Prompt.class))).thenAnswer(invocation -> Flux.just(new ChatResponse(List.of(
+                new Generation(new AssistantMessage("""
+                        TOOL: store {"files": [{"path": "a.txt", "content": "secret one"}, {"path": "b.txt", "content": "secret two"}]}
+                        TOOL: done {"summary": "stored"}
+                        """))))));
+        CodeAgent agent = new CodeAgent(new ModelRouter(Map.of("chatModel", chatModel), new ModelRoutingProperties()),
+                new ToolRegistry(List.of(
+                        tool("store", ToolMetadata.builder().contentParameters("content").build()),
+                        tool("done", ToolMetadata.builder().terminal(true).build()))),
+                toolExecutor, new ConversationHistoryFactory(new HistoryProperties()), new AgentBudgetProperties(),
+                new AgentProperties());
+
+        List<StreamEvent> events = agent.executeStream("Store files", null, (String) null)
+                .collectList().block(Duration.ofSeconds(5));
+
+        StreamEvent storeCall = events.stream()
+                .filter(event -> event.getType() == StreamEvent.EventType.TOOL_CALL && "store".equals(event.getToolName()))
+                .findFirst().orElseThrow();
+        assertThat(storeCall.getToolParameters()).contains("\"path\": \"a.txt\"", "\"path\": \"b.txt\"")
+                .doesNotContain("secret");
+        assertThat(events).extracting(StreamEvent::getType).endsWith(StreamEvent.EventType.TASK_COMPLETE);
+    }
+
+    private static Tool tool(String name, ToolMetadata metadata) {
+        return new Tool() {
+            @Override
+            public String getName() {
+                return name;
+            }
+
+            @Override
+            public String getDescription() {
+                return name;
+            }
+
+            @Override
+            public String execute(String parameters) {
+                return "ok";
+            }
+
+            @Override
+            public ToolMetadata getMetadata() {
+                return metadata;
+            }
+        };
+    }
+}
@@ -0,0 +1,33 @@
+package com.codingagent.service.agent;
+
+import com.codingagent.config.AgentBudgetProperties;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ToolParameterPathsTest {
+
+    @Test
+    void collectsPathsOfEveryFileToolShape() {
+        assertThat(ToolParameterPaths.of("{\"path\": \"src/App.java\"}")).containsExactly("src/App.java");
+        assertThat(ToolParameterPaths.of("{\"files\": [\"a.txt\", {\"path\": \"b.txt\", \"startLine\": 2}]}"))
+                .containsExactly("a.txt", "b.txt");
+        assertThat(ToolParameterPaths.of("{\"files\": [{\"path\": \"c.txt\", \"content\": \"x\"}]}"))
+                .containsExactly("c.txt");
+        assertThat(ToolParameterPaths.of("[\"d.txt\"]")).containsExactly("d.txt");
+        assertThat(ToolParameterPaths.of("{\"thought\": [\"not a path\"]}")).isEmpty();
+        assertThat(ToolParameterPaths.of("not json")).isEmpty();
+    }
+
+    @Test
+    void readFilesOverNewFilesCountsAsProgress() {
+        AgentBudgetProperties properties = new AgentBudgetProperties();
+        properties.setMaxIterationsWithoutProgress(1);
+        RunBudget budget = new RunBudget(properties, properties.getDefaults());
+
+        budget.recordToolCall("read_files", "{\"files\": [\"a.txt\", \"b.txt\"]}");
+        assertThat(budget.endIteration()).isNull();
+        budget.recordToolCall("read_files", "{\"files\": [\"c.txt\"]}");
+        assertThat(budget.endIteration()).isNull();
+    }
+}
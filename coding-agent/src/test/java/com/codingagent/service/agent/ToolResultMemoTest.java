@@ -0,0 +1,125 @@
+package com.codingagent.service.agent;
+
+import com.codingagent.service.workspace.FileVersions;
+import com.codingagent.service.workspace.WorkspacePathResolver;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.attribute.FileTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ToolResultMemoTest {
+
+    @TempDir
+    Path root;
+
+    private final ToolResultMemo memo = new ToolResultMemo();
+    private final FileVersions versions = new FileVersions();
+
+    @Test
+    void repeatedCallWithEquivalentParametersIsReferenced() throws IOException {
+        Files.writeString(root.resolve("App.java"), "class App {}\n");
+        ToolResultMemo.Lookup first = memo.lookup("read_file", "{\"path\": \"App.java\", \"startLine\": 1}",
+                resolver(), versions);
+        read("App.java");
+        memo.remember(first, 2, "class App {}");
+
+        ToolResultMemo.Lookup repeat = memo.lookup("read_file", "{ \"startLine\":1,\"path\":\"App.java\" }",
+                resolver(), versions);
+
+        assertThat(repeat.isHit()).isTrue();
+        assertThat(repeat.reference()).startsWith("Unchanged since iteration 2");
+    }
+
+    @Test
+    void changedTargetOrWriteForcesFreshCall() throws IOException {
+        Path file = Files.writeString(root.resolve("App.java"), "class App {}\n");
+        String parameters = "{\"path\": \"App.java\"}";
+        rememberRead(parameters, 1, "class App {}");
+
+        Files.writeString(file, "class App { int changed; }\n");
+        Files.setLastModifiedTime(file, FileTime.fromMillis(Files.getLastModifiedTime(file).toMillis() + 5_000));
+        assertThat(memo.lookup("read_file", parameters, resolver(), versions).isHit()).isFalse();
+
+        rememberRead(parameters, 3, "class App { int changed; }");
+        assertThat(memo.lookup("read_file", parameters, resolver(), versions).isHit()).isTrue();
+        memo.invalidate();
+        assertThat(memo.lookup("read_file", parameters, resolver(), versions).isHit()).isFalse();
+    }
+
+    @Test
+    void errorsAreNotRemembered() {
+        String parameters = "{\"path\": \"Missing.java\"}";
+        memo.remember(memo.lookup("read_file", parameters, resolver(), versions), 1, "Error: File not found");
+
+        assertThat(memo.lookup("read_file", parameters, resolver(), versions).isHit()).isFalse();
+    }
+
+    @Test
+    void globsAndDirectoriesAreNotRemembered() throws IOException {
+        Files.createDirectories(root.resolve("src/main/resources"));
+        Files.writeString(root.resolve("src/main/resources/app.yml"), "a: 1\n");
+        String glob = "{\"files\": [\"src/**/*.yml\"]}";
+        String directory = "{\"path\": \"src\"}";
+        memo.remember(memo.lookup("read_files", glob, resolver(), versions), 1, "a: 1");
+        memo.remember(memo.lookup("list_files", directory, resolver(), versions), 1, "main/");
+
+        // A change two levels below the listed directory leaves its modification time alone
+        Files.writeString(root.resolve("src/main/resources/app.yml"), "a: 2\n");
+
+        assertThat(memo.lookup("read_files", glob, resolver(), versions).isHit()).isFalse();
+        assertThat(memo.lookup("list_files", directory, resolver(), versions).isHit()).isFalse();
+    }
+
+    @Test
+    void filesTheSessionHasNotReadAreNotRemembered() throws IOException {
+        Files.writeString(root.resolve("App.java"), "class App {}\n");
+        String parameters = "{\"path\": \"App.java\"}";
+        memo.remember(memo.lookup("file_outline", parameters, resolver(), versions), 1, "class App");
+
+        assertThat(memo.lookup("file_outline", parameters, resolver(), versions).isHit()).isFalse();
+    }
+
+    @Test
+    void comparesTheVersionRecordedByTheLastRead() throws IOException {
+        Path file = Files.writeString(root.resolve("App.java"), "class A {}\n");
+        String parameters = "{\"path\": \"App.java\"}";
+        rememberRead(parameters, 1, "class A {}");
+
+        // A read under the lock saw other content, although size and time are as they were
+        versions.record(file, "class B {}\n".getBytes(StandardCharsets.UTF_8));
+
+        assertThat(memo.lookup("read_file", parameters, resolver(), versions).isHit()).isFalse();
+    }
+
+    @Test
+    void pathsOutsideTheWorkspaceAreNotRemembered() {
+        String parameters = "{\"path\": \"../outside.txt\"}";
+        memo.remember(memo.lookup("read_file", parameters, resolver(), versions), 1, "secret");
+
+        assertThat(memo.lookup("read_file", parameters, resolver(), versions).isHit()).isFalse();
+    }
+
+    /**
+     * Looks up, runs and remembers a read_file call, recording the version read as the tool does.
+     */
+    private void rememberRead(String parameters, int iteration, String result) throws IOException {
+        ToolResultMemo.Lookup lookup = memo.lookup("read_file", parameters, resolver(), versions);
+        read("App.java");
+        memo.remember(lookup, iteration, result);
+    }
+
+    private void read(String path) throws IOException {
+        Path file = root.resolve(path);
+        versions.record(file, Files.readAllBytes(file));
+    }
+
+    private WorkspacePathResolver resolver() {
+        return new WorkspacePathResolver(root.toString());
+    }
+}
@@ -0,0 +1,88 @@
+package com.codingagent.service.context;
+
+import com.codingagent.config.DirectoryContextCacheProperties;
+import com.codingagent.config.FileSystemProperties;
+import com.codingagent.config.WorkspaceFilterProperties;
+import com.codingagent.service.FileSystemService;
+import com.codingagent.service.workspace.WorkspaceFilterService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DirectoryContextCacheTest {
+
+    @TempDir
+    Path root;
+
+    private SimpleMeterRegistry meterRegistry;
+    private DirectoryContextCacheProperties cacheProperties;
+    private FileSystemService fileSystemService;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        cacheProperties = new DirectoryContextCacheProperties();
+        fileSystemService = new FileSystemService(new FileSystemProperties(),
+                new WorkspaceFilterService(new WorkspaceFilterProperties()),
+                new DirectoryContextCache(cacheProperties, meterRegistry));
+    }
+
+    @Test
+    void servesUnchangedTreeFromCache() throws IOException {
+        write("src/App.java", "class App {}\n");
+        write("README.md", "# readme\n");
+
+        String first = fileSystemService.buildDirectoryContext(root.toString());
+        String second = fileSystemService.buildDirectoryContext(root.toString());
+
+        assertThat(second).isEqualTo(first).contains("--- File: src/App.java ---");
+        assertThat(requests("miss")).isEqualTo(1);
+        assertThat(requests("hit")).isEqualTo(1);
+        assertThat(meterRegistry.get("directory.context.cache.hit.ratio").gauge().value()).isEqualTo(0.5);
+    }
+
+    @Test
+    void rebuildsOnlyWhatChanged() throws IOException {
+        write("src/App.java", "class App {}\n");
+        Path util = write("src/Util.java", "class Util {}\n");
+        fileSystemService.buildDirectoryContext(root.toString());
+
+        Files.writeString(util, "class Util { int changed; }\n");
+        Files.setLastModifiedTime(util, FileTime.fromMillis(Files.getLastModifiedTime(util).toMillis() + 5_000));
+        write("src/New.java", "class New {}\n");
+        String context = fileSystemService.buildDirectoryContext(root.toString());
+
+        assertThat(context).contains("int changed;").contains("├── New.java").contains("class New {}")
+                .contains("class App {}");
+        assertThat(requests("partial")).isEqualTo(1);
+    }
+
+    @Test
+    void evictsEntriesBeyondByteBudget() throws IOException {
+        write("App.java", "class App {}\n".repeat(100));
+        cacheProperties.setMaxBytes(100);
+
+        fileSystemService.buildDirectoryContext(root.toString());
+        fileSystemService.buildDirectoryContext(root.toString());
+
+        assertThat(requests("miss")).isEqualTo(2);
+    }
+
+    private double requests(String result) {
+        return meterRegistry.get("directory.context.requests").tag("result", result).counter().count();
+    }
+
+    private Path write(String relativePath, String content) throws IOException {
+        Path file = root.resolve(relativePath);
+        Files.createDirectories(file.getParent());
+        return Files.writeString(file, content);
+    }
+}
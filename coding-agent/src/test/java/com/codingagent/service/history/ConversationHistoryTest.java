@@ -0,0 +1,153 @@
+package com.codingagent.service.history;
+
+import com.codingagent.config.HistoryProperties;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.api.io.TempDir;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ConversationHistoryTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(ConversationHistoryTest.class);
+
+    @TempDir
+    Path spillDirectory;
+
+    @Test
+    void keepsMultiByteCharactersWholeAcrossSegments() throws IOException {
+        ConversationHistoryFactory factory = factory(HistoryProperties.Storage.OFF_HEAP, 16, 0);
+        String text = "Tool Result (read_file): héllo wörld → 日本語 😀 done\n";
+
+        try (ConversationHistory history = factory.create()) {
+            StringBuilder expected = new StringBuilder();
+            for (int i = 0; i < 20; i++) {
+                history.append(text).append(String.valueOf(i));
+                expected.append(text).append(i);
+            }
+
+            assertThat(history.toPromptText()).isEqualTo(expected.toString());
+            assertThat(history.utf8Length()).isEqualTo(expected.toString().getBytes(StandardCharsets.UTF_8).length);
+            for (ByteBuffer segment : history.segments()) {
+                byte[] bytes = new byte[segment.remaining()];
+                segment.get(bytes);
+                assertThat(new String(bytes, StandardCharsets.UTF_8)).doesNotContain("�");
+            }
+
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            history.writeTo(Channels.newChannel(out));
+            assertThat(out.toString(StandardCharsets.UTF_8)).isEqualTo(expected.toString());
+        }
+    }
+
+    @Test
+    void spillsToMappedFileAndDeletesItOnClose() throws IOException {
+        ConversationHistoryFactory factory = factory(HistoryProperties.Storage.HEAP, 1024, 4096);
+        String line = "Assistant: " + "x".repeat(200) + "\n";
+        StringBuilder expected = new StringBuilder();
+
+        ConversationHistory history = factory.create();
+        for (int i = 0; i < 100; i++) {
+            history.append(line);
+            expected.append(line);
+        }
+
+        assertThat(history.isSpilled()).isTrue();
+        assertThat(history.toPromptText()).isEqualTo(expected.toString());
+
+        history.close();
+        history.append("ignored after close");
+        try (var files = Files.list(spillDirectory)) {
+            assertThat(files.count()).isZero();
+        }
+        assertThat(factory.getPooledBytes()).isEqualTo(4096);
+    }
+
+    /**
+     * Heap allocated and retained by 100 concurrent sessions growing to about 2MB each, building one
+     * prompt per iteration, compared with the former StringBuilder history. Run with
+     * {@code mvn test -Dtest=ConversationHistoryTest -Dbenchmark=true}.
+     */
+    @Test
+    @EnabledIfSystemProperty(named = "benchmark", matches = "true")
+    void benchmarkHeapAllocationUnderLoad() {
+        int sessions = 100;
+        int iterations = 20;
+        String turn = "Tool Result (read_file): " + "int value = compute(42); // ünïcode\n".repeat(2800);
+
+        for (HistoryProperties.Storage storage : HistoryProperties.Storage.values()) {
+            ConversationHistoryFactory factory = factory(storage, 64 * 1024, 0);
+            List<ConversationHistory> histories = new ArrayList<>();
+            Measurement measurement = measure(() -> {
+                for (int i = 0; i < sessions; i++) {
+                    histories.add(factory.create());
+                }
+                for (int iteration = 0; iteration < iterations; iteration++) {
+                    for (ConversationHistory history : histories) {
+                        history.append(turn);
+                        assertThat(history.toPromptText()).isNotEmpty();
+                    }
+                }
+            });
+            logger.info("{} allocated={} MB retained={} MB", storage,
+                    measurement.allocatedMb, measurement.retainedMb);
+            histories.forEach(ConversationHistory::close);
+        }
+
+        List<StringBuilder> builders = new ArrayList<>();
+        Measurement measurement = measure(() -> {
+            for (int i = 0; i < sessions; i++) {
+                builders.add(new StringBuilder());
+            }
+            for (int iteration = 0; iteration < iterations; iteration++) {
+                for (StringBuilder builder : builders) {
+                    builder.append(turn);
+                    assertThat(builder.toString()).isNotEmpty();
+                }
+            }
+        });
+        logger.info("StringBuilder allocated={} MB retained={} MB",
+                measurement.allocatedMb, measurement.retainedMb);
+    }
+
+    private static Measurement measure(Runnable workload) {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        long threadId = Thread.currentThread().getId();
+
+        System.gc();
+        long heapBefore = memory.getHeapMemoryUsage().getUsed();
+        long allocatedBefore = threads.getThreadAllocatedBytes(threadId);
+        workload.run();
+        long allocated = threads.getThreadAllocatedBytes(threadId) - allocatedBefore;
+        System.gc();
+        long retained = memory.getHeapMemoryUsage().getUsed() - heapBefore;
+        return new Measurement(allocated >> 20, Math.max(0, retained) >> 20);
+    }
+
+    private record Measurement(long allocatedMb, long retainedMb) {
+    }
+
+    private ConversationHistoryFactory factory(HistoryProperties.Storage storage, int segmentSize, long spillThreshold) {
+        HistoryProperties properties = new HistoryProperties();
+        properties.setStorage(storage);
+        properties.setSegmentSize(segmentSize);
+        properties.setSpillThresholdBytes(spillThreshold);
+        properties.setSpillDirectory(spillDirectory.toString());
+        return new ConversationHistoryFactory(properties);
+    }
+}
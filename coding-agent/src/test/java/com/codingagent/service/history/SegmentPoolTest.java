@@ -0,0 +1,21 @@
+package com.codingagent.service.history;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SegmentPoolTest {
+
+    @Test
+    void poolsOnlySmallScratchBuffers() {
+        SegmentPool pool = new SegmentPool(1024, false, 0);
+
+        byte[] small = pool.borrowScratch(3000);
+        pool.returnScratch(small);
+        assertThat(pool.borrowScratch(100)).isSameAs(small);
+
+        byte[] large = pool.borrowScratch(64 * 1024);
+        pool.returnScratch(large);
+        assertThat(pool.borrowScratch(64 * 1024)).isNotSameAs(large);
+    }
+}
@@ -0,0 +1,140 @@
+package com.codingagent.service.index;
+
+import com.codingagent.config.CodeSearchProperties;
+import com.codingagent.config.FileSystemProperties;
+import com.codingagent.config.WorkspaceFilterProperties;
+import com.codingagent.service.workspace.FileWrittenEvent;
+import com.codingagent.service.workspace.WorkspaceFilterService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.api.io.TempDir;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CodeSearchServiceTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(CodeSearchServiceTest.class);
+
+    @TempDir
+    Path root;
+
+    private CodeSearchService codeSearchService;
+
+    @BeforeEach
+    void setUp() {
+        FileSystemProperties fileSystemProperties = new FileSystemProperties();
+        codeSearchService = new CodeSearchService(new WorkspaceFilterService(new WorkspaceFilterProperties()),
+                fileSystemProperties, new CodeSearchProperties());
+    }
+
+    @Test
+    void findsLiteralAndRegexMatchesWithLineNumbers() throws IOException {
+        write("src/Foo.java", "class Foo {\n    void handleRequest() {}\n}\n");
+        write("src/Bar.java", "class Bar {\n    void other() {}\n}\n");
+        write("target/Foo.java", "void handleRequest() {}\n");
+
+        CodeSearchResult literal = codeSearchService.search(root, "HANDLEREQUEST", false, false, "", 10);
+        assertThat(literal.getMatches()).hasSize(1);
+        assertThat(literal.getMatches().get(0).getPath()).isEqualTo(Path.of("src", "Foo.java").toString());
+        assertThat(literal.getMatches().get(0).getLine()).isEqualTo(2);
+        assertThat(literal.getCandidateFiles()).isEqualTo(1);
+
+        CodeSearchResult regex = codeSearchService.search(root, "class \\w+ \\{", true, true, "", 10);
+        assertThat(regex.getMatches()).extracting(CodeSearchResult.Match::getLine).containsExactly(1, 1);
+    }
+
+    @Test
+    void picksUpWrittenFilesIncrementally() throws IOException {
+        write("a.txt", "nothing here\n");
+        assertThat(codeSearchService.search(root, "needle", false, false, "", 10).getMatches()).isEmpty();
+
+        Path written = write("b.txt", "first\nthe needle\n");
+        codeSearchService.onFileWritten(new FileWrittenEvent(written));
+
+        CodeSearchResult result = codeSearchService.search(root, "needle", false, false, "", 10);
+        assertThat(result.getMatches()).extracting(CodeSearchResult.Match::getLine).containsExactly(2);
+    }
+
+    @Test
+    void stopsAtMaxResults() throws IOException {
+        write("many.txt", "hit\nhit\nhit\nhit\n");
+
+        CodeSearchResult result = codeSearchService.search(root, "hit", false, false, "", 2);
+        assertThat(result.getMatches()).hasSize(2);
+        assertThat(result.isTruncated()).isTrue();
+    }
+
+    /**
+     * Compares indexed search with a brute-force scan on a generated 100k-file tree. Run with
+     * {@code mvn test -Dtest=CodeSearchServiceTest -Dbenchmark=true}.
+     */
+    @Test
+    @EnabledIfSystemProperty(named = "benchmark", matches = "true")
+    void benchmarkAgainstBruteForceScan() throws IOException {
+        int fileCount = 100_000;
+        for (int i = 0; i < fileCount; i++) {
+            String body = "package pkg" + (i % 100) + ";\n\nclass Generated" + i + " {\n"
+                    + "    int value" + i + " = " + (i * 31) + ";\n}\n";
+            write("pkg" + (i % 100) + "/Generated" + i + ".java", body);
+        }
+
+        long buildStart = System.nanoTime();
+        codeSearchService.getIndex(root);
+        long buildMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - buildStart);
+
+        List<String> queries = List.of("Generated4242 ", "value99999", "class Generated1234[0-9] ");
+        for (String query : queries) {
+            boolean regex = query.contains("[");
+
+            long indexedStart = System.nanoTime();
+            CodeSearchResult indexed = codeSearchService.search(root, query, regex, true, "", 100);
+            long indexedMicros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - indexedStart);
+
+            long bruteStart = System.nanoTime();
+            int bruteMatches = bruteForceCount(Pattern.compile(regex ? query : Pattern.quote(query)));
+            long bruteMicros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - bruteStart);
+
+            logger.info("query={} indexed={} us ({} candidates) brute-force={} us matches={}",
+                    query, indexedMicros, indexed.getCandidateFiles(), bruteMicros, bruteMatches);
+            assertThat(indexed.getMatches()).hasSize(bruteMatches);
+            // The index narrows the scan to a handful of files instead of the whole tree
+            assertThat(indexed.getCandidateFiles()).isLessThan(fileCount / 100);
+        }
+        logger.info("index build: {} ms for {} files", buildMillis, fileCount);
+    }
+
+    private int bruteForceCount(Pattern pattern) throws IOException {
+        int[] count = {0};
+        try (Stream<Path> files = Files.walk(root)) {
+            files.filter(Files::isRegularFile).forEach(file -> {
+                try {
+                    for (String line : Files.readAllLines(file)) {
+                        if (pattern.matcher(line).find()) {
+                            count[0]++;
+                        }
+                    }
+                } catch (IOException e) {
+                    throw new IllegalStateException(e);
+                }
+            });
+        }
+        return count[0];
+    }
+
+    private Path write(String relativePath, String content) throws IOException {
+        Path file = root.resolve(relativePath);
+        Files.createDirectories(file.getParent());
+        return Files.writeString(file, content);
+    }
+}
@@ -0,0 +1,163 @@
+package com.codingagent.service.index;
+
+import com.codingagent.config.CodeSearchProperties;
+import com.codingagent.config.FileSystemProperties;
+import com.codingagent.config.WorkspaceFilterProperties;
+import com.codingagent.service.workspace.FileWrittenEvent;
+import com.codingagent.service.workspace.WorkspaceFilterService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.api.io.TempDir;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SymbolIndexServiceTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(SymbolIndexServiceTest.class);
+
+    @TempDir
+    Path root;
+
+    private SymbolIndexService symbolIndexService;
+
+    @BeforeEach
+    void setUp() {
+        FileSystemProperties fileSystemProperties = new FileSystemProperties();
+        symbolIndexService = new SymbolIndexService(new WorkspaceFilterService(new WorkspaceFilterProperties()),
+                fileSystemProperties, new CodeSearchProperties());
+    }
+
+    @Test
+    void outlinesJavaDeclarationsWithLineRanges() throws IOException {
+        Path file = write("src/Account.java", """
+                package demo;
+
+                @Entity
+                public class Account {
+                    private static final String PREFIX = "{";
+                    private final Runnable audit = () -> { log("}"); };
+
+                    public Account(String id) {
+                        this.id = id;
+                    }
+
+                    /** Returns the balance. */
+                    public long balance() {
+                        return 0;
+                    }
+
+                    enum Status { OPEN, CLOSED }
+                }
+                """);
+
+        List<SourceSymbol> symbols = symbolIndexService.outline(root, file);
+
+        assertThat(symbols).extracting(SourceSymbol::getQualifiedName).containsExactly(
+                "Account", "Account.PREFIX", "Account.audit", "Account.Account", "Account.balance",
+                "Account.Status", "Account.Status.OPEN", "Account.Status.CLOSED");
+        SourceSymbol type = symbols.get(0);
+        assertThat(type.getStartLine()).isEqualTo(3);
+        assertThat(type.getEndLine()).isEqualTo(18);
+        SourceSymbol balance = symbols.get(4);
+        assertThat(balance.getKind()).isEqualTo(SourceSymbol.Kind.METHOD);
+        assertThat(balance.getSignature()).isEqualTo("public long balance()");
+        assertThat(balance.getStartLine()).isEqualTo(13);
+        assertThat(balance.getEndLine()).isEqualTo(15);
+        assertThat(symbols.get(3).getKind()).isEqualTo(SourceSymbol.Kind.CONSTRUCTOR);
+    }
+
+    @Test
+    void outlinesKotlinDeclarations() throws IOException {
+        Path file = write("src/Repo.kt", """
+                data class User(val name: String)
+
+                class Repo {
+                    val cache = mutableMapOf<String, User>()
+
+                    fun find(id: String): User? {
+                        return cache["${id}"]
+                    }
+
+                    fun size() = cache.size
+                }
+                """);
+
+        List<SourceSymbol> symbols = symbolIndexService.outline(root, file);
+
+        assertThat(symbols).extracting(SourceSymbol::getQualifiedName)
+                .containsExactly("User", "Repo", "Repo.cache", "Repo.find", "Repo.size");
+        assertThat(symbols.get(3).getStartLine()).isEqualTo(6);
+        assertThat(symbols.get(3).getEndLine()).isEqualTo(8);
+    }
+
+    @Test
+    void findsSymbolsAndPicksUpWrites() throws IOException {
+        write("a/Orders.java", "class Orders {\n    void save() {}\n    void saveAll() {}\n}\n");
+        write("b/Users.java", "class Users {\n    void save() {}\n}\n");
+
+        List<SymbolMatch> matches = symbolIndexService.findSymbols(root, "Users.save", null, 10);
+        assertThat(matches).hasSize(1);
+        assertThat(matches.get(0).getPath()).isEqualTo(Path.of("b", "Users.java").toString());
+
+        List<SymbolMatch> ranked = symbolIndexService.findSymbols(root, "save", SourceSymbol.Kind.METHOD, 10);
+        assertThat(ranked).extracting(match -> match.getSymbol().getQualifiedName())
+                .containsExactly("Orders.save", "Users.save", "Orders.saveAll");
+
+        Path written = write("b/Users.java", "class Users {\n    void persist() {}\n}\n");
+        symbolIndexService.onFileWritten(new FileWrittenEvent(written));
+        assertThat(symbolIndexService.findSymbols(root, "Users.save", null, 10)).isEmpty();
+        assertThat(symbolIndexService.findSymbols(root, "persist", null, 10)).hasSize(1);
+    }
+
+    /**
+     * Reports build time and memory for a generated 20k-file codebase. Run with
+     * {@code mvn test -Dtest=SymbolIndexServiceTest -Dbenchmark=true}.
+     */
+    @Test
+    @EnabledIfSystemProperty(named = "benchmark", matches = "true")
+    void benchmarkLargeCodebase() throws IOException {
+        int fileCount = 20_000;
+        for (int i = 0; i < fileCount; i++) {
+            StringBuilder source = new StringBuilder("package pkg").append(i % 200).append(";\n\n")
+                    .append("public class Service").append(i).append(" {\n");
+            for (int m = 0; m < 10; m++) {
+                source.append("    private int field").append(m).append(" = ").append(m).append(";\n")
+                        .append("    public int method").append(m).append("(int value) {\n")
+                        .append("        return value + field").append(m).append(";\n    }\n");
+            }
+            write("pkg" + (i % 200) + "/Service" + i + ".java", source.append("}\n").toString());
+        }
+
+        Runtime runtime = Runtime.getRuntime();
+        System.gc();
+        long heapBefore = runtime.totalMemory() - runtime.freeMemory();
+        SymbolIndexStats cold = symbolIndexService.refresh(root);
+        System.gc();
+        long heapAfter = runtime.totalMemory() - runtime.freeMemory();
+
+        long lookupStart = System.nanoTime();
+        List<SymbolMatch> matches = symbolIndexService.findSymbols(root, "Service12345.method7", null, 10);
+        long lookupMicros = (System.nanoTime() - lookupStart) / 1000;
+
+        logger.info("cold build: {} files, {} symbols in {} ms, estimated {} KB, heap delta {} KB",
+                cold.getFiles(), cold.getSymbols(), cold.getBuildMillis(), cold.getEstimatedBytes() / 1024,
+                (heapAfter - heapBefore) / 1024);
+        logger.info("qualified lookup: {} us", lookupMicros);
+        assertThat(cold.getSymbols()).isEqualTo(fileCount * 21);
+        assertThat(matches).hasSize(1);
+    }
+
+    private Path write(String relativePath, String content) throws IOException {
+        Path file = root.resolve(relativePath);
+        Files.createDirectories(file.getParent());
+        return Files.writeString(file, content);
+    }
+}
@@ -0,0 +1,94 @@
+package com.codingagent.service.job;
+
+import com.codingagent.config.AgentProperties;
+import com.codingagent.config.JobProperties;
+import com.codingagent.exception.JobQueueFullException;
+import com.codingagent.model.AgentRequest;
+import com.codingagent.model.JobResponse;
+import com.codingagent.model.JobStatus;
+import com.codingagent.model.StreamEvent;
+import com.codingagent.service.OrchestratorService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class JobServiceTest {
+
+    private OrchestratorService orchestratorService;
+    private JobService jobService;
+    private AtomicBoolean slowRunCancelled;
+
+    @BeforeEach
+    void setUp() {
+        orchestratorService = mock(OrchestratorService.class);
+        slowRunCancelled = new AtomicBoolean(false);
+        when(orchestratorService.processRequestStream(eq("slow"), any(), any())).thenReturn(
+                Flux.concat(Flux.just(sessionStart("s1")), Flux.<StreamEvent>never())
+                        .doOnCancel(() -> slowRunCancelled.set(true)));
+        when(orchestratorService.processRequestStream(eq("fast"), any(), any())).thenReturn(Flux.just(
+                sessionStart("s2"),
+                StreamEvent.builder()
+                        .type(StreamEvent.EventType.TASK_COMPLETE)
+                        .complete(true)
+                        .message("Task completed successfully: done")
+                        .filesWritten(List.of("src/A.java", "src/B.java"))
+                        .build()));
+
+        JobProperties properties = new JobProperties();
+        properties.setMaxConcurrentJobs(1);
+        properties.setMaxQueuedJobs(1);
+        jobService = new JobService(orchestratorService, new AgentProperties(), properties);
+    }
+
+    @AfterEach
+    void tearDown() {
+        jobService.shutdown();
+    }
+
+    @Test
+    void queuedJobStartsWhenRunningJobIsCancelledAndReportsItsSummary() throws Exception {
+        Job slow = jobService.submit(new AgentRequest("slow", null, null));
+        Job fast = jobService.submit(new AgentRequest("fast", null, null));
+        assertThat(fast.getStatus()).isEqualTo(JobStatus.QUEUED);
+
+        assertThat(jobService.cancel(slow.getId())).isTrue();
+        JobResponse response = fast.getCompletion().get(5, TimeUnit.SECONDS);
+
+        assertThat(slow.getStatus()).isEqualTo(JobStatus.CANCELLED);
+        assertThat(slowRunCancelled).isTrue();
+        assertThat(response.getStatus()).isEqualTo(JobStatus.SUCCEEDED);
+        assertThat(response.getSessionId()).isEqualTo("s2");
+        assertThat(response.getResponse().getAgentType()).isEqualTo("CODE");
+        assertThat(response.getResponse().getFilesWritten()).containsExactly("src/A.java", "src/B.java");
+        assertThat(response.getResponse().getFileCount()).isEqualTo(2);
+    }
+
+    @Test
+    void rejectsJobsBeyondQueueLimit() {
+        jobService.submit(new AgentRequest("slow", null, null));
+        jobService.submit(new AgentRequest("slow", null, null));
+
+        assertThatThrownBy(() -> jobService.submit(new AgentRequest("slow", null, null)))
+                .isInstanceOf(JobQueueFullException.class);
+    }
+
+    private static StreamEvent sessionStart(String sessionId) {
+        return StreamEvent.builder()
+                .type(StreamEvent.EventType.SESSION_START)
+                .sessionId(sessionId)
+                .agentType("CODE")
+                .build();
+    }
+}
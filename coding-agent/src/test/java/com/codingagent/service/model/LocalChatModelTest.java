@@ -0,0 +1,123 @@
+package com.codingagent.service.model;
+
+import com.codingagent.config.AgentBudgetProperties;
+import com.codingagent.config.AgentProperties;
+import com.codingagent.config.HistoryProperties;
+import com.codingagent.config.LocalModelProperties;
+import com.codingagent.config.ModelRoutingProperties;
+import com.codingagent.config.ToolExecutionProperties;
+import com.codingagent.model.StreamEvent;
+import com.codingagent.service.agent.AgentSession;
+import com.codingagent.service.agent.CodeAgent;
+import com.codingagent.service.history.ConversationHistoryFactory;
+import com.codingagent.service.tool.FinishTaskTool;
+import com.codingagent.service.tool.LogThoughtTool;
+import com.codingagent.service.tool.ToolExecutor;
+import com.codingagent.service.tool.ToolRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.ai.chat.prompt.Prompt;
+import reactor.core.publisher.Flux;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LocalChatModelTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(LocalChatModelTest.class);
+
+    private LocalModelProperties properties;
+    private LocalChatModel model;
+    private ToolExecutor toolExecutor;
+
+    @BeforeEach
+    void setUp() {
+        properties = new LocalModelProperties();
+        properties.setFirstTokenLatencyMillis(0);
+        properties.setTokensPerSecond(0);
+        properties.setScript(List.of("TOOL: log_thought {\"thought\": \"Planning the change\"}"));
+        model = new LocalChatModel(properties);
+        toolExecutor = new ToolExecutor(new ToolExecutionProperties());
+    }
+
+    @AfterEach
+    void tearDown() {
+        toolExecutor.shutdown();
+    }
+
+    @Test
+    void classifiesFromRequestKeywords() {
+        assertThat(model.respond("You are a task classifier.\nUser request: Fix the login crash\n"))
+                .isEqualTo("BUGFIX");
+        assertThat(model.respond("""
+                You are a task classifier.
+                User requests:
+                1. Review the service layer
+                2. Add a REST endpoint
+                """)).isEqualTo("1: ANALYZE\n2: CODE");
+    }
+
+    @Test
+    void streamsScriptInChunksThenFinishes() {
+        properties.setChunkTokens(2);
+        String firstTurn = "System\n\nUser Request: Add a test\n\n";
+
+        List<String> chunks = model.stream(new Prompt(firstTurn))
+                .map(response -> response.getResult().getOutput().getContent())
+                .collectList().block(Duration.ofSeconds(5));
+
+        assertThat(chunks).allMatch(chunk -> chunk.length() <= 8);
+        assertThat(String.join("", chunks)).isEqualTo(properties.getScript().get(0));
+        assertThat(model.respond(firstTurn + "Assistant: " + properties.getScript().get(0) + "\n\n"))
+                .contains("TOOL: finish_task {\"summary\": \"Handled request: Add a test\"}");
+    }
+
+    @Test
+    void drivesAgentRunToCompletion() {
+        List<StreamEvent> events = agent().executeStream("Add a test", null, AgentSession.untraced(null))
+                .collectList().block(Duration.ofSeconds(10));
+
+        assertThat(events).extracting(StreamEvent::getType).endsWith(StreamEvent.EventType.TASK_COMPLETE);
+    }
+
+    /**
+     * Runs many concurrent agent sessions against the paced local model, to measure the overhead
+     * of the orchestration itself. Run with
+     * {@code mvn test -Dtest=LocalChatModelTest -Dbenchmark=true}.
+     */
+    @Test
+    @EnabledIfSystemProperty(named = "benchmark", matches = "true")
+    void benchmarkConcurrentSessions() {
+        properties.setFirstTokenLatencyMillis(300);
+        properties.setTokensPerSecond(200);
+        CodeAgent agent = agent();
+        int sessions = 2_000;
+
+        long start = System.nanoTime();
+        List<StreamEvent> finished = Flux.range(0, sessions)
+                .flatMap(i -> agent.executeStream("Add test " + i, null, AgentSession.untraced(null)).last(),
+                        sessions)
+                .collectList().block(Duration.ofMinutes(5));
+        long millis = (System.nanoTime() - start) / 1_000_000;
+
+        assertThat(finished).hasSize(sessions)
+                .allMatch(event -> event.getType() == StreamEvent.EventType.TASK_COMPLETE);
+        // Sessions wait on the model concurrently rather than one after another
+        assertThat(millis).isLessThan(sessions * properties.getFirstTokenLatencyMillis() / 10);
+        logger.info("{} sessions in {} ms ({} sessions/s)", sessions, millis, sessions * 1000L / Math.max(1, millis));
+    }
+
+    private CodeAgent agent() {
+        return new CodeAgent(new ModelRouter(Map.of("localChatModel", model), new ModelRoutingProperties()),
+                new ToolRegistry(List.of(new LogThoughtTool(), new FinishTaskTool())),
+                toolExecutor, new ConversationHistoryFactory(new HistoryProperties()), new AgentBudgetProperties(),
+                new AgentProperties());
+    }
+}
@@ -0,0 +1,85 @@
+package com.codingagent.service.model;
+
+import com.codingagent.config.ModelRoutingProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.ai.chat.model.ChatModel;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+
+class ModelRouterTest {
+
+    private final ChatModel chatModel = mock(ChatModel.class);
+    private final ChatModel localModel = mock(ChatModel.class);
+    private ModelRoutingProperties properties;
+
+    @BeforeEach
+    void setUp() {
+        properties = new ModelRoutingProperties();
+        properties.setDefaultChatModel("chatModel");
+        properties.getProfiles().put("fast", profile("mistral-small-latest", null, "large"));
+        properties.getProfiles().put("large", profile("mistral-large-latest", null, null));
+        properties.getProfiles().put("local", profile(null, "localModel", null));
+        properties.getRoutes().put("classification", "fast");
+        properties.getRoutes().put("code", "fast");
+        properties.getRoutes().put("collaboration-refine", "local");
+    }
+
+    @Test
+    void routesPhaseBeforeAgentTypeAndFallsBackToChatModelDefaults() {
+        ModelRouter router = router();
+
+        assertThat(router.route("collaboration-refine", "code").chatModel()).isSameAs(localModel);
+        assertThat(router.route(null, "code").profile()).isEqualTo("fast");
+        assertThat(router.route("classification").options().getModel()).isEqualTo("mistral-small-latest");
+
+        ModelRoute unrouted = router.route("analyze");
+        assertThat(unrouted.chatModel()).isSameAs(chatModel);
+        assertThat(unrouted.options()).isNull();
+    }
+
+    @Test
+    void escalatesOnlyProfilesThatNameATarget() {
+        ModelRouter router = router();
+
+        assertThat(router.escalate(router.route("code")).profile()).isEqualTo("large");
+        assertThat(router.escalate(router.route("collaboration-refine"))).isNull();
+
+        properties.setEscalateOnStall(false);
+        assertThat(router().escalate(router.route("code"))).isNull();
+    }
+
+    @Test
+    void rejectsRoutesToUnknownProfiles() {
+        properties.getRoutes().put("bugfix", "huge");
+
+        assertThatThrownBy(this::router)
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("'huge'");
+    }
+
+    @Test
+    void requiresDefaultChatModelWhenSeveralAreRegistered() {
+        properties.setDefaultChatModel(null);
+
+        assertThatThrownBy(this::router)
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("model-routing.default-chat-model");
+    }
+
+    private ModelRouter router() {
+        return new ModelRouter(Map.of("chatModel", chatModel, "localModel", localModel), properties);
+    }
+
+    private static ModelRoutingProperties.Profile profile(String model, String chatModel, String escalateTo) {
+        ModelRoutingProperties.Profile profile = new ModelRoutingProperties.Profile();
+        profile.setModel(model);
+        profile.setChatModel(chatModel);
+        profile.setEscalateTo(escalateTo);
+        return profile;
+    }
+}
@@ -0,0 +1,66 @@
+package com.codingagent.service.stream;
+
+import com.codingagent.model.StreamEvent;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class StreamEventEncoderTest {
+
+    private final StreamEventEncoder encoder = new StreamEventEncoder();
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void encodesSseFrameWithoutNullFields() throws Exception {
+        StreamEvent event = StreamEvent.builder()
+                .type(StreamEvent.EventType.TOOL_RESULT)
+                .toolName("read_file")
+                .toolResult("line 1\nline 2 \"quoted\" ünïcode")
+                .iteration(3)
+                .complete(false)
+                .build();
+
+        String frame = new String(encoder.encodeSse(event), StandardCharsets.UTF_8);
+
+        assertThat(frame).startsWith("data:").endsWith("\n\n");
+        String json = frame.substring("data:".length(), frame.length() - 2);
+        assertThat(json).doesNotContain("\n").doesNotContain("null");
+        assertThat(objectMapper.readValue(json, StreamEvent.class)).isEqualTo(event);
+    }
+
+    @Test
+    void smileFramesDecodeAfterStreamHeader() throws Exception {
+        ObjectMapper smileMapper = new ObjectMapper(new SmileFactory());
+        StreamEvent first = StreamEvent.builder()
+                .type(StreamEvent.EventType.SESSION_START)
+                .sessionId("session-1")
+                .message("Processing request")
+                .build();
+        StreamEvent second = StreamEvent.builder()
+                .type(StreamEvent.EventType.TOOL_CALL)
+                .toolName("list_directory")
+                .toolParameters("{\"path\": \".\"}")
+                .message("Processing request")
+                .build();
+
+        for (StreamEvent event : new StreamEvent[]{first, second}) {
+            byte[] frame = encoder.encodeSmile(event);
+            assertThat(frame[frame.length - 1]).isEqualTo((byte) 0xFF);
+            assertThat(smileMapper.readValue(withHeader(frame), StreamEvent.class)).isEqualTo(event);
+        }
+        StreamEvent heartbeat = smileMapper.readValue(withHeader(encoder.smileHeartbeat()), StreamEvent.class);
+        assertThat(heartbeat.getType()).isNull();
+    }
+
+    private byte[] withHeader(byte[] frame) {
+        ByteArrayOutputStream stream = new ByteArrayOutputStream();
+        stream.writeBytes(encoder.smileHeader());
+        stream.writeBytes(frame);
+        return stream.toByteArray();
+    }
+}
@@ -0,0 +1,128 @@
+package com.codingagent.service.tool;
+
+import com.codingagent.config.WorkspaceFilterProperties;
+import com.codingagent.service.workspace.WorkspaceFilterService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ListFilesToolTest {
+
+    @TempDir
+    Path root;
+
+    private ListFilesTool tool;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        write("src/main/App.java");
+        write("src/main/Util.java");
+        write("src/main/app.yml");
+        write("src/test/AppTest.java");
+        write("README.md");
+        write("pom.xml");
+        write("target/Generated.java");
+        write("generated/Skipped.java");
+        write("node_modules/lib/index.js");
+        Files.writeString(root.resolve(".gitignore"), "generated/\n");
+        tool = new ListFilesTool(new WorkspaceFilterService(new WorkspaceFilterProperties()));
+        ToolExecutionContext.setBaseDirectory(root.toString());
+    }
+
+    @AfterEach
+    void tearDown() {
+        ToolExecutionContext.clear();
+    }
+
+    @Test
+    void continuesFromTheCursorRepeatingAncestorsAsHeaders() {
+        String first = tool.execute("{\"path\": \".\", \"depth\": 3, \"limit\": 4}");
+        String second = tool.execute("{\"path\": \".\", \"depth\": 3, \"limit\": 4, \"cursor\": \"4\"}");
+
+        assertThat(first).isEqualTo("""
+                Files in . (depth 3):
+                src/
+                  main/
+                    App.java
+                    Util.java
+                ... more entries; call again with "cursor": "4"
+                """);
+        assertThat(second).isEqualTo("""
+                Files in . (depth 3):
+                src/
+                  main/
+                    app.yml
+                  test/
+                    AppTest.java
+                README.md
+                ... more entries; call again with "cursor": "8"
+                """);
+    }
+
+    @Test
+    void lastPageHasNoCursorAndPagesPastTheEndSaySo() {
+        assertThat(tool.execute("{\"path\": \".\", \"depth\": 3, \"limit\": 4, \"cursor\": \"8\"}")).isEqualTo("""
+                Files in . (depth 3):
+                pom.xml
+                """);
+        assertThat(tool.execute("{\"path\": \".\", \"depth\": 3, \"limit\": 4, \"cursor\": \"10\"}")).isEqualTo("""
+                Files in . (depth 3):
+                (no more entries)
+                """);
+    }
+
+    @Test
+    void globFiltersFilesAndSkipsIgnoredDirectories() {
+        String result = tool.execute("{\"path\": \".\", \"depth\": 5, \"pattern\": \"**/*.java\"}");
+
+        assertThat(result).isEqualTo("""
+                Files in . (depth 5, pattern **/*.java):
+                src/
+                  main/
+                    App.java
+                    Util.java
+                  test/
+                    AppTest.java
+                """);
+    }
+
+    @Test
+    void listsTheWorkspaceRootWhenNoPathIsGiven() {
+        assertThat(tool.execute("{\"depth\": 1}")).isEqualTo("""
+                Files in . (depth 1):
+                src/
+                README.md
+                pom.xml
+                """);
+        assertThat(tool.execute("{\"pattern\": \"**/*.java\", \"depth\": 5}"))
+                .startsWith("Files in . (depth 5, pattern **/*.java):\nsrc/\n");
+    }
+
+    @Test
+    void pagesThroughGlobMatchesOfASubdirectory() {
+        String first = tool.execute("{\"path\": \"src\", \"depth\": 3, \"pattern\": \"*.java\", \"limit\": 2}");
+        String last = tool.execute("{\"path\": \"src\", \"depth\": 3, \"pattern\": \"*.java\", \"limit\": 2, \"cursor\": \"2\"}");
+
+        assertThat(first).startsWith("Files in src (depth 3, pattern *.java):\nmain/\n  App.java\n  Util.java\n")
+                .endsWith("call again with \"cursor\": \"2\"\n")
+                .doesNotContain(root.toString());
+        assertThat(last).isEqualTo("""
+                Files in src (depth 3, pattern *.java):
+                test/
+                  AppTest.java
+                """);
+    }
+
+    private void write(String path) throws IOException {
+        Path file = root.resolve(path);
+        Files.createDirectories(file.getParent());
+        Files.writeString(file, "x");
+    }
+}
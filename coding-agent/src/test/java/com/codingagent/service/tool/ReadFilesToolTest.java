@@ -0,0 +1,82 @@
+package com.codingagent.service.tool;
+
+import com.codingagent.config.PathLockProperties;
+import com.codingagent.config.ToolExecutionProperties;
+import com.codingagent.config.WorkspaceFilterProperties;
+import com.codingagent.service.workspace.PathLockManager;
+import com.codingagent.service.workspace.WorkspaceFilterService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ReadFilesToolTest {
+
+    @TempDir
+    Path root;
+
+    private ToolExecutor toolExecutor;
+    private ReadFilesTool tool;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        write("src/App.java", "line1\nline2\nline3\n");
+        write("src/util/Util.java", "class Util {}\n");
+        write("target/Generated.java", "class Generated {}\n");
+        toolExecutor = new ToolExecutor(new ToolExecutionProperties());
+        tool = new ReadFilesTool(new WorkspaceFilterService(new WorkspaceFilterProperties()),
+                new PathLockManager(new PathLockProperties()), toolExecutor);
+        ToolExecutionContext.setBaseDirectory(root.toString());
+    }
+
+    @AfterEach
+    void tearDown() {
+        ToolExecutionContext.clear();
+        toolExecutor.shutdown();
+    }
+
+    @Test
+    void readsGlobsAndLineRangesInRequestOrder() {
+        String result = tool.execute("""
+                {"files": ["**/*.java", {"path": "src/App.java", "startLine": 2, "endLine": 2}, "missing.txt"]}
+                """);
+
+        assertThat(result).contains("=== src/App.java ===\nline1\nline2\nline3\n")
+                .contains("=== src/util/Util.java ===\nclass Util {}\n")
+                .contains("=== src/App.java (lines 2-2) ===\nline2\n")
+                .contains("- missing.txt: File not found")
+                .doesNotContain("Generated");
+        assertThat(result.indexOf("src/App.java ===")).isLessThan(result.indexOf("src/util/Util.java ==="));
+    }
+
+    @Test
+    void staysWithinCombinedByteBudget() {
+        String result = tool.execute("{\"files\": [\"src/App.java\", \"src/util/Util.java\"], \"maxBytes\": 10}");
+
+        assertThat(result).contains("line1\nline")
+                .contains("[Truncated: byte budget of 10 reached]")
+                .contains("[Omitted, byte budget of 10 reached: src/util/Util.java]");
+    }
+
+    @Test
+    void returnsContentThatLooksLikeAnErrorAndReportsRealErrors() throws IOException {
+        write("logs/app.log", "Error: connection refused\n");
+
+        String result = tool.execute("{\"files\": [\"logs/app.log\", {\"path\": \"src/App.java\", \"startLine\": 9}]}");
+
+        assertThat(result).contains("=== logs/app.log ===\nError: connection refused\n")
+                .contains("- src/App.java: File has only 3 lines");
+    }
+
+    private void write(String relativePath, String content) throws IOException {
+        Path file = root.resolve(relativePath);
+        Files.createDirectories(file.getParent());
+        Files.writeString(file, content);
+    }
+}
@@ -0,0 +1,72 @@
+package com.codingagent.service.tool;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ToolCircuitBreakerTest {
+
+    private final ToolCircuitBreaker breaker = new ToolCircuitBreaker(3, Duration.ofMillis(50));
+
+    @Test
+    void opensAfterConsecutiveFailuresOnly() {
+        breaker.onFailure();
+        breaker.onFailure();
+        breaker.onSuccess();
+        breaker.onFailure();
+        breaker.onFailure();
+        assertThat(breaker.tryAcquire()).isTrue();
+
+        breaker.onFailure();
+
+        assertThat(breaker.tryAcquire()).isFalse();
+        assertThat(breaker.remainingOpenMillis()).isBetween(1L, 50L);
+        assertThat(breaker.isIdle()).isFalse();
+    }
+
+    @Test
+    void letsOneTrialThroughOnceOpenDurationHasPassedAndReopensWhenItFails() throws InterruptedException {
+        open();
+        Thread.sleep(60);
+
+        assertThat(breaker.tryAcquire()).isTrue();
+        assertThat(breaker.tryAcquire()).isFalse();
+
+        breaker.onFailure();
+
+        assertThat(breaker.tryAcquire()).isFalse();
+    }
+
+    @Test
+    void closesWhenTheTrialSucceeds() throws InterruptedException {
+        open();
+        Thread.sleep(60);
+        assertThat(breaker.tryAcquire()).isTrue();
+
+        breaker.onSuccess();
+
+        assertThat(breaker.tryAcquire()).isTrue();
+        assertThat(breaker.tryAcquire()).isTrue();
+        assertThat(breaker.isIdle()).isTrue();
+    }
+
+    @Test
+    void abandonedTrialLetsTheNextCallTry() throws InterruptedException {
+        open();
+        Thread.sleep(60);
+        assertThat(breaker.tryAcquire()).isTrue();
+
+        breaker.onAbandoned();
+
+        assertThat(breaker.tryAcquire()).isTrue();
+    }
+
+    private void open() {
+        for (int i = 0; i < 3; i++) {
+            breaker.onFailure();
+        }
+        assertThat(breaker.tryAcquire()).isFalse();
+    }
+}
@@ -0,0 +1,187 @@
+package com.codingagent.service.tool;
+
+import com.codingagent.config.ToolExecutionProperties;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ToolExecutorTest {
+
+    private static final Path WORKSPACE = Path.of("/workspace/a");
+    private static final Path OTHER_WORKSPACE = Path.of("/workspace/b");
+
+    private ToolExecutionProperties properties;
+    private ToolExecutor toolExecutor;
+
+    @BeforeEach
+    void setUp() {
+        properties = new ToolExecutionProperties();
+    }
+
+    @AfterEach
+    void tearDown() {
+        toolExecutor.shutdown();
+    }
+
+    @Test
+    void interruptsAndReportsToolsThatExceedTheirTimeout() throws InterruptedException {
+        toolExecutor = new ToolExecutor(properties);
+        CountDownLatch interrupted = new CountDownLatch(1);
+        Tool slow = tool("slow", ToolMetadata.builder().timeout(Duration.ofMillis(100)).build());
+
+        String result = toolExecutor.execute(slow, WORKSPACE, () -> {
+            try {
+                Thread.sleep(10_000);
+            } catch (InterruptedException e) {
+                interrupted.countDown();
+            }
+            return "finished";
+        }).block(Duration.ofSeconds(5));
+
+        assertThat(result).startsWith("Error [TIMEOUT]: tool 'slow' did not finish within 100 ms");
+        assertThat(interrupted.await(5, TimeUnit.SECONDS)).isTrue();
+    }
+
+    @Test
+    void rejectsCallsWhenTheBulkheadIsSaturatedWithoutOpeningTheCircuit() {
+        properties.setLightweightPoolSize(1);
+        properties.setLightweightQueueSize(1);
+        properties.setCircuitBreakerFailureThreshold(1);
+        toolExecutor = new ToolExecutor(properties);
+        Tool light = tool("light", ToolMetadata.builder()
+                .executionPool(ToolMetadata.ExecutionPool.LIGHTWEIGHT).build());
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch running = new CountDownLatch(1);
+
+        Mono<String> holding = toolExecutor.execute(light, WORKSPACE, () -> {
+            running.countDown();
+            release.await();
+            return "held";
+        });
+        Mono<String> queued = toolExecutor.execute(light, WORKSPACE, () -> "queued");
+        CompletableFuture<String> first = holding.toFuture();
+        try {
+            assertThat(awaitQuietly(running)).isTrue();
+            CompletableFuture<String> second = queued.toFuture();
+
+            String rejected = toolExecutor.execute(light, WORKSPACE, () -> "rejected").block(Duration.ofSeconds(5));
+
+            assertThat(rejected).startsWith("Error [REJECTED]: too many concurrent 'light' calls");
+            release.countDown();
+            assertThat(first.join()).isEqualTo("held");
+            assertThat(second.join()).isEqualTo("queued");
+            assertThat(toolExecutor.execute(light, WORKSPACE, () -> "ran").block(Duration.ofSeconds(5)))
+                    .isEqualTo("ran");
+        } finally {
+            release.countDown();
+        }
+    }
+
+    @Test
+    void opensTheCircuitPerToolAndWorkspace() {
+        properties.setCircuitBreakerFailureThreshold(2);
+        toolExecutor = new ToolExecutor(properties);
+        Tool flaky = tool("flaky", ToolMetadata.defaults());
+        AtomicInteger calls = new AtomicInteger();
+
+        for (int i = 0; i < 2; i++) {
+            assertThat(toolExecutor.execute(flaky, WORKSPACE, () -> {
+                calls.incrementAndGet();
+                throw new IllegalStateException("permission denied");
+            }).block(Duration.ofSeconds(5))).isEqualTo("Error [FAILED]: permission denied");
+        }
+
+        assertThat(toolExecutor.execute(flaky, WORKSPACE, () -> "ran").block(Duration.ofSeconds(5)))
+                .startsWith("Error [CIRCUIT_OPEN]: tool 'flaky' is temporarily disabled");
+        assertThat(calls).hasValue(2);
+        assertThat(toolExecutor.execute(flaky, OTHER_WORKSPACE, () -> "ran").block(Duration.ofSeconds(5)))
+                .isEqualTo("ran");
+    }
+
+    @Test
+    void countsReturnedErrorResultsAsFailures() {
+        properties.setCircuitBreakerFailureThreshold(2);
+        toolExecutor = new ToolExecutor(properties);
+        Tool missing = tool("missing", ToolMetadata.defaults());
+
+        for (int i = 0; i < 2; i++) {
+            assertThat(toolExecutor.execute(missing, WORKSPACE, () -> "Error: File not found: A.java")
+                    .block(Duration.ofSeconds(5))).isEqualTo("Error: File not found: A.java");
+        }
+
+        assertThat(toolExecutor.execute(missing, WORKSPACE, () -> "ran").block(Duration.ofSeconds(5)))
+                .startsWith("Error [CIRCUIT_OPEN]: tool 'missing' is temporarily disabled");
+    }
+
+    @Test
+    void fansOutItemsFromAToolHoldingTheOnlyPoolThread() {
+        properties.setFilesystemPoolSize(1);
+        properties.setFilesystemQueueSize(1);
+        toolExecutor = new ToolExecutor(properties);
+        List<Integer> items = IntStream.range(0, 20).boxed().toList();
+
+        String result = toolExecutor.execute(tool("fan_out", ToolMetadata.defaults()), WORKSPACE, () -> {
+            List<CompletableFuture<Integer>> squares = toolExecutor.forEachParallel(items, 4, item -> {
+                if (item == 7) {
+                    throw new IllegalStateException("unlucky");
+                }
+                return item * item;
+            });
+            assertThat(squares).allMatch(CompletableFuture::isDone);
+            assertThatThrownBy(() -> squares.get(7).join())
+                    .isInstanceOf(CompletionException.class)
+                    .hasRootCauseMessage("unlucky");
+            return "sum " + squares.stream().filter(square -> !square.isCompletedExceptionally())
+                    .mapToInt(CompletableFuture::join).sum();
+        }).block(Duration.ofSeconds(5));
+
+        assertThat(result).isEqualTo("sum " + (IntStream.range(0, 20).map(i -> i * i).sum() - 49));
+    }
+
+    private static boolean awaitQuietly(CountDownLatch latch) {
+        try {
+            return latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private static Tool tool(String name, ToolMetadata metadata) {
+        return new Tool() {
+            @Override
+            public String getName() {
+                return name;
+            }
+
+            @Override
+            public String getDescription() {
+                return name;
+            }
+
+            @Override
+            public String execute(String parameters) {
+                return "";
+            }
+
+            @Override
+            public ToolMetadata getMetadata() {
+                return metadata;
+            }
+        };
+    }
+}
@@ -0,0 +1,193 @@
+package com.codingagent.service.tool;
+
+import com.codingagent.config.PathLockProperties;
+import com.codingagent.config.ToolExecutionProperties;
+import com.codingagent.service.workspace.FileVersions;
+import com.codingagent.service.workspace.FileWrittenEvent;
+import com.codingagent.service.workspace.PathLockManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.api.io.TempDir;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class WriteFilesToolTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(WriteFilesToolTest.class);
+
+    @TempDir
+    Path root;
+
+    private final List<Object> events = new ArrayList<>();
+    private ToolExecutor toolExecutor;
+    private WriteFilesTool tool;
+
+    @BeforeEach
+    void setUp() {
+        toolExecutor = new ToolExecutor(new ToolExecutionProperties());
+        tool = new WriteFilesTool(events::add, new PathLockManager(new PathLockProperties()), toolExecutor);
+        ToolExecutionContext.setBaseDirectory(root.toString());
+    }
+
+    @AfterEach
+    void tearDown() {
+        ToolExecutionContext.clear();
+        toolExecutor.shutdown();
+    }
+
+    @Test
+    void writesAllFilesAndReportsEachCompactly() throws IOException {
+        Files.createDirectories(root.resolve("src"));
+        Files.writeString(root.resolve("src/B.java"), "old");
+
+        String result = tool.execute("""
+                {"files": [
+                  {"path": "src/A.java", "content": "class A {}"},
+                  {"path": "src/B.java", "content": "class B {}"},
+                  {"path": "docs/deep/notes.md", "content": "# Notes"}
+                ]}
+                """);
+
+        assertThat(result).startsWith("Success: 3 files written\n")
+                .doesNotContain(root.toString())
+                .contains("+ src/A.java (10 bytes)")
+                .contains("~ src/B.java (10 bytes)")
+                .contains("+ docs/deep/notes.md (7 bytes)");
+        assertThat(Files.readString(root.resolve("src/B.java"))).isEqualTo("class B {}");
+        assertThat(events).hasSize(3).allMatch(event -> event instanceof FileWrittenEvent);
+        assertThat(stagingFiles()).isEmpty();
+    }
+
+    @Test
+    void writesNothingWhenOneFileCannotBeStaged() throws IOException {
+        Files.writeString(root.resolve("blocker"), "a file, not a directory");
+
+        String result = tool.execute("""
+                {"files": [
+                  {"path": "ok.txt", "content": "fine"},
+                  {"path": "blocker/inside.txt", "content": "cannot exist"}
+                ]}
+                """);
+
+        assertThat(result).startsWith("Error: Nothing written").contains("blocker/inside.txt");
+        assertThat(root.resolve("ok.txt")).doesNotExist();
+        assertThat(events).isEmpty();
+        assertThat(stagingFiles()).isEmpty();
+    }
+
+    @Test
+    void rollsBackEarlierFilesWhenALaterRenameFails() throws IOException {
+        Files.createDirectories(root.resolve("src"));
+        Files.writeString(root.resolve("src/B.java"), "old");
+        tool = new WriteFilesTool(events::add, new PathLockManager(new PathLockProperties()), toolExecutor) {
+            @Override
+            void move(Path source, Path target) throws IOException {
+                if (target.endsWith("C.java")) {
+                    throw new IOException("disk full");
+                }
+                super.move(source, target);
+            }
+        };
+
+        String result = tool.execute("""
+                {"files": [
+                  {"path": "src/A.java", "content": "class A {}"},
+                  {"path": "src/B.java", "content": "class B {}"},
+                  {"path": "gen/deep/C.java", "content": "class C {}"}
+                ]}
+                """);
+
+        assertThat(result).startsWith("Error: Nothing written").contains("gen/deep/C.java").contains("disk full");
+        assertThat(root.resolve("src/A.java")).doesNotExist();
+        assertThat(Files.readString(root.resolve("src/B.java"))).isEqualTo("old");
+        assertThat(root.resolve("gen")).doesNotExist();
+        assertThat(events).isEmpty();
+        assertThat(stagingFiles()).isEmpty();
+        try (Stream<Path> files = Files.walk(root)) {
+            assertThat(files.filter(Files::isRegularFile)).containsExactly(root.resolve("src/B.java"));
+        }
+    }
+
+    @Test
+    void refusesToOverwriteFileAnotherSessionChangedSinceThisSessionWroteIt() throws IOException {
+        FileVersions first = new FileVersions();
+        FileVersions second = new FileVersions();
+
+        ToolExecutionContext.setFileVersions(first);
+        assertThat(tool.execute("{\"files\": [{\"path\": \"Shared.java\", \"content\": \"v1\"}]}")).startsWith("Success");
+        ToolExecutionContext.setFileVersions(second);
+        assertThat(tool.execute("{\"files\": [{\"path\": \"Shared.java\", \"content\": \"v2\"}]}")).startsWith("Success");
+        ToolExecutionContext.setFileVersions(first);
+        String result = tool.execute("{\"files\": [{\"path\": \"Other.java\", \"content\": \"o\"}, "
+                + "{\"path\": \"Shared.java\", \"content\": \"v3\"}]}");
+
+        assertThat(result).startsWith("Error: Nothing written").contains("Shared.java");
+        assertThat(Files.readString(root.resolve("Shared.java"))).isEqualTo("v2");
+        assertThat(root.resolve("Other.java")).doesNotExist();
+    }
+
+    /**
+     * 100 small files through one write_files call versus 100 write_file calls. Run with
+     * {@code mvn test -Dtest=WriteFilesToolTest -Dbenchmark=true}.
+     */
+    @Test
+    @EnabledIfSystemProperty(named = "benchmark", matches = "true")
+    void benchmarkAgainstSequentialWriteFile() throws IOException {
+        WriteFileTool writeFileTool = new WriteFileTool(event -> { }, new PathLockManager(new PathLockProperties()));
+        int fileCount = 100;
+
+        for (int round = 0; round < 10; round++) {
+            Path sequentialRoot = Files.createDirectories(root.resolve("sequential-" + round));
+            ToolExecutionContext.setBaseDirectory(sequentialRoot.toString());
+            long sequentialStart = System.nanoTime();
+            for (int i = 0; i < fileCount; i++) {
+                writeFileTool.execute("{\"path\": \"" + path(i) + "\", \"content\": \"" + content(i) + "\"}");
+            }
+            long sequentialMicros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - sequentialStart);
+
+            Path batchRoot = Files.createDirectories(root.resolve("batch-" + round));
+            ToolExecutionContext.setBaseDirectory(batchRoot.toString());
+            StringBuilder parameters = new StringBuilder("{\"files\": [");
+            for (int i = 0; i < fileCount; i++) {
+                parameters.append(i == 0 ? "" : ", ")
+                        .append("{\"path\": \"").append(path(i)).append("\", \"content\": \"").append(content(i)).append("\"}");
+            }
+            parameters.append("]}");
+            long batchStart = System.nanoTime();
+            String result = tool.execute(parameters.toString());
+            long batchMicros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - batchStart);
+
+            assertThat(result).startsWith("Success: " + fileCount + " files written");
+            assertThat(Files.readString(batchRoot.resolve(path(fileCount - 1)))).isEqualTo(Files.readString(
+                    sequentialRoot.resolve(path(fileCount - 1))));
+            logger.info("round {}: {} x write_file={} us, write_files={} us (staged, renamed, directories synced)",
+                    round, fileCount, sequentialMicros, batchMicros);
+        }
+    }
+
+    private static String path(int i) {
+        return "pkg" + (i % 10) + "/File" + i + ".java";
+    }
+
+    private static String content(int i) {
+        return "class File" + i + " {}\\n";
+    }
+
+    private List<Path> stagingFiles() throws IOException {
+        try (Stream<Path> files = Files.walk(root)) {
+            return files.filter(file -> file.getFileName().toString().contains(".staging-")).toList();
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package com.codingagent.service.trace;
+
+import com.codingagent.config.TracingProperties;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TraceServiceTest {
+
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+
+    @TempDir
+    Path outputDirectory;
+
+    @Test
+    void exportsNestedSpansAsCompleteChromeTraceEvents() throws Exception {
+        TraceService traceService = new TraceService(properties());
+        ExecutionTrace trace = traceService.startTrace("session-1");
+
+        TraceSpan agent = trace.root().child("code.run", "agent");
+        TraceSpan iteration = agent.child("iteration 1", "iteration");
+        TraceSpan model = iteration.child("model.stream", "model").bytes("prompt", "Add a test");
+        Thread.sleep(2);
+        model.end();
+        TraceSpan tool = iteration.child("tool read_file", "tool").attribute("result", "ok");
+        Thread.sleep(2);
+        tool.end();
+        iteration.end();
+        agent.end();
+        traceService.finishTrace(trace);
+
+        JsonNode exported = objectMapper.readTree(Files.readString(outputDirectory.resolve("trace-session-1.json")));
+        assertThat(exported.path("displayTimeUnit").asText()).isEqualTo("ms");
+        assertThat(exported.path("otherData").path("sessionId").asText()).isEqualTo("session-1");
+
+        Map<String, JsonNode> events = new HashMap<>();
+        for (JsonNode event : exported.path("traceEvents")) {
+            assertThat(event.path("ph").asText()).isEqualTo("X");
+            assertThat(event.path("ts").isIntegralNumber()).isTrue();
+            assertThat(event.path("dur").isIntegralNumber()).isTrue();
+            assertThat(event.path("dur").asLong()).isNotNegative();
+            assertThat(event.path("pid").asInt()).isEqualTo(1);
+            assertThat(event.path("tid").asInt()).isEqualTo(1);
+            events.put(event.path("name").asText(), event);
+        }
+        assertThat(events).containsOnlyKeys("session", "code.run", "iteration 1", "model.stream", "tool read_file");
+
+        assertNestedIn(events.get("code.run"), events.get("session"));
+        assertNestedIn(events.get("iteration 1"), events.get("code.run"));
+        assertNestedIn(events.get("model.stream"), events.get("iteration 1"));
+        assertNestedIn(events.get("tool read_file"), events.get("iteration 1"));
+        assertThat(events.get("tool read_file").path("ts").asLong())
+                .isGreaterThanOrEqualTo(events.get("model.stream").path("ts").asLong()
+                        + events.get("model.stream").path("dur").asLong());
+        assertThat(events.get("model.stream").path("dur").asLong()).isGreaterThanOrEqualTo(2_000);
+
+        assertThat(events.get("model.stream").path("cat").asText()).isEqualTo("model");
+        assertThat(events.get("model.stream").path("args").path("promptBytes").asLong()).isEqualTo(10);
+        assertThat(events.get("tool read_file").path("args").path("result").asText()).isEqualTo("ok");
+    }
+
+    @Test
+    void servesRecentTracesFromMemoryAndDisabledTracesRecordNothing() throws IOException {
+        TraceService traceService = new TraceService(properties());
+        ExecutionTrace trace = traceService.startTrace("session-2");
+        trace.root().child("classification", "orchestrator");
+
+        JsonNode live = objectMapper.readTree(traceService.findTraceJson("session-2").orElseThrow());
+
+        assertThat(live.path("traceEvents")).hasSize(2);
+        assertThat(traceService.findTraceJson("../etc/passwd")).isEmpty();
+
+        TracingProperties disabled = properties();
+        disabled.setEnabled(false);
+        ExecutionTrace off = new TraceService(disabled).startTrace("session-3");
+        assertThat(off.root().child("classification", "orchestrator").isRecording()).isFalse();
+        assertThat((List<?>) off.toChromeTrace().get("traceEvents")).isEmpty();
+    }
+
+    @Test
+    void keepsOnlyTheNewestTraceFiles() throws IOException {
+        Files.writeString(outputDirectory.resolve("notes.txt"), "not a trace");
+        TracingProperties properties = properties();
+        properties.setMaxRetainedTraces(2);
+        TraceService traceService = new TraceService(properties);
+
+        for (int i = 1; i <= 4; i++) {
+            traceService.finishTrace(traceService.startTrace("session-" + i));
+            // Distinct modification times, whatever the file system's timestamp resolution
+            Files.setLastModifiedTime(outputDirectory.resolve("trace-session-" + i + ".json"),
+                    FileTime.fromMillis(1_000_000L * i));
+        }
+
+        try (Stream<Path> files = Files.list(outputDirectory)) {
+            assertThat(files.map(file -> file.getFileName().toString()))
+                    .containsExactlyInAnyOrder("trace-session-3.json", "trace-session-4.json", "notes.txt");
+        }
+        assertThat(traceService.findTraceJson("session-1")).isEmpty();
+        assertThat(traceService.findTraceJson("session-4")).isPresent();
+    }
+
+    /**
+     * The child starts no earlier and ends no later than its parent, and names it as parent.
+     */
+    private static void assertNestedIn(JsonNode child, JsonNode parent) {
+        long childStart = child.path("ts").asLong();
+        long parentStart = parent.path("ts").asLong();
+        assertThat(childStart).isGreaterThanOrEqualTo(parentStart);
+        assertThat(childStart + child.path("dur").asLong())
+                .isLessThanOrEqualTo(parentStart + parent.path("dur").asLong());
+        assertThat(child.path("args").path("parentId").asInt()).isEqualTo(parent.path("args").path("spanId").asInt());
+    }
+
+    private TracingProperties properties() {
+        TracingProperties properties = new TracingProperties();
+        properties.setEnabled(true);
+        properties.setOutputDirectory(outputDirectory.toString());
+        return properties;
+    }
+}
@@ -0,0 +1,120 @@
+package com.codingagent.service.workspace;
+
+import com.codingagent.config.PathLockProperties;
+import com.codingagent.config.WorkspaceFilterProperties;
+import com.codingagent.service.tool.ReadFileTool;
+import com.codingagent.service.tool.Tool;
+import com.codingagent.service.tool.WriteFileTool;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PathLockManagerTest {
+
+    @Test
+    void writersOfOverlappingFilesInOppositeOrderTakeTurnsWithoutDeadlock() throws Exception {
+        PathLockManager locks = new PathLockManager(new PathLockProperties());
+        List<Path> forward = List.of(Path.of("/repo/A.java"), Path.of("/repo/B.java"));
+        List<Path> backward = List.of(Path.of("/repo/B.java"), Path.of("/repo/A.java"));
+        AtomicInteger inside = new AtomicInteger();
+        AtomicInteger maxInside = new AtomicInteger();
+
+        ExecutorService sessions = Executors.newFixedThreadPool(2);
+        try {
+            List<Future<Object>> results = sessions.invokeAll(List.of(
+                    () -> repeatedlyWrite(locks, forward, inside, maxInside),
+                    () -> repeatedlyWrite(locks, backward, inside, maxInside)), 10, TimeUnit.SECONDS);
+            for (Future<Object> result : results) {
+                result.get();
+            }
+        } finally {
+            sessions.shutdownNow();
+        }
+
+        assertThat(maxInside.get()).isEqualTo(1);
+    }
+
+    @Test
+    void readerTimesOutWhileAnotherSessionHoldsTheWriteLock() throws Exception {
+        PathLockProperties properties = new PathLockProperties();
+        properties.setWaitTimeoutSeconds(0);
+        PathLockManager locks = new PathLockManager(properties);
+        Path file = Path.of("/repo/A.java");
+        CountDownLatch locked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        Thread writer = new Thread(() -> {
+            try {
+                locks.withWriteLocks(List.of(file), () -> {
+                    locked.countDown();
+                    awaitUninterruptibly(release);
+                    return null;
+                });
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        writer.start();
+        try {
+            assertThat(locked.await(5, TimeUnit.SECONDS)).isTrue();
+            assertThatThrownBy(() -> locks.withReadLock(Path.of("/repo/../repo/A.java"), () -> "content"))
+                    .isInstanceOf(PathLockTimeoutException.class);
+        } finally {
+            release.countDown();
+            writer.join();
+        }
+    }
+
+    private static Object repeatedlyWrite(PathLockManager locks, List<Path> files,
+                                          AtomicInteger inside, AtomicInteger maxInside) throws Exception {
+        for (int i = 0; i < 1000; i++) {
+            locks.withWriteLocks(files, () -> {
+                maxInside.accumulateAndGet(inside.incrementAndGet(), Math::max);
+                inside.decrementAndGet();
+                return null;
+            });
+        }
+        return null;
+    }
+
+    @Test
+    void defaultWaitEndsWellBeforeTheFileToolsTimeOut() {
+        PathLockManager locks = new PathLockManager(new PathLockProperties());
+        Duration wait = Duration.ofSeconds(new PathLockProperties().getWaitTimeoutSeconds());
+        List<Tool> fileTools = List.of(
+                new ReadFileTool(new WorkspaceFilterService(new WorkspaceFilterProperties()), locks),
+                new WriteFileTool(event -> { }, locks));
+
+        for (Tool tool : fileTools) {
+            assertThat(wait.multipliedBy(2)).as(tool.getName()).isLessThanOrEqualTo(tool.getMetadata().getTimeout());
+        }
+    }
+
+    private static void awaitUninterruptibly(CountDownLatch latch) {
+        boolean interrupted = false;
+        while (true) {
+            try {
+                latch.await();
+                break;
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package com.codingagent.service.workspace;
+
+import com.codingagent.config.DirectoryContextCacheProperties;
+import com.codingagent.config.FileSystemProperties;
+import com.codingagent.config.WorkspaceFilterProperties;
+import com.codingagent.service.FileSystemService;
+import com.codingagent.service.context.DirectoryContextCache;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class WorkspaceFilterServiceTest {
+
+    @TempDir
+    Path root;
+
+    private WorkspaceFilterService workspaceFilterService;
+    private WorkspaceFilter filter;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        write(".gitignore", """
+                # build logs
+                *.log
+                !keep.log
+                /generated/
+                docs/**/*.tmp
+                """);
+        write("sub/.gitignore", "local.txt\n!important.log\n");
+        workspaceFilterService = new WorkspaceFilterService(new WorkspaceFilterProperties());
+        filter = workspaceFilterService.forRoot(root);
+    }
+
+    @Test
+    void appliesNestedIgnoreFilesWithNegationAndAnchoring() {
+        assertThat(filter.isIgnoredFile(root.resolve("app.log"))).isTrue();
+        assertThat(filter.isIgnoredFile(root.resolve("keep.log"))).isFalse();
+        assertThat(filter.isIgnoredFile(root.resolve("sub/important.log"))).isFalse();
+        assertThat(filter.isIgnoredFile(root.resolve("sub/other.log"))).isTrue();
+        assertThat(filter.isIgnoredFile(root.resolve("sub/local.txt"))).isTrue();
+        assertThat(filter.isIgnoredFile(root.resolve("local.txt"))).isFalse();
+
+        assertThat(filter.isIgnoredDirectory(root.resolve("generated"))).isTrue();
+        assertThat(filter.isIgnoredDirectory(root.resolve("sub/generated"))).isFalse();
+        assertThat(filter.isIgnoredFile(root.resolve("docs/a/b/scratch.tmp"))).isTrue();
+        assertThat(filter.isIgnoredFile(root.resolve("scratch.tmp"))).isFalse();
+    }
+
+    @Test
+    void appliesConfiguredExcludesHiddenPathsAndAncestors() {
+        assertThat(filter.isIgnoredDirectory(root.resolve("target"))).isTrue();
+        assertThat(filter.isIgnoredDirectory(root.resolve("web/node_modules"))).isTrue();
+        assertThat(filter.isIgnoredDirectory(root.resolve(".idea"))).isTrue();
+        assertThat(filter.isIgnoredFile(root.resolve("lib/App.class"))).isTrue();
+        assertThat(filter.isIgnored(root.resolve("target/classes/App.java"), false)).isTrue();
+        assertThat(filter.isIgnored(root.resolve("src/App.java"), false)).isFalse();
+    }
+
+    @Test
+    void detectsTextByExtensionOrContent() throws IOException {
+        assertThat(filter.isTextFile(write("Dockerfile", "FROM eclipse-temurin:17\n"))).isTrue();
+        assertThat(filter.isTextFile(write("notes.unknown", "plain text é\n"))).isTrue();
+        Path blob = root.resolve("data.unknown");
+        Files.write(blob, new byte[]{'a', 0, 'b'});
+        assertThat(filter.isTextFile(blob)).isFalse();
+        assertThat(filter.isTextFile(root.resolve("logo.png"))).isFalse();
+    }
+
+    @Test
+    void reloadsIgnoreFileWrittenByTool() throws IOException {
+        assertThat(filter.isIgnoredFile(root.resolve("sub/local.txt"))).isTrue();
+
+        Path ignoreFile = write("sub/.gitignore", "other.txt\n");
+        workspaceFilterService.onFileWritten(new FileWrittenEvent(ignoreFile));
+
+        assertThat(filter.isIgnoredFile(root.resolve("sub/local.txt"))).isFalse();
+        assertThat(filter.isIgnoredFile(root.resolve("sub/other.txt"))).isTrue();
+    }
+
+    @Test
+    void directoryContextSkipsIgnoredTrees() throws IOException {
+        write("src/App.java", "class App {}\n");
+        write("generated/Big.java", "class Big {}\n");
+        write("node_modules/lib/index.js", "module.exports = {};\n");
+
+        FileSystemService fileSystemService = new FileSystemService(new FileSystemProperties(), workspaceFilterService,
+                new DirectoryContextCache(new DirectoryContextCacheProperties(), new SimpleMeterRegistry()));
+        String context = fileSystemService.buildDirectoryContext(root.toString());
+
+        assertThat(context).contains("App.java").doesNotContain("Big.java").doesNotContain("index.js");
+    }
+
+    private Path write(String relativePath, String content) throws IOException {
+        Path file = root.resolve(relativePath);
+        Files.createDirectories(file.getParent());
+        return Files.writeString(file, content);
+    }
+}
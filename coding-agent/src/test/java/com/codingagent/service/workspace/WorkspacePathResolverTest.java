@@ -0,0 +1,64 @@
+package com.codingagent.service.workspace;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class WorkspacePathResolverTest {
+
+    @TempDir
+    Path temp;
+
+    private Path workspace;
+    private Path outside;
+    private WorkspacePathResolver resolver;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        workspace = Files.createDirectories(temp.resolve("workspace/src"));
+        workspace = workspace.getParent();
+        outside = Files.createDirectories(temp.resolve("outside"));
+        resolver = new WorkspacePathResolver(workspace.toString());
+    }
+
+    @Test
+    void resolvesRelativeAndInsideAbsolutePathsAndRendersThemRelative() throws IOException {
+        Path file = resolver.resolve("src/../src/./App.java");
+
+        assertThat(file).isEqualTo(workspace.toAbsolutePath().normalize().resolve("src/App.java"));
+        assertThat(resolver.resolve(file.toString())).isEqualTo(file);
+        assertThat(resolver.resolve("new/dir/Created.java").startsWith(resolver.getRoot())).isTrue();
+        assertThat(resolver.relative(file)).isEqualTo(Path.of("src", "App.java").toString());
+        assertThat(resolver.relative(resolver.resolve(""))).isEqualTo(".");
+    }
+
+    @Test
+    void rejectsTraversalAndAbsolutePathsOutsideTheWorkspace() {
+        assertThatThrownBy(() -> resolver.resolve("../outside/secret.txt"))
+                .isInstanceOf(WorkspacePathException.class);
+        assertThatThrownBy(() -> resolver.resolve("src/../../outside"))
+                .isInstanceOf(WorkspacePathException.class);
+        assertThatThrownBy(() -> resolver.resolve(outside.resolve("secret.txt").toString()))
+                .isInstanceOf(WorkspacePathException.class);
+    }
+
+    @Test
+    void rejectsSymbolicLinksLeadingOutsideButFollowsLinksWithin() throws IOException {
+        Files.createSymbolicLink(workspace.resolve("escape"), outside);
+        Files.createSymbolicLink(workspace.resolve("dangling"), outside.resolve("missing.txt"));
+        Files.createSymbolicLink(workspace.resolve("alias"), workspace.resolve("src"));
+
+        assertThatThrownBy(() -> resolver.resolve("escape/secret.txt"))
+                .isInstanceOf(WorkspacePathException.class);
+        assertThatThrownBy(() -> resolver.resolve("dangling"))
+                .isInstanceOf(WorkspacePathException.class);
+        assertThat(resolver.resolve("alias/App.java")).isEqualTo(resolver.getRoot().resolve("alias/App.java"));
+    }
+}